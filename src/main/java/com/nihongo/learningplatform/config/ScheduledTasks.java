@@ -1,6 +1,14 @@
 package com.nihongo.learningplatform.config;
 
+import com.nihongo.learningplatform.security.JwtTokenProvider;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import com.nihongo.learningplatform.service.CourseComboService;
+import com.nihongo.learningplatform.service.GradingQueueService;
+import com.nihongo.learningplatform.service.ItemAnalysisService;
+import com.nihongo.learningplatform.service.LearningHistoryService;
+import com.nihongo.learningplatform.service.MockExamDraftService;
 import com.nihongo.learningplatform.service.PasswordResetService;
+import com.nihongo.learningplatform.service.ProgressSyncService;
 import com.nihongo.learningplatform.service.RefreshTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
@@ -13,12 +21,36 @@ public class ScheduledTasks {
 
     private final RefreshTokenService refreshTokenService;
     private final PasswordResetService passwordResetService;
+    private final ContentSearchService contentSearchService;
+    private final CourseComboService courseComboService;
+    private final LearningHistoryService learningHistoryService;
+    private final ProgressSyncService progressSyncService;
+    private final MockExamDraftService mockExamDraftService;
+    private final ItemAnalysisService itemAnalysisService;
+    private final GradingQueueService gradingQueueService;
+    private final JwtTokenProvider jwtTokenProvider;
 
     @Autowired
     public ScheduledTasks(RefreshTokenService refreshTokenService,
-                          PasswordResetService passwordResetService) {
+                          PasswordResetService passwordResetService,
+                          ContentSearchService contentSearchService,
+                          CourseComboService courseComboService,
+                          LearningHistoryService learningHistoryService,
+                          ProgressSyncService progressSyncService,
+                          MockExamDraftService mockExamDraftService,
+                          ItemAnalysisService itemAnalysisService,
+                          GradingQueueService gradingQueueService,
+                          JwtTokenProvider jwtTokenProvider) {
         this.refreshTokenService = refreshTokenService;
         this.passwordResetService = passwordResetService;
+        this.contentSearchService = contentSearchService;
+        this.courseComboService = courseComboService;
+        this.learningHistoryService = learningHistoryService;
+        this.progressSyncService = progressSyncService;
+        this.mockExamDraftService = mockExamDraftService;
+        this.itemAnalysisService = itemAnalysisService;
+        this.gradingQueueService = gradingQueueService;
+        this.jwtTokenProvider = jwtTokenProvider;
     }
 
     @Scheduled(cron = "${app.scheduled.refresh-token-cleanup}")
@@ -30,4 +62,49 @@ public class ScheduledTasks {
     public void cleanupExpiredPasswordResetTokens() {
         passwordResetService.deleteExpiredTokens();
     }
-}
\ No newline at end of file
+
+    @Scheduled(cron = "${app.scheduled.combo-enrollment-expiry}")
+    public void processExpiredComboEnrollments() {
+        courseComboService.processExpiredCombos();
+    }
+
+    @Scheduled(cron = "${app.scheduled.content-index-snapshot}")
+    public void snapshotContentSearchIndex() {
+        contentSearchService.saveSnapshot();
+    }
+
+    @Scheduled(cron = "${app.scheduled.learning-history-partitions}")
+    public void createLearningHistoryPartitions() {
+        learningHistoryService.ensureFuturePartitions();
+    }
+
+    @Scheduled(cron = "${app.scheduled.progress-sync-cleanup}")
+    public void cleanupExpiredProgressSyncEvents() {
+        progressSyncService.deleteExpiredSyncEvents();
+    }
+
+    @Scheduled(cron = "${app.scheduled.mock-exam-draft-flush}")
+    public void flushMockExamDrafts() {
+        mockExamDraftService.flushDrafts();
+    }
+
+    @Scheduled(cron = "${app.scheduled.question-stats-flush}")
+    public void flushQuestionStatistics() {
+        itemAnalysisService.flushStatistics();
+    }
+
+    @Scheduled(cron = "${app.scheduled.grading-queue-sweep}")
+    public void sweepGradingQueue() {
+        gradingQueueService.sweepQueuedSubmissions();
+    }
+
+    @Scheduled(cron = "${app.scheduled.grading-submission-cleanup}")
+    public void cleanupExpiredGradingSubmissions() {
+        gradingQueueService.deleteExpiredSubmissions();
+    }
+
+    @Scheduled(cron = "${app.scheduled.jwt-claims-cache-sweep}")
+    public void evictExpiredJwtClaims() {
+        jwtTokenProvider.evictExpiredClaims();
+    }
+}
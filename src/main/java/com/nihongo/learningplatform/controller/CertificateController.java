@@ -3,11 +3,10 @@ package com.nihongo.learningplatform.controller;
 import com.nihongo.learningplatform.dto.ApiResponseDto;
 import com.nihongo.learningplatform.dto.CertificateDto;
 import com.nihongo.learningplatform.entity.Course;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.CertificateService;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.EnrollmentService;
-import com.nihongo.learningplatform.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,7 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -24,17 +22,17 @@ import java.util.List;
 public class CertificateController {
 
     private final CertificateService certificateService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
 
     @Autowired
     public CertificateController(CertificateService certificateService,
-                               UserService userService,
                                CourseService courseService,
-                               EnrollmentService enrollmentService) {
+                               EnrollmentService enrollmentService,
+                                 CurrentUser currentUser) {
         this.certificateService = certificateService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.courseService = courseService;
         this.enrollmentService = enrollmentService;
     }
@@ -70,9 +68,8 @@ public class CertificateController {
 
     @GetMapping("/student/certificates")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getUserCertificates(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<CertificateDto> certificates = certificateService.getCertificatesByUser(user.getId());
+    public ResponseEntity<ApiResponseDto> getUserCertificates() {
+        List<CertificateDto> certificates = certificateService.getCertificatesByUser(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -86,13 +83,12 @@ public class CertificateController {
 
     @GetMapping("/student/certificates/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getCertificateById(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getCertificateById(@PathVariable Long id) {
         CertificateDto certificate = certificateService.getCertificateById(id);
 
         // Check if the certificate belongs to the user or the user is an admin
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        if (!isAdmin && !certificate.getUserId().equals(user.getId())) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        if (!isAdmin && !certificate.getUserId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You do not have permission to view this certificate",
@@ -115,13 +111,12 @@ public class CertificateController {
 
     @GetMapping("/student/certificates/{id}/download")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> downloadCertificate(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> downloadCertificate(@PathVariable Long id) {
         CertificateDto certificate = certificateService.getCertificateById(id);
 
         // Check if the certificate belongs to the user or the user is an admin
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        if (!isAdmin && !certificate.getUserId().equals(user.getId())) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        if (!isAdmin && !certificate.getUserId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You do not have permission to download this certificate",
@@ -146,11 +141,9 @@ public class CertificateController {
 
     @GetMapping("/student/courses/{courseId}/certificate")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getCertificateForCourse(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getCertificateForCourse(@PathVariable Long courseId) {
         try {
-            CertificateDto certificate = certificateService.getCertificateByUserAndCourse(user.getId(), courseId);
+            CertificateDto certificate = certificateService.getCertificateByUserAndCourse(currentUser.getId(), courseId);
 
             ApiResponseDto apiResponse = new ApiResponseDto(
                     true,
@@ -177,16 +170,14 @@ public class CertificateController {
     @PostMapping("/instructor/courses/{courseId}/certificates")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> issueCertificate(@PathVariable Long courseId,
-                                                        @Valid @RequestBody CertificateDto certificateDto,
-                                                        Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+                                                        @Valid @RequestBody CertificateDto certificateDto) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Verify that the instructor owns the course
         if (!isAdmin) {
             try {
                 Course course = courseService.getCourseEntityById(courseId);
-                if (!course.getInstructor().getId().equals(instructor.getId())) {
+                if (!course.getInstructor().getId().equals(currentUser.getId())) {
                     ApiResponseDto apiResponse = new ApiResponseDto(
                             false,
                             "You are not authorized to issue certificates for this course",
@@ -209,7 +200,7 @@ public class CertificateController {
         }
 
         // Verify that the student is enrolled and has completed the course
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(certificateDto.getUserId(), courseId);
+        boolean isEnrolled = enrollmentService.hasCourseAccess(certificateDto.getUserId(), courseId);
         if (!isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
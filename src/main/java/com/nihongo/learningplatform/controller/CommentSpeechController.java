@@ -1,7 +1,7 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.*;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.*;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +11,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +24,7 @@ public class CommentSpeechController {
     private final SpeechRecognitionService speechRecognitionService;
     private final LessonService lessonService;
     private final CourseService courseService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final EnrollmentService enrollmentService;
     private final UserProgressService userProgressService;
 
@@ -35,15 +34,15 @@ public class CommentSpeechController {
                                    SpeechRecognitionService speechRecognitionService,
                                    @Lazy LessonService lessonService,
                                    @Lazy CourseService courseService,
-                                   UserService userService,
                                    EnrollmentService enrollmentService,
-                                   @Lazy UserProgressService userProgressService) {
+                                   @Lazy UserProgressService userProgressService,
+                                   CurrentUser currentUser) {
         this.commentService = commentService;
         this.speechExerciseService = speechExerciseService;
         this.speechRecognitionService = speechRecognitionService;
         this.lessonService = lessonService;
         this.courseService = courseService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.enrollmentService = enrollmentService;
         this.userProgressService = userProgressService;
     }
@@ -53,16 +52,14 @@ public class CommentSpeechController {
     @PostMapping("/student/lessons/{lessonId}/comments")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> createComment(@PathVariable Long lessonId,
-                                                        @Valid @RequestBody CommentDto commentDto,
-                                                        Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+                                                        @Valid @RequestBody CommentDto commentDto) {
         LessonDto lesson = lessonService.getLessonById(lessonId);
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), lesson.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), lesson.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -75,7 +72,7 @@ public class CommentSpeechController {
             return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
         }
 
-        commentDto.setUserId(user.getId());
+        commentDto.setUserId(currentUser.getId());
         commentDto.setLessonId(lessonId);
         CommentDto createdComment = commentService.createComment(commentDto);
 
@@ -91,15 +88,14 @@ public class CommentSpeechController {
 
     @GetMapping("/student/lessons/{lessonId}/comments")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getLessonComments(@PathVariable Long lessonId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getLessonComments(@PathVariable Long lessonId) {
         LessonDto lesson = lessonService.getLessonById(lessonId);
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), lesson.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), lesson.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -127,14 +123,12 @@ public class CommentSpeechController {
     @PutMapping("/student/comments/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> updateComment(@PathVariable Long id,
-                                                        @Valid @RequestBody CommentDto commentDto,
-                                                        Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+                                                        @Valid @RequestBody CommentDto commentDto) {
         CommentDto existingComment = commentService.getCommentById(id);
 
         // Check if the comment belongs to the user or the user is an admin
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isOwner = existingComment.getUserId().equals(user.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isOwner = existingComment.getUserId().equals(currentUser.getId());
 
         if (!isAdmin && !isOwner) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -164,14 +158,13 @@ public class CommentSpeechController {
 
     @DeleteMapping("/student/comments/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> deleteComment(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> deleteComment(@PathVariable Long id) {
         CommentDto existingComment = commentService.getCommentById(id);
 
         // Check if the comment belongs to the user or the user is an admin/instructor
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isInstructor = user.getRole().name().equals("INSTRUCTOR");
-        boolean isOwner = existingComment.getUserId().equals(user.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isInstructor = currentUser.getRole().name().equals("INSTRUCTOR");
+        boolean isOwner = existingComment.getUserId().equals(currentUser.getId());
 
         if (!isAdmin && !isInstructor && !isOwner) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -200,15 +193,14 @@ public class CommentSpeechController {
 
     @GetMapping("/student/lessons/{lessonId}/speech-exercises")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getSpeechExercisesByLesson(@PathVariable Long lessonId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getSpeechExercisesByLesson(@PathVariable Long lessonId) {
         LessonDto lesson = lessonService.getLessonById(lessonId);
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), lesson.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), lesson.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -235,16 +227,15 @@ public class CommentSpeechController {
 
     @GetMapping("/student/speech-exercises/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getSpeechExercise(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getSpeechExercise(@PathVariable Long id) {
         SpeechExerciseDto speechExercise = speechExerciseService.getSpeechExerciseById(id);
         LessonDto lesson = lessonService.getLessonById(speechExercise.getLessonId());
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), lesson.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), lesson.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -270,17 +261,15 @@ public class CommentSpeechController {
     @PostMapping("/student/speech-exercises/{id}/recognize")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> recognizeSpeech(@PathVariable Long id,
-                                                          @Valid @RequestBody SpeechRecognitionRequestDto requestDto,
-                                                          Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+                                                          @Valid @RequestBody SpeechRecognitionRequestDto requestDto) {
         SpeechExerciseDto speechExercise = speechExerciseService.getSpeechExerciseById(id);
         LessonDto lesson = lessonService.getLessonById(speechExercise.getLessonId());
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), lesson.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), lesson.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -298,7 +287,7 @@ public class CommentSpeechController {
 
         // Save progress
         UserProgressDto progress = userProgressService.createOrUpdateSpeechExerciseProgress(
-                user.getId(), id, requestDto.getAudioData(), pronunciationScore);
+                currentUser.getId(), id, requestDto.getAudioData(), pronunciationScore);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -315,15 +304,13 @@ public class CommentSpeechController {
     @PostMapping("/instructor/lessons/{lessonId}/speech-exercises")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> createSpeechExercise(@PathVariable Long lessonId,
-                                                               @Valid @RequestBody SpeechExerciseDto speechExerciseDto,
-                                                               Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
+                                                               @Valid @RequestBody SpeechExerciseDto speechExerciseDto) {
         LessonDto lesson = lessonService.getLessonById(lessonId);
 
         // Check if the instructor owns the course
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
-        boolean isCourseOwner = course.getInstructorId().equals(instructor.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isCourseOwner = course.getInstructorId().equals(currentUser.getId());
 
         if (!isAdmin && !isCourseOwner) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -352,16 +339,14 @@ public class CommentSpeechController {
     @PutMapping("/instructor/speech-exercises/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> updateSpeechExercise(@PathVariable Long id,
-                                                               @Valid @RequestBody SpeechExerciseDto speechExerciseDto,
-                                                               Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
+                                                               @Valid @RequestBody SpeechExerciseDto speechExerciseDto) {
         SpeechExerciseDto existingSpeechExercise = speechExerciseService.getSpeechExerciseById(id);
         LessonDto lesson = lessonService.getLessonById(existingSpeechExercise.getLessonId());
 
         // Check if the instructor owns the course
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
-        boolean isCourseOwner = course.getInstructorId().equals(instructor.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isCourseOwner = course.getInstructorId().equals(currentUser.getId());
 
         if (!isAdmin && !isCourseOwner) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -390,15 +375,14 @@ public class CommentSpeechController {
 
     @DeleteMapping("/instructor/speech-exercises/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> deleteSpeechExercise(@PathVariable Long id, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> deleteSpeechExercise(@PathVariable Long id) {
         SpeechExerciseDto existingSpeechExercise = speechExerciseService.getSpeechExerciseById(id);
         LessonDto lesson = lessonService.getLessonById(existingSpeechExercise.getLessonId());
 
         // Check if the instructor owns the course
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
-        boolean isCourseOwner = course.getInstructorId().equals(instructor.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isCourseOwner = course.getInstructorId().equals(currentUser.getId());
 
         if (!isAdmin && !isCourseOwner) {
             ApiResponseDto apiResponse = new ApiResponseDto(
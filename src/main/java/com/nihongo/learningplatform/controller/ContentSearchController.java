@@ -0,0 +1,74 @@
+package com.nihongo.learningplatform.controller;
+
+import com.nihongo.learningplatform.dto.ApiResponseDto;
+import com.nihongo.learningplatform.dto.ContentSearchResultDto;
+import com.nihongo.learningplatform.security.CurrentUser;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api")
+public class ContentSearchController {
+
+    private final ContentSearchService contentSearchService;
+    private final CurrentUser currentUser;
+
+    @Autowired
+    public ContentSearchController(ContentSearchService contentSearchService, CurrentUser currentUser) {
+        this.contentSearchService = contentSearchService;
+        this.currentUser = currentUser;
+    }
+
+    // Student endpoints
+
+    @GetMapping("/student/content/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> searchContent(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        // Only admins search everything; instructors see their own courses and published content, students
+        // only content of courses they can access
+        List<ContentSearchResultDto> results;
+        if (currentUser.isAdmin()) {
+            results = contentSearchService.search(q, limit);
+        } else if (currentUser.isInstructor()) {
+            results = contentSearchService.searchForInstructor(q, limit, currentUser.getId());
+        } else {
+            results = contentSearchService.searchForStudent(q, limit, currentUser.getId());
+        }
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Search results for: " + q,
+                results,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    // Admin endpoints
+
+    @PostMapping("/admin/content/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto> rebuildContentIndex() {
+        contentSearchService.rebuildIndex();
+        contentSearchService.saveSnapshot();
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Content search index rebuilt successfully",
+                null,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+}
@@ -3,10 +3,9 @@ package com.nihongo.learningplatform.controller;
 import com.nihongo.learningplatform.dto.ApiResponseDto;
 import com.nihongo.learningplatform.dto.ComboEnrollmentDto;
 import com.nihongo.learningplatform.dto.CourseComboDto;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.CourseComboService;
 import com.nihongo.learningplatform.service.LearningHistoryService;
-import com.nihongo.learningplatform.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -14,7 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,15 +21,15 @@ import java.util.List;
 public class CourseComboController {
 
     private final CourseComboService courseComboService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final LearningHistoryService learningHistoryService;
 
     @Autowired
     public CourseComboController(CourseComboService courseComboService,
-                                 UserService userService,
+                                 CurrentUser currentUser,
                                  LearningHistoryService learningHistoryService) {
         this.courseComboService = courseComboService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.learningHistoryService = learningHistoryService;
     }
 
@@ -100,9 +98,8 @@ public class CourseComboController {
 
     @GetMapping("/student/combos")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getStudentCombos(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<ComboEnrollmentDto> enrollments = courseComboService.getComboEnrollmentsByUser(user.getId());
+    public ResponseEntity<ApiResponseDto> getStudentCombos() {
+        List<ComboEnrollmentDto> enrollments = courseComboService.getComboEnrollmentsByUser(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -117,12 +114,9 @@ public class CourseComboController {
     @PostMapping("/student/combos/{comboId}/enroll")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> enrollInCombo(@PathVariable Long comboId,
-                                                        @RequestParam(required = false) Long paymentId,
-                                                        Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+                                                        @RequestParam(required = false) Long paymentId) {
         // Check if student is already enrolled
-        if (courseComboService.isUserEnrolledInCombo(user.getId(), comboId)) {
+        if (courseComboService.isUserEnrolledInCombo(currentUser.getId(), comboId)) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are already enrolled in this course combo",
@@ -133,10 +127,10 @@ public class CourseComboController {
             return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
         }
 
-        ComboEnrollmentDto enrollment = courseComboService.enrollUserInCombo(comboId, user.getId(), paymentId);
+        ComboEnrollmentDto enrollment = courseComboService.enrollUserInCombo(comboId, currentUser.getId(), paymentId);
 
         // Record in learning history
-        learningHistoryService.recordCourseEnrollment(user.getId(), null); // Use combo enrollment details in JSON
+        learningHistoryService.recordCourseEnrollment(currentUser.getId(), null); // Use combo enrollment details in JSON
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -1,7 +1,11 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.ApiResponseDto;
+import com.nihongo.learningplatform.dto.CourseCatalogFilterDto;
 import com.nihongo.learningplatform.dto.CourseDto;
+import com.nihongo.learningplatform.dto.CourseSummaryDto;
+import com.nihongo.learningplatform.dto.CursorPageResponseDto;
+import com.nihongo.learningplatform.dto.PageResponseDto;
 import com.nihongo.learningplatform.entity.User;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.UserService;
@@ -13,6 +17,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,8 +39,10 @@ public class CourseController {
     // Public endpoints
 
     @GetMapping("/public/courses")
-    public ResponseEntity<ApiResponseDto> getPublicCourses() {
-        List<CourseDto> courses = courseService.getApprovedAndActiveCourses();
+    public ResponseEntity<ApiResponseDto> getPublicCourses(
+            @RequestParam(defaultValue = "0") int pageNo,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        PageResponseDto<CourseDto> courses = courseService.getApprovedAndActiveCourses(null, pageNo, pageSize);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -47,6 +54,29 @@ public class CourseController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/public/courses/catalog")
+    public ResponseEntity<ApiResponseDto> getPublicCourseCatalog(
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long instructorId,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CourseCatalogFilterDto filter = new CourseCatalogFilterDto(
+                level, minPrice, maxPrice, instructorId, sort, cursor, size);
+        CursorPageResponseDto<CourseSummaryDto> page = courseService.getCourseCatalog(filter);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Course catalog retrieved successfully",
+                page,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     @GetMapping("/public/courses/{id}")
     public ResponseEntity<ApiResponseDto> getPublicCourseById(@PathVariable Long id) {
         CourseDto course = courseService.getCourseById(id);
@@ -74,13 +104,11 @@ public class CourseController {
     }
 
     @GetMapping("/public/courses/level/{level}")
-    public ResponseEntity<ApiResponseDto> getPublicCoursesByLevel(@PathVariable String level) {
-        List<CourseDto> courses = courseService.getCoursesByLevel(level);
-
-        // Filter only approved and active courses
-        courses = courses.stream()
-                .filter(course -> course.isApproved() && course.isActive())
-                .toList();
+    public ResponseEntity<ApiResponseDto> getPublicCoursesByLevel(
+            @PathVariable String level,
+            @RequestParam(defaultValue = "0") int pageNo,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        PageResponseDto<CourseDto> courses = courseService.getApprovedAndActiveCourses(level, pageNo, pageSize);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -93,13 +121,12 @@ public class CourseController {
     }
 
     @GetMapping("/public/courses/search")
-    public ResponseEntity<ApiResponseDto> searchPublicCourses(@RequestParam String keyword) {
-        List<CourseDto> courses = courseService.searchCourses(keyword);
-
-        // Filter only approved and active courses
-        courses = courses.stream()
-                .filter(course -> course.isApproved() && course.isActive())
-                .toList();
+    public ResponseEntity<ApiResponseDto> searchPublicCourses(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String level,
+            @RequestParam(defaultValue = "0") int pageNo,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        PageResponseDto<CourseSummaryDto> courses = courseService.searchCatalog(keyword, level, pageNo, pageSize);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -1,7 +1,7 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.*;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -11,7 +11,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -26,28 +25,27 @@ public class EnrollmentPaymentController {
     private final PaymentService paymentService;
     private final ReviewService reviewService;
     private final CourseService courseService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
 
     @Autowired
     public EnrollmentPaymentController(EnrollmentService enrollmentService,
                                        PaymentService paymentService,
                                        ReviewService reviewService,
                                        CourseService courseService,
-                                       UserService userService) {
+                                       CurrentUser currentUser) {
         this.enrollmentService = enrollmentService;
         this.paymentService = paymentService;
         this.reviewService = reviewService;
         this.courseService = courseService;
-        this.userService = userService;
+        this.currentUser = currentUser;
     }
 
     // Student enrollment endpoints
 
     @GetMapping("/student/enrollments")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getStudentEnrollments(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<EnrollmentDto> enrollments = enrollmentService.getEnrollmentsByStudent(user.getId());
+    public ResponseEntity<ApiResponseDto> getStudentEnrollments() {
+        List<EnrollmentDto> enrollments = enrollmentService.getEnrollmentsByStudent(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -61,11 +59,9 @@ public class EnrollmentPaymentController {
 
     @GetMapping("/student/courses/{courseId}/enrollment")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getEnrollmentForCourse(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getEnrollmentForCourse(@PathVariable Long courseId) {
         // Check if student is enrolled
-        if (!enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId)) {
+        if (!enrollmentService.isStudentEnrolledInCourse(currentUser.getId(), courseId)) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not enrolled in this course",
@@ -76,7 +72,7 @@ public class EnrollmentPaymentController {
             return new ResponseEntity<>(apiResponse, HttpStatus.NOT_FOUND);
         }
 
-        EnrollmentDto enrollment = enrollmentService.getEnrollmentByStudentAndCourse(user.getId(), courseId);
+        EnrollmentDto enrollment = enrollmentService.getEnrollmentByStudentAndCourse(currentUser.getId(), courseId);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -90,11 +86,9 @@ public class EnrollmentPaymentController {
 
     @PostMapping("/student/courses/{courseId}/complete")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> completeCourse(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> completeCourse(@PathVariable Long courseId) {
         // Check if student is enrolled
-        if (!enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId)) {
+        if (!enrollmentService.isStudentEnrolledInCourse(currentUser.getId(), courseId)) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not enrolled in this course",
@@ -105,7 +99,7 @@ public class EnrollmentPaymentController {
             return new ResponseEntity<>(apiResponse, HttpStatus.NOT_FOUND);
         }
 
-        EnrollmentDto enrollment = enrollmentService.getEnrollmentByStudentAndCourse(user.getId(), courseId);
+        EnrollmentDto enrollment = enrollmentService.getEnrollmentByStudentAndCourse(currentUser.getId(), courseId);
         EnrollmentDto completedEnrollment = enrollmentService.completeEnrollment(enrollment.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
@@ -123,12 +117,9 @@ public class EnrollmentPaymentController {
     @PostMapping("/student/courses/{courseId}/payment")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> createPaymentUrl(@PathVariable Long courseId,
-                                                           @Valid @RequestBody VnPayRequestDto requestDto,
-                                                           Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+                                                           @Valid @RequestBody VnPayRequestDto requestDto) {
         // Check if student is already enrolled
-        if (enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId)) {
+        if (enrollmentService.isStudentEnrolledInCourse(currentUser.getId(), courseId)) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are already enrolled in this course",
@@ -153,7 +144,7 @@ public class EnrollmentPaymentController {
     }
 
     @GetMapping("/payment/callback")
-    public ResponseEntity<ApiResponseDto> paymentCallback(HttpServletRequest request, Principal principal) {
+    public ResponseEntity<ApiResponseDto> paymentCallback(HttpServletRequest request) {
         // Extract query parameters
         Map<String, String> queryParams = new HashMap<>();
         Map<String, String[]> parameterMap = request.getParameterMap();
@@ -184,12 +175,9 @@ public class EnrollmentPaymentController {
     @PostMapping("/student/courses/{courseId}/reviews")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> createOrUpdateReview(@PathVariable Long courseId,
-                                                               @Valid @RequestBody ReviewDto reviewDto,
-                                                               Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+                                                               @Valid @RequestBody ReviewDto reviewDto) {
         // Check if student is enrolled
-        if (!enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId)) {
+        if (!enrollmentService.isStudentEnrolledInCourse(currentUser.getId(), courseId)) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You must be enrolled in this course to leave a review",
@@ -200,7 +188,7 @@ public class EnrollmentPaymentController {
             return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
         }
 
-        reviewDto.setUserId(user.getId());
+        reviewDto.setUserId(currentUser.getId());
         reviewDto.setCourseId(courseId);
         ReviewDto createdReview = reviewService.createReview(reviewDto);
 
@@ -230,11 +218,9 @@ public class EnrollmentPaymentController {
 
     @GetMapping("/student/courses/{courseId}/reviews/my")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getUserReviewForCourse(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getUserReviewForCourse(@PathVariable Long courseId) {
         try {
-            ReviewDto review = reviewService.getReviewByUserAndCourse(user.getId(), courseId);
+            ReviewDto review = reviewService.getReviewByUserAndCourse(currentUser.getId(), courseId);
 
             ApiResponseDto apiResponse = new ApiResponseDto(
                     true,
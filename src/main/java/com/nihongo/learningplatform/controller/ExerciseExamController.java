@@ -1,7 +1,8 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.*;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.grading.AnswerKey;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.*;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -22,40 +23,53 @@ public class ExerciseExamController {
     private final ExerciseService exerciseService;
     private final ExamService examService;
     private final CourseService courseService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final EnrollmentService enrollmentService;
     private final UserProgressService userProgressService;
     private final AiGenerationService aiGenerationService;
+    private final AnswerKeyService answerKeyService;
+    private final ItemAnalysisService itemAnalysisService;
+    private final ReviewScheduleService reviewScheduleService;
+    private final GradingQueueService gradingQueueService;
+    private final QuestionImportService questionImportService;
 
     @Autowired
     public ExerciseExamController(ExerciseService exerciseService,
                                   ExamService examService,
                                   CourseService courseService,
-                                  UserService userService,
                                   EnrollmentService enrollmentService,
                                   UserProgressService userProgressService,
-                                  AiGenerationService aiGenerationService) {
+                                  AiGenerationService aiGenerationService,
+                                  AnswerKeyService answerKeyService,
+                                  ItemAnalysisService itemAnalysisService,
+                                  ReviewScheduleService reviewScheduleService,
+                                  GradingQueueService gradingQueueService,
+                                  QuestionImportService questionImportService,
+                                  CurrentUser currentUser) {
         this.exerciseService = exerciseService;
         this.examService = examService;
         this.courseService = courseService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.enrollmentService = enrollmentService;
         this.userProgressService = userProgressService;
         this.aiGenerationService = aiGenerationService;
+        this.answerKeyService = answerKeyService;
+        this.itemAnalysisService = itemAnalysisService;
+        this.reviewScheduleService = reviewScheduleService;
+        this.gradingQueueService = gradingQueueService;
+        this.questionImportService = questionImportService;
     }
 
     // Student endpoints for exercises
 
     @GetMapping("/student/courses/{courseId}/exercises")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getExercisesByCourseForStudent(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getExercisesByCourseForStudent(@PathVariable Long courseId) {
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(courseId);
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId);
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), courseId);
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -82,15 +96,14 @@ public class ExerciseExamController {
 
     @GetMapping("/student/exercises/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getExerciseForStudent(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getExerciseForStudent(@PathVariable Long id) {
         ExerciseDto exercise = exerciseService.getExerciseById(id);
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(exercise.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), exercise.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), exercise.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -116,15 +129,14 @@ public class ExerciseExamController {
     @PostMapping("/student/exercises/{id}/submit")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> submitExercise(@PathVariable Long id,
-                                                         @RequestBody Map<Long, List<Long>> answers,
-                                                         Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        ExerciseDto exercise = exerciseService.getExerciseById(id);
+                                                         @RequestBody Map<Long, List<Long>> answers) {
+        // Grade against the cached answer key rather than loading every question and answer
+        AnswerKey answerKey = answerKeyService.getExerciseAnswerKey(id);
 
         // Check if the user is enrolled in the course
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), exercise.getCourseId());
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), answerKey.getCourseId());
 
-        if (!isEnrolled && !user.getRole().name().equals("ADMIN") && !user.getRole().name().equals("INSTRUCTOR")) {
+        if (!isEnrolled && !currentUser.getRole().name().equals("ADMIN") && !currentUser.getRole().name().equals("INSTRUCTOR")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not enrolled in this course",
@@ -136,27 +148,13 @@ public class ExerciseExamController {
         }
 
         // Calculate score
-        int totalQuestions = exercise.getQuestions().size();
-        int correctAnswers = 0;
-
-        for (QuestionDto question : exercise.getQuestions()) {
-            List<Long> selectedAnswerIds = answers.getOrDefault(question.getId(), List.of());
-            List<Long> correctAnswerIds = question.getAnswers().stream()
-                    .filter(AnswerDto::isCorrect)
-                    .map(AnswerDto::getId)
-                    .toList();
-
-            if (selectedAnswerIds.size() == correctAnswerIds.size() &&
-                    selectedAnswerIds.containsAll(correctAnswerIds)) {
-                correctAnswers++;
-            }
-        }
-
-        int score = (totalQuestions > 0) ? (correctAnswers * 100) / totalQuestions : 0;
+        int score = answerKey.score(answers);
 
         // Save progress
         UserProgressDto progress = userProgressService.createOrUpdateExerciseProgress(
-                user.getId(), id, score);
+                currentUser.getId(), id, score);
+        itemAnalysisService.recordSubmission(answerKey, answers, score);
+        reviewScheduleService.recordQuestionResults(currentUser.getId(), answerKey, answers);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -172,14 +170,12 @@ public class ExerciseExamController {
 
     @GetMapping("/student/courses/{courseId}/exams")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getExamsByCourseForStudent(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getExamsByCourseForStudent(@PathVariable Long courseId) {
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(courseId);
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId);
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), courseId);
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -206,15 +202,14 @@ public class ExerciseExamController {
 
     @GetMapping("/student/exams/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getExamForStudent(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getExamForStudent(@PathVariable Long id) {
         ExamDto exam = examService.getExamById(id);
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(exam.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), exam.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), exam.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -237,18 +232,20 @@ public class ExerciseExamController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    // Graded asynchronously: returns 202 with a submission to poll. Retrying with the same Idempotency-Key
+    // returns the original submission.
     @PostMapping("/student/exams/{id}/submit")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> submitExam(@PathVariable Long id,
-                                                     @RequestBody Map<Long, List<Long>> answers,
-                                                     Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        ExamDto exam = examService.getExamById(id);
+                                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                     @RequestBody Map<Long, List<Long>> answers) {
+        // Grade against the cached answer key rather than loading every question and answer
+        AnswerKey answerKey = answerKeyService.getExamAnswerKey(id);
 
         // Check if the user is enrolled in the course
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), exam.getCourseId());
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), answerKey.getCourseId());
 
-        if (!isEnrolled && !user.getRole().name().equals("ADMIN") && !user.getRole().name().equals("INSTRUCTOR")) {
+        if (!isEnrolled && !currentUser.getRole().name().equals("ADMIN") && !currentUser.getRole().name().equals("INSTRUCTOR")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not enrolled in this course",
@@ -259,34 +256,29 @@ public class ExerciseExamController {
             return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
         }
 
-        // Calculate score
-        int totalQuestions = exam.getQuestions().size();
-        int correctAnswers = 0;
-
-        for (QuestionDto question : exam.getQuestions()) {
-            List<Long> selectedAnswerIds = answers.getOrDefault(question.getId(), List.of());
-            List<Long> correctAnswerIds = question.getAnswers().stream()
-                    .filter(AnswerDto::isCorrect)
-                    .map(AnswerDto::getId)
-                    .toList();
-
-            if (selectedAnswerIds.size() == correctAnswerIds.size() &&
-                    selectedAnswerIds.containsAll(correctAnswerIds)) {
-                correctAnswers++;
-            }
-        }
+        GradingSubmissionDto submission = gradingQueueService.submitExam(
+                currentUser.getId(), id, idempotencyKey, answers);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Exam submitted for grading",
+                submission,
+                LocalDateTime.now()
+        );
 
-        int score = (totalQuestions > 0) ? (correctAnswers * 100) / totalQuestions : 0;
-        boolean passed = score >= exam.getPassingScore();
+        return new ResponseEntity<>(apiResponse, HttpStatus.ACCEPTED);
+    }
 
-        // Save progress
-        UserProgressDto progress = userProgressService.createOrUpdateExamProgress(
-                user.getId(), id, score);
+    // Result of a queued exam or mock exam submission; status moves from QUEUED to COMPLETED or FAILED
+    @GetMapping("/student/submissions/{submissionId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getSubmission(@PathVariable Long submissionId) {
+        GradingSubmissionDto submission = gradingQueueService.getSubmission(submissionId, currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
-                passed ? "Exam passed successfully" : "Exam completed",
-                Map.of("score", score, "passed", passed, "progress", progress),
+                "Submission retrieved successfully",
+                submission,
                 LocalDateTime.now()
         );
 
@@ -298,13 +290,11 @@ public class ExerciseExamController {
     @PostMapping("/instructor/courses/{courseId}/exercises")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> createExercise(@PathVariable Long courseId,
-                                                         @Valid @RequestBody ExerciseDto exerciseDto,
-                                                         Principal principal) {
+                                                         @Valid @RequestBody ExerciseDto exerciseDto) {
         // Verify that the course belongs to the instructor
         CourseDto course = courseService.getCourseById(courseId);
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to add exercises to this course",
@@ -331,13 +321,11 @@ public class ExerciseExamController {
     @PostMapping("/instructor/courses/{courseId}/generate-exercise")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> generateExercise(@PathVariable Long courseId,
-                                                           @Valid @RequestBody AiGenerationRequestDto requestDto,
-                                                           Principal principal) {
+                                                           @Valid @RequestBody AiGenerationRequestDto requestDto) {
         // Verify that the course belongs to the instructor
         CourseDto course = courseService.getCourseById(courseId);
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to add exercises to this course",
@@ -364,14 +352,12 @@ public class ExerciseExamController {
     @PutMapping("/instructor/exercises/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> updateExercise(@PathVariable Long id,
-                                                         @Valid @RequestBody ExerciseDto exerciseDto,
-                                                         Principal principal) {
+                                                         @Valid @RequestBody ExerciseDto exerciseDto) {
         // Verify that the exercise's course belongs to the instructor
         ExerciseDto existingExercise = exerciseService.getExerciseById(id);
         CourseDto course = courseService.getCourseById(existingExercise.getCourseId());
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to update this exercise",
@@ -398,13 +384,12 @@ public class ExerciseExamController {
 
     @DeleteMapping("/instructor/exercises/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> deleteExercise(@PathVariable Long id, Principal principal) {
+    public ResponseEntity<ApiResponseDto> deleteExercise(@PathVariable Long id) {
         // Verify that the exercise's course belongs to the instructor
         ExerciseDto existingExercise = exerciseService.getExerciseById(id);
         CourseDto course = courseService.getCourseById(existingExercise.getCourseId());
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to delete this exercise",
@@ -427,18 +412,79 @@ public class ExerciseExamController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    // Item analysis (difficulty, discrimination, distractor rates) from all graded submissions
+    @GetMapping("/instructor/exercises/{id}/item-analysis")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> getExerciseItemAnalysis(@PathVariable Long id) {
+        // Verify that the exercise's course belongs to the instructor; the cached answer key knows the course
+        CourseDto course = courseService.getCourseById(answerKeyService.getExerciseAnswerKey(id).getCourseId());
+
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You are not authorized to view the statistics of this exercise",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        List<QuestionStatsDto> statistics = itemAnalysisService.getExerciseItemAnalysis(id);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Exercise item analysis retrieved successfully",
+                statistics,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    // Bulk import, streamed from a text/csv or JSON array body; bad rows are listed in the result and skipped
+    @PostMapping(value = "/instructor/exercises/{id}/questions/import", consumes = {"text/csv", "application/json"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> importExerciseQuestions(@PathVariable Long id,
+                                                                  @RequestHeader("Content-Type") String contentType,
+                                                                  InputStream body) {
+        // Verify that the exercise's course belongs to the instructor; the cached answer key knows the course
+        CourseDto course = courseService.getCourseById(answerKeyService.getExerciseAnswerKey(id).getCourseId());
+
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You are not authorized to add questions to this exercise",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        QuestionImportResultDto result = questionImportService.importExerciseQuestions(id, contentType, body);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                result.isCompleted() && result.getRejectedRows() == 0
+                        ? "Questions imported successfully" : "Questions imported with errors",
+                result,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     // Instructor endpoints for exams
 
     @PostMapping("/instructor/courses/{courseId}/exams")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> createExam(@PathVariable Long courseId,
-                                                     @Valid @RequestBody ExamDto examDto,
-                                                     Principal principal) {
+                                                     @Valid @RequestBody ExamDto examDto) {
         // Verify that the course belongs to the instructor
         CourseDto course = courseService.getCourseById(courseId);
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to add exams to this course",
@@ -465,13 +511,11 @@ public class ExerciseExamController {
     @PostMapping("/instructor/courses/{courseId}/generate-exam")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> generateExam(@PathVariable Long courseId,
-                                                       @Valid @RequestBody AiGenerationRequestDto requestDto,
-                                                       Principal principal) {
+                                                       @Valid @RequestBody AiGenerationRequestDto requestDto) {
         // Verify that the course belongs to the instructor
         CourseDto course = courseService.getCourseById(courseId);
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to add exams to this course",
@@ -499,14 +543,12 @@ public class ExerciseExamController {
     @PutMapping("/instructor/exams/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> updateExam(@PathVariable Long id,
-                                                     @Valid @RequestBody ExamDto examDto,
-                                                     Principal principal) {
+                                                     @Valid @RequestBody ExamDto examDto) {
         // Verify that the exam's course belongs to the instructor
         ExamDto existingExam = examService.getExamById(id);
         CourseDto course = courseService.getCourseById(existingExam.getCourseId());
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to update this exam",
@@ -533,13 +575,12 @@ public class ExerciseExamController {
 
     @DeleteMapping("/instructor/exams/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> deleteExam(@PathVariable Long id, Principal principal) {
+    public ResponseEntity<ApiResponseDto> deleteExam(@PathVariable Long id) {
         // Verify that the exam's course belongs to the instructor
         ExamDto existingExam = examService.getExamById(id);
         CourseDto course = courseService.getCourseById(existingExam.getCourseId());
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to delete this exam",
@@ -561,4 +602,67 @@ public class ExerciseExamController {
 
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
+
+    // Item analysis (difficulty, discrimination, distractor rates) from all graded submissions
+    @GetMapping("/instructor/exams/{id}/item-analysis")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> getExamItemAnalysis(@PathVariable Long id) {
+        // Verify that the exam's course belongs to the instructor; the cached answer key knows the course
+        CourseDto course = courseService.getCourseById(answerKeyService.getExamAnswerKey(id).getCourseId());
+
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You are not authorized to view the statistics of this exam",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        List<QuestionStatsDto> statistics = itemAnalysisService.getExamItemAnalysis(id);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Exam item analysis retrieved successfully",
+                statistics,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    // Bulk import, streamed from a text/csv or JSON array body; bad rows are listed in the result and skipped
+    @PostMapping(value = "/instructor/exams/{id}/questions/import", consumes = {"text/csv", "application/json"})
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> importExamQuestions(@PathVariable Long id,
+                                                              @RequestHeader("Content-Type") String contentType,
+                                                              InputStream body) {
+        // Verify that the exam's course belongs to the instructor; the cached answer key knows the course
+        CourseDto course = courseService.getCourseById(answerKeyService.getExamAnswerKey(id).getCourseId());
+
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You are not authorized to add questions to this exam",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        QuestionImportResultDto result = questionImportService.importExamQuestions(id, contentType, body);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                result.isCompleted() && result.getRejectedRows() == 0
+                        ? "Questions imported successfully" : "Questions imported with errors",
+                result,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
 }
@@ -4,9 +4,8 @@ package com.nihongo.learningplatform.controller;
 import com.nihongo.learningplatform.dto.ApiResponseDto;
 import com.nihongo.learningplatform.dto.InvoiceDto;
 import com.nihongo.learningplatform.entity.InvoiceStatus;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.InvoiceService;
-import com.nihongo.learningplatform.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -14,7 +13,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,21 +21,20 @@ import java.util.List;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
 
     @Autowired
-    public InvoiceController(InvoiceService invoiceService, UserService userService) {
+    public InvoiceController(InvoiceService invoiceService, CurrentUser currentUser) {
         this.invoiceService = invoiceService;
-        this.userService = userService;
+        this.currentUser = currentUser;
     }
 
     // Student endpoints
 
     @GetMapping("/student/invoices")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getUserInvoices(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<InvoiceDto> invoices = invoiceService.getInvoicesByUser(user.getId());
+    public ResponseEntity<ApiResponseDto> getUserInvoices() {
+        List<InvoiceDto> invoices = invoiceService.getInvoicesByUser(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -51,13 +48,12 @@ public class InvoiceController {
 
     @GetMapping("/student/invoices/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getUserInvoiceById(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getUserInvoiceById(@PathVariable Long id) {
         InvoiceDto invoice = invoiceService.getInvoiceById(id);
 
         // Check if the invoice belongs to the user or the user is an admin
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        if (!isAdmin && !invoice.getUserId().equals(user.getId())) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        if (!isAdmin && !invoice.getUserId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You do not have permission to view this invoice",
@@ -80,13 +76,12 @@ public class InvoiceController {
 
     @GetMapping("/student/invoices/{id}/download")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> downloadInvoice(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> downloadInvoice(@PathVariable Long id) {
         InvoiceDto invoice = invoiceService.getInvoiceById(id);
 
         // Check if the invoice belongs to the user or the user is an admin
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        if (!isAdmin && !invoice.getUserId().equals(user.getId())) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        if (!isAdmin && !invoice.getUserId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You do not have permission to download this invoice",
@@ -1,12 +1,17 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.ApiResponseDto;
+import com.nihongo.learningplatform.dto.CourseDto;
+import com.nihongo.learningplatform.dto.DailyActivityDto;
 import com.nihongo.learningplatform.dto.LearningHistoryDto;
 import com.nihongo.learningplatform.dto.PageResponseDto;
+import com.nihongo.learningplatform.dto.StudyStreakDto;
+import com.nihongo.learningplatform.dto.WeeklyStudyDto;
 import com.nihongo.learningplatform.entity.ActivityType;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
+import com.nihongo.learningplatform.service.ActivityRollupService;
+import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.LearningHistoryService;
-import com.nihongo.learningplatform.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -14,7 +19,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,12 +27,19 @@ import java.util.List;
 public class LearningHistoryController {
 
     private final LearningHistoryService learningHistoryService;
-    private final UserService userService;
+    private final ActivityRollupService activityRollupService;
+    private final CourseService courseService;
+    private final CurrentUser currentUser;
 
     @Autowired
-    public LearningHistoryController(LearningHistoryService learningHistoryService, UserService userService) {
+    public LearningHistoryController(LearningHistoryService learningHistoryService,
+                                     ActivityRollupService activityRollupService,
+                                     CourseService courseService,
+                                     CurrentUser currentUser) {
         this.learningHistoryService = learningHistoryService;
-        this.userService = userService;
+        this.activityRollupService = activityRollupService;
+        this.courseService = courseService;
+        this.currentUser = currentUser;
     }
 
     // Student endpoints
@@ -37,11 +48,9 @@ public class LearningHistoryController {
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> getUserLearningHistory(
             @RequestParam(defaultValue = "0") int pageNo,
-            @RequestParam(defaultValue = "10") int pageSize,
-            Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+            @RequestParam(defaultValue = "10") int pageSize) {
         PageResponseDto<LearningHistoryDto> history =
-                learningHistoryService.getLearningHistoriesByUserPaginated(user.getId(), pageNo, pageSize);
+                learningHistoryService.getLearningHistoriesByUserPaginated(currentUser.getId(), pageNo, pageSize);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -56,10 +65,9 @@ public class LearningHistoryController {
     @GetMapping("/student/learning-history/type/{activityType}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> getUserLearningHistoryByType(
-            @PathVariable ActivityType activityType, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+            @PathVariable ActivityType activityType) {
         List<LearningHistoryDto> history =
-                learningHistoryService.getLearningHistoriesByUserAndActivityType(user.getId(), activityType);
+                learningHistoryService.getLearningHistoriesByUserAndActivityType(currentUser.getId(), activityType);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -74,10 +82,9 @@ public class LearningHistoryController {
     @GetMapping("/student/courses/{courseId}/learning-history")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> getUserLearningHistoryByCourse(
-            @PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+            @PathVariable Long courseId) {
         List<LearningHistoryDto> history =
-                learningHistoryService.getLearningHistoriesByUserAndCourse(user.getId(), courseId);
+                learningHistoryService.getLearningHistoriesByUserAndCourse(currentUser.getId(), courseId);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -93,11 +100,9 @@ public class LearningHistoryController {
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> getUserLearningHistoryByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
-            Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         List<LearningHistoryDto> history =
-                learningHistoryService.getLearningHistoriesByUserAndDateRange(user.getId(), start, end);
+                learningHistoryService.getLearningHistoriesByUserAndDateRange(currentUser.getId(), start, end);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -109,6 +114,153 @@ public class LearningHistoryController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/student/learning-history/streak")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getStudyStreak() {
+        StudyStreakDto streak = activityRollupService.getStudyStreak(currentUser.getId());
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Your study streak retrieved successfully",
+                streak,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/student/learning-history/heatmap")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getActivityHeatmap(
+            @RequestParam(defaultValue = "365") int days) {
+        List<DailyActivityDto> heatmap = activityRollupService.getUserHeatmap(currentUser.getId(), days);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Your activity heatmap retrieved successfully",
+                heatmap,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/student/learning-history/weekly-minutes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getWeeklyStudyMinutes(
+            @RequestParam(defaultValue = "12") int weeks) {
+        List<WeeklyStudyDto> weekly = activityRollupService.getWeeklyStudy(currentUser.getId(), weeks);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Your weekly study minutes retrieved successfully",
+                weekly,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/student/learning-history/failed-exams")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getFailedExams(
+            @RequestParam(defaultValue = "30") int days) {
+        List<LearningHistoryDto> history = learningHistoryService.getFailedExamsByUser(currentUser.getId(), days);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Your failed exams in the last " + days + " days retrieved successfully",
+                history,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/student/learning-history/low-score-exercises")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getLowScoreExercises(
+            @RequestParam(defaultValue = "50") int below,
+            @RequestParam(defaultValue = "30") int days) {
+        List<LearningHistoryDto> history =
+                learningHistoryService.getLowScoreExercisesByUser(currentUser.getId(), below, days);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Your exercises with score below " + below + " retrieved successfully",
+                history,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    // Instructor endpoints
+
+    @GetMapping("/instructor/courses/{courseId}/activity-heatmap")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> getCourseActivityHeatmap(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "90") int days) {
+        if (!canViewCourseActivity(courseId)) {
+            return courseActivityForbidden();
+        }
+
+        List<DailyActivityDto> heatmap = activityRollupService.getCourseHeatmap(courseId, days);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Course activity heatmap retrieved successfully",
+                heatmap,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/instructor/courses/{courseId}/learning-history/failed-exams")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> getCourseFailedExams(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "30") int days) {
+        if (!canViewCourseActivity(courseId)) {
+            return courseActivityForbidden();
+        }
+
+        List<LearningHistoryDto> history = learningHistoryService.getFailedExamsByCourse(courseId, days);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Failed exams for this course in the last " + days + " days retrieved successfully",
+                history,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/instructor/courses/{courseId}/learning-history/low-score-exercises")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> getCourseLowScoreExercises(
+            @PathVariable Long courseId,
+            @RequestParam(defaultValue = "50") int below,
+            @RequestParam(defaultValue = "30") int days) {
+        if (!canViewCourseActivity(courseId)) {
+            return courseActivityForbidden();
+        }
+
+        List<LearningHistoryDto> history = learningHistoryService.getLowScoreExercisesByCourse(courseId, below, days);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Exercises with score below " + below + " for this course retrieved successfully",
+                history,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     // Admin endpoints
 
     @GetMapping("/admin/users/{userId}/learning-history")
@@ -145,4 +297,49 @@ public class LearningHistoryController {
 
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
+
+    @GetMapping("/admin/learning-history/writer-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto> getLearningHistoryWriterStats() {
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Learning history writer statistics retrieved successfully",
+                learningHistoryService.getWriterStats(),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @PostMapping("/admin/learning-history/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponseDto> rebuildActivityRollups() {
+        int rows = activityRollupService.rebuildRollups();
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Activity rollups rebuilt successfully",
+                rows,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    // Verify that the course belongs to the instructor
+    private boolean canViewCourseActivity(Long courseId) {
+        CourseDto course = courseService.getCourseById(courseId);
+        return course.getInstructorId().equals(currentUser.getId()) || currentUser.isAdmin();
+    }
+
+    private ResponseEntity<ApiResponseDto> courseActivityForbidden() {
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                false,
+                "You are not authorized to view activity for this course",
+                null,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+    }
 }
\ No newline at end of file
@@ -3,11 +3,10 @@ package com.nihongo.learningplatform.controller;
 import com.nihongo.learningplatform.dto.ApiResponseDto;
 import com.nihongo.learningplatform.dto.CourseDto;
 import com.nihongo.learningplatform.dto.LessonDto;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.EnrollmentService;
 import com.nihongo.learningplatform.service.LessonService;
-import com.nihongo.learningplatform.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -15,7 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -25,17 +23,17 @@ public class LessonController {
 
     private final LessonService lessonService;
     private final CourseService courseService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final EnrollmentService enrollmentService;
 
     @Autowired
     public LessonController(LessonService lessonService,
                             CourseService courseService,
-                            UserService userService,
-                            EnrollmentService enrollmentService) {
+                            EnrollmentService enrollmentService,
+                            CurrentUser currentUser) {
         this.lessonService = lessonService;
         this.courseService = courseService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.enrollmentService = enrollmentService;
     }
 
@@ -43,14 +41,12 @@ public class LessonController {
 
     @GetMapping("/student/courses/{courseId}/lessons")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getLessonsByCourseForStudent(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getLessonsByCourseForStudent(@PathVariable Long courseId) {
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(courseId);
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId);
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), courseId);
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -77,15 +73,14 @@ public class LessonController {
 
     @GetMapping("/student/lessons/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getLessonForStudent(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getLessonForStudent(@PathVariable Long id) {
         LessonDto lesson = lessonService.getLessonById(id);
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isInstructor = course.getInstructorId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), lesson.getCourseId());
+        boolean isInstructor = course.getInstructorId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), lesson.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -113,13 +108,11 @@ public class LessonController {
     @PostMapping("/instructor/courses/{courseId}/lessons")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> createLesson(@PathVariable Long courseId,
-                                                       @Valid @RequestBody LessonDto lessonDto,
-                                                       Principal principal) {
+                                                       @Valid @RequestBody LessonDto lessonDto) {
         // Verify that the course belongs to the instructor
         CourseDto course = courseService.getCourseById(courseId);
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to add lessons to this course",
@@ -145,12 +138,11 @@ public class LessonController {
 
     @GetMapping("/instructor/courses/{courseId}/lessons")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> getLessonsByCourseForInstructor(@PathVariable Long courseId, Principal principal) {
+    public ResponseEntity<ApiResponseDto> getLessonsByCourseForInstructor(@PathVariable Long courseId) {
         // Verify that the course belongs to the instructor
         CourseDto course = courseService.getCourseById(courseId);
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to view lessons for this course",
@@ -176,14 +168,12 @@ public class LessonController {
     @PutMapping("/instructor/lessons/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> updateLesson(@PathVariable Long id,
-                                                       @Valid @RequestBody LessonDto lessonDto,
-                                                       Principal principal) {
+                                                       @Valid @RequestBody LessonDto lessonDto) {
         // Verify that the lesson's course belongs to the instructor
         LessonDto existingLesson = lessonService.getLessonById(id);
         CourseDto course = courseService.getCourseById(existingLesson.getCourseId());
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to update this lesson",
@@ -210,13 +200,12 @@ public class LessonController {
 
     @DeleteMapping("/instructor/lessons/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> deleteLesson(@PathVariable Long id, Principal principal) {
+    public ResponseEntity<ApiResponseDto> deleteLesson(@PathVariable Long id) {
         // Verify that the lesson's course belongs to the instructor
         LessonDto existingLesson = lessonService.getLessonById(id);
         CourseDto course = courseService.getCourseById(existingLesson.getCourseId());
-        User instructor = userService.getUserEntityByUsername(principal.getName());
 
-        if (!course.getInstructorId().equals(instructor.getId()) && !instructor.getRole().name().equals("ADMIN")) {
+        if (!course.getInstructorId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to delete this lesson",
@@ -1,15 +1,25 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.ApiResponseDto;
+import com.nihongo.learningplatform.dto.AssembledMockExamDto;
+import com.nihongo.learningplatform.dto.ExamAssemblyRequestDto;
+import com.nihongo.learningplatform.dto.GradingSubmissionDto;
+import com.nihongo.learningplatform.dto.LeaderboardDto;
 import com.nihongo.learningplatform.dto.MockExamAttemptDto;
 import com.nihongo.learningplatform.dto.MockExamDto;
+import com.nihongo.learningplatform.dto.MockExamQuestionResultDto;
+import com.nihongo.learningplatform.dto.QuestionStatsDto;
 import com.nihongo.learningplatform.entity.Course;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.EnrollmentService;
-import com.nihongo.learningplatform.service.LearningHistoryService;
+import com.nihongo.learningplatform.service.ExamAssemblyService;
+import com.nihongo.learningplatform.service.GradingQueueService;
+import com.nihongo.learningplatform.service.ItemAnalysisService;
+import com.nihongo.learningplatform.service.LeaderboardService;
+import com.nihongo.learningplatform.service.MockExamDraftService;
 import com.nihongo.learningplatform.service.MockExamService;
-import com.nihongo.learningplatform.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,7 +27,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -27,22 +36,34 @@ import java.util.Map;
 public class MockExamController {
 
     private final MockExamService mockExamService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
-    private final LearningHistoryService learningHistoryService;
+    private final MockExamDraftService mockExamDraftService;
+    private final ItemAnalysisService itemAnalysisService;
+    private final LeaderboardService leaderboardService;
+    private final ExamAssemblyService examAssemblyService;
+    private final GradingQueueService gradingQueueService;
 
     @Autowired
     public MockExamController(MockExamService mockExamService,
-                              UserService userService,
                               CourseService courseService,
                               EnrollmentService enrollmentService,
-                              LearningHistoryService learningHistoryService) {
+                              MockExamDraftService mockExamDraftService,
+                              ItemAnalysisService itemAnalysisService,
+                              LeaderboardService leaderboardService,
+                              ExamAssemblyService examAssemblyService,
+                              GradingQueueService gradingQueueService,
+                              CurrentUser currentUser) {
         this.mockExamService = mockExamService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.courseService = courseService;
         this.enrollmentService = enrollmentService;
-        this.learningHistoryService = learningHistoryService;
+        this.mockExamDraftService = mockExamDraftService;
+        this.itemAnalysisService = itemAnalysisService;
+        this.leaderboardService = leaderboardService;
+        this.examAssemblyService = examAssemblyService;
+        this.gradingQueueService = gradingQueueService;
     }
 
     // Public endpoints
@@ -65,14 +86,12 @@ public class MockExamController {
 
     @GetMapping("/student/mock-exams")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getAvailableMockExams(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getAvailableMockExams() {
         // Get general mock exams
         List<MockExamDto> generalExams = mockExamService.getGeneralMockExams();
 
         // Get mock exams for courses the student is enrolled in
-        List<Long> enrolledCourseIds = enrollmentService.getEnrollmentsByStudent(user.getId()).stream()
+        List<Long> enrolledCourseIds = enrollmentService.getEnrollmentsByStudent(currentUser.getId()).stream()
                 .map(enrollment -> enrollment.getCourseId())
                 .toList();
 
@@ -111,21 +130,20 @@ public class MockExamController {
 
     @GetMapping("/student/mock-exams/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getMockExamById(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getMockExamById(@PathVariable Long id) {
         MockExamDto mockExam = mockExamService.getMockExamById(id);
 
         // Check if the mock exam is a course-specific exam
         if (mockExam.getCourseId() != null) {
             // Check if the user is enrolled in the course
-            boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), mockExam.getCourseId());
+            boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), mockExam.getCourseId());
             boolean isInstructor = false;
-            boolean isAdmin = user.getRole().name().equals("ADMIN");
+            boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
             // Check if the user is the instructor for this course
             try {
                 Course course = courseService.getCourseEntityById(mockExam.getCourseId());
-                isInstructor = course.getInstructor().getId().equals(user.getId());
+                isInstructor = course.getInstructor().getId().equals(currentUser.getId());
             } catch (Exception e) {
                 // Ignore any exceptions when checking instructor
             }
@@ -154,8 +172,8 @@ public class MockExamController {
         response.setCourseName(mockExam.getCourseName());
 
         // Get the student's previous attempts and highest score
-        List<MockExamAttemptDto> attempts = mockExamService.getMockExamAttemptsByUserAndMockExam(user.getId(), id);
-        Integer highestScore = mockExamService.getHighestScoreByUserAndMockExam(user.getId(), id);
+        List<MockExamAttemptDto> attempts = mockExamService.getMockExamAttemptsByUserAndMockExam(currentUser.getId(), id);
+        Integer highestScore = mockExamService.getHighestScoreByUserAndMockExam(currentUser.getId(), id);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -171,23 +189,71 @@ public class MockExamController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/student/mock-exams/{id}/leaderboard")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getMockExamLeaderboard(@PathVariable Long id,
+                                                                 @RequestParam(defaultValue = "100") int limit) {
+        MockExam mockExam = mockExamService.getMockExamEntityById(id);
+
+        // Course-specific leaderboards are visible to the course's students, its instructor and admins
+        if (mockExam.getCourse() != null
+                && !enrollmentService.hasCourseAccess(currentUser.getId(), mockExam.getCourse().getId())
+                && !mockExam.getCourse().getInstructor().getId().equals(currentUser.getId())
+                && !currentUser.getRole().name().equals("ADMIN")) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You do not have access to this mock exam",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        LeaderboardDto leaderboard = leaderboardService.getMockExamLeaderboard(id, currentUser.getId(), limit);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Mock exam leaderboard retrieved successfully",
+                leaderboard,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/student/mock-exams/level/{level}/leaderboard")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getLevelLeaderboard(@PathVariable String level,
+                                                              @RequestParam(defaultValue = "100") int limit) {
+        LeaderboardDto leaderboard = leaderboardService.getLevelLeaderboard(level, currentUser.getId(), limit);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Leaderboard for level " + level + " retrieved successfully",
+                leaderboard,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     @PostMapping("/student/mock-exams/{id}/start")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> startMockExam(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> startMockExam(@PathVariable Long id) {
         MockExamDto mockExam = mockExamService.getMockExamById(id);
 
         // Check if the mock exam is a course-specific exam
         if (mockExam.getCourseId() != null) {
             // Check if the user is enrolled in the course
-            boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), mockExam.getCourseId());
+            boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), mockExam.getCourseId());
             boolean isInstructor = false;
-            boolean isAdmin = user.getRole().name().equals("ADMIN");
+            boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
             // Check if the user is the instructor for this course
             try {
                 Course course = courseService.getCourseEntityById(mockExam.getCourseId());
-                isInstructor = course.getInstructor().getId().equals(user.getId());
+                isInstructor = course.getInstructor().getId().equals(currentUser.getId());
             } catch (Exception e) {
                 // Ignore any exceptions when checking instructor
             }
@@ -204,7 +270,7 @@ public class MockExamController {
             }
         }
 
-        MockExamAttemptDto attempt = mockExamService.startMockExamAttempt(id, user.getId());
+        MockExamAttemptDto attempt = mockExamService.startMockExamAttempt(id, currentUser.getId());
 
         // Get the full mock exam with questions
         MockExamDto fullExam = mockExamService.getMockExamById(id);
@@ -222,16 +288,15 @@ public class MockExamController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    // Graded asynchronously: returns 202 with a submission to poll at /student/submissions/{id}.
+    // Retrying with the same Idempotency-Key returns the original submission.
     @PostMapping("/student/mock-exams/attempts/{attemptId}/submit")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
     public ResponseEntity<ApiResponseDto> submitMockExam(@PathVariable Long attemptId,
-                                                         @RequestBody Map<Long, List<Long>> answers,
-                                                         Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+                                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                         @RequestBody(required = false) Map<Long, List<Long>> answers) {
         // Check if the attempt belongs to the user
-        MockExamAttemptDto attempt = mockExamService.getMockExamAttemptById(attemptId);
-        if (!attempt.getUserId().equals(user.getId())) {
+        if (!mockExamDraftService.isDraftOwner(attemptId, currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You do not have permission to submit this mock exam attempt",
@@ -242,20 +307,72 @@ public class MockExamController {
             return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
         }
 
-        MockExamAttemptDto submittedAttempt = mockExamService.submitMockExamAttempt(attemptId, answers);
+        GradingSubmissionDto submission = gradingQueueService.submitMockExam(
+                currentUser.getId(), attemptId, idempotencyKey, answers);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Mock exam submitted for grading",
+                submission,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.ACCEPTED);
+    }
+
+    // Autosave: only touches the in-memory draft, the table is written by the periodic flush
+    @PutMapping("/student/mock-exams/attempts/{attemptId}/draft")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> saveMockExamDraft(@PathVariable Long attemptId,
+                                                            @RequestBody Map<Long, List<Long>> answers) {
+        if (!mockExamDraftService.isDraftOwner(attemptId, currentUser.getId())) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You do not have permission to save answers for this mock exam attempt",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        mockExamDraftService.saveDraftAnswers(attemptId, answers);
 
-        // Record the mock exam completion in the learning history
-        learningHistoryService.recordMockExamCompleted(
-                user.getId(),
-                submittedAttempt.getMockExamId(),
-                submittedAttempt.getScore(),
-                submittedAttempt.getPassed()
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Draft answers saved",
+                null,
+                LocalDateTime.now()
         );
 
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/student/mock-exams/attempts/{attemptId}/resume")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> resumeMockExam(@PathVariable Long attemptId) {
+        if (!mockExamDraftService.isDraftOwner(attemptId, currentUser.getId())) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You do not have permission to resume this mock exam attempt",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        MockExamAttemptDto attempt = mockExamService.getMockExamAttemptById(attemptId);
+        MockExamDto mockExam = mockExamService.getMockExamById(attempt.getMockExamId());
+
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
-                "Mock exam submitted successfully",
-                submittedAttempt,
+                "Mock exam attempt resumed successfully",
+                Map.of(
+                        "attempt", attempt,
+                        "mockExam", mockExam,
+                        "answers", mockExamDraftService.getDraftAnswers(attemptId)
+                ),
                 LocalDateTime.now()
         );
 
@@ -264,9 +381,8 @@ public class MockExamController {
 
     @GetMapping("/student/mock-exams/attempts")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getUserMockExamAttempts(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<MockExamAttemptDto> attempts = mockExamService.getMockExamAttemptsByUser(user.getId());
+    public ResponseEntity<ApiResponseDto> getUserMockExamAttempts() {
+        List<MockExamAttemptDto> attempts = mockExamService.getMockExamAttemptsByUser(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -280,12 +396,10 @@ public class MockExamController {
 
     @GetMapping("/student/mock-exams/attempts/{attemptId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getMockExamAttemptById(@PathVariable Long attemptId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getMockExamAttemptById(@PathVariable Long attemptId) {
         // Check if the attempt belongs to the user
         MockExamAttemptDto attempt = mockExamService.getMockExamAttemptById(attemptId);
-        if (!attempt.getUserId().equals(user.getId()) && !user.getRole().name().equals("ADMIN")) {
+        if (!attempt.getUserId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You do not have permission to view this mock exam attempt",
@@ -312,6 +426,37 @@ public class MockExamController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    // Per-question review of a submitted attempt
+    @GetMapping("/student/mock-exams/attempts/{attemptId}/results")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getMockExamAttemptResults(@PathVariable Long attemptId) {
+        MockExamAttemptDto attempt = mockExamService.getMockExamAttemptById(attemptId);
+        if (!attempt.getUserId().equals(currentUser.getId()) && !currentUser.getRole().name().equals("ADMIN")) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You do not have permission to view this mock exam attempt",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        List<MockExamQuestionResultDto> results = mockExamService.getMockExamAttemptResults(attemptId);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Mock exam attempt results retrieved successfully",
+                Map.of(
+                        "attempt", attempt,
+                        "results", results
+                ),
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     // Instructor and Admin endpoints
 
     @PostMapping("/admin/mock-exams")
@@ -332,15 +477,12 @@ public class MockExamController {
     @PostMapping("/instructor/courses/{courseId}/mock-exams")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> createCourseMockExam(@PathVariable Long courseId,
-                                                               @Valid @RequestBody MockExamDto mockExamDto,
-                                                               Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-
+                                                               @Valid @RequestBody MockExamDto mockExamDto) {
         // Verify that the instructor owns the course
-        if (!instructor.getRole().name().equals("ADMIN")) {
+        if (!currentUser.getRole().name().equals("ADMIN")) {
             try {
                 Course course = courseService.getCourseEntityById(courseId);
-                if (!course.getInstructor().getId().equals(instructor.getId())) {
+                if (!course.getInstructor().getId().equals(currentUser.getId())) {
                     ApiResponseDto apiResponse = new ApiResponseDto(
                             false,
                             "You are not authorized to create mock exams for this course",
@@ -375,6 +517,47 @@ public class MockExamController {
         return new ResponseEntity<>(apiResponse, HttpStatus.CREATED);
     }
 
+    @PostMapping("/instructor/mock-exams/assemble")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> assembleMockExam(@Valid @RequestBody ExamAssemblyRequestDto request) {
+        // Papers drawn from a course's questions belong to that course; general papers are admin only
+        if (!currentUser.getRole().name().equals("ADMIN")) {
+            if (request.getCourseId() == null) {
+                ApiResponseDto apiResponse = new ApiResponseDto(
+                        false,
+                        "Only administrators can assemble general mock exams",
+                        null,
+                        LocalDateTime.now()
+                );
+
+                return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+            }
+
+            Course course = courseService.getCourseEntityById(request.getCourseId());
+            if (!course.getInstructor().getId().equals(currentUser.getId())) {
+                ApiResponseDto apiResponse = new ApiResponseDto(
+                        false,
+                        "You are not authorized to create mock exams for this course",
+                        null,
+                        LocalDateTime.now()
+                );
+
+                return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+            }
+        }
+
+        AssembledMockExamDto assembled = examAssemblyService.assembleMockExam(request);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Mock exam assembled successfully",
+                assembled,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.CREATED);
+    }
+
     @GetMapping("/admin/mock-exams")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponseDto> getAllMockExams() {
@@ -392,15 +575,14 @@ public class MockExamController {
 
     @GetMapping("/instructor/mock-exams/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> getInstructorMockExamById(@PathVariable Long id, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getInstructorMockExamById(@PathVariable Long id) {
         MockExamDto mockExam = mockExamService.getMockExamById(id);
 
         // Check if the mock exam is a course-specific exam and belongs to the instructor
-        if (mockExam.getCourseId() != null && !instructor.getRole().name().equals("ADMIN")) {
+        if (mockExam.getCourseId() != null && !currentUser.getRole().name().equals("ADMIN")) {
             try {
                 Course course = courseService.getCourseEntityById(mockExam.getCourseId());
-                if (!course.getInstructor().getId().equals(instructor.getId())) {
+                if (!course.getInstructor().getId().equals(currentUser.getId())) {
                     ApiResponseDto apiResponse = new ApiResponseDto(
                             false,
                             "You are not authorized to view this mock exam",
@@ -432,6 +614,37 @@ public class MockExamController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    // Item analysis (difficulty, discrimination, distractor rates) from all graded attempts
+    @GetMapping("/instructor/mock-exams/{id}/item-analysis")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ApiResponseDto> getMockExamItemAnalysis(@PathVariable Long id) {
+        MockExam mockExam = mockExamService.getMockExamEntityById(id);
+
+        // Course-specific mock exams are only analysed by their course's instructor
+        if (mockExam.getCourse() != null && !currentUser.getRole().name().equals("ADMIN")
+                && !mockExam.getCourse().getInstructor().getId().equals(currentUser.getId())) {
+            ApiResponseDto apiResponse = new ApiResponseDto(
+                    false,
+                    "You are not authorized to view the statistics of this mock exam",
+                    null,
+                    LocalDateTime.now()
+            );
+
+            return new ResponseEntity<>(apiResponse, HttpStatus.FORBIDDEN);
+        }
+
+        List<QuestionStatsDto> statistics = itemAnalysisService.getMockExamItemAnalysis(id);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Mock exam item analysis retrieved successfully",
+                statistics,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
     @PutMapping("/admin/mock-exams/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponseDto> updateMockExam(@PathVariable Long id,
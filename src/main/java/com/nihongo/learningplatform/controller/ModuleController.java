@@ -3,10 +3,9 @@ package com.nihongo.learningplatform.controller;
 import com.nihongo.learningplatform.dto.ApiResponseDto;
 import com.nihongo.learningplatform.dto.ModuleDto;
 import com.nihongo.learningplatform.entity.Course;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.ModuleService;
-import com.nihongo.learningplatform.service.UserService;
 import com.nihongo.learningplatform.service.EnrollmentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,7 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -25,16 +23,17 @@ public class ModuleController {
 
     private final ModuleService moduleService;
     private final CourseService courseService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final EnrollmentService enrollmentService;
 
     @Autowired
     public ModuleController(ModuleService moduleService,
                             CourseService courseService,
-                            UserService userService, EnrollmentService enrollmentService, EnrollmentService enrollmentService1) {
+                            EnrollmentService enrollmentService, EnrollmentService enrollmentService1,
+                            CurrentUser currentUser) {
         this.moduleService = moduleService;
         this.courseService = courseService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.enrollmentService = enrollmentService1;
     }
 
@@ -42,14 +41,12 @@ public class ModuleController {
 
     @GetMapping("/student/courses/{courseId}/modules")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getModulesByCourseForStudent(@PathVariable Long courseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getModulesByCourseForStudent(@PathVariable Long courseId) {
         // Check if the user is enrolled in the course or is the instructor or an admin
         Course course = courseService.getCourseEntityById(courseId);
-        boolean isInstructor = course.getInstructor().getId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), courseId);
+        boolean isInstructor = course.getInstructor().getId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), courseId);
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -76,15 +73,14 @@ public class ModuleController {
 
     @GetMapping("/student/modules/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getModuleForStudent(@PathVariable Long id, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getModuleForStudent(@PathVariable Long id) {
         ModuleDto module = moduleService.getModuleById(id);
 
         // Check if the user is enrolled in the course or is the instructor or an admin
         Course course = courseService.getCourseEntityById(module.getCourseId());
-        boolean isInstructor = course.getInstructor().getId().equals(user.getId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), module.getCourseId());
+        boolean isInstructor = course.getInstructor().getId().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), module.getCourseId());
 
         if (!isInstructor && !isAdmin && !isEnrolled) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -112,15 +108,12 @@ public class ModuleController {
     @PostMapping("/instructor/courses/{courseId}/modules")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> createModule(@PathVariable Long courseId,
-                                                       @Valid @RequestBody ModuleDto moduleDto,
-                                                       Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-
+                                                       @Valid @RequestBody ModuleDto moduleDto) {
         // Verify that the course belongs to the instructor
         Course course = courseService.getCourseEntityById(courseId);
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
-        if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to add modules to this course",
@@ -147,16 +140,13 @@ public class ModuleController {
     @PutMapping("/instructor/modules/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> updateModule(@PathVariable Long id,
-                                                       @Valid @RequestBody ModuleDto moduleDto,
-                                                       Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-
+                                                       @Valid @RequestBody ModuleDto moduleDto) {
         // Verify that the module's course belongs to the instructor
         ModuleDto existingModule = moduleService.getModuleById(id);
         Course course = courseService.getCourseEntityById(existingModule.getCourseId());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
-        if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to update this module",
@@ -183,15 +173,13 @@ public class ModuleController {
 
     @DeleteMapping("/instructor/modules/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> deleteModule(@PathVariable Long id, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> deleteModule(@PathVariable Long id) {
         // Verify that the module's course belongs to the instructor
         ModuleDto existingModule = moduleService.getModuleById(id);
         Course course = courseService.getCourseEntityById(existingModule.getCourseId());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
-        if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to delete this module",
@@ -5,7 +5,7 @@ import com.nihongo.learningplatform.dto.SolutionDto;
 import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.Question;
 import com.nihongo.learningplatform.entity.SpeechExercise;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.*;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -25,19 +24,19 @@ public class SolutionController {
     private final SolutionService solutionService;
     private final QuestionService questionService;
     private final SpeechExerciseService speechExerciseService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final CourseService courseService;
 
     @Autowired
     public SolutionController(SolutionService solutionService,
                               QuestionService questionService,
                               SpeechExerciseService speechExerciseService,
-                              UserService userService,
-                              CourseService courseService) {
+                              CourseService courseService,
+                              CurrentUser currentUser) {
         this.solutionService = solutionService;
         this.questionService = questionService;
         this.speechExerciseService = speechExerciseService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.courseService = courseService;
     }
 
@@ -45,9 +44,8 @@ public class SolutionController {
 
     @PostMapping("/instructor/solutions")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> createSolution(@Valid @RequestBody SolutionDto solutionDto, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+    public ResponseEntity<ApiResponseDto> createSolution(@Valid @RequestBody SolutionDto solutionDto) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Verify if instructor has permission to add solution to this question/speech exercise
         Long courseId = null;
@@ -60,7 +58,7 @@ public class SolutionController {
                 courseId = course.getId();
 
                 // Check if instructor owns this course
-                if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+                if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
                     ApiResponseDto apiResponse = new ApiResponseDto(
                             false,
                             "You are not authorized to add solutions to questions in this course",
@@ -75,7 +73,7 @@ public class SolutionController {
                 courseId = course.getId();
 
                 // Check if instructor owns this course
-                if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+                if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
                     ApiResponseDto apiResponse = new ApiResponseDto(
                             false,
                             "You are not authorized to add solutions to questions in this course",
@@ -92,7 +90,7 @@ public class SolutionController {
             courseId = course.getId();
 
             // Check if instructor owns this course
-            if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+            if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
                 ApiResponseDto apiResponse = new ApiResponseDto(
                         false,
                         "You are not authorized to add solutions to speech exercises in this course",
@@ -127,9 +125,8 @@ public class SolutionController {
 
     @GetMapping("/instructor/solutions/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> getSolutionById(@PathVariable Long id, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+    public ResponseEntity<ApiResponseDto> getSolutionById(@PathVariable Long id) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         SolutionDto solution = solutionService.getSolutionById(id);
 
@@ -154,7 +151,7 @@ public class SolutionController {
             courseId = course.getId();
 
             // Check if instructor owns this course
-            if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+            if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
                 ApiResponseDto apiResponse = new ApiResponseDto(
                         false,
                         "You are not authorized to view solutions for this course",
@@ -178,9 +175,8 @@ public class SolutionController {
 
     @GetMapping("/instructor/questions/{questionId}/solution")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> getSolutionByQuestion(@PathVariable Long questionId, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+    public ResponseEntity<ApiResponseDto> getSolutionByQuestion(@PathVariable Long questionId) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         Question question = questionService.getQuestionEntityById(questionId);
         Course course = null;
@@ -193,7 +189,7 @@ public class SolutionController {
 
         if (course != null) {
             // Check if instructor owns this course
-            if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+            if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
                 ApiResponseDto apiResponse = new ApiResponseDto(
                         false,
                         "You are not authorized to view solutions for this course",
@@ -230,15 +226,14 @@ public class SolutionController {
 
     @GetMapping("/instructor/speech-exercises/{speechExerciseId}/solution")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> getSolutionBySpeechExercise(@PathVariable Long speechExerciseId, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+    public ResponseEntity<ApiResponseDto> getSolutionBySpeechExercise(@PathVariable Long speechExerciseId) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         SpeechExercise speechExercise = speechExerciseService.getSpeechExerciseEntityById(speechExerciseId);
         Course course = speechExercise.getLesson().getModule().getCourse();
 
         // Check if instructor owns this course
-        if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to view solutions for this course",
@@ -274,14 +269,13 @@ public class SolutionController {
 
     @GetMapping("/instructor/exercises/{exerciseId}/solutions")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> getSolutionsByExercise(@PathVariable Long exerciseId, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+    public ResponseEntity<ApiResponseDto> getSolutionsByExercise(@PathVariable Long exerciseId) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Check if instructor has permission to view solutions for this exercise
         Course course = courseService.getCourseByExerciseId(exerciseId);
 
-        if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to view solutions for this exercise",
@@ -306,14 +300,13 @@ public class SolutionController {
 
     @GetMapping("/instructor/exams/{examId}/solutions")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> getSolutionsByExam(@PathVariable Long examId, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+    public ResponseEntity<ApiResponseDto> getSolutionsByExam(@PathVariable Long examId) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Check if instructor has permission to view solutions for this exam
         Course course = courseService.getCourseByExamId(examId);
 
-        if (!isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (!isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to view solutions for this exam",
@@ -339,10 +332,8 @@ public class SolutionController {
     @PutMapping("/instructor/solutions/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> updateSolution(@PathVariable Long id,
-                                                         @Valid @RequestBody SolutionDto solutionDto,
-                                                         Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+                                                         @Valid @RequestBody SolutionDto solutionDto) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Check if instructor owns the solution's course
         SolutionDto existingSolution = solutionService.getSolutionById(id);
@@ -361,7 +352,7 @@ public class SolutionController {
             course = speechExercise.getLesson().getModule().getCourse();
         }
 
-        if (course != null && !isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (course != null && !isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to update this solution",
@@ -388,10 +379,8 @@ public class SolutionController {
     @PutMapping("/instructor/solutions/{id}/visibility/{visible}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> setSolutionVisibility(@PathVariable Long id,
-                                                                @PathVariable boolean visible,
-                                                                Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+                                                                @PathVariable boolean visible) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Check if instructor owns the solution's course
         SolutionDto existingSolution = solutionService.getSolutionById(id);
@@ -410,7 +399,7 @@ public class SolutionController {
             course = speechExercise.getLesson().getModule().getCourse();
         }
 
-        if (course != null && !isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (course != null && !isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to update this solution",
@@ -438,10 +427,8 @@ public class SolutionController {
     @PutMapping("/instructor/solutions/{id}/availability/{available}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
     public ResponseEntity<ApiResponseDto> setSolutionAvailability(@PathVariable Long id,
-                                                                  @PathVariable boolean available,
-                                                                  Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+                                                                  @PathVariable boolean available) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Check if instructor owns the solution's course
         SolutionDto existingSolution = solutionService.getSolutionById(id);
@@ -460,7 +447,7 @@ public class SolutionController {
             course = speechExercise.getLesson().getModule().getCourse();
         }
 
-        if (course != null && !isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (course != null && !isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to update this solution",
@@ -485,9 +472,8 @@ public class SolutionController {
 
     @DeleteMapping("/instructor/solutions/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<ApiResponseDto> deleteSolution(@PathVariable Long id, Principal principal) {
-        User instructor = userService.getUserEntityByUsername(principal.getName());
-        boolean isAdmin = instructor.getRole().name().equals("ADMIN");
+    public ResponseEntity<ApiResponseDto> deleteSolution(@PathVariable Long id) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
 
         // Check if instructor owns the solution's course
         SolutionDto existingSolution = solutionService.getSolutionById(id);
@@ -506,7 +492,7 @@ public class SolutionController {
             course = speechExercise.getLesson().getModule().getCourse();
         }
 
-        if (course != null && !isAdmin && !course.getInstructor().getId().equals(instructor.getId())) {
+        if (course != null && !isAdmin && !course.getInstructor().getId().equals(currentUser.getId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
                     false,
                     "You are not authorized to delete this solution",
@@ -533,9 +519,7 @@ public class SolutionController {
 
     @GetMapping("/student/questions/{questionId}/solution")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getStudentSolutionByQuestion(@PathVariable Long questionId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getStudentSolutionByQuestion(@PathVariable Long questionId) {
         try {
             // Find solution for the question
             SolutionDto solution = solutionService.getSolutionByQuestionId(questionId);
@@ -562,7 +546,7 @@ public class SolutionController {
             }
 
             // Check if user is allowed to view this solution
-            boolean isAllowed = solutionService.isUserAllowedToViewSolution(solution.getId(), user.getId(), courseId);
+            boolean isAllowed = solutionService.isUserAllowedToViewSolution(solution.getId(), currentUser.getId(), courseId);
 
             if (!isAllowed) {
                 ApiResponseDto apiResponse = new ApiResponseDto(
@@ -597,9 +581,7 @@ public class SolutionController {
 
     @GetMapping("/student/speech-exercises/{speechExerciseId}/solution")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getStudentSolutionBySpeechExercise(@PathVariable Long speechExerciseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getStudentSolutionBySpeechExercise(@PathVariable Long speechExerciseId) {
         try {
             // Find solution for the speech exercise
             SolutionDto solution = solutionService.getSolutionBySpeechExerciseId(speechExerciseId);
@@ -609,7 +591,7 @@ public class SolutionController {
             Long courseId = speechExercise.getLesson().getModule().getCourse().getId();
 
             // Check if user is allowed to view this solution
-            boolean isAllowed = solutionService.isUserAllowedToViewSolution(solution.getId(), user.getId(), courseId);
+            boolean isAllowed = solutionService.isUserAllowedToViewSolution(solution.getId(), currentUser.getId(), courseId);
 
             if (!isAllowed) {
                 ApiResponseDto apiResponse = new ApiResponseDto(
@@ -1,16 +1,16 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.*;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.*;
 import com.nihongo.learningplatform.service.EnrollmentService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -19,37 +19,42 @@ import java.util.List;
 public class UserProgressController {
 
     private final UserProgressService userProgressService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final CourseService courseService;
     private final LessonService lessonService;
     private final ExerciseService exerciseService;
     private final ExamService examService;
     private final EnrollmentService enrollmentService;
+    private final ProgressSyncService progressSyncService;
+    private final ReviewScheduleService reviewScheduleService;
 
     @Autowired
     public UserProgressController(UserProgressService userProgressService,
-                                  UserService userService,
+                                  CurrentUser currentUser,
                                   CourseService courseService,
                                   LessonService lessonService,
                                   ExerciseService exerciseService,
                                   ExamService examService,
-                                  EnrollmentService enrollmentService) {
+                                  EnrollmentService enrollmentService,
+                                  ProgressSyncService progressSyncService,
+                                  ReviewScheduleService reviewScheduleService) {
         this.userProgressService = userProgressService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.courseService = courseService;
         this.lessonService = lessonService;
         this.exerciseService = exerciseService;
         this.examService = examService;
         this.enrollmentService = enrollmentService;
+        this.progressSyncService = progressSyncService;
+        this.reviewScheduleService = reviewScheduleService;
     }
 
     // Student endpoints for tracking progress
 
     @GetMapping("/student/progress")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getUserProgress(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<UserProgressDto> progressList = userProgressService.getUserProgressByUser(user.getId());
+    public ResponseEntity<ApiResponseDto> getUserProgress() {
+        List<UserProgressDto> progressList = userProgressService.getUserProgressByUser(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -63,9 +68,8 @@ public class UserProgressController {
 
     @GetMapping("/student/progress/completed")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getCompletedUserProgress(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<UserProgressDto> progressList = userProgressService.getCompletedProgressByUser(user.getId());
+    public ResponseEntity<ApiResponseDto> getCompletedUserProgress() {
+        List<UserProgressDto> progressList = userProgressService.getCompletedProgressByUser(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -79,11 +83,9 @@ public class UserProgressController {
 
     @GetMapping("/student/lessons/{lessonId}/progress")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getLessonProgress(@PathVariable Long lessonId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getLessonProgress(@PathVariable Long lessonId) {
         try {
-            UserProgressDto progress = userProgressService.getUserProgressByUserAndLesson(user.getId(), lessonId);
+            UserProgressDto progress = userProgressService.getUserProgressByUserAndLesson(currentUser.getId(), lessonId);
 
             ApiResponseDto apiResponse = new ApiResponseDto(
                     true,
@@ -107,19 +109,18 @@ public class UserProgressController {
 
     @PostMapping("/student/lessons/{lessonId}/complete")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> completeLesson(@PathVariable Long lessonId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> completeLesson(@PathVariable Long lessonId) {
         LessonDto lesson = lessonService.getLessonById(lessonId);
 
         // Check if the user is enrolled in the course
         CourseDto course = courseService.getCourseById(lesson.getCourseId());
-        boolean isAdmin = user.getRole().name().equals("ADMIN");
-        boolean isInstructor = user.getRole().name().equals("INSTRUCTOR") ||
-                course.getInstructorId().equals(user.getId());
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isInstructor = currentUser.getRole().name().equals("INSTRUCTOR") ||
+                course.getInstructorId().equals(currentUser.getId());
 
         if (!isAdmin && !isInstructor) {
             // For regular students, check enrollment
-            boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(user.getId(), lesson.getCourseId());
+            boolean isEnrolled = enrollmentService.hasCourseAccess(currentUser.getId(), lesson.getCourseId());
             if (!isEnrolled) {
                 ApiResponseDto apiResponse = new ApiResponseDto(
                         false,
@@ -133,7 +134,7 @@ public class UserProgressController {
         }
 
         UserProgressDto progress = userProgressService.createOrUpdateLessonProgress(
-                user.getId(), lessonId, true);
+                currentUser.getId(), lessonId, true);
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -145,13 +146,62 @@ public class UserProgressController {
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
-    @GetMapping("/student/exercises/{exerciseId}/progress")
+    // Replays progress recorded offline; each item gets its own result, replayed event ids are skipped
+    @PostMapping("/student/progress/sync")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> syncProgress(@Valid @RequestBody ProgressSyncRequestDto requestDto) {
+        boolean isAdmin = currentUser.getRole().name().equals("ADMIN");
+        boolean isInstructor = currentUser.getRole().name().equals("INSTRUCTOR");
+
+        ProgressSyncResponseDto sync = progressSyncService.syncProgress(
+                currentUser.getId(), !isAdmin && !isInstructor, requestDto.getItems());
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Progress synced successfully",
+                sync,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    // Spaced-repetition queue: the most overdue questions and speech exercises first
+    @GetMapping("/student/reviews/due")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getExerciseProgress(@PathVariable Long exerciseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
+    public ResponseEntity<ApiResponseDto> getDueReviews(@RequestParam(defaultValue = "20") int limit) {
+        ReviewQueueDto queue = reviewScheduleService.getDueReviews(currentUser.getId(), limit);
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Due reviews retrieved successfully",
+                queue,
+                LocalDateTime.now()
+        );
 
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @PostMapping("/student/reviews")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> submitReviews(@Valid @RequestBody ReviewSubmissionDto submissionDto) {
+        List<ReviewCardDto> cards = reviewScheduleService.submitReviews(currentUser.getId(), submissionDto.getReviews());
+
+        ApiResponseDto apiResponse = new ApiResponseDto(
+                true,
+                "Reviews recorded successfully",
+                cards,
+                LocalDateTime.now()
+        );
+
+        return new ResponseEntity<>(apiResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/student/exercises/{exerciseId}/progress")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<ApiResponseDto> getExerciseProgress(@PathVariable Long exerciseId) {
         try {
-            UserProgressDto progress = userProgressService.getUserProgressByUserAndExercise(user.getId(), exerciseId);
+            UserProgressDto progress = userProgressService.getUserProgressByUserAndExercise(currentUser.getId(), exerciseId);
 
             ApiResponseDto apiResponse = new ApiResponseDto(
                     true,
@@ -175,11 +225,9 @@ public class UserProgressController {
 
     @GetMapping("/student/exams/{examId}/progress")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getExamProgress(@PathVariable Long examId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getExamProgress(@PathVariable Long examId) {
         try {
-            UserProgressDto progress = userProgressService.getUserProgressByUserAndExam(user.getId(), examId);
+            UserProgressDto progress = userProgressService.getUserProgressByUserAndExam(currentUser.getId(), examId);
 
             ApiResponseDto apiResponse = new ApiResponseDto(
                     true,
@@ -203,11 +251,9 @@ public class UserProgressController {
 
     @GetMapping("/student/speech-exercises/{speechExerciseId}/progress")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getSpeechExerciseProgress(@PathVariable Long speechExerciseId, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> getSpeechExerciseProgress(@PathVariable Long speechExerciseId) {
         try {
-            UserProgressDto progress = userProgressService.getUserProgressByUserAndSpeechExercise(user.getId(), speechExerciseId);
+            UserProgressDto progress = userProgressService.getUserProgressByUserAndSpeechExercise(currentUser.getId(), speechExerciseId);
 
             ApiResponseDto apiResponse = new ApiResponseDto(
                     true,
@@ -1,9 +1,8 @@
 package com.nihongo.learningplatform.controller;
 
 import com.nihongo.learningplatform.dto.*;
-import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.security.CurrentUser;
 import com.nihongo.learningplatform.service.CourseService;
-import com.nihongo.learningplatform.service.UserService;
 import com.nihongo.learningplatform.service.VoucherService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,7 +12,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -23,15 +21,15 @@ import java.util.Map;
 public class VoucherController {
 
     private final VoucherService voucherService;
-    private final UserService userService;
+    private final CurrentUser currentUser;
     private final CourseService courseService;
 
     @Autowired
     public VoucherController(VoucherService voucherService,
-                             UserService userService,
+                             CurrentUser currentUser,
                              CourseService courseService) {
         this.voucherService = voucherService;
-        this.userService = userService;
+        this.currentUser = currentUser;
         this.courseService = courseService;
     }
 
@@ -352,9 +350,7 @@ public class VoucherController {
 
     @PostMapping("/student/vouchers/apply")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> applyVoucher(@Valid @RequestBody VoucherApplyRequestDto applyDto, Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-
+    public ResponseEntity<ApiResponseDto> applyVoucher(@Valid @RequestBody VoucherApplyRequestDto applyDto) {
         // Validate voucher first
         if (!voucherService.isVoucherValid(applyDto.getCode(), applyDto.getCourseId())) {
             ApiResponseDto apiResponse = new ApiResponseDto(
@@ -369,7 +365,7 @@ public class VoucherController {
 
         // Apply voucher (without payment ID for now)
         VoucherUsageDto voucherUsage = voucherService.applyVoucher(
-                applyDto.getCode(), applyDto.getCourseId(), user.getId(), null);
+                applyDto.getCode(), applyDto.getCourseId(), currentUser.getId(), null);
 
         // Calculate discount
         CourseDto course = courseService.getCourseById(applyDto.getCourseId());
@@ -395,9 +391,8 @@ public class VoucherController {
 
     @GetMapping("/student/vouchers/my-usages")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<ApiResponseDto> getMyVoucherUsages(Principal principal) {
-        User user = userService.getUserEntityByUsername(principal.getName());
-        List<VoucherUsageDto> voucherUsages = voucherService.getVoucherUsagesByUser(user.getId());
+    public ResponseEntity<ApiResponseDto> getMyVoucherUsages() {
+        List<VoucherUsageDto> voucherUsages = voucherService.getVoucherUsagesByUser(currentUser.getId());
 
         ApiResponseDto apiResponse = new ApiResponseDto(
                 true,
@@ -0,0 +1,16 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerSelectionStatsDto {
+    private Long answerId;
+    private String content;
+    private boolean correct;
+    private long selectionCount;
+    private Double selectionRate;
+}
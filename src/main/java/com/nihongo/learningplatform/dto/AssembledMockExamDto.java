@@ -0,0 +1,16 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AssembledMockExamDto {
+    private MockExamDto mockExam;
+    private long seed;
+    private List<Long> sourceQuestionIds; // Bank questions the paper was copied from, in paper order
+}
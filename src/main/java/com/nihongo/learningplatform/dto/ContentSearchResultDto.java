@@ -0,0 +1,14 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.search.SearchableContentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentSearchResultDto {
+    private SearchableContentType contentType;
+    private Long id;
+}
@@ -0,0 +1,20 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCatalogFilterDto {
+    private String level;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Long instructorId;
+    private String sort = "newest"; // newest, rating
+    private String cursor;
+    private int size = 20;
+}
@@ -8,6 +8,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -34,4 +35,5 @@ public class CourseDto {
     private String instructorName;
     private Double averageRating;
     private Integer reviewCount;
+    private Map<Integer, Long> ratingDistribution; // star -> number of reviews
 }
@@ -0,0 +1,26 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read-only catalog row built directly by JPQL constructor expressions, never from a Course entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSummaryDto {
+    private Long id;
+    private String title;
+    private String description;
+    private BigDecimal price;
+    private String thumbnailUrl;
+    private String level;
+    private Long instructorId;
+    private String instructorName;
+    private Double averageRating;
+    private Long reviewCount;
+    private LocalDateTime createdAt;
+}
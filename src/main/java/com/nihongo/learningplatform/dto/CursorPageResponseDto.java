@@ -0,0 +1,17 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponseDto<T> {
+    private List<T> content;
+    private int pageSize;
+    private String nextCursor; // Pass back as "cursor" to fetch the following page, null on the last page
+    private boolean last;
+}
@@ -0,0 +1,16 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyActivityDto {
+    private LocalDate date;
+    private Long activityCount;
+    private Long studyMinutes;
+}
@@ -22,4 +22,12 @@ public class EnrollmentDto {
     private LocalDateTime enrolledAt;
     private boolean completed;
     private LocalDateTime completedAt;
+
+    // Completion counters maintained per enrollment
+    private int requiredLessonsTotal;
+    private int requiredLessonsCompleted;
+    private int exercisesCompleted;
+    private int examsPassed;
+    private Long nextLessonId;
+    private int completionPercent;
 }
\ No newline at end of file
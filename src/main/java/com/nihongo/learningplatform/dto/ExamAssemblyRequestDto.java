@@ -0,0 +1,36 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.entity.QuestionType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamAssemblyRequestDto {
+    private String title; // Defaults to "<level> practice paper"
+
+    @NotBlank(message = "Level is required")
+    private String level;
+
+    private Long courseId; // Draw only from this course's questions; the paper belongs to the course
+
+    // Question type -> number of questions, in paper order
+    @NotEmpty(message = "At least one section is required")
+    private LinkedHashMap<QuestionType, Integer> sections;
+
+    @Positive(message = "Time limit must be positive")
+    private int timeLimit;
+
+    @Positive(message = "Passing score must be positive")
+    private int passingScore;
+
+    private Long seed; // Same seed and question bank give the same paper; random when omitted
+}
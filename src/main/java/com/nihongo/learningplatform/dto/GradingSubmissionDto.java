@@ -0,0 +1,25 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.entity.GradingSubmissionStatus;
+import com.nihongo.learningplatform.entity.GradingSubmissionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingSubmissionDto {
+    private Long id;
+    private String clientSubmissionId;
+    private GradingSubmissionType type;
+    private Long targetId; // Exam id or mock exam attempt id, depending on type
+    private GradingSubmissionStatus status;
+    private Integer score; // Set once COMPLETED
+    private Boolean passed;
+    private String errorMessage; // Set once FAILED
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+}
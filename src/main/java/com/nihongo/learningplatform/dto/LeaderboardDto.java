@@ -0,0 +1,16 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDto {
+    private int participants;
+    private List<LeaderboardEntryDto> top;
+    private LeaderboardEntryDto me; // Null when the current user has no submitted attempt on this board
+}
@@ -0,0 +1,21 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryDto {
+    private int rank;
+    private Long userId;
+    private String username;
+    private Long attemptId;
+    private Long mockExamId;
+    private int score;
+    private long durationSeconds;
+    private LocalDateTime achievedAt;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -16,7 +17,7 @@ public class LearningHistoryDto {
     private String username;
     private ActivityType activityType;
     private LocalDateTime timestamp;
-    private String details;
+    private Map<String, Object> details;
     private Long courseId;
     private String courseName;
     private Long moduleId;
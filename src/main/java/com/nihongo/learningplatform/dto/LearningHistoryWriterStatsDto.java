@@ -0,0 +1,17 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LearningHistoryWriterStatsDto {
+    private int queueDepth;
+    private int queueCapacity;
+    private long enqueued;
+    private long written;
+    private long dropped; // Rejected because the queue stayed full, or failed to insert
+    private long failedBatches;
+}
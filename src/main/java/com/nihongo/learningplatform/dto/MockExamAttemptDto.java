@@ -29,6 +29,8 @@ public class MockExamAttemptDto {
 
     private LocalDateTime endTime;
 
+    private LocalDateTime deadline;
+
     private Integer score;
 
     private Boolean passed;
@@ -0,0 +1,17 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MockExamQuestionResultDto {
+    private Long questionId;
+    private List<Long> selectedAnswerIds;
+    private boolean correct;
+    private Integer timeSpentSeconds;
+}
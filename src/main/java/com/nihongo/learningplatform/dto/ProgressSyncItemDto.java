@@ -0,0 +1,23 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.entity.ProgressSyncItemType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Items are validated one by one so a bad item is reported in its result instead of failing the whole batch
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncItemDto {
+    private String clientEventId; // Generated by the client, unique per user
+    private ProgressSyncItemType type;
+    private Long targetId; // Lesson or exercise id, depending on type
+    private Boolean completed; // Lessons only, defaults to true
+    private Map<Long, List<Long>> answers; // Exercises only: selected answer ids per question, graded on the server
+    private LocalDateTime clientTimestamp;
+}
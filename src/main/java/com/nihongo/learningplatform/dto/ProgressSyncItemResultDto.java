@@ -0,0 +1,18 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.entity.ProgressSyncItemType;
+import com.nihongo.learningplatform.entity.ProgressSyncStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncItemResultDto {
+    private String clientEventId;
+    private ProgressSyncItemType type;
+    private Long targetId;
+    private ProgressSyncStatus status;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncRequestDto {
+    @NotEmpty(message = "At least one progress item is required")
+    private List<ProgressSyncItemDto> items;
+}
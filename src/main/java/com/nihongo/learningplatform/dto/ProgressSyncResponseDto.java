@@ -0,0 +1,18 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressSyncResponseDto {
+    private List<ProgressSyncItemResultDto> results; // Same order as the request items
+    private int applied;
+    private int duplicates;
+    private int rejected;
+    private List<EnrollmentDto> enrollments; // Completion counters after the sync
+}
@@ -0,0 +1,13 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionImportErrorDto {
+    private int row; // 1-based position among the data rows, CSV header excluded
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionImportResultDto {
+    private int rows;
+    private int importedQuestions;
+    private int importedAnswers;
+    private int importedSolutions;
+    private int rejectedRows;
+    private List<QuestionImportErrorDto> errors; // First rejected rows only, see errorsTruncated
+    private boolean errorsTruncated;
+    private boolean completed; // False when malformed input stopped the import; earlier rows stay imported
+}
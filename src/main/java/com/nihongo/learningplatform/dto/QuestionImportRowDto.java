@@ -0,0 +1,19 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionImportRowDto {
+    private String content;
+    private String type; // QuestionType name, checked per row so a typo only rejects that row
+    private String audioUrl;
+    private List<AnswerDto> answers; // Only content and correct are read
+    private String solution;
+    private String explanation;
+}
@@ -0,0 +1,22 @@
+package com.nihongo.learningplatform.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionStatsDto {
+    private Long questionId;
+    private String content;
+    private long attemptCount;
+    @JsonProperty("pValue")
+    private Double pValue; // Share answered correctly, null before the first submission
+    private Double discrimination; // Point-biserial correlation with the submission score
+    private Double skipRate;
+    private List<AnswerSelectionStatsDto> answers;
+}
@@ -0,0 +1,29 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.entity.ReviewItemType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+// Either a self-assessed grade, or for questions the selected answers, which are graded as 4 or 1
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewAnswerDto {
+    @NotNull(message = "Item type is required")
+    private ReviewItemType itemType;
+
+    @NotNull(message = "Item ID is required")
+    private Long itemId;
+
+    @Min(value = 0, message = "Grade must be between 0 and 5")
+    @Max(value = 5, message = "Grade must be between 0 and 5")
+    private Integer grade;
+
+    private List<Long> answerIds;
+}
@@ -0,0 +1,22 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.entity.ReviewItemType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewCardDto {
+    private ReviewItemType itemType;
+    private Long itemId;
+    private int grade;
+    private double easeFactor;
+    private int intervalDays;
+    private int repetitions;
+    private int lapses;
+    private LocalDateTime dueAt;
+}
@@ -0,0 +1,27 @@
+package com.nihongo.learningplatform.dto;
+
+import com.nihongo.learningplatform.entity.QuestionType;
+import com.nihongo.learningplatform.entity.ReviewItemType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewItemDto {
+    private ReviewItemType itemType;
+    private Long itemId; // Question or speech exercise id, depending on itemType
+    private String title; // Speech exercises only
+    private String content; // Question text or the Japanese text to pronounce
+    private QuestionType questionType; // Questions only
+    private String audioUrl;
+    private Map<Long, String> options; // Answer id -> answer text, questions only
+    private LocalDateTime dueAt;
+    private int intervalDays;
+    private int repetitions;
+    private int lapses;
+}
@@ -0,0 +1,15 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewQueueDto {
+    private long dueCount; // All items due now, the batch holds the most overdue ones
+    private List<ReviewItemDto> items;
+}
@@ -0,0 +1,19 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSubmissionDto {
+    @NotEmpty(message = "At least one review is required")
+    @Size(max = 200, message = "At most 200 reviews can be submitted at once")
+    private List<@Valid ReviewAnswerDto> reviews;
+}
@@ -0,0 +1,17 @@
+package com.nihongo.learningplatform.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudyStreakDto {
+    private int currentStreak;
+    private int longestStreak;
+    private LocalDate lastActiveDate;
+    private boolean activeToday;
+}
@@ -13,7 +13,11 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "courses")
+@Table(name = "courses", indexes = {
+        @Index(name = "idx_courses_catalog", columnList = "approved, active, created_at DESC, id DESC"),
+        @Index(name = "idx_courses_level", columnList = "level"),
+        @Index(name = "idx_courses_instructor", columnList = "instructor_id")
+})
 public class Course {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
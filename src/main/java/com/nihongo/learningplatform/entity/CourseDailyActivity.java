@@ -0,0 +1,29 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "course_daily_activity", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_course_daily_activity", columnNames = {"course_id", "activity_date"})
+})
+public class CourseDailyActivity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(nullable = false)
+    private long activityCount;
+}
@@ -0,0 +1,47 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "course_rating_stats", indexes = {
+        @Index(name = "idx_course_rating_stats_average", columnList = "average_rating DESC, course_id DESC")
+})
+public class CourseRatingStats {
+    @Id
+    @Column(name = "course_id")
+    private Long courseId; // Same id as the course, maintained from review writes
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private long ratingCount;
+
+    @Column(nullable = false)
+    private Double averageRating = 0.0; // ratingSum / ratingCount (0 when unrated), kept as a column so the catalog can sort on it
+
+    // Per-star histogram
+    @Column(nullable = false)
+    private long oneStarCount;
+
+    @Column(nullable = false)
+    private long twoStarCount;
+
+    @Column(nullable = false)
+    private long threeStarCount;
+
+    @Column(nullable = false)
+    private long fourStarCount;
+
+    @Column(nullable = false)
+    private long fiveStarCount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "enrollment_progress", indexes = {
+        @Index(name = "idx_enrollment_progress_student_course", columnList = "student_id, course_id")
+})
+public class EnrollmentProgress {
+    @Id
+    @Column(name = "enrollment_id")
+    private Long enrollmentId; // Same id as the enrollment, maintained from user progress writes
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(nullable = false)
+    private int requiredLessonsTotal;
+
+    @Column(nullable = false)
+    private int requiredLessonsCompleted;
+
+    @Column(nullable = false)
+    private int exercisesCompleted;
+
+    @Column(nullable = false)
+    private int examsPassed;
+
+    private Long nextLessonId; // First required lesson (module order, then lesson order) not yet completed
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,71 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// Exam and mock exam submission accepted by the grading queue. The row is the durable queue entry and the
+// result clients poll for; (user_id, client_submission_id) makes retried submissions return the same row.
+// Inserted with ON CONFLICT DO NOTHING by GradingQueueServiceImpl, finished rows expire after the retention period.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "grading_submissions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_grading_submissions_user_client_id", columnNames = {"user_id", "client_submission_id"})
+}, indexes = {
+        @Index(name = "idx_grading_submissions_submitted_at", columnList = "submitted_at")
+})
+public class GradingSubmission {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "client_submission_id", nullable = false, length = 100)
+    private String clientSubmissionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GradingSubmissionType type;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId; // Exam id or mock exam attempt id, depending on type
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private MockExamAnswerSheet answers;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private GradingSubmissionStatus status;
+
+    @Column(nullable = false)
+    private int attempts; // Grading runs started, including the current one
+
+    private Integer score;
+
+    private Boolean passed;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    @Column(name = "submitted_at", nullable = false)
+    private LocalDateTime submittedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "claimed_by", length = 36)
+    private String claimedBy; // Instance grading the submission
+
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt; // Refreshed by the claiming instance while it grades
+}
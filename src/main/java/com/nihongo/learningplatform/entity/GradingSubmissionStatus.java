@@ -0,0 +1,8 @@
+package com.nihongo.learningplatform.entity;
+
+public enum GradingSubmissionStatus {
+    QUEUED,
+    GRADING,
+    COMPLETED,
+    FAILED // Rejected by grading (e.g. already submitted) or out of retries; see errorMessage
+}
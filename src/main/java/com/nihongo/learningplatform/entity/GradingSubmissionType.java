@@ -0,0 +1,6 @@
+package com.nihongo.learningplatform.entity;
+
+public enum GradingSubmissionType {
+    EXAM,
+    MOCK_EXAM
+}
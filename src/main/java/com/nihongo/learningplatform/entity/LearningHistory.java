@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -23,8 +27,9 @@ public class LearningHistory {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    @Column(columnDefinition = "TEXT")
-    private String details; // JSON format with additional details
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> details; // Typed per activity type, see LearningHistoryDetails
 
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
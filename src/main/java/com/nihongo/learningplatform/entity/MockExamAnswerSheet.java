@@ -0,0 +1,40 @@
+package com.nihongo.learningplatform.entity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+// Versioned JSON document stored in mock_exam_attempts.answers: {"v":1,"answers":{"<questionId>":[answerIds]}}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MockExamAnswerSheet {
+    public static final int CURRENT_VERSION = 1;
+
+    @JsonProperty("v")
+    private int version = CURRENT_VERSION;
+
+    private Map<Long, List<Long>> answers = new TreeMap<>(); // Question id -> selected answer ids
+
+    // Sorted by question, answer ids sorted and deduplicated, unanswered questions left out
+    public static MockExamAnswerSheet of(Map<Long, List<Long>> answers) {
+        Map<Long, List<Long>> normalized = new TreeMap<>();
+        if (answers != null) {
+            answers.forEach((questionId, selected) -> {
+                if (questionId != null && selected != null && !selected.isEmpty()) {
+                    List<Long> ids = selected.stream().filter(Objects::nonNull).sorted().distinct().toList();
+                    if (!ids.isEmpty()) {
+                        normalized.put(questionId, ids);
+                    }
+                }
+            });
+        }
+        return new MockExamAnswerSheet(CURRENT_VERSION, normalized);
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
 
 @Data
@@ -29,15 +32,22 @@ public class MockExamAttempt {
 
     private LocalDateTime endTime;
 
+    // startTime plus the mock exam's time limit; null when the mock exam is untimed
+    private LocalDateTime deadline;
+
     private Integer score;
 
     private Boolean passed;
 
-    @Column(columnDefinition = "TEXT")
-    private String answers; // JSON format to store user answers
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private MockExamAnswerSheet answers; // Per-question outcomes are in mock_exam_question_results
 
     @PrePersist
     protected void onCreate() {
         this.startTime = LocalDateTime.now();
+        if (mockExam != null && mockExam.getTimeLimit() > 0) {
+            this.deadline = startTime.plusMinutes(mockExam.getTimeLimit());
+        }
     }
 }
\ No newline at end of file
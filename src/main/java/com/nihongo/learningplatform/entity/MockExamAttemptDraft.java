@@ -0,0 +1,39 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// Last flushed autosave of an open mock exam attempt; rows are written in batches by MockExamDraftServiceImpl
+// and deleted when the attempt is submitted
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "mock_exam_attempt_drafts")
+public class MockExamAttemptDraft {
+    @Id
+    @Column(name = "attempt_id")
+    private Long attemptId; // Same id as the attempt
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Map<Long, List<Long>> answers; // Question id -> selected answer ids
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "time_spent", columnDefinition = "jsonb")
+    private Map<Long, Long> timeSpent; // Question id -> milliseconds credited to it between autosaves
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
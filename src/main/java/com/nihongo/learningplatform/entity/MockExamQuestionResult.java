@@ -0,0 +1,35 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one question in a submitted mock exam attempt, for per-question analytics and review screens.
+// All rows of an attempt are written as one JDBC batch by MockExamServiceImpl when the attempt is graded.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "mock_exam_question_results", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_mock_exam_question_results_attempt_question", columnNames = {"attempt_id", "question_id"})
+}, indexes = {
+        @Index(name = "idx_mock_exam_question_results_question", columnList = "question_id")
+})
+public class MockExamQuestionResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "attempt_id", nullable = false)
+    private Long attemptId;
+
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    @Column(nullable = false)
+    private boolean correct;
+
+    @Column(name = "time_spent_seconds")
+    private Integer timeSpentSeconds; // Null when the attempt was never autosaved
+}
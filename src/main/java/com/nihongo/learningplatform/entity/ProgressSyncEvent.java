@@ -0,0 +1,43 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Client event ids already applied through the offline sync endpoint, so replayed batches are not applied twice.
+// Rows are written with ON CONFLICT DO NOTHING by ProgressSyncServiceImpl and expire after the retention period.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "progress_sync_events", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_progress_sync_events_user_event", columnNames = {"user_id", "client_event_id"})
+}, indexes = {
+        @Index(name = "idx_progress_sync_events_received_at", columnList = "received_at")
+})
+public class ProgressSyncEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "client_event_id", nullable = false, length = 100)
+    private String clientEventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "item_type", nullable = false)
+    private ProgressSyncItemType itemType;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+
+    @Column(name = "client_timestamp", nullable = false)
+    private LocalDateTime clientTimestamp;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,6 @@
+package com.nihongo.learningplatform.entity;
+
+public enum ProgressSyncItemType {
+    LESSON,
+    EXERCISE
+}
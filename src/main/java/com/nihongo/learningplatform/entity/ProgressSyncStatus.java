@@ -0,0 +1,9 @@
+package com.nihongo.learningplatform.entity;
+
+public enum ProgressSyncStatus {
+    APPLIED,
+    DUPLICATE, // Client event id was already synced, nothing written
+    FORBIDDEN,
+    NOT_FOUND,
+    INVALID
+}
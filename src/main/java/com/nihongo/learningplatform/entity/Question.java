@@ -26,6 +26,9 @@ public class Question {
 
     private String audioUrl; // For listening questions
 
+    @Column(name = "source_question_id")
+    private Long sourceQuestionId; // Bank question this one was copied from when a paper was assembled
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
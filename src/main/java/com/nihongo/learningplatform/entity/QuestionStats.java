@@ -0,0 +1,49 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Running item-analysis statistics per question, merged from in-memory deltas by ItemAnalysisServiceImpl.
+// See grading.ItemStatistics for the meaning of the moment columns.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "question_stats")
+public class QuestionStats {
+    @Id
+    @Column(name = "question_id")
+    private Long questionId; // Same id as the question
+
+    @Column(name = "attempt_count", nullable = false)
+    private long attemptCount;
+
+    @Column(name = "correct_count", nullable = false)
+    private long correctCount;
+
+    @Column(name = "skipped_count", nullable = false)
+    private long skippedCount;
+
+    @Column(name = "mean_score", nullable = false)
+    private double meanScore;
+
+    @Column(name = "m2_score", nullable = false)
+    private double m2Score;
+
+    @Column(name = "co_moment", nullable = false)
+    private double coMoment;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "selection_counts", columnDefinition = "jsonb", nullable = false)
+    private Map<Long, Long> selectionCounts; // Answer id -> times selected
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
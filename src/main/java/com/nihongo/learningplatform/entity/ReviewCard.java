@@ -0,0 +1,57 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Spaced-repetition state of one question or speech exercise for one user; exactly one target column is set.
+// Rows are written in JDBC batches by ReviewScheduleServiceImpl, and "due now" reads only the
+// (user_id, due_at) index range up to the current time.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "review_cards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_review_cards_user_question", columnNames = {"user_id", "question_id"}),
+        @UniqueConstraint(name = "uk_review_cards_user_speech_exercise", columnNames = {"user_id", "speech_exercise_id"})
+}, indexes = {
+        @Index(name = "idx_review_cards_user_due", columnList = "user_id, due_at")
+})
+public class ReviewCard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(name = "speech_exercise_id")
+    private Long speechExerciseId;
+
+    @Column(name = "ease_factor", nullable = false)
+    private double easeFactor;
+
+    @Column(name = "interval_days", nullable = false)
+    private int intervalDays;
+
+    @Column(nullable = false)
+    private int repetitions;
+
+    @Column(nullable = false)
+    private int lapses;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Column(name = "last_grade")
+    private Integer lastGrade; // 0-5
+
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+}
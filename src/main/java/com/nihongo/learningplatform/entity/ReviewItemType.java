@@ -0,0 +1,6 @@
+package com.nihongo.learningplatform.entity;
+
+public enum ReviewItemType {
+    QUESTION,
+    SPEECH_EXERCISE
+}
@@ -0,0 +1,26 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_activity_streaks")
+public class UserActivityStreak {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int currentStreak; // Consecutive study days ending at lastActiveDate
+
+    @Column(nullable = false)
+    private int longestStreak;
+
+    private LocalDate lastActiveDate;
+}
@@ -0,0 +1,36 @@
+package com.nihongo.learningplatform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_daily_activity", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_daily_activity", columnNames = {"user_id", "activity_date", "activity_type"})
+})
+public class UserDailyActivity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+
+    @Column(name = "activity_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ActivityType activityType;
+
+    @Column(nullable = false)
+    private long activityCount;
+
+    @Column(nullable = false)
+    private long studyMinutes; // Lesson durations and exam time limits, maintained by the learning_history trigger
+}
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// (user_id, <target>_id) is unique per target type, see db/postgres-schema.sql
 @Table(name = "user_progress")
 public class UserProgress {
     @Id
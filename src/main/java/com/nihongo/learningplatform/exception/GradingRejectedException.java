@@ -0,0 +1,9 @@
+package com.nihongo.learningplatform.exception;
+
+// A queued submission that can never be graded, e.g. one accepted after the time limit or for an exam that is
+// gone; the grading queue fails it for good instead of retrying it
+public class GradingRejectedException extends RuntimeException {
+    public GradingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
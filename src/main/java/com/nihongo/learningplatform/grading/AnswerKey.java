@@ -0,0 +1,135 @@
+package com.nihongo.learningplatform.grading;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Immutable answer key of one exercise, exam or mock exam: question ids in ascending order, each with the
+// ascending ids of its correct answers. Grading walks these arrays directly, so it allocates nothing
+// beyond what the request body already holds.
+public final class AnswerKey {
+
+    private final Long courseId; // Null for general mock exams
+    private final int passingScore;
+    private final long[] questionIds;
+    private final long[][] correctAnswerIds;
+
+    private AnswerKey(Long courseId, int passingScore, long[] questionIds, long[][] correctAnswerIds) {
+        this.courseId = courseId;
+        this.passingScore = passingScore;
+        this.questionIds = questionIds;
+        this.correctAnswerIds = correctAnswerIds;
+    }
+
+    // Rows are (question id, correct answer id or null) ordered by question id then answer id,
+    // one row per correct answer and a single null row for questions without one
+    public static AnswerKey compile(Long courseId, int passingScore, List<Object[]> rows) {
+        long[] questionIds = new long[rows.size()];
+        long[][] correct = new long[rows.size()][];
+        long[] buffer = new long[8];
+        int questions = 0;
+        int i = 0;
+        while (i < rows.size()) {
+            long questionId = ((Number) rows.get(i)[0]).longValue();
+            int answers = 0;
+            for (; i < rows.size() && ((Number) rows.get(i)[0]).longValue() == questionId; i++) {
+                Object answerId = rows.get(i)[1];
+                if (answerId != null) {
+                    if (answers == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, answers * 2);
+                    }
+                    buffer[answers++] = ((Number) answerId).longValue();
+                }
+            }
+            questionIds[questions] = questionId;
+            correct[questions] = Arrays.copyOf(buffer, answers);
+            questions++;
+        }
+        return new AnswerKey(courseId, passingScore,
+                Arrays.copyOf(questionIds, questions), Arrays.copyOf(correct, questions));
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public int getPassingScore() {
+        return passingScore;
+    }
+
+    public int getQuestionCount() {
+        return questionIds.length;
+    }
+
+    // Questions are indexed 0..getQuestionCount()-1 in ascending id order
+    public long getQuestionId(int index) {
+        return questionIds[index];
+    }
+
+    public boolean isCorrect(int index, Map<Long, List<Long>> answers) {
+        return matches(correctAnswerIds[index], answers != null ? answers.get(questionIds[index]) : null);
+    }
+
+    // Percentage of questions answered exactly right, 0 when the assessment has no questions
+    public int score(Map<Long, List<Long>> answers) {
+        return questionIds.length > 0 ? countCorrect(answers) * 100 / questionIds.length : 0;
+    }
+
+    public boolean isPassing(int score) {
+        return score >= passingScore;
+    }
+
+    // A question counts when the selection is exactly its set of correct answers
+    public int countCorrect(Map<Long, List<Long>> answers) {
+        if (answers == null) {
+            answers = Map.of();
+        }
+        int count = 0;
+        for (int q = 0; q < questionIds.length; q++) {
+            if (matches(correctAnswerIds[q], answers.get(questionIds[q]))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean matches(long[] correct, List<Long> selected) {
+        int size = selected != null ? selected.size() : 0;
+        if (size != correct.length) {
+            return false;
+        }
+        if (size == 0) {
+            return true;
+        }
+        if (correct.length > Long.SIZE) {
+            return matchesLarge(correct, selected);
+        }
+        // Same size and every correct id seen at least once means the selection is exactly the key
+        long seen = 0;
+        for (int i = 0; i < size; i++) {
+            Long answerId = selected.get(i);
+            int position = answerId != null ? Arrays.binarySearch(correct, answerId) : -1;
+            if (position < 0) {
+                return false;
+            }
+            seen |= 1L << position;
+        }
+        return seen == (correct.length == Long.SIZE ? -1L : (1L << correct.length) - 1);
+    }
+
+    private static boolean matchesLarge(long[] correct, List<Long> selected) {
+        boolean[] seen = new boolean[correct.length];
+        int distinct = 0;
+        for (Long answerId : selected) {
+            int position = answerId != null ? Arrays.binarySearch(correct, answerId) : -1;
+            if (position < 0) {
+                return false;
+            }
+            if (!seen[position]) {
+                seen[position] = true;
+                distinct++;
+            }
+        }
+        return distinct == correct.length;
+    }
+}
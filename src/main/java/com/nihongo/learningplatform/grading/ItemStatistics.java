@@ -0,0 +1,112 @@
+package com.nihongo.learningplatform.grading;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Running item statistics of one question: how often it was answered correctly, the mean and variance of the
+// submission scores and their co-moment with correctness. Submissions are folded in with Welford's update and
+// partial results combine exactly (Chan et al.), so nothing per submission is kept. Not thread-safe.
+public final class ItemStatistics {
+
+    // Bounds what a client sending made-up answer ids can make us store
+    private static final int MAX_TRACKED_ANSWERS = 32;
+
+    private long count;
+    private long correctCount;
+    private long skippedCount;
+    private double meanScore;
+    private double m2Score;
+    private double coMoment;
+    private final Map<Long, Long> selectionCounts = new HashMap<>();
+
+    public void add(boolean correct, List<Long> selected, double score) {
+        double meanCorrectBefore = count > 0 ? (double) correctCount / count : 0;
+        count++;
+        if (correct) {
+            correctCount++;
+        }
+        double deltaScore = score - meanScore;
+        meanScore += deltaScore / count;
+        m2Score += deltaScore * (score - meanScore);
+        coMoment += ((correct ? 1 : 0) - meanCorrectBefore) * (score - meanScore);
+
+        if (selected == null || selected.isEmpty()) {
+            skippedCount++;
+            return;
+        }
+        for (Long answerId : selected) {
+            if (answerId != null) {
+                countSelection(answerId, 1);
+            }
+        }
+    }
+
+    public void merge(ItemStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double weight = (double) count * other.count / total;
+        double deltaScore = other.meanScore - meanScore;
+        double deltaCorrect = (double) other.correctCount / other.count - (count > 0 ? (double) correctCount / count : 0);
+        m2Score += other.m2Score + deltaScore * deltaScore * weight;
+        coMoment += other.coMoment + deltaCorrect * deltaScore * weight;
+        meanScore += deltaScore * other.count / total;
+        count = total;
+        correctCount += other.correctCount;
+        skippedCount += other.skippedCount;
+        other.selectionCounts.forEach((answerId, selections) -> countSelection(answerId, selections));
+    }
+
+    private void countSelection(Long answerId, long selections) {
+        if (selectionCounts.size() < MAX_TRACKED_ANSWERS || selectionCounts.containsKey(answerId)) {
+            selectionCounts.merge(answerId, selections, Long::sum);
+        }
+    }
+
+    // Share of submissions that got the question right (classical item difficulty)
+    public static Double pValue(long count, long correctCount) {
+        return count > 0 ? (double) correctCount / count : null;
+    }
+
+    // Correlation between getting the question right and the overall score; null while either never varied
+    public static Double pointBiserial(long count, long correctCount, double m2Score, double coMoment) {
+        if (count < 2) {
+            return null;
+        }
+        double m2Correct = (double) correctCount * (count - correctCount) / count;
+        if (m2Correct <= 0 || m2Score <= 0) {
+            return null;
+        }
+        return coMoment / Math.sqrt(m2Correct * m2Score);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getCorrectCount() {
+        return correctCount;
+    }
+
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    public double getMeanScore() {
+        return meanScore;
+    }
+
+    public double getM2Score() {
+        return m2Score;
+    }
+
+    public double getCoMoment() {
+        return coMoment;
+    }
+
+    public Map<Long, Long> getSelectionCounts() {
+        return selectionCounts;
+    }
+}
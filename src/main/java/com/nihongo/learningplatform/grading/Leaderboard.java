@@ -0,0 +1,78 @@
+package com.nihongo.learningplatform.grading;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Best result per user on one board, ranked by score (higher first), then duration (shorter first), then
+// who got there first. Reads share a read lock; an improvement replaces the user's entry under the write lock.
+public final class Leaderboard {
+
+    public static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparingLong(Entry::durationMillis)
+            .thenComparing(Entry::achievedAt)
+            .thenComparingLong(Entry::userId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> bestByUser = new HashMap<>();
+    private final RankedSet<Entry> ranking = new RankedSet<>(ORDER);
+
+    // Keeps the entry only if it beats the user's current best
+    public boolean offer(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            Entry current = bestByUser.get(entry.userId());
+            if (current != null && ORDER.compare(entry, current) >= 0) {
+                return false;
+            }
+            if (current != null) {
+                ranking.remove(current);
+            }
+            ranking.add(entry);
+            bestByUser.put(entry.userId(), entry);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Entry> top(int limit) {
+        lock.readLock().lock();
+        try {
+            return ranking.first(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 1-based rank and best entry of the user, or null when the user has no result on this board
+    public Ranked rankOf(long userId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = bestByUser.get(userId);
+            return entry != null ? new Ranked(ranking.rank(entry) + 1, entry) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ranking.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Entry(long userId, String username, long attemptId, long mockExamId, int score,
+                        long durationMillis, LocalDateTime achievedAt) {
+    }
+
+    public record Ranked(int rank, Entry entry) {
+    }
+}
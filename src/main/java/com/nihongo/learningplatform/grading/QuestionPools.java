@@ -0,0 +1,143 @@
+package com.nihongo.learningplatform.grading;
+
+import com.nihongo.learningplatform.entity.QuestionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+// Immutable snapshot of the question bank as sorted id arrays per (level, question type, course), so a
+// paper is assembled without touching the questions table. Sampling uses Floyd's algorithm, which draws
+// k distinct positions in O(k) whatever the pool size, and the same seed over the same snapshot always
+// yields the same paper.
+public final class QuestionPools {
+
+    private static final Comparator<Pool> POOL_ORDER = Comparator.comparing(
+            (Pool pool) -> pool.key().courseId(), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Map<LevelAndType, List<Pool>> poolsByLevelAndType;
+    private final int questionCount;
+    private final long builtAtMillis;
+
+    private QuestionPools(Map<LevelAndType, List<Pool>> poolsByLevelAndType, int questionCount, long builtAtMillis) {
+        this.poolsByLevelAndType = poolsByLevelAndType;
+        this.questionCount = questionCount;
+        this.builtAtMillis = builtAtMillis;
+    }
+
+    // Rows are (question id, question type, level, course id or null)
+    public static QuestionPools build(List<Object[]> rows) {
+        Map<PoolKey, long[]> buffers = new HashMap<>();
+        Map<PoolKey, Integer> sizes = new HashMap<>();
+        for (Object[] row : rows) {
+            PoolKey key = new PoolKey(normalizeLevel((String) row[2]), QuestionType.valueOf((String) row[1]),
+                    row[3] != null ? ((Number) row[3]).longValue() : null);
+            int size = sizes.getOrDefault(key, 0);
+            long[] ids = buffers.computeIfAbsent(key, k -> new long[16]);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                buffers.put(key, ids);
+            }
+            ids[size] = ((Number) row[0]).longValue();
+            sizes.put(key, size + 1);
+        }
+
+        Map<LevelAndType, List<Pool>> pools = new HashMap<>();
+        buffers.forEach((key, ids) -> {
+            long[] compact = Arrays.copyOf(ids, sizes.get(key));
+            Arrays.sort(compact);
+            pools.computeIfAbsent(new LevelAndType(key.level(), key.type()), k -> new ArrayList<>())
+                    .add(new Pool(key, compact));
+        });
+        pools.values().forEach(list -> list.sort(POOL_ORDER));
+        return new QuestionPools(pools, rows.size(), System.currentTimeMillis());
+    }
+
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    // Questions of the level and type, restricted to one course when courseId is given
+    public int available(String level, QuestionType type, Long courseId) {
+        int total = 0;
+        for (Pool pool : matching(level, type, courseId)) {
+            total += pool.ids().length;
+        }
+        return total;
+    }
+
+    // Draws count distinct question ids in random order; fails when fewer are available
+    public long[] sample(String level, QuestionType type, Long courseId, int count, Random random) {
+        List<Pool> pools = matching(level, type, courseId);
+        int[] offsets = new int[pools.size() + 1];
+        for (int i = 0; i < pools.size(); i++) {
+            offsets[i + 1] = offsets[i] + pools.get(i).ids().length;
+        }
+        int total = offsets[pools.size()];
+        if (count > total) {
+            throw new IllegalArgumentException("Only " + total + " " + type + " questions available at level " + level);
+        }
+
+        // Floyd: each of the last count positions either takes a fresh random slot or, on collision, itself
+        Set<Integer> chosen = new HashSet<>(count * 2);
+        long[] sample = new long[count];
+        int n = 0;
+        for (int j = total - count; j < total; j++) {
+            int position = random.nextInt(j + 1);
+            if (!chosen.add(position)) {
+                position = j;
+                chosen.add(position);
+            }
+            sample[n++] = idAt(pools, offsets, position);
+        }
+
+        // Floyd's output is not in random order, so shuffle the k draws
+        for (int i = count - 1; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            long tmp = sample[i];
+            sample[i] = sample[swap];
+            sample[swap] = tmp;
+        }
+        return sample;
+    }
+
+    private List<Pool> matching(String level, QuestionType type, Long courseId) {
+        List<Pool> pools = poolsByLevelAndType.getOrDefault(new LevelAndType(normalizeLevel(level), type), List.of());
+        if (courseId == null) {
+            return pools;
+        }
+        return pools.stream().filter(pool -> Objects.equals(pool.key().courseId(), courseId)).toList();
+    }
+
+    private static long idAt(List<Pool> pools, int[] offsets, int position) {
+        // Pools are never empty, so offsets are strictly increasing and an exact hit is the start of that pool
+        int index = Arrays.binarySearch(offsets, position);
+        int pool = index >= 0 ? index : -index - 2;
+        return pools.get(pool).ids()[position - offsets[pool]];
+    }
+
+    private static String normalizeLevel(String level) {
+        return level != null ? level.trim().toUpperCase(Locale.ROOT) : "";
+    }
+
+    private record LevelAndType(String level, QuestionType type) {
+    }
+
+    private record PoolKey(String level, QuestionType type, Long courseId) {
+    }
+
+    private record Pool(PoolKey key, long[] ids) {
+    }
+}
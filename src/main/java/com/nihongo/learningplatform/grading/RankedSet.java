@@ -0,0 +1,140 @@
+package com.nihongo.learningplatform.grading;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Sorted set that also answers "how many elements come before this one": a treap whose nodes carry their
+// subtree size. Insert, remove and rank are O(log n) expected, the first k elements O(log n + k).
+// Elements must be distinct under the comparator. Not thread-safe.
+public final class RankedSet<T> {
+
+    private final Comparator<? super T> comparator;
+    private Node<T> root;
+
+    public RankedSet(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void add(T value) {
+        Node<T>[] parts = split(root, value);
+        root = merge(merge(parts[0], new Node<>(value)), parts[1]);
+    }
+
+    public boolean remove(T value) {
+        int before = size(root);
+        root = remove(root, value);
+        return size(root) < before;
+    }
+
+    // Number of elements ordered strictly before the value, whether or not it is in the set
+    public int rank(T value) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (comparator.compare(value, node.value) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    public List<T> first(int limit) {
+        List<T> result = new ArrayList<>(Math.max(0, Math.min(limit, size())));
+        collect(root, limit, result);
+        return result;
+    }
+
+    private void collect(Node<T> node, int limit, List<T> result) {
+        if (node == null || result.size() >= limit) {
+            return;
+        }
+        collect(node.left, limit, result);
+        if (result.size() < limit) {
+            result.add(node.value);
+            collect(node.right, limit, result);
+        }
+    }
+
+    private Node<T> remove(Node<T> node, T value) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(value, node.value);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, value);
+        } else {
+            node.right = remove(node.right, value);
+        }
+        node.update();
+        return node;
+    }
+
+    // Left part holds the elements ordered before the value, right part the rest
+    @SuppressWarnings("unchecked")
+    private Node<T>[] split(Node<T> node, T value) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (comparator.compare(node.value, value) < 0) {
+            Node<T>[] parts = split(node.right, value);
+            node.right = parts[0];
+            node.update();
+            parts[0] = node;
+            return parts;
+        }
+        Node<T>[] parts = split(node.left, value);
+        node.left = parts[1];
+        node.update();
+        parts[1] = node;
+        return parts;
+    }
+
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node<T> left;
+        private Node<T> right;
+        private int size = 1;
+
+        private Node(T value) {
+            this.value = value;
+        }
+
+        private void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
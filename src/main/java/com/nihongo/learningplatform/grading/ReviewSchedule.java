@@ -0,0 +1,71 @@
+package com.nihongo.learningplatform.grading;
+
+import java.time.LocalDateTime;
+
+// SM-2 spaced repetition. Grades run from 0 (blackout) to 5 (perfect recall); a grade of 3 or more keeps the
+// streak and stretches the interval by the ease factor, anything lower sends the item back to relearning,
+// which comes due again after a few minutes. Every grade nudges the ease factor, floored at 1.3.
+public final class ReviewSchedule {
+
+    public static final int MIN_GRADE = 0;
+    public static final int MAX_GRADE = 5;
+    public static final int PASSING_GRADE = 3;
+
+    private static final double INITIAL_EASE = 2.5;
+    private static final double MIN_EASE = 1.3;
+    private static final int MAX_INTERVAL_DAYS = 365;
+    private static final int RELEARN_DELAY_MINUTES = 10;
+
+    public static final State NEW = new State(INITIAL_EASE, 0, 0, 0);
+
+    private ReviewSchedule() {
+    }
+
+    public static State next(State current, int grade) {
+        int g = Math.max(MIN_GRADE, Math.min(MAX_GRADE, grade));
+        double ease = Math.max(MIN_EASE, current.ease() + 0.1 - (5 - g) * (0.08 + (5 - g) * 0.02));
+        if (g < PASSING_GRADE) {
+            return new State(ease, 0, 0, current.lapses() + (current.repetitions() > 0 ? 1 : 0));
+        }
+        int interval;
+        if (current.repetitions() == 0) {
+            interval = 1;
+        } else if (current.repetitions() == 1) {
+            interval = 6;
+        } else {
+            interval = (int) Math.round(current.intervalDays() * current.ease());
+        }
+        return new State(ease, Math.min(MAX_INTERVAL_DAYS, Math.max(1, interval)), current.repetitions() + 1, current.lapses());
+    }
+
+    public static LocalDateTime dueAt(State state, LocalDateTime reviewedAt) {
+        return state.intervalDays() == 0
+                ? reviewedAt.plusMinutes(RELEARN_DELAY_MINUTES)
+                : reviewedAt.plusDays(state.intervalDays());
+    }
+
+    // Objective questions only tell right from wrong
+    public static int gradeForCorrect(boolean correct) {
+        return correct ? 4 : 1;
+    }
+
+    // Percentage scores such as pronunciation scores
+    public static int gradeForScore(double percent) {
+        if (percent >= 90) {
+            return 5;
+        }
+        if (percent >= 75) {
+            return 4;
+        }
+        if (percent >= 60) {
+            return 3;
+        }
+        if (percent >= 40) {
+            return 2;
+        }
+        return percent >= 20 ? 1 : 0;
+    }
+
+    public record State(double ease, int intervalDays, int repetitions, int lapses) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.nihongo.learningplatform.grading;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Hashed timing wheel: a deadline is hashed into one of a fixed ring of buckets by its tick, and a single
+// worker thread visits one bucket per tick. Scheduling and cancelling are O(1) and a tick only touches the
+// entries of its bucket, however many timeouts are pending. Entries more than one turn away carry a round
+// count. Timeouts never fire early; they fire at most one tick late, in one batch per tick.
+public final class TimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final String name;
+    private final long tickMillis;
+    private final int mask;
+    private final int shift;
+    private final List<Entry>[] buckets;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Consumer<List<Long>> onExpired;
+
+    private final long startMillis;
+    private long currentTick;
+    private volatile boolean running;
+    private Thread worker;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, long tickMillis, int wheelSize, Consumer<List<Long>> onExpired) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.name = name;
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.shift = Integer.numberOfTrailingZeros(size);
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.onExpired = onExpired;
+        this.startMillis = System.currentTimeMillis();
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = worker;
+        }
+        if (current != null) {
+            current.interrupt();
+            try {
+                current.join(tickMillis * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Replaces any timeout already pending for the key; deadlines in the past fire on the next tick
+    public synchronized void schedule(long key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max(currentTick, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+        Entry entry = new Entry(key, (deadlineTick - currentTick) >>> shift);
+        buckets[(int) (deadlineTick & mask)].add(entry);
+        entries.put(key, entry);
+    }
+
+    // Cancelled entries are only flagged here and dropped when the worker next visits their bucket
+    public synchronized boolean cancel(long key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.cancelled = true;
+        return true;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void run() {
+        while (running) {
+            long waitMillis;
+            synchronized (this) {
+                waitMillis = startMillis + currentTick * tickMillis - System.currentTimeMillis();
+            }
+            if (waitMillis > 0) {
+                try {
+                    Thread.sleep(waitMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+
+            List<Long> expired = advance();
+            if (!expired.isEmpty()) {
+                try {
+                    onExpired.accept(expired);
+                } catch (RuntimeException e) {
+                    logger.error("Timing wheel {} failed to hand off {} expired timeouts", name, expired.size(), e);
+                }
+            }
+        }
+    }
+
+    // Rebuilds the bucket rather than removing in place, so a bucket where thousands expire at once stays linear
+    private synchronized List<Long> advance() {
+        int index = (int) (currentTick & mask);
+        List<Long> expired = new ArrayList<>();
+        List<Entry> remaining = new ArrayList<>();
+        for (Entry entry : buckets[index]) {
+            if (entry.cancelled) {
+                continue;
+            }
+            if (entry.remainingRounds > 0) {
+                entry.remainingRounds--;
+                remaining.add(entry);
+            } else {
+                entries.remove(entry.key, entry);
+                expired.add(entry.key);
+            }
+        }
+        buckets[index] = remaining;
+        currentTick++;
+        return expired;
+    }
+
+    private static final class Entry {
+        private final long key;
+        private long remainingRounds;
+        private boolean cancelled;
+
+        private Entry(long key, long remainingRounds) {
+            this.key = key;
+            this.remainingRounds = remainingRounds;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.nihongo.learningplatform.history;
+
+import com.nihongo.learningplatform.entity.ActivityType;
+import com.nihongo.learningplatform.exception.BadRequestException;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Typed payloads stored in the learning_history.details JSONB column, one shape per ActivityType.
+// Field names are shared with the expression indexes and queries in LearningHistoryRepository.
+public final class LearningHistoryDetails {
+
+    public static final String COURSE_ID = "courseId";
+    public static final String LESSON_ID = "lessonId";
+    public static final String EXERCISE_ID = "exerciseId";
+    public static final String EXAM_ID = "examId";
+    public static final String MOCK_EXAM_ID = "mockExamId";
+    public static final String CERTIFICATE_ID = "certificateId";
+    public static final String PAYMENT_ID = "paymentId";
+    public static final String COMMENT_ID = "commentId";
+    public static final String REVIEW_ID = "reviewId";
+    public static final String SCORE = "score";
+    public static final String PASSED = "passed";
+    public static final String MESSAGE = "message";
+
+    private static final Map<ActivityType, List<String>> REQUIRED_FIELDS = new EnumMap<>(ActivityType.class);
+
+    static {
+        REQUIRED_FIELDS.put(ActivityType.COURSE_ENROLLMENT, List.of());
+        REQUIRED_FIELDS.put(ActivityType.LESSON_COMPLETED, List.of(LESSON_ID));
+        REQUIRED_FIELDS.put(ActivityType.EXERCISE_COMPLETED, List.of(EXERCISE_ID, SCORE));
+        REQUIRED_FIELDS.put(ActivityType.EXAM_COMPLETED, List.of(EXAM_ID, SCORE, PASSED));
+        REQUIRED_FIELDS.put(ActivityType.MOCK_EXAM_COMPLETED, List.of(MOCK_EXAM_ID, SCORE, PASSED));
+        REQUIRED_FIELDS.put(ActivityType.CERTIFICATE_EARNED, List.of(COURSE_ID, CERTIFICATE_ID));
+        REQUIRED_FIELDS.put(ActivityType.LOGIN, List.of());
+        REQUIRED_FIELDS.put(ActivityType.PURCHASE, List.of(PAYMENT_ID));
+        REQUIRED_FIELDS.put(ActivityType.COMMENT_POSTED, List.of(LESSON_ID, COMMENT_ID));
+        REQUIRED_FIELDS.put(ActivityType.REVIEW_POSTED, List.of(COURSE_ID, REVIEW_ID));
+    }
+
+    private LearningHistoryDetails() {
+    }
+
+    public static Map<String, Object> courseEnrollment(Long courseId) {
+        return of(COURSE_ID, courseId);
+    }
+
+    public static Map<String, Object> lessonCompleted(Long lessonId) {
+        return of(LESSON_ID, lessonId);
+    }
+
+    public static Map<String, Object> exerciseCompleted(Long exerciseId, Integer score) {
+        return of(EXERCISE_ID, exerciseId, SCORE, score);
+    }
+
+    public static Map<String, Object> examCompleted(Long examId, Integer score, Boolean passed) {
+        return of(EXAM_ID, examId, SCORE, score, PASSED, Boolean.TRUE.equals(passed));
+    }
+
+    public static Map<String, Object> mockExamCompleted(Long mockExamId, Integer score, Boolean passed) {
+        return of(MOCK_EXAM_ID, mockExamId, SCORE, score, PASSED, Boolean.TRUE.equals(passed));
+    }
+
+    public static Map<String, Object> certificateEarned(Long courseId, Long certificateId) {
+        return of(COURSE_ID, courseId, CERTIFICATE_ID, certificateId);
+    }
+
+    public static Map<String, Object> login() {
+        return of();
+    }
+
+    public static Map<String, Object> purchase(Long paymentId, String message) {
+        return of(PAYMENT_ID, paymentId, MESSAGE, message);
+    }
+
+    public static Map<String, Object> commentPosted(Long lessonId, Long commentId) {
+        return of(LESSON_ID, lessonId, COMMENT_ID, commentId);
+    }
+
+    public static Map<String, Object> reviewPosted(Long courseId, Long reviewId) {
+        return of(COURSE_ID, courseId, REVIEW_ID, reviewId);
+    }
+
+    // Checks client-supplied details against the shape for the activity type so the typed queries can trust them
+    public static void validate(ActivityType activityType, Map<String, Object> details) {
+        if (details == null) {
+            return;
+        }
+        for (String field : REQUIRED_FIELDS.getOrDefault(activityType, List.of())) {
+            if (details.get(field) == null) {
+                throw new BadRequestException("Details for " + activityType + " must contain '" + field + "'");
+            }
+        }
+        Object score = details.get(SCORE);
+        if (score != null && !(score instanceof Integer || score instanceof Long)) {
+            throw new BadRequestException("Details field 'score' must be an integer");
+        }
+        Object passed = details.get(PASSED);
+        if (passed != null && !(passed instanceof Boolean)) {
+            throw new BadRequestException("Details field 'passed' must be a boolean");
+        }
+    }
+
+    // Null values are left out so the JSON only carries what is known
+    private static Map<String, Object> of(Object... keysAndValues) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (keysAndValues[i + 1] != null) {
+                details.put((String) keysAndValues[i], keysAndValues[i + 1]);
+            }
+        }
+        return details;
+    }
+}
@@ -0,0 +1,21 @@
+package com.nihongo.learningplatform.history;
+
+import com.nihongo.learningplatform.entity.ActivityType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// A learning_history row waiting to be written. Only ids are carried; module and course are
+// derived from the lesson, exercise, exam, mock exam or payment when the batch is inserted.
+public record LearningHistoryEvent(
+        Long userId,
+        ActivityType activityType,
+        LocalDateTime timestamp,
+        Map<String, Object> details,
+        Long courseId,
+        Long lessonId,
+        Long exerciseId,
+        Long examId,
+        Long mockExamId,
+        Long paymentId) {
+}
@@ -0,0 +1,225 @@
+package com.nihongo.learningplatform.history;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nihongo.learningplatform.dto.LearningHistoryWriterStatsDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Buffers learning history events in a bounded queue and writes them from a single background thread
+// as JDBC batch inserts, flushed when the batch is full or the flush interval has passed.
+// When the queue is full callers wait briefly and the event is then dropped, so recording never blocks a request.
+@Component
+public class LearningHistoryWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LearningHistoryWriter.class);
+
+    // Module and course are resolved in the same statement instead of loading entities per event
+    private static final String INSERT_SQL =
+            "INSERT INTO learning_history (user_id, activity_type, \"timestamp\", details, " +
+            "lesson_id, exercise_id, exam_id, mock_exam_id, module_id, course_id) " +
+            "SELECT v.user_id, v.activity_type, v.ts, v.details, " +
+            "v.lesson_id, v.exercise_id, v.exam_id, v.mock_exam_id, l.module_id, " +
+            "COALESCE(v.course_id, m.course_id, l.course_id, ex.course_id, e.course_id, me.course_id, en.course_id) " +
+            "FROM (SELECT CAST(? AS bigint) AS user_id, CAST(? AS varchar) AS activity_type, " +
+            "CAST(? AS timestamp) AS ts, CAST(? AS jsonb) AS details, CAST(? AS bigint) AS course_id, " +
+            "CAST(? AS bigint) AS lesson_id, CAST(? AS bigint) AS exercise_id, CAST(? AS bigint) AS exam_id, " +
+            "CAST(? AS bigint) AS mock_exam_id, CAST(? AS bigint) AS payment_id) v " +
+            "LEFT JOIN lessons l ON l.id = v.lesson_id " +
+            "LEFT JOIN modules m ON m.id = l.module_id " +
+            "LEFT JOIN exercises ex ON ex.id = v.exercise_id " +
+            "LEFT JOIN exams e ON e.id = v.exam_id " +
+            "LEFT JOIN mock_exams me ON me.id = v.mock_exam_id " +
+            "LEFT JOIN payments p ON p.id = v.payment_id " +
+            "LEFT JOIN enrollments en ON en.id = p.enrollment_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<LearningHistoryEvent> queue;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final long shutdownTimeoutMillis;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public LearningHistoryWriter(JdbcTemplate jdbcTemplate,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.learning-history.writer.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${app.learning-history.writer.batch-size:200}") int batchSize,
+                                 @Value("${app.learning-history.writer.flush-interval-ms:1000}") long flushIntervalMillis,
+                                 @Value("${app.learning-history.writer.offer-timeout-ms:50}") long offerTimeoutMillis,
+                                 @Value("${app.learning-history.writer.shutdown-timeout-ms:10000}") long shutdownTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "learning-history-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Stop accepting events and give the worker time to write everything still queued
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive() || !queue.isEmpty()) {
+            logger.warn("Learning history writer stopped with {} events still queued", queue.size());
+        }
+    }
+
+    public void enqueue(LearningHistoryEvent event) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return;
+        }
+        try {
+            if (queue.offer(event, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                enqueued.incrementAndGet();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.incrementAndGet() % 1000 == 1) {
+            logger.warn("Learning history queue is full, dropped {} events so far", dropped.get());
+        }
+    }
+
+    public LearningHistoryWriterStatsDto getStats() {
+        return new LearningHistoryWriterStatsDto(
+                queue.size(),
+                queueCapacity,
+                enqueued.get(),
+                written.get(),
+                dropped.get(),
+                failedBatches.get()
+        );
+    }
+
+    private void run() {
+        List<LearningHistoryEvent> batch = new ArrayList<>(batchSize);
+        long flushDeadline = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                long wait = batch.isEmpty()
+                        ? flushIntervalMillis
+                        : Math.max(0, flushDeadline - System.currentTimeMillis());
+                LearningHistoryEvent event = running ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                if (event != null) {
+                    if (batch.isEmpty()) {
+                        flushDeadline = System.currentTimeMillis() + flushIntervalMillis;
+                    }
+                    batch.add(event);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (!batch.isEmpty() && (batch.size() >= batchSize || !running
+                        || System.currentTimeMillis() >= flushDeadline)) {
+                    flush(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Learning history writer failed, discarding {} events", batch.size(), e);
+                dropped.addAndGet(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    // Package-private so tests can write a batch inside their own transaction
+    void flush(List<LearningHistoryEvent> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bind));
+            written.addAndGet(batch.size());
+        } catch (RuntimeException e) {
+            // One bad row (e.g. a user deleted meanwhile) fails the whole batch, so retry rows one by one
+            failedBatches.incrementAndGet();
+            logger.warn("Learning history batch of {} failed, retrying individually", batch.size(), e);
+            for (LearningHistoryEvent event : batch) {
+                try {
+                    flushSingle(event);
+                    written.incrementAndGet();
+                } catch (RuntimeException rowError) {
+                    dropped.incrementAndGet();
+                    logger.warn("Dropping learning history event {}", event, rowError);
+                }
+            }
+        }
+    }
+
+    private void flushSingle(LearningHistoryEvent event) {
+        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, event));
+    }
+
+    private void bind(PreparedStatement ps, LearningHistoryEvent event) throws SQLException {
+        ps.setObject(1, event.userId(), Types.BIGINT);
+        ps.setString(2, event.activityType().name());
+        ps.setTimestamp(3, Timestamp.valueOf(event.timestamp()));
+        ps.setString(4, toJson(event.details()));
+        ps.setObject(5, event.courseId(), Types.BIGINT);
+        ps.setObject(6, event.lessonId(), Types.BIGINT);
+        ps.setObject(7, event.exerciseId(), Types.BIGINT);
+        ps.setObject(8, event.examId(), Types.BIGINT);
+        ps.setObject(9, event.mockExamId(), Types.BIGINT);
+        ps.setObject(10, event.paymentId(), Types.BIGINT);
+    }
+
+    private String toJson(Map<String, Object> details) throws SQLException {
+        if (details == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(details);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Could not serialize learning history details", e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.nihongo.learningplatform.importer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streaming RFC 4180 reader: one record at a time, so memory stays bounded by the longest record whatever the
+// file size. Fields may be quoted, quotes inside a quoted field are doubled, and quoted fields may span lines.
+// Lines may end in CRLF or LF, a leading byte order mark is skipped and blank lines are ignored.
+public final class CsvReader implements Closeable {
+
+    private static final int BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final int maxFieldLength;
+    private final StringBuilder field = new StringBuilder();
+    private int pushedBack = -2; // -2: nothing pushed back
+    private boolean started;
+    private long line = 1;
+
+    public CsvReader(Reader reader, int maxFieldLength) {
+        this.reader = reader;
+        this.maxFieldLength = maxFieldLength;
+    }
+
+    // Decodes bytes that are invalid in the charset as errors (a CharacterCodingException from next()) rather
+    // than silently replacing them with U+FFFD
+    public static Reader strictReader(InputStream input, Charset charset) {
+        return new BufferedReader(new InputStreamReader(input, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)));
+    }
+
+    // Line the reader has got to, 1-based
+    public long getLine() {
+        return line;
+    }
+
+    // Fields of the next record, or null at the end of the input
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            endLine(c);
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        while (true) {
+            field.setLength(0);
+            if (c == '"') {
+                long openedAt = line;
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field starting on line " + openedAt);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    append(c);
+                }
+                if (c != ',' && c != '\r' && c != '\n' && c != -1) {
+                    throw new IOException("Unexpected character after a quoted field on line " + line);
+                }
+            } else {
+                while (c != ',' && c != '\r' && c != '\n' && c != -1) {
+                    append(c);
+                    c = read();
+                }
+            }
+            fields.add(field.toString());
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c != -1) {
+                endLine(c);
+            }
+            return fields;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void append(int c) throws IOException {
+        if (field.length() == maxFieldLength) {
+            throw new IOException("Field on line " + line + " is longer than " + maxFieldLength + " characters");
+        }
+        field.append((char) c);
+    }
+
+    // Called on CR or LF; swallows the LF of a CRLF pair
+    private void endLine(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                pushedBack = next;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        int c = reader.read();
+        if (!started) {
+            started = true;
+            if (c == BOM) {
+                c = reader.read();
+            }
+        }
+        return c;
+    }
+}
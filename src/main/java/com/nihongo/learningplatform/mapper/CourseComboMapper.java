@@ -1,6 +1,8 @@
 package com.nihongo.learningplatform.mapper;
 
 import com.nihongo.learningplatform.dto.CourseComboDto;
+import com.nihongo.learningplatform.dto.CourseDto;
+import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.CourseCombo;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -13,5 +15,9 @@ public interface CourseComboMapper {
 
     CourseCombo toEntity(CourseComboDto dto);
 
+    // Combo listings do not carry the per-course rating histogram
+    @Mapping(target = "ratingDistribution", ignore = true)
+    CourseDto toCourseDto(Course course);
+
     void updateEntityFromDto(CourseComboDto dto, @MappingTarget CourseCombo entity);
 }
\ No newline at end of file
@@ -19,7 +19,9 @@ public interface QuestionMapper {
     @Mapping(target = "exercise", ignore = true)
     @Mapping(target = "exam", ignore = true)
     @Mapping(target = "mockExam", ignore = true)
+    @Mapping(target = "sourceQuestionId", ignore = true)
     Question toEntity(QuestionDto dto);
 
+    @Mapping(target = "sourceQuestionId", ignore = true)
     void updateEntityFromDto(QuestionDto dto, @MappingTarget Question entity);
 }
\ No newline at end of file
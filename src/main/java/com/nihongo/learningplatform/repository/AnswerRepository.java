@@ -3,12 +3,20 @@ package com.nihongo.learningplatform.repository;
 import com.nihongo.learningplatform.entity.Answer;
 import com.nihongo.learningplatform.entity.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AnswerRepository extends JpaRepository<Answer, Long> {
     List<Answer> findByQuestion(Question question);
     List<Answer> findByQuestionAndIsCorrect(Question question, boolean isCorrect);
+    List<Answer> findByQuestionIdInOrderByIdAsc(Collection<Long> questionIds);
+
+    // (question id, correct answer id) rows
+    @Query("SELECT a.question.id, a.id FROM Answer a WHERE a.question.id IN :questionIds AND a.isCorrect = true")
+    List<Object[]> findCorrectAnswerRowsByQuestionIdIn(@Param("questionIds") Collection<Long> questionIds);
 }
\ No newline at end of file
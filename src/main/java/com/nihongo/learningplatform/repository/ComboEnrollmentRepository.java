@@ -20,4 +20,12 @@ public interface ComboEnrollmentRepository extends JpaRepository<ComboEnrollment
     boolean existsByStudentIdAndComboId(Long userId, Long comboId);
     @Query("SELECT e FROM ComboEnrollment e WHERE e.expirationDate < :now AND e.completed = false")
     List<ComboEnrollment> findExpiredEnrollments(@Param("now") LocalDateTime now);
+
+    // (courseId, expirationDate) for every course reachable through a combo that has not expired yet
+    @Query("SELECT c.id, e.expirationDate FROM ComboEnrollment e JOIN e.combo cb JOIN cb.courses c " +
+            "WHERE e.student.id = :studentId AND e.expirationDate > :now")
+    List<Object[]> findActiveComboCourseAccess(@Param("studentId") Long studentId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT DISTINCT e.student.id FROM ComboEnrollment e WHERE e.combo.id = :comboId")
+    List<Long> findStudentIdsByComboId(@Param("comboId") Long comboId);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.CourseDailyActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CourseDailyActivityRepository extends JpaRepository<CourseDailyActivity, Long> {
+    List<CourseDailyActivity> findByCourseIdAndActivityDateGreaterThanEqualOrderByActivityDate(Long courseId, LocalDate from);
+}
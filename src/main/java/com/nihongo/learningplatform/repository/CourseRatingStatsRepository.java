@@ -0,0 +1,61 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.CourseRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CourseRatingStatsRepository extends JpaRepository<CourseRatingStats, Long> {
+    List<CourseRatingStats> findByCourseIdIn(Collection<Long> courseIds);
+
+    // Applies a delta atomically in the database so concurrent reviews never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO course_rating_stats (course_id, rating_sum, rating_count, one_star_count, " +
+            "two_star_count, three_star_count, four_star_count, five_star_count, average_rating, updated_at) " +
+            "VALUES (:courseId, :sumDelta, :countDelta, :oneDelta, :twoDelta, :threeDelta, :fourDelta, :fiveDelta, " +
+            "COALESCE(CAST(:sumDelta AS double precision) / NULLIF(:countDelta, 0), 0), now()) " +
+            "ON CONFLICT (course_id) DO UPDATE SET " +
+            "rating_sum = course_rating_stats.rating_sum + EXCLUDED.rating_sum, " +
+            "rating_count = course_rating_stats.rating_count + EXCLUDED.rating_count, " +
+            "one_star_count = course_rating_stats.one_star_count + EXCLUDED.one_star_count, " +
+            "two_star_count = course_rating_stats.two_star_count + EXCLUDED.two_star_count, " +
+            "three_star_count = course_rating_stats.three_star_count + EXCLUDED.three_star_count, " +
+            "four_star_count = course_rating_stats.four_star_count + EXCLUDED.four_star_count, " +
+            "five_star_count = course_rating_stats.five_star_count + EXCLUDED.five_star_count, " +
+            "average_rating = COALESCE(CAST(course_rating_stats.rating_sum + EXCLUDED.rating_sum AS double precision) / " +
+            "NULLIF(course_rating_stats.rating_count + EXCLUDED.rating_count, 0), 0), " +
+            "updated_at = now()",
+            nativeQuery = true)
+    void applyDelta(@Param("courseId") Long courseId,
+                    @Param("sumDelta") long sumDelta,
+                    @Param("countDelta") long countDelta,
+                    @Param("oneDelta") long oneDelta,
+                    @Param("twoDelta") long twoDelta,
+                    @Param("threeDelta") long threeDelta,
+                    @Param("fourDelta") long fourDelta,
+                    @Param("fiveDelta") long fiveDelta);
+
+    // Recomputes every course from the reviews table (used to repair drift); unrated courses get a zero row
+    @Modifying
+    @Query(value = "INSERT INTO course_rating_stats (course_id, rating_sum, rating_count, one_star_count, " +
+            "two_star_count, three_star_count, four_star_count, five_star_count, average_rating, updated_at) " +
+            "SELECT c.id, COALESCE(SUM(r.rating), 0), COUNT(r.id), " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 1), COUNT(r.id) FILTER (WHERE r.rating = 2), " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 3), COUNT(r.id) FILTER (WHERE r.rating = 4), " +
+            "COUNT(r.id) FILTER (WHERE r.rating = 5), COALESCE(AVG(r.rating), 0), now() " +
+            "FROM courses c LEFT JOIN reviews r ON r.course_id = c.id GROUP BY c.id " +
+            "ON CONFLICT (course_id) DO UPDATE SET " +
+            "rating_sum = EXCLUDED.rating_sum, rating_count = EXCLUDED.rating_count, " +
+            "one_star_count = EXCLUDED.one_star_count, two_star_count = EXCLUDED.two_star_count, " +
+            "three_star_count = EXCLUDED.three_star_count, four_star_count = EXCLUDED.four_star_count, " +
+            "five_star_count = EXCLUDED.five_star_count, average_rating = EXCLUDED.average_rating, " +
+            "updated_at = now()",
+            nativeQuery = true)
+    int rebuildFromReviews();
+}
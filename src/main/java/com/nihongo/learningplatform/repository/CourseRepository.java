@@ -1,22 +1,118 @@
 package com.nihongo.learningplatform.repository;
 
+import com.nihongo.learningplatform.dto.CourseSummaryDto;
 import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
     List<Course> findByInstructor(User instructor);
-    List<Course> findByApprovedAndActive(boolean approved, boolean active);
     List<Course> findByApproved(boolean approved);
     List<Course> findByActive(boolean active);
-    List<Course> findByLevel(String level);
 
-    @Query("SELECT c FROM Course c WHERE c.title LIKE %?1% OR c.description LIKE %?1%")
+    @Query("SELECT c.id FROM Course c WHERE c.instructor.id = :instructorId")
+    Set<Long> findIdsByInstructorId(@Param("instructorId") Long instructorId);
 
-    List<Course> searchCourses(String keyword);
-}
+    // The given courses that are approved and active, i.e. visible in the public catalog
+    @Query("SELECT c.id FROM Course c WHERE c.id IN :ids AND c.approved = true AND c.active = true")
+    Set<Long> findPublishedIdsByIds(@Param("ids") Collection<Long> ids);
+
+    // Offset-paginated public listings; the instructor is fetched in the same query for the DTO mapping
+    @EntityGraph(attributePaths = "instructor")
+    Page<Course> findByApprovedAndActive(boolean approved, boolean active, Pageable pageable);
+
+    @EntityGraph(attributePaths = "instructor")
+    Page<Course> findByLevelAndApprovedAndActive(String level, boolean approved, boolean active, Pageable pageable);
+
+    // Catalog pages are keyset-paginated projections: no Course entity (or its collections) is hydrated
+    @Query("SELECT new com.nihongo.learningplatform.dto.CourseSummaryDto(c.id, c.title, c.description, c.price, " +
+            "c.thumbnailUrl, c.level, i.id, i.fullName, s.averageRating, s.ratingCount, c.createdAt) " +
+            "FROM Course c JOIN c.instructor i LEFT JOIN CourseRatingStats s ON s.courseId = c.id " +
+            "WHERE c.approved = true AND c.active = true " +
+            "AND (:level IS NULL OR c.level = :level) " +
+            "AND (:minPrice IS NULL OR c.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR c.price <= :maxPrice) " +
+            "AND (:instructorId IS NULL OR i.id = :instructorId) " +
+            "AND (:cursorCreatedAt IS NULL OR c.createdAt < :cursorCreatedAt " +
+            "OR (c.createdAt = :cursorCreatedAt AND c.id < :cursorId)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CourseSummaryDto> findCatalogPageByNewest(@Param("level") String level,
+                                                   @Param("minPrice") BigDecimal minPrice,
+                                                   @Param("maxPrice") BigDecimal maxPrice,
+                                                   @Param("instructorId") Long instructorId,
+                                                   @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+
+    @Query("SELECT new com.nihongo.learningplatform.dto.CourseSummaryDto(c.id, c.title, c.description, c.price, " +
+            "c.thumbnailUrl, c.level, i.id, i.fullName, s.averageRating, s.ratingCount, c.createdAt) " +
+            "FROM CourseRatingStats s JOIN Course c ON c.id = s.courseId JOIN c.instructor i " +
+            "WHERE c.approved = true AND c.active = true " +
+            "AND (:level IS NULL OR c.level = :level) " +
+            "AND (:minPrice IS NULL OR c.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR c.price <= :maxPrice) " +
+            "AND (:instructorId IS NULL OR i.id = :instructorId) " +
+            "AND (:cursorRating IS NULL OR s.averageRating < :cursorRating " +
+            "OR (s.averageRating = :cursorRating AND s.courseId < :cursorId)) " +
+            "ORDER BY s.averageRating DESC, s.courseId DESC")
+    List<CourseSummaryDto> findCatalogPageByRating(@Param("level") String level,
+                                                   @Param("minPrice") BigDecimal minPrice,
+                                                   @Param("maxPrice") BigDecimal maxPrice,
+                                                   @Param("instructorId") Long instructorId,
+                                                   @Param("cursorRating") Double cursorRating,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+
+    // Full-text + trigram search over the trigger-maintained search_vector column (see db/postgres-schema.sql).
+    // :tsQuery is a prefix query such as "tieng:* & nhat:*", :term is the raw keyword for typo-tolerant matching.
+    String SEARCH_FROM =
+            "FROM courses c JOIN users u ON u.id = c.instructor_id " +
+            "LEFT JOIN course_rating_stats s ON s.course_id = c.id " +
+            "CROSS JOIN (SELECT to_tsquery('simple', immutable_unaccent(lower(:tsQuery))) AS tsq, " +
+            "immutable_unaccent(lower(:term)) AS term) q " +
+            "WHERE c.approved = true AND c.active = true " +
+            "AND (CAST(:level AS varchar) IS NULL OR c.level = :level) " +
+            "AND (c.search_vector @@ q.tsq OR q.term <% immutable_unaccent(lower(c.title))) ";
+
+    @Query(value = "SELECT c.id AS id, c.title AS title, c.description AS description, c.price AS price, " +
+            "c.thumbnail_url AS \"thumbnailUrl\", c.level AS level, u.id AS \"instructorId\", " +
+            "u.full_name AS \"instructorName\", s.average_rating AS \"averageRating\", " +
+            "s.rating_count AS \"reviewCount\", c.created_at AS \"createdAt\", " +
+            "ts_rank_cd(c.search_vector, q.tsq) + word_similarity(q.term, immutable_unaccent(lower(c.title))) AS rank " +
+            SEARCH_FROM +
+            "ORDER BY rank DESC, c.id DESC",
+            countQuery = "SELECT count(*) " + SEARCH_FROM,
+            nativeQuery = true)
+    Page<CourseSearchRow> searchCatalog(@Param("tsQuery") String tsQuery,
+                                        @Param("term") String term,
+                                        @Param("level") String level,
+                                        Pageable pageable);
+
+    interface CourseSearchRow {
+        Long getId();
+        String getTitle();
+        String getDescription();
+        BigDecimal getPrice();
+        String getThumbnailUrl();
+        String getLevel();
+        Long getInstructorId();
+        String getInstructorName();
+        Double getAverageRating();
+        Long getReviewCount();
+        LocalDateTime getCreatedAt();
+        Double getRank();
+    }
+}
\ No newline at end of file
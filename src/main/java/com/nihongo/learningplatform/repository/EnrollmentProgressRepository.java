@@ -0,0 +1,57 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.EnrollmentProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EnrollmentProgressRepository extends JpaRepository<EnrollmentProgress, Long> {
+    List<EnrollmentProgress> findByStudentId(Long studentId);
+
+    @Query("SELECT ep.enrollmentId FROM EnrollmentProgress ep WHERE ep.studentId = :studentId AND ep.courseId IN :courseIds")
+    List<Long> findEnrollmentIdsByStudentAndCourses(@Param("studentId") Long studentId,
+                                                    @Param("courseIds") Collection<Long> courseIds);
+
+    // First required lesson of the course, in module then lesson order, that the student has not completed
+    String NEXT_LESSON = "(SELECT nl.id FROM lessons nl JOIN modules nm ON nm.id = nl.module_id " +
+            "WHERE nm.course_id = ep.course_id AND nl.is_required AND NOT EXISTS (" +
+            "SELECT 1 FROM user_progress up WHERE up.user_id = ep.student_id AND up.lesson_id = nl.id AND up.completed) " +
+            "ORDER BY nm.order_index, nl.order_index, nl.id LIMIT 1)";
+
+    // Deltas are applied in the database and resolve the course from the lesson, so callers pass ids only
+    @Modifying
+    @Query(value = "UPDATE enrollment_progress ep SET " +
+            "required_lessons_completed = GREATEST(ep.required_lessons_completed + " +
+            "CASE WHEN l.is_required THEN :delta ELSE 0 END, 0), " +
+            "next_lesson_id = " + NEXT_LESSON + ", updated_at = now() " +
+            "FROM lessons l JOIN modules m ON m.id = l.module_id " +
+            "WHERE l.id = :lessonId AND ep.course_id = m.course_id AND ep.student_id = :studentId",
+            nativeQuery = true)
+    int applyLessonDelta(@Param("studentId") Long studentId, @Param("lessonId") Long lessonId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE enrollment_progress ep SET " +
+            "exercises_completed = GREATEST(ep.exercises_completed + :delta, 0), updated_at = now() " +
+            "FROM exercises x WHERE x.id = :exerciseId AND ep.course_id = x.course_id AND ep.student_id = :studentId",
+            nativeQuery = true)
+    int applyExerciseDelta(@Param("studentId") Long studentId, @Param("exerciseId") Long exerciseId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE enrollment_progress ep SET " +
+            "exams_passed = GREATEST(ep.exams_passed + :delta, 0), updated_at = now() " +
+            "FROM exams x WHERE x.id = :examId AND ep.course_id = x.course_id AND ep.student_id = :studentId",
+            nativeQuery = true)
+    int applyExamPassedDelta(@Param("studentId") Long studentId, @Param("examId") Long examId, @Param("delta") int delta);
+
+    // Full recount from user_progress, see enrollment_progress_rebuild in db/postgres-schema.sql.
+    // A null enrollment and course rebuilds every enrollment.
+    @Query(value = "SELECT enrollment_progress_rebuild(CAST(:enrollmentId AS bigint), CAST(:courseId AS bigint))",
+            nativeQuery = true)
+    int rebuild(@Param("enrollmentId") Long enrollmentId, @Param("courseId") Long courseId);
+}
@@ -4,6 +4,8 @@ import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.Enrollment;
 import com.nihongo.learningplatform.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +17,7 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     List<Enrollment> findByCourse(Course course);
     Optional<Enrollment> findByStudentAndCourse(User student, Course course);
     boolean existsByStudentAndCourse(User student, Course course);
+
+    @Query("SELECT e.course.id FROM Enrollment e WHERE e.student.id = :studentId")
+    List<Long> findCourseIdsByStudentId(@Param("studentId") Long studentId);
 }
\ No newline at end of file
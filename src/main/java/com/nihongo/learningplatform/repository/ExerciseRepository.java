@@ -3,12 +3,18 @@ package com.nihongo.learningplatform.repository;
 import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.Exercise;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ExerciseRepository extends JpaRepository<Exercise, Long> {
     List<Exercise> findByCourse(Course course);
     List<Exercise> findByIsAiGenerated(boolean isAiGenerated);
+
+    @Query("SELECT e.id, e.course.id FROM Exercise e WHERE e.id IN :ids")
+    List<Object[]> findCourseIdsByIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
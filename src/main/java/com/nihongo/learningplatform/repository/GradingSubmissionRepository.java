@@ -0,0 +1,65 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.GradingSubmission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GradingSubmissionRepository extends JpaRepository<GradingSubmission, Long> {
+    Optional<GradingSubmission> findByUserIdAndClientSubmissionId(Long userId, String clientSubmissionId);
+
+    // Oldest first, served by the partial index on queued rows from db/postgres-schema.sql
+    @Query(value = "SELECT id FROM grading_submissions WHERE status = 'QUEUED' ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findQueuedIds(@Param("limit") int limit);
+
+    // Affects 0 rows when another worker already claimed the submission
+    @Modifying
+    @Query(value = "UPDATE grading_submissions SET status = 'GRADING', attempts = attempts + 1, " +
+            "claimed_by = :owner, heartbeat_at = :now WHERE id = :id AND status = 'QUEUED'", nativeQuery = true)
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE grading_submissions SET heartbeat_at = :now " +
+            "WHERE id IN (:ids) AND status = 'GRADING' AND claimed_by = :owner", nativeQuery = true)
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE grading_submissions SET status = 'QUEUED' WHERE id = :id AND status = 'GRADING'", nativeQuery = true)
+    int requeue(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "UPDATE grading_submissions SET status = 'FAILED', error_message = :errorMessage, " +
+            "completed_at = :completedAt WHERE id = :id AND status = 'GRADING'", nativeQuery = true)
+    int fail(@Param("id") Long id,
+             @Param("errorMessage") String errorMessage,
+             @Param("completedAt") LocalDateTime completedAt);
+
+    // Grading runs whose instance stopped sending heartbeats, through a shutdown or a crash, that have attempts left
+    @Modifying
+    @Query(value = "UPDATE grading_submissions SET status = 'QUEUED', claimed_by = NULL WHERE status = 'GRADING' " +
+            "AND (heartbeat_at IS NULL OR heartbeat_at < :cutoff) AND attempts < :maxAttempts", nativeQuery = true)
+    int requeueAbandoned(@Param("cutoff") LocalDateTime cutoff, @Param("maxAttempts") int maxAttempts);
+
+    // Abandoned runs that used up their attempts, e.g. a submission that crashes every instance grading it
+    @Modifying
+    @Query(value = "UPDATE grading_submissions SET status = 'FAILED', claimed_by = NULL, error_message = :errorMessage, " +
+            "completed_at = :completedAt WHERE status = 'GRADING' AND (heartbeat_at IS NULL OR heartbeat_at < :cutoff) " +
+            "AND attempts >= :maxAttempts", nativeQuery = true)
+    int failAbandoned(@Param("cutoff") LocalDateTime cutoff,
+                      @Param("maxAttempts") int maxAttempts,
+                      @Param("errorMessage") String errorMessage,
+                      @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM grading_submissions WHERE status IN ('COMPLETED', 'FAILED') AND submitted_at < :cutoff",
+            nativeQuery = true)
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
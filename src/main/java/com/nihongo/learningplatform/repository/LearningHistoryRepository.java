@@ -4,6 +4,8 @@ import com.nihongo.learningplatform.entity.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -16,4 +18,45 @@ public interface LearningHistoryRepository extends JpaRepository<LearningHistory
     List<LearningHistory> findByUserAndActivityType(User user, ActivityType activityType);
     List<LearningHistory> findByUserAndCourse(User user, Course course);
     List<LearningHistory> findByUserAndTimestampBetween(User user, LocalDateTime start, LocalDateTime end);
+
+    // Typed queries over the JSONB details (see LearningHistoryDetails); they use the GIN and expression
+    // indexes from db/postgres-schema.sql and only the partitions inside the time window
+    @Query(value = "SELECT h.* FROM learning_history h " +
+            "WHERE h.user_id = :userId AND h.details @> CAST('{\"passed\": false}' AS jsonb) " +
+            "AND h.activity_type IN ('EXAM_COMPLETED', 'MOCK_EXAM_COMPLETED') AND h.\"timestamp\" >= :since " +
+            "ORDER BY h.\"timestamp\" DESC",
+            nativeQuery = true)
+    List<LearningHistory> findFailedExamsByUser(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT h.* FROM learning_history h " +
+            "WHERE h.course_id = :courseId AND h.details @> CAST('{\"passed\": false}' AS jsonb) " +
+            "AND h.activity_type IN ('EXAM_COMPLETED', 'MOCK_EXAM_COMPLETED') AND h.\"timestamp\" >= :since " +
+            "ORDER BY h.\"timestamp\" DESC",
+            nativeQuery = true)
+    List<LearningHistory> findFailedExamsByCourse(@Param("courseId") Long courseId, @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT h.* FROM learning_history h " +
+            "WHERE h.user_id = :userId AND h.activity_type = 'EXERCISE_COMPLETED' " +
+            "AND CAST(h.details ->> 'score' AS integer) < :maxScore AND h.\"timestamp\" >= :since " +
+            "ORDER BY h.\"timestamp\" DESC",
+            nativeQuery = true)
+    List<LearningHistory> findExercisesScoredBelowByUser(@Param("userId") Long userId,
+                                                         @Param("maxScore") int maxScore,
+                                                         @Param("since") LocalDateTime since);
+
+    @Query(value = "SELECT h.* FROM learning_history h " +
+            "WHERE h.course_id = :courseId AND h.activity_type = 'EXERCISE_COMPLETED' " +
+            "AND CAST(h.details ->> 'score' AS integer) < :maxScore AND h.\"timestamp\" >= :since " +
+            "ORDER BY h.\"timestamp\" DESC",
+            nativeQuery = true)
+    List<LearningHistory> findExercisesScoredBelowByCourse(@Param("courseId") Long courseId,
+                                                           @Param("maxScore") int maxScore,
+                                                           @Param("since") LocalDateTime since);
+
+    // Partition maintenance functions defined in db/postgres-schema.sql
+    @Query(value = "SELECT learning_history_ensure_partitions(:monthsAhead)", nativeQuery = true)
+    int ensurePartitions(@Param("monthsAhead") int monthsAhead);
+
+    @Query(value = "SELECT learning_history_drop_partitions_before(CAST(:cutoff AS timestamp))", nativeQuery = true)
+    int dropPartitionsBefore(@Param("cutoff") LocalDateTime cutoff);
 }
\ No newline at end of file
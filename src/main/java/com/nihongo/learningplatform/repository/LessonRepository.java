@@ -3,9 +3,33 @@ package com.nihongo.learningplatform.repository;
 import com.nihongo.learningplatform.entity.Lesson;
 import com.nihongo.learningplatform.entity.Module;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
     List<Lesson> findByModuleOrderByOrderIndex(Module module);
+
+    // Raw text columns for the content search index, without hydrating associations
+    @Query("SELECT l.id, l.title, l.content FROM Lesson l")
+    List<Object[]> findSearchableText();
+
+    @Query("SELECT l.id, l.title, l.content FROM Lesson l WHERE l.updatedAt > :since")
+    List<Object[]> findSearchableTextUpdatedAfter(@Param("since") LocalDateTime since);
+
+    // Lesson id and the course of its module, for authorizing many lessons at once
+    @Query("SELECT l.id, m.course.id FROM Lesson l JOIN l.module m WHERE l.id IN :ids")
+    List<Object[]> findCourseIdsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT l.id FROM Lesson l")
+    List<Long> findAllIds();
+
+    @Query("SELECT l.id FROM Lesson l WHERE l.module.id = :moduleId")
+    List<Long> findIdsByModuleId(@Param("moduleId") Long moduleId);
+
+    @Query("SELECT l.id FROM Lesson l JOIN l.module m LEFT JOIN l.course c WHERE m.course.id = :courseId OR c.id = :courseId")
+    List<Long> findIdsByCourseId(@Param("courseId") Long courseId);
 }
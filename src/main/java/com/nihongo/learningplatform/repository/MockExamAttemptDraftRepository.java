@@ -0,0 +1,23 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.MockExamAttemptDraft;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MockExamAttemptDraftRepository extends JpaRepository<MockExamAttemptDraft, Long> {
+    // Raw JSON (answers, time spent) so the draft store can parse it into its compact form without an entity round trip
+    @Query(value = "SELECT CAST(answers AS text), CAST(time_spent AS text) FROM mock_exam_attempt_drafts " +
+            "WHERE attempt_id = :attemptId",
+            nativeQuery = true)
+    List<Object[]> findJsonByAttemptId(@Param("attemptId") Long attemptId);
+
+    @Modifying
+    @Query(value = "DELETE FROM mock_exam_attempt_drafts WHERE attempt_id = :attemptId", nativeQuery = true)
+    int deleteByAttemptId(@Param("attemptId") Long attemptId);
+}
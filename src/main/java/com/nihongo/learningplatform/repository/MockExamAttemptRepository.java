@@ -3,11 +3,15 @@ package com.nihongo.learningplatform.repository;
 import com.nihongo.learningplatform.entity.MockExam;
 import com.nihongo.learningplatform.entity.MockExamAttempt;
 import com.nihongo.learningplatform.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MockExamAttemptRepository extends JpaRepository<MockExamAttempt, Long> {
@@ -17,4 +21,29 @@ public interface MockExamAttemptRepository extends JpaRepository<MockExamAttempt
 
     @Query("SELECT MAX(mea.score) FROM MockExamAttempt mea WHERE mea.user = ?1 AND mea.mockExam = ?2")
     Integer findHighestScoreByUserAndMockExam(User user, MockExam mockExam);
-}
\ No newline at end of file
+
+    // Owner, end time, deadline and start time only, for checks on hot paths that must not hydrate the attempt
+    @Query("SELECT mea.user.id, mea.endTime, mea.deadline, mea.startTime FROM MockExamAttempt mea WHERE mea.id = :id")
+    List<Object[]> findDraftStateById(@Param("id") Long id);
+
+    // Serializes a manual submit against the deadline finalizer
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT mea FROM MockExamAttempt mea WHERE mea.id = :id")
+    Optional<MockExamAttempt> findByIdForUpdate(@Param("id") Long id);
+
+    // Id and deadline of every attempt that is still running, used to refill the deadline timer on startup
+    @Query("SELECT mea.id, mea.deadline FROM MockExamAttempt mea WHERE mea.endTime IS NULL AND mea.deadline IS NOT NULL")
+    List<Object[]> findOpenAttemptDeadlines();
+
+    // Best graded attempt per user and mock exam (score, then duration, then time), for rebuilding leaderboards:
+    // (attempt id, user id, username, mock exam id, level, score, duration ms, end time)
+    @Query(value = "SELECT DISTINCT ON (a.mock_exam_id, a.user_id) a.id, a.user_id, u.username, a.mock_exam_id, " +
+            "m.level, a.score, CAST(EXTRACT(EPOCH FROM (a.end_time - a.start_time)) * 1000 AS bigint), a.end_time " +
+            "FROM mock_exam_attempts a " +
+            "JOIN users u ON u.id = a.user_id " +
+            "JOIN mock_exams m ON m.id = a.mock_exam_id " +
+            "WHERE a.end_time IS NOT NULL AND a.score IS NOT NULL " +
+            "ORDER BY a.mock_exam_id, a.user_id, a.score DESC, a.end_time - a.start_time, a.end_time",
+            nativeQuery = true)
+    List<Object[]> findBestAttemptRows();
+}
@@ -0,0 +1,12 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.MockExamQuestionResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MockExamQuestionResultRepository extends JpaRepository<MockExamQuestionResult, Long> {
+    List<MockExamQuestionResult> findByAttemptIdOrderByQuestionIdAsc(Long attemptId);
+}
@@ -3,13 +3,21 @@ package com.nihongo.learningplatform.repository;
 import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.MockExam;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MockExamRepository extends JpaRepository<MockExam, Long> {
     List<MockExam> findByCourse(Course course);
     List<MockExam> findByLevel(String level);
     List<MockExam> findByCourseIsNull();
+
+    // Whole paper in one query, so mapping questions and answers to DTOs never hits a lazy collection
+    @Query("SELECT DISTINCT m FROM MockExam m LEFT JOIN FETCH m.course " +
+            "LEFT JOIN FETCH m.questions q LEFT JOIN FETCH q.answers WHERE m.id = :id")
+    Optional<MockExam> findWithQuestionsAndAnswersById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.ProgressSyncEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProgressSyncEventRepository extends JpaRepository<ProgressSyncEvent, Long> {
+    @Modifying
+    @Query("DELETE FROM ProgressSyncEvent e WHERE e.receivedAt < :cutoff")
+    int deleteReceivedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -5,13 +5,95 @@ import com.nihongo.learningplatform.entity.Exercise;
 import com.nihongo.learningplatform.entity.Question;
 import com.nihongo.learningplatform.entity.QuestionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
-    List<Question> findByExercise(Exercise exercise);
-    List<Question> findByExam(Exam exam);
+    List<Question> findByExerciseOrderByIdAsc(Exercise exercise);
+    List<Question> findByExamOrderByIdAsc(Exam exam);
     List<Question> findByType(QuestionType type);
-}
\ No newline at end of file
+
+    // Raw text columns for the content search index, without hydrating associations
+    @Query("SELECT q.id, q.content FROM Question q")
+    List<Object[]> findSearchableText();
+
+    @Query("SELECT q.id, q.content FROM Question q WHERE q.updatedAt > :since")
+    List<Object[]> findSearchableTextUpdatedAfter(@Param("since") LocalDateTime since);
+
+    @Query("SELECT q.id FROM Question q")
+    List<Long> findAllIds();
+
+    // Question id and the course of its exercise; exam and mock exam questions are left out on purpose
+    @Query("SELECT q.id, e.course.id FROM Question q JOIN q.exercise e WHERE q.id IN :ids")
+    List<Object[]> findExerciseCourseIdsByIds(@Param("ids") Collection<Long> ids);
+
+    // Question id and the course of its exercise, exam or mock exam; null for general mock exam questions
+    @Query("SELECT q.id, COALESCE(e.course.id, x.course.id, m.course.id) FROM Question q " +
+            "LEFT JOIN q.exercise e LEFT JOIN q.exam x LEFT JOIN q.mockExam m WHERE q.id IN :ids")
+    List<Object[]> findCourseIdsByIds(@Param("ids") Collection<Long> ids);
+
+    // Ids of the questions a delete of their parent takes with it, for dropping them from the search index
+    @Query("SELECT q.id FROM Question q WHERE q.exercise.id = :exerciseId")
+    List<Long> findIdsByExerciseId(@Param("exerciseId") Long exerciseId);
+
+    @Query("SELECT q.id FROM Question q WHERE q.exam.id = :examId")
+    List<Long> findIdsByExamId(@Param("examId") Long examId);
+
+    @Query("SELECT q.id FROM Question q WHERE q.mockExam.id = :mockExamId")
+    List<Long> findIdsByMockExamId(@Param("mockExamId") Long mockExamId);
+
+    @Query("SELECT q.id FROM Question q LEFT JOIN q.exercise e LEFT JOIN q.exam x " +
+            "WHERE e.course.id = :courseId OR x.course.id = :courseId")
+    List<Long> findIdsByCourseId(@Param("courseId") Long courseId);
+
+    // (question id, correct answer id) rows for compiling an AnswerKey; questions without a correct answer
+    // yield one row with a null answer id
+    String ANSWER_KEY_ROWS = "SELECT q.id, a.id FROM questions q " +
+            "LEFT JOIN answers a ON a.question_id = q.id AND a.is_correct ";
+
+    @Query(value = ANSWER_KEY_ROWS + "WHERE q.exercise_id = :exerciseId ORDER BY q.id, a.id", nativeQuery = true)
+    List<Object[]> findAnswerKeyRowsByExerciseId(@Param("exerciseId") Long exerciseId);
+
+    @Query(value = ANSWER_KEY_ROWS + "WHERE q.exam_id = :examId ORDER BY q.id, a.id", nativeQuery = true)
+    List<Object[]> findAnswerKeyRowsByExamId(@Param("examId") Long examId);
+
+    @Query(value = ANSWER_KEY_ROWS + "WHERE q.mock_exam_id = :mockExamId ORDER BY q.id, a.id", nativeQuery = true)
+    List<Object[]> findAnswerKeyRowsByMockExamId(@Param("mockExamId") Long mockExamId);
+
+    // (question id, type, level, course id) of every bank question for the exam assembly pools. The level is the
+    // mock exam's or else the course's; copies made by exam assembly are not part of the bank.
+    @Query(value = "SELECT q.id, q.type, COALESCE(me.level, c.level), c.id FROM questions q " +
+            "LEFT JOIN exercises ex ON ex.id = q.exercise_id " +
+            "LEFT JOIN exams e ON e.id = q.exam_id " +
+            "LEFT JOIN mock_exams me ON me.id = q.mock_exam_id " +
+            "LEFT JOIN courses c ON c.id = COALESCE(ex.course_id, e.course_id, me.course_id) " +
+            "WHERE q.source_question_id IS NULL AND q.type IS NOT NULL " +
+            "AND COALESCE(me.level, c.level) IS NOT NULL",
+            nativeQuery = true)
+    List<Object[]> findAssemblyPoolRows();
+
+    // (question id, content, type, audio url, answer id, answer content) rows for the review queue; the
+    // correct flags stay on the server, which grades selected answers itself
+    @Query("SELECT q.id, q.content, q.type, q.audioUrl, a.id, a.content FROM Question q LEFT JOIN q.answers a " +
+            "WHERE q.id IN :ids ORDER BY q.id, a.id")
+    List<Object[]> findReviewRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // (question id, question content, answer id, answer content, answer is correct) rows for item analysis
+    String ITEM_ANALYSIS_ROWS = "SELECT q.id, q.content, a.id, a.content, a.is_correct FROM questions q " +
+            "LEFT JOIN answers a ON a.question_id = q.id ";
+
+    @Query(value = ITEM_ANALYSIS_ROWS + "WHERE q.exercise_id = :exerciseId ORDER BY q.id, a.id", nativeQuery = true)
+    List<Object[]> findItemAnalysisRowsByExerciseId(@Param("exerciseId") Long exerciseId);
+
+    @Query(value = ITEM_ANALYSIS_ROWS + "WHERE q.exam_id = :examId ORDER BY q.id, a.id", nativeQuery = true)
+    List<Object[]> findItemAnalysisRowsByExamId(@Param("examId") Long examId);
+
+    @Query(value = ITEM_ANALYSIS_ROWS + "WHERE q.mock_exam_id = :mockExamId ORDER BY q.id, a.id", nativeQuery = true)
+    List<Object[]> findItemAnalysisRowsByMockExamId(@Param("mockExamId") Long mockExamId);
+}
@@ -0,0 +1,9 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.QuestionStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface QuestionStatsRepository extends JpaRepository<QuestionStats, Long> {
+}
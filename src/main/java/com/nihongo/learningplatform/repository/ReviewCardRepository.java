@@ -0,0 +1,23 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.ReviewCard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReviewCardRepository extends JpaRepository<ReviewCard, Long> {
+    // Both stay on the (user_id, due_at) index range up to now, however long the user's history is
+    @Query(value = "SELECT * FROM review_cards WHERE user_id = :userId AND due_at <= :now " +
+            "ORDER BY due_at LIMIT :limit", nativeQuery = true)
+    List<ReviewCard> findDueCards(@Param("userId") Long userId,
+                                  @Param("now") LocalDateTime now,
+                                  @Param("limit") int limit);
+
+    @Query(value = "SELECT count(*) FROM review_cards WHERE user_id = :userId AND due_at <= :now", nativeQuery = true)
+    long countDueCards(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
@@ -5,8 +5,11 @@ import com.nihongo.learningplatform.entity.Solution;
 import com.nihongo.learningplatform.entity.SpeechExercise;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +26,26 @@ public interface SolutionRepository extends JpaRepository<Solution, Long> {
 
     @Query("SELECT s FROM Solution s JOIN s.question q WHERE q.exam.id = ?1")
     List<Solution> findByExamId(Long examId);
-}
\ No newline at end of file
+
+    // Raw text columns for the content search index, without hydrating associations
+    @Query("SELECT s.id, s.content, s.explanation, s.visible FROM Solution s")
+    List<Object[]> findSearchableText();
+
+    @Query("SELECT s.id, s.content, s.explanation, s.visible FROM Solution s WHERE s.updatedAt > :since")
+    List<Object[]> findSearchableTextUpdatedAfter(@Param("since") LocalDateTime since);
+
+    @Query("SELECT s.id FROM Solution s")
+    List<Long> findAllIds();
+
+    // Solution id and the course of its question or speech exercise
+    @Query("SELECT s.id, COALESCE(e.course.id, x.course.id, m.course.id, lm.course.id) FROM Solution s " +
+            "LEFT JOIN s.question q LEFT JOIN q.exercise e LEFT JOIN q.exam x LEFT JOIN q.mockExam m " +
+            "LEFT JOIN s.speechExercise se LEFT JOIN se.lesson l LEFT JOIN l.module lm WHERE s.id IN :ids")
+    List<Object[]> findCourseIdsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.id FROM Solution s WHERE s.question.id IN :questionIds")
+    List<Long> findIdsByQuestionIds(@Param("questionIds") Collection<Long> questionIds);
+
+    @Query("SELECT s.id FROM Solution s WHERE s.speechExercise.id IN :speechExerciseIds")
+    List<Long> findIdsBySpeechExerciseIds(@Param("speechExerciseIds") Collection<Long> speechExerciseIds);
+}
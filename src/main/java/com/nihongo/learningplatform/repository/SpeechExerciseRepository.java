@@ -3,11 +3,36 @@ package com.nihongo.learningplatform.repository;
 import com.nihongo.learningplatform.entity.Lesson;
 import com.nihongo.learningplatform.entity.SpeechExercise;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SpeechExerciseRepository extends JpaRepository<SpeechExercise, Long> {
     List<SpeechExercise> findByLesson(Lesson lesson);
-}
\ No newline at end of file
+
+    // Raw text columns for the content search index, without hydrating associations
+    @Query("SELECT se.id, se.title, se.japaneseText FROM SpeechExercise se")
+    List<Object[]> findSearchableText();
+
+    @Query("SELECT se.id, se.title, se.japaneseText FROM SpeechExercise se WHERE se.updatedAt > :since")
+    List<Object[]> findSearchableTextUpdatedAfter(@Param("since") LocalDateTime since);
+
+    @Query("SELECT se.id FROM SpeechExercise se")
+    List<Long> findAllIds();
+
+    // Speech exercise id and the course of its lesson's module, for authorizing many exercises at once
+    @Query("SELECT se.id, m.course.id FROM SpeechExercise se JOIN se.lesson l JOIN l.module m WHERE se.id IN :ids")
+    List<Object[]> findCourseIdsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT se.id FROM SpeechExercise se WHERE se.lesson.id IN :lessonIds")
+    List<Long> findIdsByLessonIds(@Param("lessonIds") Collection<Long> lessonIds);
+
+    // (id, title, Japanese text, audio url) rows for the review queue
+    @Query("SELECT se.id, se.title, se.japaneseText, se.audioUrl FROM SpeechExercise se WHERE se.id IN :ids")
+    List<Object[]> findReviewRowsByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.entity.UserActivityStreak;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserActivityStreakRepository extends JpaRepository<UserActivityStreak, Long> {
+}
@@ -0,0 +1,23 @@
+package com.nihongo.learningplatform.repository;
+
+import com.nihongo.learningplatform.dto.DailyActivityDto;
+import com.nihongo.learningplatform.entity.UserDailyActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyActivityRepository extends JpaRepository<UserDailyActivity, Long> {
+    @Query("SELECT new com.nihongo.learningplatform.dto.DailyActivityDto(a.activityDate, SUM(a.activityCount), SUM(a.studyMinutes)) " +
+            "FROM UserDailyActivity a WHERE a.userId = :userId AND a.activityDate >= :from " +
+            "GROUP BY a.activityDate ORDER BY a.activityDate")
+    List<DailyActivityDto> findDailyTotals(@Param("userId") Long userId, @Param("from") LocalDate from);
+
+    // Recomputes every rollup from learning_history, see db/postgres-schema.sql
+    @Query(value = "SELECT learning_history_rebuild_rollups()", nativeQuery = true)
+    int rebuildFromHistory();
+}
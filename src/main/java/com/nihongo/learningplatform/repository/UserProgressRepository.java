@@ -2,6 +2,8 @@ package com.nihongo.learningplatform.repository;
 
 import com.nihongo.learningplatform.entity.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +19,79 @@ public interface UserProgressRepository extends JpaRepository<UserProgress, Long
     Optional<UserProgress> findByUserAndSpeechExercise(User user, SpeechExercise speechExercise);
 
     List<UserProgress> findByUserAndCompleted(User user, boolean completed);
+
+    // Single-statement upserts on the (user, target) unique indexes from db/postgres-schema.sql.
+    // The RETURNING subqueries read the statement snapshot, so they see the row as it was before this write
+    // (null when the row was just inserted, or was inserted concurrently by another transaction).
+    // Inserting from the target table makes a missing target return no row instead of violating the foreign key.
+    String UPSERT_RETURNING = " RETURNING id AS id, completed AS completed, score AS score, " +
+            "user_audio_url AS \"userAudioUrl\", pronunciation_score AS \"pronunciationScore\", " +
+            "user_id AS \"userId\", lesson_id AS \"lessonId\", exercise_id AS \"exerciseId\", " +
+            "exam_id AS \"examId\", speech_exercise_id AS \"speechExerciseId\", (xmax = 0) AS inserted, " +
+            "(SELECT o.completed FROM user_progress o WHERE o.id = user_progress.id) AS \"previousCompleted\", " +
+            "(SELECT o.score FROM user_progress o WHERE o.id = user_progress.id) AS \"previousScore\", " +
+            "(SELECT x.passing_score FROM exams x WHERE x.id = user_progress.exam_id) AS \"passingScore\"";
+
+    @Query(value = "INSERT INTO user_progress (user_id, lesson_id, completed) " +
+            "SELECT :userId, t.id, :completed FROM lessons t WHERE t.id = :lessonId " +
+            "ON CONFLICT (user_id, lesson_id) DO UPDATE SET completed = EXCLUDED.completed" +
+            UPSERT_RETURNING,
+            nativeQuery = true)
+    UserProgressUpsertRow upsertLessonProgress(@Param("userId") Long userId,
+                                               @Param("lessonId") Long lessonId,
+                                               @Param("completed") boolean completed);
+
+    // Keeps the best score across attempts
+    @Query(value = "INSERT INTO user_progress (user_id, exercise_id, completed, score) " +
+            "SELECT :userId, t.id, true, :score FROM exercises t WHERE t.id = :exerciseId " +
+            "ON CONFLICT (user_id, exercise_id) DO UPDATE SET completed = true, " +
+            "score = GREATEST(user_progress.score, EXCLUDED.score)" +
+            UPSERT_RETURNING,
+            nativeQuery = true)
+    UserProgressUpsertRow upsertExerciseProgress(@Param("userId") Long userId,
+                                                 @Param("exerciseId") Long exerciseId,
+                                                 @Param("score") Integer score);
+
+    @Query(value = "INSERT INTO user_progress (user_id, exam_id, completed, score) " +
+            "SELECT :userId, t.id, true, :score FROM exams t WHERE t.id = :examId " +
+            "ON CONFLICT (user_id, exam_id) DO UPDATE SET completed = true, " +
+            "score = GREATEST(user_progress.score, EXCLUDED.score)" +
+            UPSERT_RETURNING,
+            nativeQuery = true)
+    UserProgressUpsertRow upsertExamProgress(@Param("userId") Long userId,
+                                             @Param("examId") Long examId,
+                                             @Param("score") Integer score);
+
+    // Keeps the recording that produced the best pronunciation score
+    @Query(value = "INSERT INTO user_progress (user_id, speech_exercise_id, completed, user_audio_url, pronunciation_score) " +
+            "SELECT :userId, t.id, true, :userAudioUrl, :pronunciationScore " +
+            "FROM speech_exercises t WHERE t.id = :speechExerciseId " +
+            "ON CONFLICT (user_id, speech_exercise_id) DO UPDATE SET completed = true, " +
+            "user_audio_url = CASE WHEN user_progress.pronunciation_score IS NULL " +
+            "OR EXCLUDED.pronunciation_score >= user_progress.pronunciation_score " +
+            "THEN EXCLUDED.user_audio_url ELSE user_progress.user_audio_url END, " +
+            "pronunciation_score = GREATEST(user_progress.pronunciation_score, EXCLUDED.pronunciation_score)" +
+            UPSERT_RETURNING,
+            nativeQuery = true)
+    UserProgressUpsertRow upsertSpeechExerciseProgress(@Param("userId") Long userId,
+                                                       @Param("speechExerciseId") Long speechExerciseId,
+                                                       @Param("userAudioUrl") String userAudioUrl,
+                                                       @Param("pronunciationScore") Float pronunciationScore);
+
+    interface UserProgressUpsertRow {
+        Long getId();
+        Boolean getCompleted();
+        Integer getScore();
+        String getUserAudioUrl();
+        Float getPronunciationScore();
+        Long getUserId();
+        Long getLessonId();
+        Long getExerciseId();
+        Long getExamId();
+        Long getSpeechExerciseId();
+        Boolean getInserted();
+        Boolean getPreviousCompleted();
+        Integer getPreviousScore();
+        Integer getPassingScore();
+    }
 }
\ No newline at end of file
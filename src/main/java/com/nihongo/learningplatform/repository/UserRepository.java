@@ -3,6 +3,8 @@ package com.nihongo.learningplatform.repository;
 import com.nihongo.learningplatform.entity.User;
 import com.nihongo.learningplatform.entity.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +17,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRole(UserRole role);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // (active, blocked, role) rows for checking token holders without loading the User entity
+    @Query("SELECT u.active, u.blocked, u.role FROM User u WHERE u.id = :id")
+    List<Object[]> findStatusById(@Param("id") Long id);
+
+    @Query("SELECT u.active, u.blocked, u.role FROM User u WHERE u.username = :username")
+    List<Object[]> findStatusByUsername(@Param("username") String username);
 }
\ No newline at end of file
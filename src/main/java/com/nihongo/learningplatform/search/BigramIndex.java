@@ -0,0 +1,410 @@
+package com.nihongo.learningplatform.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index keyed on character bigrams (plus unigrams for one-character queries).
+// Japanese text has no word boundaries, so overlapping bigrams work for kana and kanji alike.
+// Postings are ascending doc ids stored as varint-encoded gaps; updates allocate a new doc id and
+// tombstone the old one, and compact() rewrites the postings once tombstones pile up.
+public class BigramIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x4E47_4958; // "NGIX"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MIN_TOMBSTONES_FOR_COMPACTION = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docIdsByKey = new HashMap<>();
+    private long[] docKeys = new long[1024]; // doc id -> packed (type, entityId)
+    private int[] docLengths = new int[1024]; // doc id -> number of distinct grams, used for ranking
+    private final BitSet deleted = new BitSet();
+    private int nextDocId;
+
+    public record Hit(int type, long entityId) {
+    }
+
+    public void put(int type, long entityId, String text) {
+        int[] grams = documentGrams(text);
+        lock.writeLock().lock();
+        try {
+            removeInternal(type, entityId);
+            if (grams.length == 0) {
+                return;
+            }
+            int docId = nextDocId++;
+            ensureDocCapacity(docId + 1);
+            docKeys[docId] = packKey(type, entityId);
+            docLengths[docId] = grams.length;
+            for (int gram : grams) {
+                postings.computeIfAbsent(gram, g -> new PostingList()).append(docId);
+            }
+            docIdsByKey.put(docKeys[docId], docId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int type, long entityId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(type, entityId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Documents containing every gram of the query, shortest documents first, then newest
+    public List<Hit> search(String query, int limit) {
+        int[] grams = queryGrams(query);
+        if (grams.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return Collections.emptyList();
+                }
+            }
+            // Start from the rarest gram so the candidate set is as small as possible
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.count, b.count));
+            int[] candidates = lists[0].decode();
+            int size = candidates.length;
+            for (int i = 1; i < lists.length && size > 0; i++) {
+                size = intersect(candidates, size, lists[i].decode());
+            }
+
+            List<Integer> live = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (!deleted.get(candidates[i])) {
+                    live.add(candidates[i]);
+                }
+            }
+            live.sort((a, b) -> docLengths[a] != docLengths[b]
+                    ? Integer.compare(docLengths[a], docLengths[b])
+                    : Integer.compare(b, a));
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, live.size()));
+            for (int docId : live) {
+                if (hits.size() == limit) {
+                    break;
+                }
+                hits.add(new Hit(unpackType(docKeys[docId]), unpackEntityId(docKeys[docId])));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<Long> entityIds(int type) {
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new HashSet<>();
+            for (long key : docIdsByKey.keySet()) {
+                if (unpackType(key) == type) {
+                    ids.add(unpackEntityId(key));
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdsByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Drops tombstoned doc ids from every posting list and renumbers the live documents densely
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            compactInternal();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(nextDocId);
+            for (int docId = 0; docId < nextDocId; docId++) {
+                out.writeLong(docKeys[docId]);
+                out.writeInt(docLengths[docId]);
+            }
+            long[] deletedWords = deleted.toLongArray();
+            out.writeInt(deletedWords.length);
+            for (long word : deletedWords) {
+                out.writeLong(word);
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<Integer, PostingList> entry : postings.entrySet()) {
+                PostingList list = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeInt(list.count);
+                out.writeInt(list.lastDocId);
+                out.writeInt(list.length);
+                out.write(list.data, 0, list.length);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static BigramIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported content index snapshot format");
+        }
+        BigramIndex index = new BigramIndex();
+        int docCount = in.readInt();
+        index.ensureDocCapacity(docCount);
+        index.nextDocId = docCount;
+        for (int docId = 0; docId < docCount; docId++) {
+            index.docKeys[docId] = in.readLong();
+            index.docLengths[docId] = in.readInt();
+        }
+        long[] deletedWords = new long[in.readInt()];
+        for (int i = 0; i < deletedWords.length; i++) {
+            deletedWords[i] = in.readLong();
+        }
+        index.deleted.or(BitSet.valueOf(deletedWords));
+        for (int docId = 0; docId < docCount; docId++) {
+            if (!index.deleted.get(docId)) {
+                index.docIdsByKey.put(index.docKeys[docId], docId);
+            }
+        }
+        int postingCount = in.readInt();
+        for (int i = 0; i < postingCount; i++) {
+            int gram = in.readInt();
+            PostingList list = new PostingList();
+            list.count = in.readInt();
+            list.lastDocId = in.readInt();
+            list.length = in.readInt();
+            list.data = new byte[Math.max(list.length, 8)];
+            in.readFully(list.data, 0, list.length);
+            index.postings.put(gram, list);
+        }
+        return index;
+    }
+
+    private void removeInternal(int type, long entityId) {
+        Integer docId = docIdsByKey.remove(packKey(type, entityId));
+        if (docId != null) {
+            deleted.set(docId);
+        }
+    }
+
+    private void compactIfNeeded() {
+        int tombstones = deleted.cardinality();
+        if (tombstones >= MIN_TOMBSTONES_FOR_COMPACTION && tombstones > docIdsByKey.size()) {
+            compactInternal();
+        }
+    }
+
+    private void compactInternal() {
+        if (deleted.isEmpty()) {
+            return;
+        }
+        int[] remap = new int[nextDocId];
+        int liveCount = 0;
+        for (int docId = 0; docId < nextDocId; docId++) {
+            if (deleted.get(docId)) {
+                remap[docId] = -1;
+            } else {
+                remap[docId] = liveCount;
+                docKeys[liveCount] = docKeys[docId];
+                docLengths[liveCount] = docLengths[docId];
+                liveCount++;
+            }
+        }
+
+        // Renumbering preserves order, so each rewritten list is still ascending
+        postings.entrySet().removeIf(entry -> {
+            PostingList rewritten = new PostingList();
+            for (int docId : entry.getValue().decode()) {
+                if (remap[docId] >= 0) {
+                    rewritten.append(remap[docId]);
+                }
+            }
+            if (rewritten.count == 0) {
+                return true;
+            }
+            entry.setValue(rewritten);
+            return false;
+        });
+
+        docIdsByKey.clear();
+        for (int docId = 0; docId < liveCount; docId++) {
+            docIdsByKey.put(docKeys[docId], docId);
+        }
+        deleted.clear();
+        nextDocId = liveCount;
+    }
+
+    private void ensureDocCapacity(int capacity) {
+        if (capacity > docKeys.length) {
+            int newLength = Math.max(capacity, docKeys.length * 2);
+            docKeys = Arrays.copyOf(docKeys, newLength);
+            docLengths = Arrays.copyOf(docLengths, newLength);
+        }
+    }
+
+    // In-place intersection of candidates[0..size) with an ascending list; returns the new size
+    private static int intersect(int[] candidates, int size, int[] other) {
+        int i = 0;
+        int j = 0;
+        int out = 0;
+        while (i < size && j < other.length) {
+            if (candidates[i] < other[j]) {
+                i++;
+            } else if (candidates[i] > other[j]) {
+                j++;
+            } else {
+                candidates[out++] = candidates[i];
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    // Every unigram and bigram of the document, deduplicated
+    static int[] documentGrams(String text) {
+        Set<Integer> grams = new HashSet<>();
+        for (String run : normalizedRuns(text)) {
+            for (int i = 0; i < run.length(); i++) {
+                grams.add(unigram(run.charAt(i)));
+                if (i + 1 < run.length()) {
+                    grams.add(bigram(run.charAt(i), run.charAt(i + 1)));
+                }
+            }
+        }
+        return grams.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    // Bigrams of the query, falling back to a unigram for one-character runs
+    static int[] queryGrams(String query) {
+        Set<Integer> grams = new HashSet<>();
+        for (String run : normalizedRuns(query)) {
+            if (run.length() == 1) {
+                grams.add(unigram(run.charAt(0)));
+            }
+            for (int i = 0; i + 1 < run.length(); i++) {
+                grams.add(bigram(run.charAt(i), run.charAt(i + 1)));
+            }
+        }
+        return grams.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // NFKC folds half-width katakana and full-width latin; punctuation and whitespace split runs
+    private static List<String> normalizedRuns(String text) {
+        List<String> runs = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return runs;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder run = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c) || Character.isSurrogate(c)) {
+                run.append(c);
+            } else if (run.length() > 0) {
+                runs.add(run.toString());
+                run.setLength(0);
+            }
+        }
+        if (run.length() > 0) {
+            runs.add(run.toString());
+        }
+        return runs;
+    }
+
+    private static int unigram(char c) {
+        return c << 16;
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    private static long packKey(int type, long entityId) {
+        return ((long) type << 56) | entityId;
+    }
+
+    private static int unpackType(long key) {
+        return (int) (key >>> 56);
+    }
+
+    private static long unpackEntityId(long key) {
+        return key & 0x00FF_FFFF_FFFF_FFFFL;
+    }
+
+    // Ascending doc ids as varint-encoded gaps; ids only ever grow, so adding a document is an append
+    static final class PostingList {
+        byte[] data = new byte[8];
+        int length;
+        int count;
+        int lastDocId = -1;
+
+        void append(int docId) {
+            int gap = docId - lastDocId;
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(length + 5, data.length * 2));
+            }
+            while ((gap & ~0x7F) != 0) {
+                data[length++] = (byte) ((gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            data[length++] = (byte) gap;
+            lastDocId = docId;
+            count++;
+        }
+
+        int[] decode() {
+            int[] docIds = new int[count];
+            int pos = 0;
+            int docId = -1;
+            for (int i = 0; i < count; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[pos++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                docId += gap;
+                docIds[i] = docId;
+            }
+            return docIds;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.nihongo.learningplatform.search;
+
+// Explicit codes (not ordinals) because they are persisted in the index snapshot
+public enum SearchableContentType {
+    LESSON(0),
+    QUESTION(1),
+    SOLUTION(2),
+    SPEECH_EXERCISE(3);
+
+    private final int code;
+
+    SearchableContentType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static SearchableContentType fromCode(int code) {
+        for (SearchableContentType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown content type code: " + code);
+    }
+}
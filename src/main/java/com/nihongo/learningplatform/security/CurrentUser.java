@@ -0,0 +1,72 @@
+package com.nihongo.learningplatform.security;
+
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+// The authenticated user of the current request, read from the JWT claims (userId, role).
+// Controllers use getId()/getRole() instead of loading the User row; getUser() loads it at most once per request.
+@Component
+@RequestScope
+public class CurrentUser {
+
+    private final UserRepository userRepository;
+
+    private UserDetailsImpl principal;
+    private User user;
+
+    @Autowired
+    public CurrentUser(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Long getId() {
+        UserDetailsImpl details = principal();
+        // Tokens issued before the userId claim existed only carry the username
+        return details.getId() != null ? details.getId() : getUser().getId();
+    }
+
+    public String getUsername() {
+        return principal().getUsername();
+    }
+
+    public UserRole getRole() {
+        UserDetailsImpl details = principal();
+        return details.getRole() != null ? details.getRole() : getUser().getRole();
+    }
+
+    public boolean isAdmin() {
+        return getRole() == UserRole.ADMIN;
+    }
+
+    public boolean isInstructor() {
+        return getRole() == UserRole.INSTRUCTOR;
+    }
+
+    public User getUser() {
+        if (user == null) {
+            String username = principal().getUsername();
+            user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
+        }
+        return user;
+    }
+
+    private UserDetailsImpl principal() {
+        if (principal == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl details)) {
+                throw new AuthenticationCredentialsNotFoundException("No authenticated user for this request");
+            }
+            principal = details;
+        }
+        return principal;
+    }
+}
@@ -1,5 +1,6 @@
 package com.nihongo.learningplatform.security;
 
+import com.nihongo.learningplatform.service.UserStatusService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,9 +14,11 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
+    private final UserStatusService userStatusService;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserStatusService userStatusService) {
         this.tokenProvider = tokenProvider;
+        this.userStatusService = userStatusService;
     }
 
     @Override
@@ -23,8 +26,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = tokenProvider.resolveToken(request);
-            if (jwt != null && tokenProvider.validateToken(jwt)) {
-                Authentication auth = tokenProvider.getAuthentication(jwt);
+            // getAuthentication verifies the token itself, so there is no separate validateToken pass
+            Authentication auth = jwt != null ? tokenProvider.getAuthentication(jwt) : null;
+            // A valid signature is not enough: blocked, deactivated or deleted users and tokens issued
+            // before a role change stay anonymous
+            if (auth != null && auth.getPrincipal() instanceof UserDetailsImpl principal
+                    && userStatusService.isAllowed(principal.getId(), principal.getUsername(), principal.getRole())) {
                 SecurityContextHolder.getContext().setAuthentication(auth);
             }
         } catch (Exception e) {
@@ -1,7 +1,9 @@
 package com.nihongo.learningplatform.security;
 
+import com.nihongo.learningplatform.entity.UserRole;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,34 +16,62 @@ import org.springframework.util.StringUtils;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    private static final String USER_ID_CLAIM = "userId";
+    private static final String ROLE_CLAIM = "role";
+    private static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpirationMs;
 
-
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+    // Access-ordered, so once the cache is full each insert drops the least recently used token in O(1);
+    // guarded by its own monitor because even get() reorders the entries
+    private final Map<String, CachedClaims> claimsCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+            return size() > claimsCacheMaxSize;
+        }
+    };
 
     /**
-     * Generate JWT token from username
+     * Generate JWT token for a user. The id and role travel as claims so requests can be
+     * authorized without loading the user row.
      *
+     * @param userId   the user id
      * @param username the username
+     * @param role     the user role
      * @return JWT token
      */
-    public String generateTokenFromUsername(String username) {
+    public String generateToken(Long userId, String username, UserRole role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
                 .setSubject(username)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role.name())
+                .claim(ROLES_CLAIM, "ROLE_" + role.name())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
                 .signWith(key(), SignatureAlgorithm.HS512)
@@ -49,40 +79,28 @@ public class JwtTokenProvider {
     }
 
     private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        return signingKey;
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // The key and parser are immutable and thread-safe, so build them once instead of per call
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 
-        return claims.getSubject();
+    public String getUsernameFromToken(String token) {
+        Claims claims = parseVerifiedClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     public Collection<? extends GrantedAuthority> getAuthoritiesFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        String roles = claims.get("roles", String.class);
-
-        return Arrays.stream(roles.split(","))
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList());
+        Claims claims = parseVerifiedClaims(token);
+        return claims != null ? authoritiesFromClaims(claims) : Collections.emptyList();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token);
-            return true;
-        } catch (MalformedJwtException | ExpiredJwtException | UnsupportedJwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseVerifiedClaims(token) != null;
     }
 
     public String resolveToken(HttpServletRequest request) {
@@ -93,12 +111,86 @@ public class JwtTokenProvider {
         return null;
     }
 
+    // Verifies the token at most once per cache lifetime; returns null when the token is invalid or expired
     public Authentication getAuthentication(String token) {
-        String username = getUsernameFromToken(token);
-        Collection<? extends GrantedAuthority> authorities = getAuthoritiesFromToken(token);
+        Claims claims = parseVerifiedClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        Collection<? extends GrantedAuthority> authorities = authoritiesFromClaims(claims);
 
-        UserDetails userDetails = UserDetailsImpl.build(username, "", authorities);
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        UserDetails userDetails = UserDetailsImpl.build(
+                userId != null ? userId.longValue() : null,
+                claims.getSubject(),
+                role != null ? UserRole.valueOf(role) : null,
+                authorities);
 
         return new UsernamePasswordAuthenticationToken(userDetails, "", authorities);
     }
+
+    // Verified claims are cached by token digest until the token expires, so repeated requests with
+    // the same bearer token skip the Base64/JSON decoding and the HMAC check
+    private Claims parseVerifiedClaims(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        String digest = digest(token);
+        CachedClaims cached;
+        synchronized (claimsCache) {
+            cached = claimsCache.get(digest);
+            if (cached != null && cached.expiresAtMillis() <= now) {
+                claimsCache.remove(digest);
+            }
+        }
+        if (cached != null) {
+            return cached.expiresAtMillis() > now ? cached.claims() : null;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : now + jwtExpirationMs;
+        synchronized (claimsCache) {
+            claimsCache.put(digest, new CachedClaims(claims, expiresAt));
+        }
+        return claims;
+    }
+
+    // Expired tokens are otherwise only dropped when presented again or pushed out by newer ones
+    public void evictExpiredClaims() {
+        long now = System.currentTimeMillis();
+        synchronized (claimsCache) {
+            claimsCache.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        }
+    }
+
+    private Collection<? extends GrantedAuthority> authoritiesFromClaims(Claims claims) {
+        String roles = claims.get(ROLES_CLAIM, String.class);
+        if (!StringUtils.hasText(roles)) {
+            return Collections.emptyList();
+        }
+
+        return Arrays.stream(roles.split(","))
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedClaims(Claims claims, long expiresAtMillis) {
+    }
 }
\ No newline at end of file
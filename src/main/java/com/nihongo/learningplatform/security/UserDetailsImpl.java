@@ -63,6 +63,23 @@ public class UserDetailsImpl implements UserDetails {
         );
     }
 
+    // Principal rebuilt from verified JWT claims, without touching the database; JwtAuthenticationFilter
+    // checks the user's current status before trusting it
+    public static UserDetailsImpl build(Long id, String username, UserRole role,
+                                        Collection<? extends GrantedAuthority> authorities) {
+        return new UserDetailsImpl(
+                id,
+                username,
+                null,
+                "",
+                role,
+                null,
+                true,
+                false,
+                authorities
+        );
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -1,5 +1,6 @@
 package com.nihongo.learningplatform.security;
 
+import com.nihongo.learningplatform.service.UserStatusService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -27,18 +28,21 @@ public class WebSecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtTokenProvider jwtTokenProvider;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
+    private final UserStatusService userStatusService;
 
     public WebSecurityConfig(UserDetailsServiceImpl userDetailsService,
                              JwtTokenProvider jwtTokenProvider,
-                             JwtAuthenticationEntryPoint unauthorizedHandler) {
+                             JwtAuthenticationEntryPoint unauthorizedHandler,
+                             UserStatusService userStatusService) {
         this.userDetailsService = userDetailsService;
         this.jwtTokenProvider = jwtTokenProvider;
         this.unauthorizedHandler = unauthorizedHandler;
+        this.userStatusService = userStatusService;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider);
+        return new JwtAuthenticationFilter(jwtTokenProvider, userStatusService);
     }
 
     @Bean
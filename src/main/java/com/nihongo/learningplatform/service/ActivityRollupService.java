@@ -0,0 +1,15 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.DailyActivityDto;
+import com.nihongo.learningplatform.dto.StudyStreakDto;
+import com.nihongo.learningplatform.dto.WeeklyStudyDto;
+
+import java.util.List;
+
+public interface ActivityRollupService {
+    StudyStreakDto getStudyStreak(Long userId);
+    List<DailyActivityDto> getUserHeatmap(Long userId, int days);
+    List<WeeklyStudyDto> getWeeklyStudy(Long userId, int weeks);
+    List<DailyActivityDto> getCourseHeatmap(Long courseId, int days);
+    int rebuildRollups();
+}
@@ -0,0 +1,14 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.grading.AnswerKey;
+
+public interface AnswerKeyService {
+    AnswerKey getExerciseAnswerKey(Long exerciseId);
+    AnswerKey getExamAnswerKey(Long examId);
+    AnswerKey getMockExamAnswerKey(Long mockExamId);
+    void invalidateExercise(Long exerciseId);
+    void invalidateExam(Long examId);
+    void invalidateMockExam(Long mockExamId);
+    void invalidateQuestion(Question question);
+}
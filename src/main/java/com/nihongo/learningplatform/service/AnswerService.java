@@ -3,13 +3,16 @@ package com.nihongo.learningplatform.service;
 import com.nihongo.learningplatform.dto.AnswerDto;
 import com.nihongo.learningplatform.entity.Answer;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface AnswerService {
     AnswerDto createAnswerDto(AnswerDto answerDto);
     Answer createAnswer(AnswerDto answerDto);
     AnswerDto getAnswerById(Long id);
     List<AnswerDto> getAnswersByQuestion(Long questionId);
+    Map<Long, List<AnswerDto>> getAnswersByQuestionIds(Collection<Long> questionIds);
     List<AnswerDto> getCorrectAnswersByQuestion(Long questionId);
     AnswerDto updateAnswer(Long id, AnswerDto answerDto);
     void deleteAnswer(Long id);
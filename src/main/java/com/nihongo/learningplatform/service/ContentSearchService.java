@@ -0,0 +1,28 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.ContentSearchResultDto;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.entity.Solution;
+import com.nihongo.learningplatform.entity.SpeechExercise;
+import com.nihongo.learningplatform.search.SearchableContentType;
+
+import java.util.List;
+
+public interface ContentSearchService {
+    List<ContentSearchResultDto> search(String query, int limit);
+    List<ContentSearchResultDto> searchForStudent(String query, int limit, Long userId);
+    List<ContentSearchResultDto> searchForInstructor(String query, int limit, Long instructorId);
+    void indexLesson(Lesson lesson);
+    void indexQuestion(Question question);
+    void indexSolution(Solution solution);
+    void indexSpeechExercise(SpeechExercise speechExercise);
+    void removeContent(SearchableContentType type, Long id);
+    void removeCourseContent(Long courseId);
+    void removeModuleContent(Long moduleId);
+    void removeExerciseContent(Long exerciseId);
+    void removeExamContent(Long examId);
+    void removeMockExamContent(Long mockExamId);
+    void rebuildIndex();
+    void saveSnapshot();
+}
@@ -0,0 +1,17 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.entity.CourseRatingStats;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface CourseRatingStatsService {
+    void createStats(Long courseId);
+    void recordRatingAdded(Long courseId, int rating);
+    void recordRatingChanged(Long courseId, int oldRating, int newRating);
+    void recordRatingRemoved(Long courseId, int rating);
+    CourseRatingStats getStats(Long courseId);
+    Map<Long, CourseRatingStats> getStatsForCourses(Collection<Long> courseIds);
+    void deleteStats(Long courseId);
+    int rebuildAll();
+}
@@ -1,6 +1,10 @@
 package com.nihongo.learningplatform.service;
 
+import com.nihongo.learningplatform.dto.CourseCatalogFilterDto;
 import com.nihongo.learningplatform.dto.CourseDto;
+import com.nihongo.learningplatform.dto.CourseSummaryDto;
+import com.nihongo.learningplatform.dto.CursorPageResponseDto;
+import com.nihongo.learningplatform.dto.PageResponseDto;
 import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.User;
 
@@ -11,10 +15,10 @@ public interface CourseService {
     CourseDto getCourseById(Long id);
     List<CourseDto> getAllCourses();
     List<CourseDto> getCoursesByInstructor(User instructor);
-    List<CourseDto> getApprovedAndActiveCourses();
+    PageResponseDto<CourseDto> getApprovedAndActiveCourses(String level, int pageNo, int pageSize);
+    CursorPageResponseDto<CourseSummaryDto> getCourseCatalog(CourseCatalogFilterDto filter);
     List<CourseDto> getUnapprovedCourses();
-    List<CourseDto> getCoursesByLevel(String level);
-    List<CourseDto> searchCourses(String keyword);
+    PageResponseDto<CourseSummaryDto> searchCatalog(String keyword, String level, int pageNo, int pageSize);
     CourseDto updateCourse(Long id, CourseDto courseDto);
     CourseDto approveCourse(Long id);
     CourseDto rejectCourse(Long id);
@@ -0,0 +1,18 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.entity.EnrollmentProgress;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface EnrollmentProgressService {
+    void initialize(Long enrollmentId);
+    void recordLessonCompletion(Long studentId, Long lessonId, boolean wasCompleted, boolean completed);
+    void recordExerciseCompletion(Long studentId, Long exerciseId, boolean wasCompleted, boolean completed);
+    void recordExamResult(Long studentId, Long examId, boolean wasPassed, boolean passed);
+    void refreshCourse(Long courseId);
+    void refreshStudentCourses(Long studentId, Collection<Long> courseIds);
+    void deleteForEnrollment(Long enrollmentId);
+    Map<Long, EnrollmentProgress> getProgressByStudent(Long studentId);
+    int rebuildAll();
+}
@@ -14,6 +14,7 @@ public interface EnrollmentService {
     List<EnrollmentDto> getEnrollmentsByCourse(Long courseId);
     EnrollmentDto getEnrollmentByStudentAndCourse(Long studentId, Long courseId);
     boolean isStudentEnrolledInCourse(Long studentId, Long courseId);
+    boolean hasCourseAccess(Long studentId, Long courseId);
     EnrollmentDto completeEnrollment(Long id);
     void deleteEnrollment(Long id);
     Enrollment getEnrollmentEntityById(Long id);
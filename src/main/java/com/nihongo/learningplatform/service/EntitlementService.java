@@ -0,0 +1,11 @@
+package com.nihongo.learningplatform.service;
+
+import java.util.Collection;
+
+public interface EntitlementService {
+    boolean isDirectlyEnrolled(Long userId, Long courseId);
+    boolean hasCourseAccess(Long userId, Long courseId);
+    void invalidateUser(Long userId);
+    void invalidateUsers(Collection<Long> userIds);
+    void invalidateAll();
+}
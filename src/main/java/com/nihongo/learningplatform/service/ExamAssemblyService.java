@@ -0,0 +1,10 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.AssembledMockExamDto;
+import com.nihongo.learningplatform.dto.ExamAssemblyRequestDto;
+
+public interface ExamAssemblyService {
+    AssembledMockExamDto assembleMockExam(ExamAssemblyRequestDto request);
+    void invalidatePools();
+    int rebuildPools();
+}
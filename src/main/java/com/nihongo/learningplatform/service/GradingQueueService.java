@@ -0,0 +1,15 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.GradingSubmissionDto;
+
+import java.util.List;
+import java.util.Map;
+
+public interface GradingQueueService {
+    GradingSubmissionDto submitExam(Long userId, Long examId, String clientSubmissionId, Map<Long, List<Long>> answers);
+    GradingSubmissionDto submitMockExam(Long userId, Long attemptId, String clientSubmissionId, Map<Long, List<Long>> answers);
+    GradingSubmissionDto getSubmission(Long id, Long userId);
+    int sweepQueuedSubmissions();
+    int recoverInterruptedSubmissions();
+    int deleteExpiredSubmissions();
+}
@@ -0,0 +1,15 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.QuestionStatsDto;
+import com.nihongo.learningplatform.grading.AnswerKey;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ItemAnalysisService {
+    void recordSubmission(AnswerKey answerKey, Map<Long, List<Long>> answers, int score);
+    int flushStatistics();
+    List<QuestionStatsDto> getExerciseItemAnalysis(Long exerciseId);
+    List<QuestionStatsDto> getExamItemAnalysis(Long examId);
+    List<QuestionStatsDto> getMockExamItemAnalysis(Long mockExamId);
+}
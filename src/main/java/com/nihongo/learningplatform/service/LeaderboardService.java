@@ -0,0 +1,13 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.LeaderboardDto;
+import com.nihongo.learningplatform.entity.MockExamAttempt;
+
+public interface LeaderboardService {
+    void recordAttempt(MockExamAttempt attempt);
+    LeaderboardDto getMockExamLeaderboard(Long mockExamId, Long userId, int limit);
+    LeaderboardDto getLevelLeaderboard(String level, Long userId, int limit);
+    void removeMockExam(Long mockExamId);
+    void updateMockExamLevel(Long mockExamId, String level);
+    int rebuildLeaderboards();
+}
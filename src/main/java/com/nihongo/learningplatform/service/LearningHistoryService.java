@@ -1,6 +1,7 @@
 package com.nihongo.learningplatform.service;
 
 import com.nihongo.learningplatform.dto.LearningHistoryDto;
+import com.nihongo.learningplatform.dto.LearningHistoryWriterStatsDto;
 import com.nihongo.learningplatform.dto.PageResponseDto;
 import com.nihongo.learningplatform.entity.ActivityType;
 import com.nihongo.learningplatform.entity.LearningHistory;
@@ -16,7 +17,12 @@ public interface LearningHistoryService {
     List<LearningHistoryDto> getLearningHistoriesByUserAndActivityType(Long userId, ActivityType activityType);
     List<LearningHistoryDto> getLearningHistoriesByUserAndCourse(Long userId, Long courseId);
     List<LearningHistoryDto> getLearningHistoriesByUserAndDateRange(Long userId, LocalDateTime start, LocalDateTime end);
+    List<LearningHistoryDto> getFailedExamsByUser(Long userId, int days);
+    List<LearningHistoryDto> getFailedExamsByCourse(Long courseId, int days);
+    List<LearningHistoryDto> getLowScoreExercisesByUser(Long userId, int belowScore, int days);
+    List<LearningHistoryDto> getLowScoreExercisesByCourse(Long courseId, int belowScore, int days);
     void deleteOldLearningHistories(LocalDateTime before);
+    void ensureFuturePartitions();
 
     // Helper methods to record specific activities
     void recordCourseEnrollment(Long userId, Long courseId);
@@ -29,4 +35,6 @@ public interface LearningHistoryService {
     void recordPurchase(Long userId, Long paymentId, String details);
     void recordCommentPosted(Long userId, Long lessonId, Long commentId);
     void recordReviewPosted(Long userId, Long courseId, Long reviewId);
+
+    LearningHistoryWriterStatsDto getWriterStats();
 }
@@ -0,0 +1,11 @@
+package com.nihongo.learningplatform.service;
+
+import java.time.LocalDateTime;
+
+public interface MockExamDeadlineService {
+    void scheduleDeadline(Long attemptId, LocalDateTime deadline);
+    void cancelDeadline(Long attemptId);
+    boolean isPastDeadline(LocalDateTime deadline);
+    boolean isPastDeadline(LocalDateTime deadline, LocalDateTime at);
+    int recoverOpenAttempts();
+}
@@ -0,0 +1,13 @@
+package com.nihongo.learningplatform.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface MockExamDraftService {
+    boolean isDraftOwner(Long attemptId, Long userId);
+    void saveDraftAnswers(Long attemptId, Map<Long, List<Long>> answers);
+    Map<Long, List<Long>> getDraftAnswers(Long attemptId);
+    Map<Long, Integer> getDraftTimeSpentSeconds(Long attemptId);
+    void discardDraft(Long attemptId);
+    int flushDrafts();
+}
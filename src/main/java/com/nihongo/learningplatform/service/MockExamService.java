@@ -2,8 +2,10 @@ package com.nihongo.learningplatform.service;
 
 import com.nihongo.learningplatform.dto.MockExamAttemptDto;
 import com.nihongo.learningplatform.dto.MockExamDto;
+import com.nihongo.learningplatform.dto.MockExamQuestionResultDto;
 import com.nihongo.learningplatform.entity.MockExam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +26,9 @@ public interface MockExamService {
     List<MockExamAttemptDto> getMockExamAttemptsByUser(Long userId);
     List<MockExamAttemptDto> getMockExamAttemptsByMockExam(Long mockExamId);
     List<MockExamAttemptDto> getMockExamAttemptsByUserAndMockExam(Long userId, Long mockExamId);
-    MockExamAttemptDto submitMockExamAttempt(Long id, Map<Long, List<Long>> answers);
+    MockExamAttemptDto submitMockExamAttempt(Long id, Map<Long, List<Long>> answers, LocalDateTime submittedAt);
+    MockExamAttemptDto submitQueuedMockExamAttempt(Long id, Map<Long, List<Long>> answers, LocalDateTime submittedAt);
+    MockExamAttemptDto finalizeExpiredAttempt(Long id);
+    List<MockExamQuestionResultDto> getMockExamAttemptResults(Long id);
     Integer getHighestScoreByUserAndMockExam(Long userId, Long mockExamId);
 }
\ No newline at end of file
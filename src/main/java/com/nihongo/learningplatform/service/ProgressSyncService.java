@@ -0,0 +1,11 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.ProgressSyncItemDto;
+import com.nihongo.learningplatform.dto.ProgressSyncResponseDto;
+
+import java.util.List;
+
+public interface ProgressSyncService {
+    ProgressSyncResponseDto syncProgress(Long userId, boolean enrollmentRequired, List<ProgressSyncItemDto> items);
+    int deleteExpiredSyncEvents();
+}
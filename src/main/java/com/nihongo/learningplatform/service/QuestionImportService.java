@@ -0,0 +1,10 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.QuestionImportResultDto;
+
+import java.io.InputStream;
+
+public interface QuestionImportService {
+    QuestionImportResultDto importExerciseQuestions(Long exerciseId, String contentType, InputStream input);
+    QuestionImportResultDto importExamQuestions(Long examId, String contentType, InputStream input);
+}
@@ -0,0 +1,16 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.dto.ReviewAnswerDto;
+import com.nihongo.learningplatform.dto.ReviewCardDto;
+import com.nihongo.learningplatform.dto.ReviewQueueDto;
+import com.nihongo.learningplatform.grading.AnswerKey;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReviewScheduleService {
+    void recordQuestionResults(Long userId, AnswerKey answerKey, Map<Long, List<Long>> answers);
+    void recordSpeechScore(Long userId, Long speechExerciseId, Float pronunciationScore);
+    ReviewQueueDto getDueReviews(Long userId, int limit);
+    List<ReviewCardDto> submitReviews(Long userId, List<ReviewAnswerDto> reviews);
+}
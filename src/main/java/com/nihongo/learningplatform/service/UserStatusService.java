@@ -0,0 +1,8 @@
+package com.nihongo.learningplatform.service;
+
+import com.nihongo.learningplatform.entity.UserRole;
+
+public interface UserStatusService {
+    boolean isAllowed(Long userId, String username, UserRole role);
+    void invalidateUser(Long userId);
+}
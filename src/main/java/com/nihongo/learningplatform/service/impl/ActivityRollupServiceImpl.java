@@ -0,0 +1,122 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.dto.DailyActivityDto;
+import com.nihongo.learningplatform.dto.StudyStreakDto;
+import com.nihongo.learningplatform.dto.WeeklyStudyDto;
+import com.nihongo.learningplatform.entity.UserActivityStreak;
+import com.nihongo.learningplatform.repository.CourseDailyActivityRepository;
+import com.nihongo.learningplatform.repository.LearningHistoryRepository;
+import com.nihongo.learningplatform.repository.UserActivityStreakRepository;
+import com.nihongo.learningplatform.repository.UserDailyActivityRepository;
+import com.nihongo.learningplatform.service.ActivityRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Reads the daily rollup tables that the learning_history insert trigger keeps up to date,
+// so streaks and heatmaps cost one small lookup per user instead of scanning raw history.
+@Service
+public class ActivityRollupServiceImpl implements ActivityRollupService {
+
+    private static final int MAX_HEATMAP_DAYS = 366;
+    private static final int MAX_WEEKS = 53;
+
+    private final UserDailyActivityRepository userDailyActivityRepository;
+    private final CourseDailyActivityRepository courseDailyActivityRepository;
+    private final UserActivityStreakRepository userActivityStreakRepository;
+    private final LearningHistoryRepository learningHistoryRepository;
+
+    @Autowired
+    public ActivityRollupServiceImpl(UserDailyActivityRepository userDailyActivityRepository,
+                                     CourseDailyActivityRepository courseDailyActivityRepository,
+                                     UserActivityStreakRepository userActivityStreakRepository,
+                                     LearningHistoryRepository learningHistoryRepository) {
+        this.userDailyActivityRepository = userDailyActivityRepository;
+        this.courseDailyActivityRepository = courseDailyActivityRepository;
+        this.userActivityStreakRepository = userActivityStreakRepository;
+        this.learningHistoryRepository = learningHistoryRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StudyStreakDto getStudyStreak(Long userId) {
+        LocalDate today = LocalDate.now();
+        return userActivityStreakRepository.findById(userId)
+                .map(streak -> toDto(streak, today))
+                .orElseGet(() -> new StudyStreakDto(0, 0, null, false));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyActivityDto> getUserHeatmap(Long userId, int days) {
+        return userDailyActivityRepository.findDailyTotals(userId, windowStart(days));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<WeeklyStudyDto> getWeeklyStudy(Long userId, int weeks) {
+        int clamped = Math.max(1, Math.min(weeks, MAX_WEEKS));
+        LocalDate firstWeek = LocalDate.now()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .minusWeeks(clamped - 1L);
+
+        List<WeeklyStudyDto> result = new ArrayList<>(clamped);
+        for (int i = 0; i < clamped; i++) {
+            result.add(new WeeklyStudyDto(firstWeek.plusWeeks(i), 0, 0));
+        }
+        for (DailyActivityDto day : userDailyActivityRepository.findDailyTotals(userId, firstWeek)) {
+            int week = (int) ChronoUnit.WEEKS.between(firstWeek, day.getDate());
+            WeeklyStudyDto bucket = result.get(Math.min(week, clamped - 1));
+            bucket.setActivityCount(bucket.getActivityCount() + day.getActivityCount());
+            bucket.setStudyMinutes(bucket.getStudyMinutes() + day.getStudyMinutes());
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyActivityDto> getCourseHeatmap(Long courseId, int days) {
+        return courseDailyActivityRepository
+                .findByCourseIdAndActivityDateGreaterThanEqualOrderByActivityDate(courseId, windowStart(days)).stream()
+                .map(day -> new DailyActivityDto(day.getActivityDate(), day.getActivityCount(), null))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public int rebuildRollups() {
+        return userDailyActivityRepository.rebuildFromHistory();
+    }
+
+    // Backfill history recorded before the rollup trigger existed
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedIfEmpty() {
+        if (userDailyActivityRepository.count() == 0 && learningHistoryRepository.count() > 0) {
+            userDailyActivityRepository.rebuildFromHistory();
+        }
+    }
+
+    // The stored streak only moves when activity is recorded, so a gap since then means it is already broken
+    private StudyStreakDto toDto(UserActivityStreak streak, LocalDate today) {
+        LocalDate last = streak.getLastActiveDate();
+        boolean activeToday = today.equals(last);
+        boolean alive = last != null && !last.isBefore(today.minusDays(1));
+        return new StudyStreakDto(alive ? streak.getCurrentStreak() : 0, streak.getLongestStreak(), last, activeToday);
+    }
+
+    private LocalDate windowStart(int days) {
+        int clamped = Math.max(1, Math.min(days, MAX_HEATMAP_DAYS));
+        return LocalDate.now().minusDays(clamped - 1L);
+    }
+}
@@ -0,0 +1,142 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.entity.Exam;
+import com.nihongo.learningplatform.entity.Exercise;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.grading.AnswerKey;
+import com.nihongo.learningplatform.repository.ExamRepository;
+import com.nihongo.learningplatform.repository.ExerciseRepository;
+import com.nihongo.learningplatform.repository.MockExamRepository;
+import com.nihongo.learningplatform.repository.QuestionRepository;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Compiled answer keys per assessment, loaded on the first submission and dropped after any question,
+// answer or assessment write commits
+@Service
+public class AnswerKeyServiceImpl implements AnswerKeyService {
+
+    private final QuestionRepository questionRepository;
+    private final ExerciseRepository exerciseRepository;
+    private final ExamRepository examRepository;
+    private final MockExamRepository mockExamRepository;
+
+    private final Map<Long, AnswerKey> exerciseKeys = new ConcurrentHashMap<>();
+    private final Map<Long, AnswerKey> examKeys = new ConcurrentHashMap<>();
+    private final Map<Long, AnswerKey> mockExamKeys = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a key loaded across a bump may be stale and is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public AnswerKeyServiceImpl(QuestionRepository questionRepository,
+                                ExerciseRepository exerciseRepository,
+                                ExamRepository examRepository,
+                                MockExamRepository mockExamRepository) {
+        this.questionRepository = questionRepository;
+        this.exerciseRepository = exerciseRepository;
+        this.examRepository = examRepository;
+        this.mockExamRepository = mockExamRepository;
+    }
+
+    @Override
+    public AnswerKey getExerciseAnswerKey(Long exerciseId) {
+        return cached(exerciseKeys, exerciseId, () -> {
+            Exercise exercise = exerciseRepository.findById(exerciseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Exercise not found with id: " + exerciseId));
+            return AnswerKey.compile(exercise.getCourse().getId(), 0,
+                    questionRepository.findAnswerKeyRowsByExerciseId(exerciseId));
+        });
+    }
+
+    @Override
+    public AnswerKey getExamAnswerKey(Long examId) {
+        return cached(examKeys, examId, () -> {
+            Exam exam = examRepository.findById(examId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Exam not found with id: " + examId));
+            return AnswerKey.compile(exam.getCourse().getId(), exam.getPassingScore(),
+                    questionRepository.findAnswerKeyRowsByExamId(examId));
+        });
+    }
+
+    @Override
+    public AnswerKey getMockExamAnswerKey(Long mockExamId) {
+        return cached(mockExamKeys, mockExamId, () -> {
+            MockExam mockExam = mockExamRepository.findById(mockExamId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Mock exam not found with id: " + mockExamId));
+            return AnswerKey.compile(mockExam.getCourse() != null ? mockExam.getCourse().getId() : null,
+                    mockExam.getPassingScore(), questionRepository.findAnswerKeyRowsByMockExamId(mockExamId));
+        });
+    }
+
+    @Override
+    public void invalidateExercise(Long exerciseId) {
+        invalidate(exerciseKeys, exerciseId);
+    }
+
+    @Override
+    public void invalidateExam(Long examId) {
+        invalidate(examKeys, examId);
+    }
+
+    @Override
+    public void invalidateMockExam(Long mockExamId) {
+        invalidate(mockExamKeys, mockExamId);
+    }
+
+    @Override
+    public void invalidateQuestion(Question question) {
+        if (question.getExercise() != null) {
+            invalidateExercise(question.getExercise().getId());
+        }
+        if (question.getExam() != null) {
+            invalidateExam(question.getExam().getId());
+        }
+        if (question.getMockExam() != null) {
+            invalidateMockExam(question.getMockExam().getId());
+        }
+    }
+
+    private AnswerKey cached(Map<Long, AnswerKey> keys, Long id, Supplier<AnswerKey> loader) {
+        AnswerKey key = keys.get(id);
+        if (key != null) {
+            return key;
+        }
+        long loadedAt = generation.get();
+        key = loader.get();
+        if (generation.get() == loadedAt) {
+            keys.put(id, key);
+        }
+        return key;
+    }
+
+    // Drop the key once the write is visible, otherwise a concurrent submission could re-cache the old one
+    private void invalidate(Map<Long, AnswerKey> keys, Long id) {
+        if (id == null) {
+            return;
+        }
+        Runnable action = () -> {
+            generation.incrementAndGet();
+            keys.remove(id);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.nihongo.learningplatform.entity.Answer;
 import com.nihongo.learningplatform.entity.Question;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.AnswerRepository;
+import com.nihongo.learningplatform.service.AnswerKeyService;
 import com.nihongo.learningplatform.service.AnswerService;
 import com.nihongo.learningplatform.service.QuestionService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +13,9 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,12 +23,15 @@ public class AnswerServiceImpl implements AnswerService {
 
     private final AnswerRepository answerRepository;
     private final QuestionService questionService;
+    private final AnswerKeyService answerKeyService;
 
     @Autowired
     public AnswerServiceImpl(AnswerRepository answerRepository,
-                             @Lazy QuestionService questionService) {
+                             @Lazy QuestionService questionService,
+                             AnswerKeyService answerKeyService) {
         this.answerRepository = answerRepository;
         this.questionService = questionService;
+        this.answerKeyService = answerKeyService;
     }
 
     @Override
@@ -45,7 +51,9 @@ public class AnswerServiceImpl implements AnswerService {
         answer.setCorrect(answerDto.isCorrect());
         answer.setQuestion(question);
 
-        return answerRepository.save(answer);
+        Answer savedAnswer = answerRepository.save(answer);
+        answerKeyService.invalidateQuestion(question);
+        return savedAnswer;
     }
 
     @Override
@@ -64,6 +72,17 @@ public class AnswerServiceImpl implements AnswerService {
                 .collect(Collectors.toList());
     }
 
+    // Answers of many questions in one query, grouped by question id
+    @Override
+    public Map<Long, List<AnswerDto>> getAnswersByQuestionIds(Collection<Long> questionIds) {
+        if (questionIds.isEmpty()) {
+            return Map.of();
+        }
+        return answerRepository.findByQuestionIdInOrderByIdAsc(questionIds).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.groupingBy(AnswerDto::getQuestionId));
+    }
+
     @Override
     public List<AnswerDto> getCorrectAnswersByQuestion(Long questionId) {
         Question question = questionService.getQuestionEntityById(questionId);
@@ -83,16 +102,17 @@ public class AnswerServiceImpl implements AnswerService {
         answer.setCorrect(answerDto.isCorrect());
 
         Answer updatedAnswer = answerRepository.save(answer);
+        answerKeyService.invalidateQuestion(answer.getQuestion());
         return mapToDto(updatedAnswer);
     }
 
     @Override
     @Transactional
     public void deleteAnswer(Long id) {
-        if (!answerRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Answer not found with id: " + id);
-        }
-        answerRepository.deleteById(id);
+        Answer answer = answerRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Answer not found with id: " + id));
+        answerRepository.delete(answer);
+        answerKeyService.invalidateQuestion(answer.getQuestion());
     }
 
     @Override
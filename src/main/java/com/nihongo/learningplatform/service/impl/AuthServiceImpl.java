@@ -53,7 +53,7 @@ public class AuthServiceImpl implements AuthService {
                 .map(refreshTokenService::verifyExpiration)
                 .map(refreshToken -> {
                     User user = refreshToken.getUser();
-                    String newAccessToken = tokenProvider.generateTokenFromUsername(user.getUsername());
+                    String newAccessToken = tokenProvider.generateToken(user.getId(), user.getUsername(), user.getRole());
                     return new RefreshTokenResponseDto(newAccessToken, requestRefreshToken, "Bearer");
                 })
                 .orElseThrow(() -> new TokenRefreshException(requestRefreshToken, "Refresh token is not in database!"));
@@ -105,10 +105,10 @@ public class AuthServiceImpl implements AuthService {
                 new UsernamePasswordAuthenticationToken(loginDto.getUsername(), loginDto.getPassword()));
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateTokenFromUsername(String.valueOf(authentication));
-
         UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
 
+        String jwt = tokenProvider.generateToken(userDetails.getId(), userDetails.getUsername(), userDetails.getRole());
+
         return new JwtResponseDto(
                 jwt,
                 userDetails.getId(),
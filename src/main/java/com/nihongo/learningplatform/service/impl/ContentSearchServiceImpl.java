@@ -0,0 +1,470 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.dto.ContentSearchResultDto;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.entity.Solution;
+import com.nihongo.learningplatform.entity.SpeechExercise;
+import com.nihongo.learningplatform.repository.CourseRepository;
+import com.nihongo.learningplatform.repository.LessonRepository;
+import com.nihongo.learningplatform.repository.QuestionRepository;
+import com.nihongo.learningplatform.repository.SolutionRepository;
+import com.nihongo.learningplatform.repository.SpeechExerciseRepository;
+import com.nihongo.learningplatform.search.BigramIndex;
+import com.nihongo.learningplatform.search.SearchableContentType;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import com.nihongo.learningplatform.service.EntitlementService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ContentSearchServiceImpl implements ContentSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentSearchServiceImpl.class);
+    private static final int MAX_RESULTS = 100;
+    // Students and instructors only see hits they can open, so filter from a wider window of the best matches
+    private static final int MAX_SCOPED_CANDIDATES = 1000;
+    // Entities are stamped before their transaction commits, so replay a little before the snapshot time
+    private static final long SNAPSHOT_REPLAY_MARGIN_MINUTES = 5;
+
+    private final CourseRepository courseRepository;
+    private final LessonRepository lessonRepository;
+    private final QuestionRepository questionRepository;
+    private final SolutionRepository solutionRepository;
+    private final SpeechExerciseRepository speechExerciseRepository;
+    private final EntitlementService entitlementService;
+    private final Path snapshotPath;
+
+    private volatile BigramIndex index = new BigramIndex();
+    private volatile boolean dirty;
+
+    // Index writes are serialized here; while a rebuild or snapshot load runs they are also journaled and
+    // replayed onto the new index before it is swapped in, so writes committed meanwhile are not lost
+    private final Object writeLock = new Object();
+    private final Object rebuildLock = new Object();
+    private List<Consumer<BigramIndex>> journal;
+
+    @Autowired
+    public ContentSearchServiceImpl(CourseRepository courseRepository,
+                                    LessonRepository lessonRepository,
+                                    QuestionRepository questionRepository,
+                                    SolutionRepository solutionRepository,
+                                    SpeechExerciseRepository speechExerciseRepository,
+                                    EntitlementService entitlementService,
+                                    @Value("${app.content-index.snapshot-path}") String snapshotPath) {
+        this.courseRepository = courseRepository;
+        this.lessonRepository = lessonRepository;
+        this.questionRepository = questionRepository;
+        this.solutionRepository = solutionRepository;
+        this.speechExerciseRepository = speechExerciseRepository;
+        this.entitlementService = entitlementService;
+        this.snapshotPath = Paths.get(snapshotPath);
+    }
+
+    @Override
+    public List<ContentSearchResultDto> search(String query, int limit) {
+        return index.search(query, Math.max(1, Math.min(limit, MAX_RESULTS))).stream()
+                .map(hit -> new ContentSearchResultDto(SearchableContentType.fromCode(hit.type()), hit.entityId()))
+                .collect(Collectors.toList());
+    }
+
+    // Lessons, speech exercises and exercise questions of courses the student can access; exam and mock
+    // exam questions and solutions are never returned to students
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContentSearchResultDto> searchForStudent(String query, int limit, Long userId) {
+        int capped = Math.max(1, Math.min(limit, MAX_RESULTS));
+        List<BigramIndex.Hit> candidates = index.search(query, MAX_SCOPED_CANDIDATES);
+
+        Map<Long, Long> lessonCourses = courseIds(candidates, SearchableContentType.LESSON,
+                lessonRepository::findCourseIdsByIds);
+        Map<Long, Long> speechExerciseCourses = courseIds(candidates, SearchableContentType.SPEECH_EXERCISE,
+                speechExerciseRepository::findCourseIdsByIds);
+        Map<Long, Long> questionCourses = courseIds(candidates, SearchableContentType.QUESTION,
+                questionRepository::findExerciseCourseIdsByIds);
+
+        List<ContentSearchResultDto> results = new ArrayList<>();
+        for (BigramIndex.Hit hit : candidates) {
+            if (results.size() == capped) {
+                break;
+            }
+            SearchableContentType type = SearchableContentType.fromCode(hit.type());
+            Long courseId = switch (type) {
+                case LESSON -> lessonCourses.get(hit.entityId());
+                case SPEECH_EXERCISE -> speechExerciseCourses.get(hit.entityId());
+                case QUESTION -> questionCourses.get(hit.entityId());
+                case SOLUTION -> null;
+            };
+            if (courseId != null && entitlementService.hasCourseAccess(userId, courseId)) {
+                results.add(new ContentSearchResultDto(type, hit.entityId()));
+            }
+        }
+        return results;
+    }
+
+    // Everything in the instructor's own courses; of other courses only what their students could find, in
+    // approved and active courses. Other instructors' exam and mock exam questions and solutions carry answers.
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContentSearchResultDto> searchForInstructor(String query, int limit, Long instructorId) {
+        int capped = Math.max(1, Math.min(limit, MAX_RESULTS));
+        List<BigramIndex.Hit> candidates = index.search(query, MAX_SCOPED_CANDIDATES);
+
+        Map<Long, Long> lessonCourses = courseIds(candidates, SearchableContentType.LESSON,
+                lessonRepository::findCourseIdsByIds);
+        Map<Long, Long> speechExerciseCourses = courseIds(candidates, SearchableContentType.SPEECH_EXERCISE,
+                speechExerciseRepository::findCourseIdsByIds);
+        Map<Long, Long> questionCourses = courseIds(candidates, SearchableContentType.QUESTION,
+                questionRepository::findCourseIdsByIds);
+        Map<Long, Long> exerciseQuestionCourses = courseIds(candidates, SearchableContentType.QUESTION,
+                questionRepository::findExerciseCourseIdsByIds);
+        Map<Long, Long> solutionCourses = courseIds(candidates, SearchableContentType.SOLUTION,
+                solutionRepository::findCourseIdsByIds);
+
+        Set<Long> ownCourses = courseRepository.findIdsByInstructorId(instructorId);
+        Set<Long> otherCourses = new HashSet<>();
+        otherCourses.addAll(lessonCourses.values());
+        otherCourses.addAll(speechExerciseCourses.values());
+        otherCourses.addAll(exerciseQuestionCourses.values());
+        otherCourses.removeAll(ownCourses);
+        Set<Long> publishedCourses = otherCourses.isEmpty()
+                ? Set.of()
+                : courseRepository.findPublishedIdsByIds(otherCourses);
+
+        List<ContentSearchResultDto> results = new ArrayList<>();
+        for (BigramIndex.Hit hit : candidates) {
+            if (results.size() == capped) {
+                break;
+            }
+            SearchableContentType type = SearchableContentType.fromCode(hit.type());
+            Long ownCourseId = switch (type) {
+                case LESSON -> lessonCourses.get(hit.entityId());
+                case SPEECH_EXERCISE -> speechExerciseCourses.get(hit.entityId());
+                case QUESTION -> questionCourses.get(hit.entityId());
+                case SOLUTION -> solutionCourses.get(hit.entityId());
+            };
+            Long publishedCourseId = switch (type) {
+                case LESSON -> lessonCourses.get(hit.entityId());
+                case SPEECH_EXERCISE -> speechExerciseCourses.get(hit.entityId());
+                case QUESTION -> exerciseQuestionCourses.get(hit.entityId());
+                case SOLUTION -> null;
+            };
+            if ((ownCourseId != null && ownCourses.contains(ownCourseId))
+                    || (publishedCourseId != null && publishedCourses.contains(publishedCourseId))) {
+                results.add(new ContentSearchResultDto(type, hit.entityId()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void indexLesson(Lesson lesson) {
+        String text = titledText(lesson.getTitle(), lesson.getContent());
+        Long id = lesson.getId();
+        afterCommit(() -> put(SearchableContentType.LESSON, id, text));
+    }
+
+    @Override
+    public void indexQuestion(Question question) {
+        String text = question.getContent();
+        Long id = question.getId();
+        afterCommit(() -> put(SearchableContentType.QUESTION, id, text));
+    }
+
+    @Override
+    public void indexSolution(Solution solution) {
+        Long id = solution.getId();
+        // Hidden solutions must not be discoverable through search
+        if (!solution.isVisible()) {
+            removeContent(SearchableContentType.SOLUTION, id);
+            return;
+        }
+        String text = solutionText(solution.getContent(), solution.getExplanation());
+        afterCommit(() -> put(SearchableContentType.SOLUTION, id, text));
+    }
+
+    @Override
+    public void indexSpeechExercise(SpeechExercise speechExercise) {
+        String text = titledText(speechExercise.getTitle(), speechExercise.getJapaneseText());
+        Long id = speechExercise.getId();
+        afterCommit(() -> put(SearchableContentType.SPEECH_EXERCISE, id, text));
+    }
+
+    @Override
+    public void removeContent(SearchableContentType type, Long id) {
+        afterCommit(() -> write(target -> target.remove(type.getCode(), id)));
+    }
+
+    // The remove*Content methods run before the cascading delete, while the child rows can still be found
+
+    @Override
+    public void removeCourseContent(Long courseId) {
+        removeCascade(questionRepository.findIdsByCourseId(courseId), lessonRepository.findIdsByCourseId(courseId));
+    }
+
+    @Override
+    public void removeModuleContent(Long moduleId) {
+        removeCascade(List.of(), lessonRepository.findIdsByModuleId(moduleId));
+    }
+
+    @Override
+    public void removeExerciseContent(Long exerciseId) {
+        removeCascade(questionRepository.findIdsByExerciseId(exerciseId), List.of());
+    }
+
+    @Override
+    public void removeExamContent(Long examId) {
+        removeCascade(questionRepository.findIdsByExamId(examId), List.of());
+    }
+
+    @Override
+    public void removeMockExamContent(Long mockExamId) {
+        removeCascade(questionRepository.findIdsByMockExamId(mockExamId), List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        synchronized (rebuildLock) {
+            startJournal();
+            try {
+                BigramIndex rebuilt = new BigramIndex();
+                indexRows(rebuilt, lessonRepository.findSearchableText(), SearchableContentType.LESSON);
+                indexRows(rebuilt, questionRepository.findSearchableText(), SearchableContentType.QUESTION);
+                indexRows(rebuilt, solutionRepository.findSearchableText(), SearchableContentType.SOLUTION);
+                indexRows(rebuilt, speechExerciseRepository.findSearchableText(),
+                        SearchableContentType.SPEECH_EXERCISE);
+                install(rebuilt);
+                logger.info("Content search index rebuilt with {} documents", rebuilt.size());
+            } finally {
+                stopJournal();
+            }
+        }
+    }
+
+    // Write to a temp file and move it into place so a crash never leaves a truncated snapshot
+    @Override
+    public synchronized void saveSnapshot() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        BigramIndex current = index;
+        current.compact();
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                current.writeTo(out);
+            }
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            logger.warn("Could not write content search snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    // Load the snapshot and replay what changed since it was written; fall back to a full rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        if (Files.isRegularFile(snapshotPath)) {
+            synchronized (rebuildLock) {
+                startJournal();
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+                    BigramIndex loaded = BigramIndex.readFrom(in);
+                    LocalDateTime since = LocalDateTime.ofInstant(
+                            Instant.ofEpochMilli(Files.getLastModifiedTime(snapshotPath).toMillis()), ZoneId.systemDefault())
+                            .minusMinutes(SNAPSHOT_REPLAY_MARGIN_MINUTES);
+                    catchUp(loaded, since);
+                    install(loaded);
+                    logger.info("Content search index loaded from snapshot with {} documents", loaded.size());
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Discarding unreadable content search snapshot {}", snapshotPath, e);
+                } finally {
+                    stopJournal();
+                }
+            }
+        }
+        rebuildIndex();
+        saveSnapshot();
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        saveSnapshot();
+    }
+
+    private void catchUp(BigramIndex loaded, LocalDateTime since) {
+        indexRows(loaded, lessonRepository.findSearchableTextUpdatedAfter(since), SearchableContentType.LESSON);
+        indexRows(loaded, questionRepository.findSearchableTextUpdatedAfter(since), SearchableContentType.QUESTION);
+        indexRows(loaded, solutionRepository.findSearchableTextUpdatedAfter(since), SearchableContentType.SOLUTION);
+        indexRows(loaded, speechExerciseRepository.findSearchableTextUpdatedAfter(since),
+                SearchableContentType.SPEECH_EXERCISE);
+
+        // Deletes leave no updatedAt trail, so drop whatever no longer exists
+        dropMissing(loaded, SearchableContentType.LESSON, lessonRepository.findAllIds());
+        dropMissing(loaded, SearchableContentType.QUESTION, questionRepository.findAllIds());
+        dropMissing(loaded, SearchableContentType.SOLUTION, solutionRepository.findAllIds());
+        dropMissing(loaded, SearchableContentType.SPEECH_EXERCISE, speechExerciseRepository.findAllIds());
+        dirty = true;
+    }
+
+    private void dropMissing(BigramIndex target, SearchableContentType type, List<Long> existingIds) {
+        Set<Long> existing = new HashSet<>(existingIds);
+        for (Long id : target.entityIds(type.getCode())) {
+            if (!existing.contains(id)) {
+                target.remove(type.getCode(), id);
+            }
+        }
+    }
+
+    // Row layouts match the findSearchableText queries of each repository
+    private void indexRows(BigramIndex target, List<Object[]> rows, SearchableContentType type) {
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            switch (type) {
+                case LESSON, SPEECH_EXERCISE -> target.put(type.getCode(), id, titledText((String) row[1], (String) row[2]));
+                case QUESTION -> target.put(type.getCode(), id, (String) row[1]);
+                case SOLUTION -> {
+                    if (Boolean.TRUE.equals(row[3])) {
+                        target.put(type.getCode(), id, solutionText((String) row[1], (String) row[2]));
+                    } else {
+                        target.remove(type.getCode(), id);
+                    }
+                }
+            }
+        }
+    }
+
+    private void put(SearchableContentType type, Long id, String text) {
+        write(target -> target.put(type.getCode(), id, text));
+    }
+
+    private void write(Consumer<BigramIndex> action) {
+        synchronized (writeLock) {
+            action.accept(index);
+            if (journal != null) {
+                journal.add(action);
+            }
+            dirty = true;
+        }
+    }
+
+    private void startJournal() {
+        synchronized (writeLock) {
+            journal = new ArrayList<>();
+        }
+    }
+
+    private void stopJournal() {
+        synchronized (writeLock) {
+            journal = null;
+        }
+    }
+
+    // Puts and removes are idempotent, so replaying a write the new index already reflects is harmless
+    private void install(BigramIndex replacement) {
+        synchronized (writeLock) {
+            journal.forEach(action -> action.accept(replacement));
+            index = replacement;
+            dirty = true;
+        }
+    }
+
+    // Drops questions and lessons with their speech exercises and solutions once the delete commits
+    private void removeCascade(List<Long> questionIds, List<Long> lessonIds) {
+        if (questionIds.isEmpty() && lessonIds.isEmpty()) {
+            return;
+        }
+        List<Long> speechExerciseIds = lessonIds.isEmpty()
+                ? List.of() : speechExerciseRepository.findIdsByLessonIds(lessonIds);
+        List<Long> solutionIds = new ArrayList<>();
+        if (!questionIds.isEmpty()) {
+            solutionIds.addAll(solutionRepository.findIdsByQuestionIds(questionIds));
+        }
+        if (!speechExerciseIds.isEmpty()) {
+            solutionIds.addAll(solutionRepository.findIdsBySpeechExerciseIds(speechExerciseIds));
+        }
+        afterCommit(() -> write(target -> {
+            questionIds.forEach(id -> target.remove(SearchableContentType.QUESTION.getCode(), id));
+            lessonIds.forEach(id -> target.remove(SearchableContentType.LESSON.getCode(), id));
+            speechExerciseIds.forEach(id -> target.remove(SearchableContentType.SPEECH_EXERCISE.getCode(), id));
+            solutionIds.forEach(id -> target.remove(SearchableContentType.SOLUTION.getCode(), id));
+        }));
+    }
+
+    // (entity id, course id) rows for the hits of one type, looked up in a single query
+    private static Map<Long, Long> courseIds(List<BigramIndex.Hit> hits, SearchableContentType type,
+                                             Function<Collection<Long>, List<Object[]>> lookup) {
+        List<Long> ids = hits.stream()
+                .filter(hit -> hit.type() == type.getCode())
+                .map(BigramIndex.Hit::entityId)
+                .collect(Collectors.toList());
+        Map<Long, Long> courseIds = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Object[] row : lookup.apply(ids)) {
+                courseIds.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return courseIds;
+    }
+
+    // Only touch the index once the write is durable, otherwise a rollback would leave phantom hits
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String titledText(String title, String body) {
+        return (title != null ? title : "") + "\n" + (body != null ? body : "");
+    }
+
+    private static String solutionText(String content, String explanation) {
+        return (content != null ? content : "") + "\n" + (explanation != null ? explanation : "");
+    }
+}
@@ -13,6 +13,7 @@ import com.nihongo.learningplatform.repository.ComboEnrollmentRepository;
 import com.nihongo.learningplatform.repository.PaymentRepository;
 import com.nihongo.learningplatform.repository.UserRepository;
 import com.nihongo.learningplatform.service.CourseComboService;
+import com.nihongo.learningplatform.service.EntitlementService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -42,6 +43,9 @@ public class CourseComboServiceImpl implements CourseComboService {
     @Autowired
     private ComboEnrollmentMapper comboEnrollmentMapper;
 
+    @Autowired
+    private EntitlementService entitlementService;
+
     @Override
     public CourseComboDto createCourseCombo(CourseComboDto dto) {
         CourseCombo combo = courseComboMapper.toEntity(dto);
@@ -81,7 +85,10 @@ public class CourseComboServiceImpl implements CourseComboService {
     public CourseComboDto updateCourseCombo(Long id, CourseComboDto dto) {
         CourseCombo existing = getCourseComboEntityById(id);
         courseComboMapper.updateEntityFromDto(dto, existing);
-        return courseComboMapper.toDto(courseComboRepository.save(existing));
+        CourseCombo saved = courseComboRepository.save(existing);
+        // The combo's course list may have changed for everyone enrolled in it
+        entitlementService.invalidateUsers(comboEnrollmentRepository.findStudentIdsByComboId(id));
+        return courseComboMapper.toDto(saved);
     }
 
     @Override
@@ -100,7 +107,9 @@ public class CourseComboServiceImpl implements CourseComboService {
 
     @Override
     public void deleteCourseCombo(Long id) {
+        List<Long> studentIds = comboEnrollmentRepository.findStudentIdsByComboId(id);
         courseComboRepository.deleteById(id);
+        entitlementService.invalidateUsers(studentIds);
     }
 
     @Override
@@ -128,6 +137,7 @@ public class CourseComboServiceImpl implements CourseComboService {
         enrollment.setCompleted(false);
 
         ComboEnrollment saved = comboEnrollmentRepository.save(enrollment);
+        entitlementService.invalidateUser(userId);
         return comboEnrollmentMapper.toDto(saved);
     }
 
@@ -179,6 +189,9 @@ public class CourseComboServiceImpl implements CourseComboService {
         List<ComboEnrollment> expired = comboEnrollmentRepository.findExpiredEnrollments(LocalDateTime.now());
         expired.forEach(enrollment -> enrollment.setCompleted(true));
         comboEnrollmentRepository.saveAll(expired);
+        entitlementService.invalidateUsers(expired.stream()
+                .map(enrollment -> enrollment.getStudent().getId())
+                .collect(Collectors.toSet()));
     }
 
     @Override
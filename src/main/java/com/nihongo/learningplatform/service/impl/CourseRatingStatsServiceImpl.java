@@ -0,0 +1,105 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.entity.CourseRatingStats;
+import com.nihongo.learningplatform.repository.CourseRatingStatsRepository;
+import com.nihongo.learningplatform.service.CourseRatingStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class CourseRatingStatsServiceImpl implements CourseRatingStatsService {
+
+    private final CourseRatingStatsRepository courseRatingStatsRepository;
+
+    @Autowired
+    public CourseRatingStatsServiceImpl(CourseRatingStatsRepository courseRatingStatsRepository) {
+        this.courseRatingStatsRepository = courseRatingStatsRepository;
+    }
+
+    // Every course gets its zero row up front, so the rating-sorted catalog can inner join the stats
+    @Override
+    @Transactional
+    public void createStats(Long courseId) {
+        courseRatingStatsRepository.applyDelta(courseId, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    @Transactional
+    public void recordRatingAdded(Long courseId, int rating) {
+        applyDelta(courseId, rating, 1, rating, 1);
+    }
+
+    @Override
+    @Transactional
+    public void recordRatingChanged(Long courseId, int oldRating, int newRating) {
+        if (oldRating == newRating) {
+            return;
+        }
+        long[] histogram = new long[5];
+        addToHistogram(histogram, oldRating, -1);
+        addToHistogram(histogram, newRating, 1);
+        courseRatingStatsRepository.applyDelta(courseId, newRating - oldRating, 0,
+                histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]);
+    }
+
+    @Override
+    @Transactional
+    public void recordRatingRemoved(Long courseId, int rating) {
+        applyDelta(courseId, -rating, -1, rating, -1);
+    }
+
+    @Override
+    public CourseRatingStats getStats(Long courseId) {
+        return courseRatingStatsRepository.findById(courseId)
+                .orElseGet(() -> emptyStats(courseId));
+    }
+
+    @Override
+    public Map<Long, CourseRatingStats> getStatsForCourses(Collection<Long> courseIds) {
+        if (courseIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return courseRatingStatsRepository.findByCourseIdIn(courseIds).stream()
+                .collect(Collectors.toMap(CourseRatingStats::getCourseId, Function.identity()));
+    }
+
+    @Override
+    @Transactional
+    public void deleteStats(Long courseId) {
+        if (courseRatingStatsRepository.existsById(courseId)) {
+            courseRatingStatsRepository.deleteById(courseId);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int rebuildAll() {
+        return courseRatingStatsRepository.rebuildFromReviews();
+    }
+
+    public static CourseRatingStats emptyStats(Long courseId) {
+        CourseRatingStats stats = new CourseRatingStats();
+        stats.setCourseId(courseId);
+        return stats;
+    }
+
+    private void applyDelta(Long courseId, long sumDelta, long countDelta, int rating, long starDelta) {
+        long[] histogram = new long[5];
+        addToHistogram(histogram, rating, starDelta);
+        courseRatingStatsRepository.applyDelta(courseId, sumDelta, countDelta,
+                histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]);
+    }
+
+    private void addToHistogram(long[] histogram, int rating, long delta) {
+        if (rating >= 1 && rating <= 5) {
+            histogram[rating - 1] += delta;
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.nihongo.learningplatform.service.impl;
 
+import com.nihongo.learningplatform.dto.CourseCatalogFilterDto;
 import com.nihongo.learningplatform.dto.CourseDto;
+import com.nihongo.learningplatform.dto.CourseSummaryDto;
+import com.nihongo.learningplatform.dto.CursorPageResponseDto;
+import com.nihongo.learningplatform.dto.PageResponseDto;
 import com.nihongo.learningplatform.entity.Course;
-import com.nihongo.learningplatform.entity.Review;
+import com.nihongo.learningplatform.entity.CourseRatingStats;
 import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.exception.BadRequestException;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.CourseRepository;
-import com.nihongo.learningplatform.repository.ReviewRepository;
 import com.nihongo.learningplatform.service.CloudinaryService;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import com.nihongo.learningplatform.service.CourseRatingStatsService;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.ExamService;
 import com.nihongo.learningplatform.service.ExerciseService;
@@ -15,29 +21,46 @@ import com.nihongo.learningplatform.entity.Exercise;
 import com.nihongo.learningplatform.entity.Exam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class CourseServiceImpl implements CourseService {
 
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+
     private final CourseRepository courseRepository;
-    private final ReviewRepository reviewRepository;
+    private final CourseRatingStatsService courseRatingStatsService;
     private final ExerciseService exerciseService;
     private final ExamService examService;
+    private final ContentSearchService contentSearchService;
 
     @Autowired
     public CourseServiceImpl(CourseRepository courseRepository,
-                             ReviewRepository reviewRepository,
+                             CourseRatingStatsService courseRatingStatsService,
                              @Lazy ExerciseService exerciseService,
-                             @Lazy ExamService examService) {
+                             @Lazy ExamService examService,
+                             ContentSearchService contentSearchService) {
         this.courseRepository = courseRepository;
-        this.reviewRepository = reviewRepository;
+        this.courseRatingStatsService = courseRatingStatsService;
         this.exerciseService = exerciseService;
         this.examService = examService;
+        this.contentSearchService = contentSearchService;
     }
 
 
@@ -57,7 +80,8 @@ public class CourseServiceImpl implements CourseService {
         course.setActive(true);
 
         Course savedCourse = courseRepository.save(course);
-        return mapToDtoWithStats(savedCourse);
+        courseRatingStatsService.createStats(savedCourse.getId());
+        return mapToDtoWithStats(savedCourse, CourseRatingStatsServiceImpl.emptyStats(savedCourse.getId()));
     }
 
     @Override
@@ -70,49 +94,110 @@ public class CourseServiceImpl implements CourseService {
     @Override
     public List<CourseDto> getAllCourses() {
         List<Course> courses = courseRepository.findAll();
-        return courses.stream()
-                .map(this::mapToDtoWithStats)
-                .collect(Collectors.toList());
+        return mapToDtosWithStats(courses);
     }
 
     @Override
     public List<CourseDto> getCoursesByInstructor(User instructor) {
         List<Course> courses = courseRepository.findByInstructor(instructor);
-        return courses.stream()
-                .map(this::mapToDtoWithStats)
-                .collect(Collectors.toList());
+        return mapToDtosWithStats(courses);
     }
 
     @Override
-    public List<CourseDto> getApprovedAndActiveCourses() {
-        List<Course> courses = courseRepository.findByApprovedAndActive(true, true);
-        return courses.stream()
-                .map(this::mapToDtoWithStats)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public PageResponseDto<CourseDto> getApprovedAndActiveCourses(String level, int pageNo, int pageSize) {
+        PageRequest pageRequest = PageRequest.of(Math.max(0, pageNo),
+                Math.max(1, Math.min(pageSize, MAX_CATALOG_PAGE_SIZE)),
+                Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        Page<Course> courses = level == null
+                ? courseRepository.findByApprovedAndActive(true, true, pageRequest)
+                : courseRepository.findByLevelAndApprovedAndActive(level, true, true, pageRequest);
+
+        return new PageResponseDto<>(
+                mapToDtosWithStats(courses.getContent()),
+                courses.getNumber(),
+                courses.getSize(),
+                courses.getTotalElements(),
+                courses.getTotalPages(),
+                courses.isLast()
+        );
     }
 
     @Override
-    public List<CourseDto> getUnapprovedCourses() {
-        List<Course> courses = courseRepository.findByApproved(false);
-        return courses.stream()
-                .map(this::mapToDtoWithStats)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPageResponseDto<CourseSummaryDto> getCourseCatalog(CourseCatalogFilterDto filter) {
+        int pageSize = Math.max(1, Math.min(filter.getSize(), MAX_CATALOG_PAGE_SIZE));
+        boolean byRating = "rating".equalsIgnoreCase(filter.getSort());
+        String[] cursor = decodeCursor(filter.getCursor());
+
+        // Fetch one extra row to know whether another page exists without a count query
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<CourseSummaryDto> rows;
+        try {
+            if (byRating) {
+                rows = courseRepository.findCatalogPageByRating(filter.getLevel(), filter.getMinPrice(),
+                        filter.getMaxPrice(), filter.getInstructorId(),
+                        cursor != null ? Double.valueOf(cursor[0]) : null,
+                        cursor != null ? Long.valueOf(cursor[1]) : null,
+                        limit);
+            } else {
+                rows = courseRepository.findCatalogPageByNewest(filter.getLevel(), filter.getMinPrice(),
+                        filter.getMaxPrice(), filter.getInstructorId(),
+                        cursor != null ? LocalDateTime.parse(cursor[0]) : null,
+                        cursor != null ? Long.valueOf(cursor[1]) : null,
+                        limit);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        boolean last = rows.size() <= pageSize;
+        List<CourseSummaryDto> content = last ? rows : rows.subList(0, pageSize);
+        String nextCursor = null;
+        if (!last) {
+            CourseSummaryDto tail = content.get(content.size() - 1);
+            String sortKey = byRating
+                    ? String.valueOf(tail.getAverageRating())
+                    : tail.getCreatedAt().toString();
+            nextCursor = encodeCursor(sortKey, tail.getId());
+        }
+
+        return new CursorPageResponseDto<>(content, pageSize, nextCursor, last);
     }
 
     @Override
-    public List<CourseDto> getCoursesByLevel(String level) {
-        List<Course> courses = courseRepository.findByLevel(level);
-        return courses.stream()
-                .map(this::mapToDtoWithStats)
-                .collect(Collectors.toList());
+    public List<CourseDto> getUnapprovedCourses() {
+        List<Course> courses = courseRepository.findByApproved(false);
+        return mapToDtosWithStats(courses);
     }
 
     @Override
-    public List<CourseDto> searchCourses(String keyword) {
-        List<Course> courses = courseRepository.searchCourses(keyword);
-        return courses.stream()
-                .map(this::mapToDtoWithStats)
+    @Transactional(readOnly = true)
+    public PageResponseDto<CourseSummaryDto> searchCatalog(String keyword, String level, int pageNo, int pageSize) {
+        int size = Math.max(1, Math.min(pageSize, MAX_CATALOG_PAGE_SIZE));
+        int page = Math.max(0, pageNo);
+        String tsQuery = toPrefixTsQuery(keyword);
+        if (tsQuery == null) {
+            return new PageResponseDto<>(Collections.emptyList(), page, size, 0, 0, true);
+        }
+
+        Page<CourseRepository.CourseSearchRow> rows = courseRepository.searchCatalog(
+                tsQuery, keyword.trim(), level, PageRequest.of(page, size));
+
+        List<CourseSummaryDto> content = rows.getContent().stream()
+                .map(row -> new CourseSummaryDto(row.getId(), row.getTitle(), row.getDescription(), row.getPrice(),
+                        row.getThumbnailUrl(), row.getLevel(), row.getInstructorId(), row.getInstructorName(),
+                        row.getAverageRating(), row.getReviewCount(), row.getCreatedAt()))
                 .collect(Collectors.toList());
+
+        return new PageResponseDto<>(
+                content,
+                rows.getNumber(),
+                rows.getSize(),
+                rows.getTotalElements(),
+                rows.getTotalPages(),
+                rows.isLast()
+        );
     }
 
     @Autowired
@@ -200,6 +285,9 @@ public class CourseServiceImpl implements CourseService {
             cloudinaryService.deleteFile(course.getThumbnailPublicId(), "image");
         }
 
+        courseRatingStatsService.deleteStats(id);
+        contentSearchService.removeCourseContent(id);
+
         course.getModules().forEach(module -> {
             module.getLessons().forEach(lesson -> {
                 if (lesson.getVideoPublicId() != null) {
@@ -218,15 +306,12 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     public Double getAverageRating(Long courseId) {
-        Course course = getCourseEntityById(courseId);
-        return reviewRepository.getAverageRatingForCourse(course);
+        return courseRatingStatsService.getStats(courseId).getAverageRating();
     }
 
     @Override
     public int getReviewCount(Long courseId) {
-        Course course = getCourseEntityById(courseId);
-        List<Review> reviews = reviewRepository.findByCourse(course);
-        return reviews.size();
+        return (int) courseRatingStatsService.getStats(courseId).getRatingCount();
     }
 
     // Helper method to map Course entity to CourseDto
@@ -247,18 +332,71 @@ public class CourseServiceImpl implements CourseService {
 
     // Helper method to map Course entity to CourseDto with rating stats
     private CourseDto mapToDtoWithStats(Course course) {
-        CourseDto courseDto = mapToDto(course);
+        return mapToDtoWithStats(course, courseRatingStatsService.getStats(course.getId()));
+    }
 
-        // Add rating statistics
-        Double avgRating = reviewRepository.getAverageRatingForCourse(course);
-        courseDto.setAverageRating(avgRating);
+    // Helper method to map a list of courses, loading all rating stats in a single query
+    private List<CourseDto> mapToDtosWithStats(List<Course> courses) {
+        Map<Long, CourseRatingStats> statsByCourse = courseRatingStatsService.getStatsForCourses(
+                courses.stream().map(Course::getId).collect(Collectors.toList()));
 
-        Integer reviewCount = reviewRepository.findByCourse(course).size();
-        courseDto.setReviewCount(reviewCount);
+        return courses.stream()
+                .map(course -> mapToDtoWithStats(course, statsByCourse.getOrDefault(course.getId(),
+                        CourseRatingStatsServiceImpl.emptyStats(course.getId()))))
+                .collect(Collectors.toList());
+    }
 
+    private CourseDto mapToDtoWithStats(Course course, CourseRatingStats stats) {
+        CourseDto courseDto = mapToDto(course);
+        courseDto.setAverageRating(stats.getAverageRating());
+        courseDto.setReviewCount((int) stats.getRatingCount());
+        courseDto.setRatingDistribution(toDistribution(stats));
         return courseDto;
     }
 
+    // "tieng nhat n5" -> "tieng:* & nhat:* & n5:*" so partially typed words still match; null when nothing searchable
+    private String toPrefixTsQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String tsQuery = Arrays.stream(keyword.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+
+    private String encodeCursor(String sortKey, Long id) {
+        String raw = sortKey + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private Map<Integer, Long> toDistribution(CourseRatingStats stats) {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        distribution.put(5, stats.getFiveStarCount());
+        distribution.put(4, stats.getFourStarCount());
+        distribution.put(3, stats.getThreeStarCount());
+        distribution.put(2, stats.getTwoStarCount());
+        distribution.put(1, stats.getOneStarCount());
+        return distribution;
+    }
+
 
     @Override
     public Course getCourseByExerciseId(Long exerciseId) {
@@ -0,0 +1,113 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.entity.EnrollmentProgress;
+import com.nihongo.learningplatform.repository.EnrollmentProgressRepository;
+import com.nihongo.learningplatform.repository.EnrollmentRepository;
+import com.nihongo.learningplatform.service.EnrollmentProgressService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Per-enrollment completion counters, moved by +1/-1 only when a progress row actually changes state,
+// so showing a progress bar is a single indexed read instead of walking every lesson and progress row.
+@Service
+public class EnrollmentProgressServiceImpl implements EnrollmentProgressService {
+
+    private final EnrollmentProgressRepository enrollmentProgressRepository;
+    private final EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    public EnrollmentProgressServiceImpl(EnrollmentProgressRepository enrollmentProgressRepository,
+                                         EnrollmentRepository enrollmentRepository) {
+        this.enrollmentProgressRepository = enrollmentProgressRepository;
+        this.enrollmentRepository = enrollmentRepository;
+    }
+
+    @Override
+    @Transactional
+    public void initialize(Long enrollmentId) {
+        enrollmentProgressRepository.rebuild(enrollmentId, null);
+    }
+
+    @Override
+    @Transactional
+    public void recordLessonCompletion(Long studentId, Long lessonId, boolean wasCompleted, boolean completed) {
+        if (wasCompleted != completed) {
+            enrollmentProgressRepository.applyLessonDelta(studentId, lessonId, completed ? 1 : -1);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordExerciseCompletion(Long studentId, Long exerciseId, boolean wasCompleted, boolean completed) {
+        if (wasCompleted != completed) {
+            enrollmentProgressRepository.applyExerciseDelta(studentId, exerciseId, completed ? 1 : -1);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void recordExamResult(Long studentId, Long examId, boolean wasPassed, boolean passed) {
+        if (wasPassed != passed) {
+            enrollmentProgressRepository.applyExamPassedDelta(studentId, examId, passed ? 1 : -1);
+        }
+    }
+
+    // Lesson added, removed or reordered: totals and next-lesson pointers of the whole course change
+    @Override
+    @Transactional
+    public void refreshCourse(Long courseId) {
+        if (courseId != null) {
+            enrollmentProgressRepository.rebuild(null, courseId);
+        }
+    }
+
+    // Recount instead of applying deltas when many progress rows were written without their previous state
+    @Override
+    @Transactional
+    public void refreshStudentCourses(Long studentId, Collection<Long> courseIds) {
+        if (courseIds.isEmpty()) {
+            return;
+        }
+        for (Long enrollmentId : enrollmentProgressRepository.findEnrollmentIdsByStudentAndCourses(studentId, courseIds)) {
+            enrollmentProgressRepository.rebuild(enrollmentId, null);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void deleteForEnrollment(Long enrollmentId) {
+        if (enrollmentProgressRepository.existsById(enrollmentId)) {
+            enrollmentProgressRepository.deleteById(enrollmentId);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, EnrollmentProgress> getProgressByStudent(Long studentId) {
+        return enrollmentProgressRepository.findByStudentId(studentId).stream()
+                .collect(Collectors.toMap(EnrollmentProgress::getEnrollmentId, Function.identity()));
+    }
+
+    @Override
+    @Transactional
+    public int rebuildAll() {
+        return enrollmentProgressRepository.rebuild(null, null);
+    }
+
+    // Seed counters for enrollments created before the table existed
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedIfMissing() {
+        if (enrollmentProgressRepository.count() < enrollmentRepository.count()) {
+            enrollmentProgressRepository.rebuild(null, null);
+        }
+    }
+}
@@ -3,11 +3,14 @@ package com.nihongo.learningplatform.service.impl;
 import com.nihongo.learningplatform.dto.EnrollmentDto;
 import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.Enrollment;
+import com.nihongo.learningplatform.entity.EnrollmentProgress;
 import com.nihongo.learningplatform.entity.User;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.EnrollmentRepository;
 import com.nihongo.learningplatform.service.CourseService;
+import com.nihongo.learningplatform.service.EnrollmentProgressService;
 import com.nihongo.learningplatform.service.EnrollmentService;
+import com.nihongo.learningplatform.service.EntitlementService;
 import com.nihongo.learningplatform.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,14 +28,20 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     private final EnrollmentRepository enrollmentRepository;
     private final UserService userService;
     private final CourseService courseService;
+    private final EntitlementService entitlementService;
+    private final EnrollmentProgressService enrollmentProgressService;
 
     @Autowired
     public EnrollmentServiceImpl(EnrollmentRepository enrollmentRepository,
                                  UserService userService,
-                                 CourseService courseService) {
+                                 CourseService courseService,
+                                 EntitlementService entitlementService,
+                                 EnrollmentProgressService enrollmentProgressService) {
         this.enrollmentRepository = enrollmentRepository;
         this.userService = userService;
         this.courseService = courseService;
+        this.entitlementService = entitlementService;
+        this.enrollmentProgressService = enrollmentProgressService;
     }
 
     @Override
@@ -52,6 +62,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         enrollment.setCompleted(false);
 
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        entitlementService.invalidateUser(student.getId());
+        enrollmentProgressService.initialize(savedEnrollment.getId());
         return mapToDto(savedEnrollment);
     }
 
@@ -73,6 +85,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         enrollment.setCompleted(false);
 
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        entitlementService.invalidateUser(student.getId());
+        enrollmentProgressService.initialize(savedEnrollment.getId());
         return mapToDto(savedEnrollment);
     }
 
@@ -87,8 +101,9 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     public List<EnrollmentDto> getEnrollmentsByStudent(Long studentId) {
         User student = userService.getUserEntityById(studentId);
         List<Enrollment> enrollments = enrollmentRepository.findByStudent(student);
+        Map<Long, EnrollmentProgress> progress = enrollmentProgressService.getProgressByStudent(studentId);
         return enrollments.stream()
-                .map(this::mapToDto)
+                .map(enrollment -> mapToDto(enrollment, progress.get(enrollment.getId())))
                 .collect(Collectors.toList());
     }
 
@@ -115,9 +130,13 @@ public class EnrollmentServiceImpl implements EnrollmentService {
 
     @Override
     public boolean isStudentEnrolledInCourse(Long studentId, Long courseId) {
-        User student = userService.getUserEntityById(studentId);
-        Course course = courseService.getCourseEntityById(courseId);
-        return enrollmentRepository.existsByStudentAndCourse(student, course);
+        return entitlementService.isDirectlyEnrolled(studentId, courseId);
+    }
+
+    // Direct enrollment or an active combo that contains the course
+    @Override
+    public boolean hasCourseAccess(Long studentId, Long courseId) {
+        return entitlementService.hasCourseAccess(studentId, courseId);
     }
 
     @Override
@@ -136,10 +155,11 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     @Override
     @Transactional
     public void deleteEnrollment(Long id) {
-        if (!enrollmentRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Enrollment not found with id: " + id);
-        }
-        enrollmentRepository.deleteById(id);
+        Enrollment enrollment = enrollmentRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + id));
+        enrollmentRepository.delete(enrollment);
+        entitlementService.invalidateUser(enrollment.getStudent().getId());
+        enrollmentProgressService.deleteForEnrollment(id);
     }
 
     @Override
@@ -160,6 +180,22 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         return enrollmentDto;
     }
 
+    private EnrollmentDto mapToDto(Enrollment enrollment, EnrollmentProgress progress) {
+        EnrollmentDto enrollmentDto = mapToDto(enrollment);
+        if (progress != null) {
+            enrollmentDto.setRequiredLessonsTotal(progress.getRequiredLessonsTotal());
+            enrollmentDto.setRequiredLessonsCompleted(progress.getRequiredLessonsCompleted());
+            enrollmentDto.setExercisesCompleted(progress.getExercisesCompleted());
+            enrollmentDto.setExamsPassed(progress.getExamsPassed());
+            enrollmentDto.setNextLessonId(progress.getNextLessonId());
+            if (progress.getRequiredLessonsTotal() > 0) {
+                enrollmentDto.setCompletionPercent(Math.min(100,
+                        progress.getRequiredLessonsCompleted() * 100 / progress.getRequiredLessonsTotal()));
+            }
+        }
+        return enrollmentDto;
+    }
+
     @Override
     public List<EnrollmentDto> getAllEnrollments() {
         List<Enrollment> enrollments = enrollmentRepository.findAll();
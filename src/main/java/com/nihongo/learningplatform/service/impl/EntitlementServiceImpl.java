@@ -0,0 +1,166 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.repository.ComboEnrollmentRepository;
+import com.nihongo.learningplatform.repository.EnrollmentRepository;
+import com.nihongo.learningplatform.service.EntitlementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user sorted arrays of accessible course ids, so enrollment checks are a binary search instead of
+// loading the User and Course entities. Entries are dropped after enrollment writes commit, when the
+// earliest combo expiry they depend on passes, or after the configured TTL as a safety net.
+@Service
+public class EntitlementServiceImpl implements EntitlementService {
+
+    private final EnrollmentRepository enrollmentRepository;
+    private final ComboEnrollmentRepository comboEnrollmentRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final Map<Long, Entitlements> entitlementsByUser = new ConcurrentHashMap<>();
+    // Bumped on every invalidation; a load that overlapped one is returned but not cached, otherwise it
+    // could put back the enrollments the invalidation just dropped
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public EntitlementServiceImpl(EnrollmentRepository enrollmentRepository,
+                                  ComboEnrollmentRepository comboEnrollmentRepository,
+                                  @Value("${app.entitlements.cache.max-size:50000}") int maxEntries,
+                                  @Value("${app.entitlements.cache.ttl-ms:600000}") long ttlMillis) {
+        this.enrollmentRepository = enrollmentRepository;
+        this.comboEnrollmentRepository = comboEnrollmentRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public boolean isDirectlyEnrolled(Long userId, Long courseId) {
+        if (userId == null || courseId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(entitlements(userId).directCourseIds(), courseId) >= 0;
+    }
+
+    @Override
+    public boolean hasCourseAccess(Long userId, Long courseId) {
+        if (userId == null || courseId == null) {
+            return false;
+        }
+        Entitlements entitlements = entitlements(userId);
+        return Arrays.binarySearch(entitlements.directCourseIds(), courseId) >= 0
+                || Arrays.binarySearch(entitlements.comboCourseIds(), courseId) >= 0;
+    }
+
+    @Override
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            afterCommit(() -> {
+                generation.incrementAndGet();
+                entitlementsByUser.remove(userId);
+            });
+        }
+    }
+
+    @Override
+    public void invalidateUsers(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(userIds);
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            ids.forEach(entitlementsByUser::remove);
+        });
+    }
+
+    @Override
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            entitlementsByUser.clear();
+        });
+    }
+
+    private Entitlements entitlements(Long userId) {
+        long now = System.currentTimeMillis();
+        Entitlements cached = entitlementsByUser.get(userId);
+        if (cached != null && cached.validUntilMillis() > now) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        Entitlements loaded = load(userId, now);
+        if (generation.get() != loadedAt) {
+            return loaded;
+        }
+        if (entitlementsByUser.size() >= maxEntries) {
+            evict(now);
+        }
+        entitlementsByUser.put(userId, loaded);
+        // An invalidation may have landed between the check and the put
+        if (generation.get() != loadedAt) {
+            entitlementsByUser.remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    private Entitlements load(Long userId, long now) {
+        long[] direct = enrollmentRepository.findCourseIdsByStudentId(userId).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .distinct()
+                .toArray();
+
+        long validUntil = now + ttlMillis;
+        List<Object[]> comboRows = comboEnrollmentRepository.findActiveComboCourseAccess(userId, LocalDateTime.now());
+        long[] combo = new long[comboRows.size()];
+        for (int i = 0; i < comboRows.size(); i++) {
+            Object[] row = comboRows.get(i);
+            combo[i] = (Long) row[0];
+            // Reload as soon as the first combo runs out so expiry needs no explicit invalidation
+            long expiresAt = ((LocalDateTime) row[1]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            validUntil = Math.min(validUntil, expiresAt);
+        }
+        combo = Arrays.stream(combo).sorted().distinct().toArray();
+
+        return new Entitlements(direct, combo, validUntil);
+    }
+
+    // Drop stale entries first; if the cache is still full, drop arbitrary entries to stay bounded
+    private void evict(long now) {
+        entitlementsByUser.values().removeIf(entry -> entry.validUntilMillis() <= now);
+        Iterator<Long> keys = entitlementsByUser.keySet().iterator();
+        while (entitlementsByUser.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    // Invalidate only once the enrollment write is visible, otherwise a concurrent check could re-cache old data
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Entitlements(long[] directCourseIds, long[] comboCourseIds, long validUntilMillis) {
+    }
+}
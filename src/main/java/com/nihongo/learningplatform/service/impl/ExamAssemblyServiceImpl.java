@@ -0,0 +1,238 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.dto.AssembledMockExamDto;
+import com.nihongo.learningplatform.dto.ExamAssemblyRequestDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.entity.QuestionType;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.grading.QuestionPools;
+import com.nihongo.learningplatform.mapper.MockExamMapper;
+import com.nihongo.learningplatform.repository.CourseRepository;
+import com.nihongo.learningplatform.repository.MockExamRepository;
+import com.nihongo.learningplatform.repository.QuestionRepository;
+import com.nihongo.learningplatform.service.ExamAssemblyService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Builds practice mock exams by sampling the question bank. Sampling runs against an in-memory QuestionPools
+// snapshot; the chosen questions and their answers are then copied into the new mock exam with two
+// set-based statements. After question writes or once the snapshot is older than the TTL it is rebuilt on a
+// background thread while requests keep sampling the previous one; only the very first request waits for a build.
+// A question deleted since the snapshot was taken is caught by the copy count check below.
+@Service
+public class ExamAssemblyServiceImpl implements ExamAssemblyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExamAssemblyServiceImpl.class);
+    private static final int MAX_QUESTIONS = 200;
+
+    // Copies keep the sampled order, so ascending ids follow the paper order
+    private static final String COPY_QUESTIONS_SQL =
+            "INSERT INTO questions (content, type, audio_url, mock_exam_id, source_question_id, created_at, updated_at) " +
+            "SELECT q.content, q.type, q.audio_url, ?, q.id, ?, ? " +
+            "FROM unnest(CAST(? AS bigint[])) WITH ORDINALITY AS s(id, ord) " +
+            "JOIN questions q ON q.id = s.id " +
+            "ORDER BY s.ord";
+
+    private static final String COPY_ANSWERS_SQL =
+            "INSERT INTO answers (content, is_correct, question_id) " +
+            "SELECT a.content, a.is_correct, q.id FROM questions q " +
+            "JOIN answers a ON a.question_id = q.source_question_id " +
+            "WHERE q.mock_exam_id = ? " +
+            "ORDER BY q.id, a.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final QuestionRepository questionRepository;
+    private final MockExamRepository mockExamRepository;
+    private final CourseRepository courseRepository;
+    private final MockExamMapper mockExamMapper;
+    private final long poolTtlMillis;
+    private final ExecutorService rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile QuestionPools pools;
+    private volatile boolean stale = true;
+
+    @Autowired
+    public ExamAssemblyServiceImpl(JdbcTemplate jdbcTemplate,
+                                   QuestionRepository questionRepository,
+                                   MockExamRepository mockExamRepository,
+                                   CourseRepository courseRepository,
+                                   MockExamMapper mockExamMapper,
+                                   @Value("${app.exam-assembly.pool-ttl-ms:600000}") long poolTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.questionRepository = questionRepository;
+        this.mockExamRepository = mockExamRepository;
+        this.courseRepository = courseRepository;
+        this.mockExamMapper = mockExamMapper;
+        this.poolTtlMillis = poolTtlMillis;
+        this.rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exam-assembly-pools");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+        try {
+            rebuilder.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    @Transactional
+    public AssembledMockExamDto assembleMockExam(ExamAssemblyRequestDto request) {
+        Map<QuestionType, Integer> sections = request.getSections();
+        int total = 0;
+        for (Map.Entry<QuestionType, Integer> section : sections.entrySet()) {
+            if (section.getKey() == null || section.getValue() == null || section.getValue() <= 0) {
+                throw new BadRequestException("Every section needs a question type and a positive question count");
+            }
+            total += section.getValue();
+        }
+        if (total > MAX_QUESTIONS) {
+            throw new BadRequestException("A paper can have at most " + MAX_QUESTIONS + " questions");
+        }
+
+        Course course = null;
+        if (request.getCourseId() != null) {
+            course = courseRepository.findById(request.getCourseId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Course not found with id: " + request.getCourseId()));
+        }
+
+        // One generator for the whole paper, so the seed fixes every section
+        long seed = request.getSeed() != null ? request.getSeed() : ThreadLocalRandom.current().nextLong();
+        Random random = new Random(seed);
+        QuestionPools snapshot = pools();
+        String level = request.getLevel().trim().toUpperCase(Locale.ROOT);
+        List<Long> questionIds = new ArrayList<>(total);
+        StringJoiner summary = new StringJoiner(" + ");
+        for (Map.Entry<QuestionType, Integer> section : sections.entrySet()) {
+            long[] sampled;
+            try {
+                sampled = snapshot.sample(level, section.getKey(), request.getCourseId(), section.getValue(), random);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException(e.getMessage());
+            }
+            for (long id : sampled) {
+                questionIds.add(id);
+            }
+            summary.add(section.getValue() + " " + section.getKey());
+        }
+
+        MockExam mockExam = new MockExam();
+        mockExam.setTitle(request.getTitle() != null && !request.getTitle().isBlank()
+                ? request.getTitle() : level + " practice paper");
+        mockExam.setDescription("Generated practice paper: " + summary + " at " + level + " (seed " + seed + ")");
+        mockExam.setTimeLimit(request.getTimeLimit());
+        mockExam.setPassingScore(request.getPassingScore());
+        mockExam.setLevel(level);
+        mockExam.setCourse(course);
+        MockExam savedMockExam = mockExamRepository.save(mockExam);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int copied = jdbcTemplate.update(COPY_QUESTIONS_SQL, ps -> {
+            ps.setLong(1, savedMockExam.getId());
+            ps.setTimestamp(2, now);
+            ps.setTimestamp(3, now);
+            ps.setArray(4, ps.getConnection().createArrayOf("bigint", questionIds.toArray()));
+        });
+        if (copied != questionIds.size()) {
+            // A sampled question was deleted since the snapshot was taken. This transaction rolls back, so
+            // the snapshot is marked stale right away rather than after commit.
+            stale = true;
+            scheduleRebuild();
+            throw new BadRequestException("The question bank changed while the paper was assembled, please retry");
+        }
+        jdbcTemplate.update(COPY_ANSWERS_SQL, savedMockExam.getId());
+
+        return new AssembledMockExamDto(mockExamMapper.toDto(savedMockExam), seed, questionIds);
+    }
+
+    @Override
+    public void invalidatePools() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stale = true;
+                }
+            });
+        } else {
+            stale = true;
+        }
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized int rebuildPools() {
+        // Cleared before reading, so a question write during the rebuild marks the new snapshot stale again
+        stale = false;
+        QuestionPools rebuilt = QuestionPools.build(questionRepository.findAssemblyPoolRows());
+        pools = rebuilt;
+        logger.info("Exam assembly pools rebuilt with {} questions", rebuilt.getQuestionCount());
+        return rebuilt.getQuestionCount();
+    }
+
+    private QuestionPools pools() {
+        QuestionPools current = pools;
+        if (current == null) {
+            synchronized (this) {
+                if (pools == null) {
+                    rebuildPools();
+                }
+                return pools;
+            }
+        }
+        if (stale || System.currentTimeMillis() - current.getBuiltAtMillis() > poolTtlMillis) {
+            scheduleRebuild();
+        }
+        return current;
+    }
+
+    // At most one rebuild is queued; a write that lands while it runs marks the new snapshot stale again
+    private void scheduleRebuild() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        rebuilder.execute(() -> {
+            try {
+                rebuildPools();
+            } catch (RuntimeException e) {
+                stale = true;
+                logger.warn("Exam assembly pool rebuild failed, serving the previous snapshot", e);
+            } finally {
+                rebuildPending.set(false);
+            }
+        });
+    }
+}
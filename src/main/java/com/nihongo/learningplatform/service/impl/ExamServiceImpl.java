@@ -9,6 +9,8 @@ import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.ExamRepository;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.ExamService;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.ContentSearchService;
 import com.nihongo.learningplatform.service.QuestionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -25,14 +27,20 @@ public class ExamServiceImpl implements ExamService {
     private final ExamRepository examRepository;
     private final CourseService courseService;
     private final QuestionService questionService;
+    private final AnswerKeyService answerKeyService;
+    private final ContentSearchService contentSearchService;
 
     @Autowired
     public ExamServiceImpl(ExamRepository examRepository,
                            @Lazy CourseService courseService,
-                           QuestionService questionService) {
+                           QuestionService questionService,
+                           AnswerKeyService answerKeyService,
+                           ContentSearchService contentSearchService) {
         this.examRepository = examRepository;
         this.courseService = courseService;
         this.questionService = questionService;
+        this.answerKeyService = answerKeyService;
+        this.contentSearchService = contentSearchService;
     }
 
     @Override
@@ -63,7 +71,9 @@ public class ExamServiceImpl implements ExamService {
         return mapToDto(savedExam);
     }
 
+    // One read-only transaction, so the exam loaded here is reused when the questions are resolved
     @Override
+    @Transactional(readOnly = true)
     public ExamDto getExamById(Long id) {
         Exam exam = examRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Exam not found with id: " + id));
@@ -106,6 +116,7 @@ public class ExamServiceImpl implements ExamService {
         exam.setPassingScore(examDto.getPassingScore());
 
         Exam updatedExam = examRepository.save(exam);
+        answerKeyService.invalidateExam(id); // Passing score is part of the key
 
         // Update questions if provided
         if (examDto.getQuestions() != null && !examDto.getQuestions().isEmpty()) {
@@ -128,7 +139,9 @@ public class ExamServiceImpl implements ExamService {
         if (!examRepository.existsById(id)) {
             throw new ResourceNotFoundException("Exam not found with id: " + id);
         }
+        contentSearchService.removeExamContent(id);
         examRepository.deleteById(id);
+        answerKeyService.invalidateExam(id);
     }
 
     @Override
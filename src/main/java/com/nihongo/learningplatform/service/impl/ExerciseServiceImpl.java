@@ -9,6 +9,8 @@ import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.ExerciseRepository;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.ExerciseService;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.ContentSearchService;
 import com.nihongo.learningplatform.service.QuestionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -24,14 +26,20 @@ public class ExerciseServiceImpl implements ExerciseService {
     private final ExerciseRepository exerciseRepository;
     private final CourseService courseService;
     private final QuestionService questionService;
+    private final AnswerKeyService answerKeyService;
+    private final ContentSearchService contentSearchService;
 
     @Autowired
     public ExerciseServiceImpl(ExerciseRepository exerciseRepository,
                                CourseService courseService,
-                               QuestionService questionService) {
+                               QuestionService questionService,
+                               AnswerKeyService answerKeyService,
+                               ContentSearchService contentSearchService) {
         this.exerciseRepository = exerciseRepository;
         this.courseService = courseService;
         this.questionService = questionService;
+        this.answerKeyService = answerKeyService;
+        this.contentSearchService = contentSearchService;
     }
 
     @Override
@@ -60,7 +68,9 @@ public class ExerciseServiceImpl implements ExerciseService {
         return mapToDto(savedExercise);
     }
 
+    // One read-only transaction, so the exercise loaded here is reused when the questions are resolved
     @Override
+    @Transactional(readOnly = true)
     public ExerciseDto getExerciseById(Long id) {
         Exercise exercise = exerciseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Exercise not found with id: " + id));
@@ -123,7 +133,9 @@ public class ExerciseServiceImpl implements ExerciseService {
         if (!exerciseRepository.existsById(id)) {
             throw new ResourceNotFoundException("Exercise not found with id: " + id);
         }
+        contentSearchService.removeExerciseContent(id);
         exerciseRepository.deleteById(id);
+        answerKeyService.invalidateExercise(id);
     }
 
     @Override
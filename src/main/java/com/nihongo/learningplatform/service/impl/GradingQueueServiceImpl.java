@@ -0,0 +1,375 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nihongo.learningplatform.dto.GradingSubmissionDto;
+import com.nihongo.learningplatform.dto.MockExamAttemptDto;
+import com.nihongo.learningplatform.entity.GradingSubmission;
+import com.nihongo.learningplatform.entity.GradingSubmissionStatus;
+import com.nihongo.learningplatform.entity.GradingSubmissionType;
+import com.nihongo.learningplatform.entity.MockExamAnswerSheet;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.exception.GradingRejectedException;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.grading.AnswerKey;
+import com.nihongo.learningplatform.repository.GradingSubmissionRepository;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.GradingQueueService;
+import com.nihongo.learningplatform.service.ItemAnalysisService;
+import com.nihongo.learningplatform.service.MockExamDraftService;
+import com.nihongo.learningplatform.service.MockExamService;
+import com.nihongo.learningplatform.service.ReviewScheduleService;
+import com.nihongo.learningplatform.service.UserProgressService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Intake queue for exam and mock exam submissions. Accepting a submission is one INSERT into
+// grading_submissions; grading, progress, item analysis, review scheduling and learning history then run on a
+// fixed pool of workers, so a burst of submissions holds at most that many connections at a time. The table is
+// the durable queue: submissions the in-memory queue has no room for, retries and runs cut off by a restart
+// are picked up again by the periodic sweep. Each instance stamps the rows it is grading with its own id and
+// refreshes the heartbeat of its in-flight rows on every sweep; any instance requeues GRADING rows whose heartbeat is older than
+// the claim timeout, so a crashed instance's runs are recovered without touching those of live instances.
+@Service
+public class GradingQueueServiceImpl implements GradingQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradingQueueServiceImpl.class);
+    private static final int MAX_CLIENT_SUBMISSION_ID_LENGTH = 100;
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 500;
+    private static final String GRADING_FAILED_MESSAGE = "Grading failed, please contact support";
+
+    // Returns no row when the client submission id was already used by this user
+    private static final String INSERT_SQL =
+            "INSERT INTO grading_submissions (user_id, client_submission_id, type, target_id, answers, status, " +
+            "attempts, submitted_at) VALUES (?, ?, ?, ?, CAST(? AS jsonb), 'QUEUED', 0, ?) " +
+            "ON CONFLICT (user_id, client_submission_id) DO NOTHING RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final GradingSubmissionRepository gradingSubmissionRepository;
+    private final AnswerKeyService answerKeyService;
+    private final UserProgressService userProgressService;
+    private final ItemAnalysisService itemAnalysisService;
+    private final ReviewScheduleService reviewScheduleService;
+    private final MockExamService mockExamService;
+    private final MockExamDraftService mockExamDraftService;
+    private final int maxAttempts;
+    private final int retentionDays;
+    private final long claimTimeoutMillis;
+    private final ThreadPoolExecutor workers;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Submissions handed to the workers and not finished yet, so the sweep does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public GradingQueueServiceImpl(JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   GradingSubmissionRepository gradingSubmissionRepository,
+                                   AnswerKeyService answerKeyService,
+                                   UserProgressService userProgressService,
+                                   ItemAnalysisService itemAnalysisService,
+                                   ReviewScheduleService reviewScheduleService,
+                                   MockExamService mockExamService,
+                                   MockExamDraftService mockExamDraftService,
+                                   @Value("${app.grading-queue.workers:4}") int workerCount,
+                                   @Value("${app.grading-queue.capacity:1000}") int capacity,
+                                   @Value("${app.grading-queue.max-attempts:3}") int maxAttempts,
+                                   @Value("${app.grading-queue.retention-days:7}") int retentionDays,
+                                   @Value("${app.grading-queue.claim-timeout-ms:60000}") long claimTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.gradingSubmissionRepository = gradingSubmissionRepository;
+        this.answerKeyService = answerKeyService;
+        this.userProgressService = userProgressService;
+        this.itemAnalysisService = itemAnalysisService;
+        this.reviewScheduleService = reviewScheduleService;
+        this.mockExamService = mockExamService;
+        this.mockExamDraftService = mockExamDraftService;
+        this.maxAttempts = maxAttempts;
+        this.retentionDays = retentionDays;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "grading-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs still in progress stay GRADING and are requeued once their heartbeat goes stale
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public GradingSubmissionDto submitExam(Long userId, Long examId, String clientSubmissionId,
+                                           Map<Long, List<Long>> answers) {
+        return accept(userId, GradingSubmissionType.EXAM, examId, clientSubmissionId, answers);
+    }
+
+    @Override
+    public GradingSubmissionDto submitMockExam(Long userId, Long attemptId, String clientSubmissionId,
+                                               Map<Long, List<Long>> answers) {
+        // A retry must get its submission back even though the attempt may be closed by now
+        if (clientSubmissionId != null && !clientSubmissionId.isBlank()) {
+            GradingSubmission existing = gradingSubmissionRepository
+                    .findByUserIdAndClientSubmissionId(userId, clientSubmissionId.trim()).orElse(null);
+            if (existing != null) {
+                return replay(existing, GradingSubmissionType.MOCK_EXAM, attemptId);
+            }
+        }
+        // Saved as the draft first: this refuses late answers right away, and the deadline finalizer grades
+        // them if the time runs out before a worker gets to the submission
+        mockExamDraftService.saveDraftAnswers(attemptId, answers);
+        return accept(userId, GradingSubmissionType.MOCK_EXAM, attemptId, clientSubmissionId, answers);
+    }
+
+    @Override
+    public GradingSubmissionDto getSubmission(Long id, Long userId) {
+        return gradingSubmissionRepository.findById(id)
+                .filter(submission -> submission.getUserId().equals(userId))
+                .map(this::mapToDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Submission not found with id: " + id));
+    }
+
+    @Override
+    public int sweepQueuedSubmissions() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> running = Set.copyOf(inFlight);
+        if (!running.isEmpty()) {
+            transactionTemplate.execute(status -> gradingSubmissionRepository.heartbeat(running, instanceId, now));
+        }
+        requeueAbandoned(now);
+        return dispatchQueued();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int recoverInterruptedSubmissions() {
+        int requeued = requeueAbandoned(LocalDateTime.now());
+        dispatchQueued();
+        return requeued;
+    }
+
+    @Override
+    @Transactional
+    public int deleteExpiredSubmissions() {
+        return gradingSubmissionRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    // Runs of a previous process or of a crashed instance; this instance's own runs have fresh heartbeats.
+    // An interrupted run counts as an attempt, so a submission that takes its instance down is not requeued forever.
+    private int requeueAbandoned(LocalDateTime now) {
+        LocalDateTime cutoff = now.minus(claimTimeoutMillis, ChronoUnit.MILLIS);
+        int[] counts = transactionTemplate.execute(status -> new int[] {
+                gradingSubmissionRepository.failAbandoned(cutoff, maxAttempts, GRADING_FAILED_MESSAGE, now),
+                gradingSubmissionRepository.requeueAbandoned(cutoff, maxAttempts)
+        });
+        if (counts == null) {
+            return 0;
+        }
+        if (counts[0] > 0) {
+            logger.error("Failed {} interrupted grading submissions after {} attempts", counts[0], maxAttempts);
+        }
+        if (counts[1] > 0) {
+            logger.info("Requeued {} interrupted grading submissions", counts[1]);
+        }
+        return counts[1];
+    }
+
+    private int dispatchQueued() {
+        int room = workers.getQueue().remainingCapacity();
+        if (room == 0) {
+            return 0;
+        }
+        int dispatched = 0;
+        for (Long id : gradingSubmissionRepository.findQueuedIds(room)) {
+            if (dispatch(id)) {
+                dispatched++;
+            }
+        }
+        return dispatched;
+    }
+
+    // A replayed client submission id returns the original submission instead of queueing another one
+    private GradingSubmissionDto accept(Long userId, GradingSubmissionType type, Long targetId,
+                                        String clientSubmissionId, Map<Long, List<Long>> answers) {
+        String clientId = clientSubmissionId != null && !clientSubmissionId.isBlank()
+                ? clientSubmissionId.trim() : UUID.randomUUID().toString();
+        if (clientId.length() > MAX_CLIENT_SUBMISSION_ID_LENGTH) {
+            throw new BadRequestException("Submission ids can be at most " + MAX_CLIENT_SUBMISSION_ID_LENGTH + " characters");
+        }
+
+        LocalDateTime submittedAt = LocalDateTime.now();
+        List<Long> inserted = jdbcTemplate.queryForList(INSERT_SQL, Long.class, userId, clientId, type.name(), targetId,
+                toJson(MockExamAnswerSheet.of(answers)), Timestamp.valueOf(submittedAt));
+        if (inserted.isEmpty()) {
+            GradingSubmission existing = gradingSubmissionRepository.findByUserIdAndClientSubmissionId(userId, clientId)
+                    .orElseThrow(() -> new IllegalStateException("Submission " + clientId + " vanished after a conflict"));
+            return replay(existing, type, targetId);
+        }
+
+        Long id = inserted.get(0);
+        dispatch(id);
+        return new GradingSubmissionDto(id, clientId, type, targetId, GradingSubmissionStatus.QUEUED,
+                null, null, null, submittedAt, null);
+    }
+
+    private GradingSubmissionDto replay(GradingSubmission existing, GradingSubmissionType type, Long targetId) {
+        if (existing.getType() != type || !existing.getTargetId().equals(targetId)) {
+            throw new BadRequestException("This submission id was already used for a different submission");
+        }
+        return mapToDto(existing);
+    }
+
+    // A full queue leaves the submission QUEUED for the sweep
+    private boolean dispatch(Long id) {
+        if (!inFlight.add(id)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> grade(id));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(id);
+            return false;
+        }
+    }
+
+    private void grade(Long id) {
+        try {
+            Integer claimed = transactionTemplate.execute(
+                    status -> gradingSubmissionRepository.claim(id, instanceId, LocalDateTime.now()));
+            if (claimed == null || claimed == 0) {
+                return;
+            }
+            // Grading and the result commit together, so a retried run never sees half of a previous one
+            transactionTemplate.executeWithoutResult(status -> gradeClaimed(id));
+        } catch (GradingRejectedException e) {
+            fail(id, e.getMessage());
+        } catch (RuntimeException e) {
+            retryOrFail(id, e);
+        } finally {
+            inFlight.remove(id);
+        }
+    }
+
+    // Rejections of the submission itself are final; anything else is retried
+    private void gradeClaimed(Long id) {
+        try {
+            gradeSubmission(id);
+        } catch (BadRequestException | ResourceNotFoundException e) {
+            throw new GradingRejectedException(e.getMessage(), e);
+        }
+    }
+
+    private void gradeSubmission(Long id) {
+        GradingSubmission submission = gradingSubmissionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Submission not found with id: " + id));
+        Map<Long, List<Long>> answers = submission.getAnswers() != null ? submission.getAnswers().getAnswers() : Map.of();
+        Long userId = submission.getUserId();
+
+        if (submission.getType() == GradingSubmissionType.EXAM) {
+            AnswerKey answerKey = answerKeyService.getExamAnswerKey(submission.getTargetId());
+            int score = answerKey.score(answers);
+            userProgressService.createOrUpdateExamProgress(userId, submission.getTargetId(), score);
+            itemAnalysisService.recordSubmission(answerKey, answers, score);
+            reviewScheduleService.recordQuestionResults(userId, answerKey, answers);
+            complete(submission, score, answerKey.isPassing(score));
+            return;
+        }
+
+        // Returns the finalizer's result when the deadline closed the attempt while this waited
+        MockExamAttemptDto attempt = mockExamService.submitQueuedMockExamAttempt(
+                submission.getTargetId(), answers, submission.getSubmittedAt());
+        complete(submission, attempt.getScore(), attempt.getPassed());
+    }
+
+    private void complete(GradingSubmission submission, Integer score, Boolean passed) {
+        submission.setStatus(GradingSubmissionStatus.COMPLETED);
+        submission.setScore(score);
+        submission.setPassed(passed);
+        submission.setCompletedAt(LocalDateTime.now());
+        gradingSubmissionRepository.save(submission);
+    }
+
+    private void retryOrFail(Long id, RuntimeException cause) {
+        try {
+            int attempts = gradingSubmissionRepository.findById(id).map(GradingSubmission::getAttempts).orElse(maxAttempts);
+            if (attempts >= maxAttempts) {
+                logger.error("Grading submission {} failed after {} attempts", id, attempts, cause);
+                fail(id, GRADING_FAILED_MESSAGE);
+            } else {
+                logger.warn("Grading submission {} failed, retrying on the next sweep", id, cause);
+                transactionTemplate.execute(status -> gradingSubmissionRepository.requeue(id));
+            }
+        } catch (RuntimeException e) {
+            // Still GRADING: requeued by the recovery on the next start
+            logger.error("Could not record the failure of grading submission {}", id, e);
+        }
+    }
+
+    private void fail(Long id, String message) {
+        String errorMessage = message != null && message.length() > MAX_ERROR_MESSAGE_LENGTH
+                ? message.substring(0, MAX_ERROR_MESSAGE_LENGTH) : message;
+        transactionTemplate.execute(status -> gradingSubmissionRepository.fail(id, errorMessage, LocalDateTime.now()));
+    }
+
+    private GradingSubmissionDto mapToDto(GradingSubmission submission) {
+        return new GradingSubmissionDto(
+                submission.getId(),
+                submission.getClientSubmissionId(),
+                submission.getType(),
+                submission.getTargetId(),
+                submission.getStatus(),
+                submission.getScore(),
+                submission.getPassed(),
+                submission.getErrorMessage(),
+                submission.getSubmittedAt(),
+                submission.getCompletedAt()
+        );
+    }
+
+    private String toJson(MockExamAnswerSheet answers) {
+        try {
+            return objectMapper.writeValueAsString(answers);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize submitted answers", e);
+        }
+    }
+}
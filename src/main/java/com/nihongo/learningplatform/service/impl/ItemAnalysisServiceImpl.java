@@ -0,0 +1,260 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nihongo.learningplatform.dto.AnswerSelectionStatsDto;
+import com.nihongo.learningplatform.dto.QuestionStatsDto;
+import com.nihongo.learningplatform.entity.QuestionStats;
+import com.nihongo.learningplatform.grading.AnswerKey;
+import com.nihongo.learningplatform.grading.ItemStatistics;
+import com.nihongo.learningplatform.repository.QuestionRepository;
+import com.nihongo.learningplatform.repository.QuestionStatsRepository;
+import com.nihongo.learningplatform.service.ItemAnalysisService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Item analysis (difficulty, discrimination, distractor rates) maintained incrementally: every graded
+// submission updates in-memory per-question deltas held in lock stripes, and the scheduled flush merges
+// the deltas into question_stats in one batch, so reports never rescan submissions.
+@Service
+public class ItemAnalysisServiceImpl implements ItemAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemAnalysisServiceImpl.class);
+    private static final int STRIPES = 64;
+
+    // Deltas are merged with the parallel variance formulas; questions deleted meanwhile are skipped
+    private static final String MERGE_SQL =
+            "INSERT INTO question_stats (question_id, attempt_count, correct_count, skipped_count, " +
+            "mean_score, m2_score, co_moment, selection_counts, updated_at) " +
+            "SELECT q.id, CAST(? AS bigint), CAST(? AS bigint), CAST(? AS bigint), CAST(? AS double precision), " +
+            "CAST(? AS double precision), CAST(? AS double precision), CAST(? AS jsonb), CAST(? AS timestamp) " +
+            "FROM questions q WHERE q.id = ? " +
+            "ON CONFLICT (question_id) DO UPDATE SET " +
+            "attempt_count = question_stats.attempt_count + EXCLUDED.attempt_count, " +
+            "correct_count = question_stats.correct_count + EXCLUDED.correct_count, " +
+            "skipped_count = question_stats.skipped_count + EXCLUDED.skipped_count, " +
+            "mean_score = question_stats.mean_score + (EXCLUDED.mean_score - question_stats.mean_score) " +
+            "* EXCLUDED.attempt_count / (question_stats.attempt_count + EXCLUDED.attempt_count), " +
+            "m2_score = question_stats.m2_score + EXCLUDED.m2_score + power(EXCLUDED.mean_score - question_stats.mean_score, 2) " +
+            "* question_stats.attempt_count * EXCLUDED.attempt_count / (question_stats.attempt_count + EXCLUDED.attempt_count), " +
+            "co_moment = question_stats.co_moment + EXCLUDED.co_moment " +
+            "+ (CAST(EXCLUDED.correct_count AS double precision) / EXCLUDED.attempt_count " +
+            "- CAST(question_stats.correct_count AS double precision) / question_stats.attempt_count) " +
+            "* (EXCLUDED.mean_score - question_stats.mean_score) " +
+            "* question_stats.attempt_count * EXCLUDED.attempt_count / (question_stats.attempt_count + EXCLUDED.attempt_count), " +
+            "selection_counts = (SELECT COALESCE(jsonb_object_agg(s.answer_id, s.total), CAST('{}' AS jsonb)) " +
+            "FROM (SELECT e.key AS answer_id, SUM(CAST(e.value AS bigint)) AS total " +
+            "FROM (SELECT * FROM jsonb_each_text(question_stats.selection_counts) " +
+            "UNION ALL SELECT * FROM jsonb_each_text(EXCLUDED.selection_counts)) e GROUP BY e.key) s), " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final QuestionRepository questionRepository;
+    private final QuestionStatsRepository questionStatsRepository;
+    private final int batchSize;
+
+    private final Object[] locks = new Object[STRIPES];
+    private final List<Map<Long, ItemStatistics>> pending = new ArrayList<>(STRIPES);
+
+    @Autowired
+    public ItemAnalysisServiceImpl(JdbcTemplate jdbcTemplate,
+                                   ObjectMapper objectMapper,
+                                   PlatformTransactionManager transactionManager,
+                                   QuestionRepository questionRepository,
+                                   QuestionStatsRepository questionStatsRepository,
+                                   @Value("${app.item-analysis.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.questionRepository = questionRepository;
+        this.questionStatsRepository = questionStatsRepository;
+        this.batchSize = batchSize;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+            pending.add(new HashMap<>());
+        }
+    }
+
+    // Counted once the submission is committed, so rolled back grading never skews the statistics
+    @Override
+    public void recordSubmission(AnswerKey answerKey, Map<Long, List<Long>> answers, int score) {
+        if (answerKey == null || answerKey.getQuestionCount() == 0) {
+            return;
+        }
+        Map<Long, List<Long>> submitted = answers != null ? answers : Map.of();
+        afterCommit(() -> {
+            for (int i = 0; i < answerKey.getQuestionCount(); i++) {
+                long questionId = answerKey.getQuestionId(i);
+                boolean correct = answerKey.isCorrect(i, submitted);
+                int stripe = stripe(questionId);
+                synchronized (locks[stripe]) {
+                    pending.get(stripe).computeIfAbsent(questionId, id -> new ItemStatistics())
+                            .add(correct, submitted.get(questionId), score);
+                }
+            }
+        });
+    }
+
+    @Override
+    public synchronized int flushStatistics() {
+        Map<Long, ItemStatistics> deltas = new HashMap<>();
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                Map<Long, ItemStatistics> current = pending.get(stripe);
+                if (!current.isEmpty()) {
+                    deltas.putAll(current);
+                    pending.set(stripe, new HashMap<>());
+                }
+            }
+        }
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<Long, ItemStatistics>> rows = new ArrayList<>(deltas.entrySet());
+        try {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(MERGE_SQL, rows, batchSize, (ps, row) -> {
+                        ItemStatistics stats = row.getValue();
+                        ps.setLong(1, stats.getCount());
+                        ps.setLong(2, stats.getCorrectCount());
+                        ps.setLong(3, stats.getSkippedCount());
+                        ps.setDouble(4, stats.getMeanScore());
+                        ps.setDouble(5, stats.getM2Score());
+                        ps.setDouble(6, stats.getCoMoment());
+                        ps.setString(7, toJson(stats.getSelectionCounts()));
+                        ps.setTimestamp(8, now);
+                        ps.setLong(9, row.getKey());
+                    }));
+            return rows.size();
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next flush retries them together with newer submissions
+            logger.warn("Flushing item statistics for {} questions failed", rows.size(), e);
+            for (Map.Entry<Long, ItemStatistics> row : rows) {
+                int stripe = stripe(row.getKey());
+                synchronized (locks[stripe]) {
+                    pending.get(stripe).computeIfAbsent(row.getKey(), id -> new ItemStatistics()).merge(row.getValue());
+                }
+            }
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushStatistics();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuestionStatsDto> getExerciseItemAnalysis(Long exerciseId) {
+        return toDtos(questionRepository.findItemAnalysisRowsByExerciseId(exerciseId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuestionStatsDto> getExamItemAnalysis(Long examId) {
+        return toDtos(questionRepository.findItemAnalysisRowsByExamId(examId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<QuestionStatsDto> getMockExamItemAnalysis(Long mockExamId) {
+        return toDtos(questionRepository.findItemAnalysisRowsByMockExamId(mockExamId));
+    }
+
+    // Row layout matches QuestionRepository.ITEM_ANALYSIS_ROWS
+    private List<QuestionStatsDto> toDtos(List<Object[]> rows) {
+        Set<Long> questionIds = new LinkedHashSet<>();
+        for (Object[] row : rows) {
+            questionIds.add(((Number) row[0]).longValue());
+        }
+        Map<Long, QuestionStats> statsById = questionStatsRepository.findAllById(questionIds).stream()
+                .collect(Collectors.toMap(QuestionStats::getQuestionId, Function.identity()));
+
+        Map<Long, QuestionStatsDto> dtos = new HashMap<>();
+        List<QuestionStatsDto> result = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long questionId = ((Number) row[0]).longValue();
+            QuestionStats stats = statsById.get(questionId);
+            long count = stats != null ? stats.getAttemptCount() : 0;
+            QuestionStatsDto dto = dtos.get(questionId);
+            if (dto == null) {
+                dto = new QuestionStatsDto(
+                        questionId,
+                        (String) row[1],
+                        count,
+                        stats != null ? ItemStatistics.pValue(count, stats.getCorrectCount()) : null,
+                        stats != null ? ItemStatistics.pointBiserial(count, stats.getCorrectCount(),
+                                stats.getM2Score(), stats.getCoMoment()) : null,
+                        count > 0 ? (double) stats.getSkippedCount() / count : null,
+                        new ArrayList<>()
+                );
+                dtos.put(questionId, dto);
+                result.add(dto);
+            }
+            if (row[2] != null) {
+                Long answerId = ((Number) row[2]).longValue();
+                long selections = stats != null && stats.getSelectionCounts() != null
+                        ? stats.getSelectionCounts().getOrDefault(answerId, 0L) : 0;
+                dto.getAnswers().add(new AnswerSelectionStatsDto(
+                        answerId,
+                        (String) row[3],
+                        Boolean.TRUE.equals(row[4]),
+                        selections,
+                        count > 0 ? (double) selections / count : null
+                ));
+            }
+        }
+        return result;
+    }
+
+    private static int stripe(long questionId) {
+        return (int) ((questionId ^ (questionId >>> 32)) & (STRIPES - 1));
+    }
+
+    private String toJson(Map<Long, Long> selectionCounts) {
+        try {
+            return objectMapper.writeValueAsString(selectionCounts);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize answer selection counts", e);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
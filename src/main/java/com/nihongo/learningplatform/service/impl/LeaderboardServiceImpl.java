@@ -0,0 +1,210 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.dto.LeaderboardDto;
+import com.nihongo.learningplatform.dto.LeaderboardEntryDto;
+import com.nihongo.learningplatform.entity.MockExamAttempt;
+import com.nihongo.learningplatform.grading.Leaderboard;
+import com.nihongo.learningplatform.repository.MockExamAttemptRepository;
+import com.nihongo.learningplatform.service.LeaderboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Live mock exam leaderboards, one per mock exam and one per JLPT level, kept entirely in memory.
+// Graded attempts are offered after commit; on startup the boards are refilled from each user's best attempts.
+// Offers only ever keep the better entry, so attempts graded while the rebuild runs are never lost.
+// A level board only holds each user's best entry, so when a mock exam is deleted or moves to another level
+// the affected level boards are rebuilt from the boards of the mock exams still on that level.
+@Service
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardServiceImpl.class);
+    private static final int MAX_LIMIT = 100;
+
+    private final MockExamAttemptRepository mockExamAttemptRepository;
+
+    private final Map<Long, Leaderboard> mockExamBoards = new ConcurrentHashMap<>();
+    private final Map<String, Leaderboard> levelBoards = new ConcurrentHashMap<>();
+    // Level board each mock exam board feeds; written together with the boards under this service's monitor
+    private final Map<Long, String> mockExamLevels = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LeaderboardServiceImpl(MockExamAttemptRepository mockExamAttemptRepository) {
+        this.mockExamAttemptRepository = mockExamAttemptRepository;
+    }
+
+    @Override
+    public void recordAttempt(MockExamAttempt attempt) {
+        if (attempt.getScore() == null || attempt.getEndTime() == null) {
+            return;
+        }
+        Leaderboard.Entry entry = new Leaderboard.Entry(
+                attempt.getUser().getId(),
+                attempt.getUser().getUsername(),
+                attempt.getId(),
+                attempt.getMockExam().getId(),
+                attempt.getScore(),
+                Math.max(0, Duration.between(attempt.getStartTime(), attempt.getEndTime()).toMillis()),
+                attempt.getEndTime()
+        );
+        String level = attempt.getMockExam().getLevel();
+        afterCommit(() -> offer(entry, level));
+    }
+
+    @Override
+    public LeaderboardDto getMockExamLeaderboard(Long mockExamId, Long userId, int limit) {
+        return toDto(mockExamBoards.get(mockExamId), userId, limit);
+    }
+
+    @Override
+    public LeaderboardDto getLevelLeaderboard(String level, Long userId, int limit) {
+        return toDto(level != null ? levelBoards.get(levelKey(level)) : null, userId, limit);
+    }
+
+    @Override
+    public void removeMockExam(Long mockExamId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                mockExamBoards.remove(mockExamId);
+                String level = mockExamLevels.remove(mockExamId);
+                if (level != null) {
+                    rebuildLevelBoard(level);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void updateMockExamLevel(Long mockExamId, String level) {
+        String key = level != null && !level.isBlank() ? levelKey(level) : null;
+        afterCommit(() -> {
+            synchronized (this) {
+                if (!mockExamBoards.containsKey(mockExamId)) {
+                    return;
+                }
+                String previous = key != null ? mockExamLevels.put(mockExamId, key) : mockExamLevels.remove(mockExamId);
+                if (!Objects.equals(previous, key)) {
+                    if (previous != null) {
+                        rebuildLevelBoard(previous);
+                    }
+                    if (key != null) {
+                        rebuildLevelBoard(key);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public int rebuildLeaderboards() {
+        List<Object[]> rows = mockExamAttemptRepository.findBestAttemptRows();
+        for (Object[] row : rows) {
+            Leaderboard.Entry entry = new Leaderboard.Entry(
+                    ((Number) row[1]).longValue(),
+                    (String) row[2],
+                    ((Number) row[0]).longValue(),
+                    ((Number) row[3]).longValue(),
+                    ((Number) row[5]).intValue(),
+                    Math.max(0, ((Number) row[6]).longValue()),
+                    toLocalDateTime(row[7])
+            );
+            offer(entry, (String) row[4]);
+        }
+        logger.info("Mock exam leaderboards rebuilt from {} best attempts", rows.size());
+        return rows.size();
+    }
+
+    private synchronized void offer(Leaderboard.Entry entry, String level) {
+        mockExamBoards.computeIfAbsent(entry.mockExamId(), id -> new Leaderboard()).offer(entry);
+        if (level != null && !level.isBlank()) {
+            mockExamLevels.put(entry.mockExamId(), levelKey(level));
+            levelBoards.computeIfAbsent(levelKey(level), key -> new Leaderboard()).offer(entry);
+        }
+    }
+
+    // Readers keep using the old board until the rebuilt one is swapped in
+    private void rebuildLevelBoard(String level) {
+        Leaderboard board = new Leaderboard();
+        mockExamLevels.forEach((mockExamId, mockExamLevel) -> {
+            Leaderboard mockExamBoard = mockExamBoards.get(mockExamId);
+            if (level.equals(mockExamLevel) && mockExamBoard != null) {
+                mockExamBoard.top(mockExamBoard.size()).forEach(board::offer);
+            }
+        });
+        if (board.size() > 0) {
+            levelBoards.put(level, board);
+        } else {
+            levelBoards.remove(level);
+        }
+    }
+
+    private LeaderboardDto toDto(Leaderboard board, Long userId, int limit) {
+        if (board == null) {
+            return new LeaderboardDto(0, List.of(), null);
+        }
+        List<Leaderboard.Entry> top = board.top(Math.max(1, Math.min(limit, MAX_LIMIT)));
+        List<LeaderboardEntryDto> entries = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            entries.add(toEntryDto(i + 1, top.get(i)));
+        }
+        Leaderboard.Ranked me = userId != null ? board.rankOf(userId) : null;
+        return new LeaderboardDto(
+                board.size(),
+                entries,
+                me != null ? toEntryDto(me.rank(), me.entry()) : null
+        );
+    }
+
+    private static LeaderboardEntryDto toEntryDto(int rank, Leaderboard.Entry entry) {
+        return new LeaderboardEntryDto(
+                rank,
+                entry.userId(),
+                entry.username(),
+                entry.attemptId(),
+                entry.mockExamId(),
+                entry.score(),
+                entry.durationMillis() / 1000,
+                entry.achievedAt()
+        );
+    }
+
+    private static String levelKey(String level) {
+        return level.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    // Only rank attempts whose grading actually committed
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
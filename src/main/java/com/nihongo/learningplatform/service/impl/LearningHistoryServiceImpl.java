@@ -1,59 +1,54 @@
 package com.nihongo.learningplatform.service.impl;
 
 import com.nihongo.learningplatform.dto.LearningHistoryDto;
+import com.nihongo.learningplatform.dto.LearningHistoryWriterStatsDto;
 import com.nihongo.learningplatform.dto.PageResponseDto;
 import com.nihongo.learningplatform.entity.*;
+import com.nihongo.learningplatform.history.LearningHistoryDetails;
+import com.nihongo.learningplatform.history.LearningHistoryEvent;
+import com.nihongo.learningplatform.history.LearningHistoryWriter;
 import com.nihongo.learningplatform.repository.*;
 import com.nihongo.learningplatform.service.LearningHistoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class LearningHistoryServiceImpl implements LearningHistoryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LearningHistoryServiceImpl.class);
+    private static final int MAX_QUERY_DAYS = 366;
+
     private final LearningHistoryRepository learningHistoryRepository;
     private final UserRepository userRepository;
     private final CourseRepository courseRepository;
-    private final LessonRepository lessonRepository;
-    private final ExerciseRepository exerciseRepository;
-    private final ExamRepository examRepository;
-    private final MockExamRepository mockExamRepository;
-    private final CertificateRepository certificateRepository;
-    private final PaymentRepository paymentRepository;
-    private final CommentRepository commentRepository;
-    private final ReviewRepository reviewRepository;
+    private final LearningHistoryWriter learningHistoryWriter;
+    private final int partitionMonthsAhead;
 
     public LearningHistoryServiceImpl(
             LearningHistoryRepository learningHistoryRepository,
             UserRepository userRepository,
             CourseRepository courseRepository,
-            LessonRepository lessonRepository,
-            ExerciseRepository exerciseRepository,
-            ExamRepository examRepository,
-            MockExamRepository mockExamRepository,
-            CertificateRepository certificateRepository,
-            PaymentRepository paymentRepository,
-            CommentRepository commentRepository,
-            ReviewRepository reviewRepository) {
+            LearningHistoryWriter learningHistoryWriter,
+            @Value("${app.learning-history.partitions.months-ahead:3}") int partitionMonthsAhead) {
         this.learningHistoryRepository = learningHistoryRepository;
         this.userRepository = userRepository;
         this.courseRepository = courseRepository;
-        this.lessonRepository = lessonRepository;
-        this.exerciseRepository = exerciseRepository;
-        this.examRepository = examRepository;
-        this.mockExamRepository = mockExamRepository;
-        this.certificateRepository = certificateRepository;
-        this.paymentRepository = paymentRepository;
-        this.commentRepository = commentRepository;
-        this.reviewRepository = reviewRepository;
+        this.learningHistoryWriter = learningHistoryWriter;
+        this.partitionMonthsAhead = partitionMonthsAhead;
     }
 
     @Override
@@ -67,6 +62,7 @@ public class LearningHistoryServiceImpl implements LearningHistoryService {
         learningHistory.setActivityType(learningHistoryDto.getActivityType());
         learningHistory.setTimestamp(learningHistoryDto.getTimestamp() != null
                 ? learningHistoryDto.getTimestamp() : LocalDateTime.now());
+        LearningHistoryDetails.validate(learningHistoryDto.getActivityType(), learningHistoryDto.getDetails());
         learningHistory.setDetails(learningHistoryDto.getDetails());
 
         if (learningHistoryDto.getCourseId() != null) {
@@ -164,235 +160,144 @@ public class LearningHistoryServiceImpl implements LearningHistoryService {
     }
 
     @Override
-    @Transactional
-    public void deleteOldLearningHistories(LocalDateTime before) {
-        // This would require a custom query in the repository
-        // For now, we can retrieve and delete individually
-        List<LearningHistory> oldHistories = learningHistoryRepository.findAll().stream()
-                .filter(history -> history.getTimestamp().isBefore(before))
+    @Transactional(readOnly = true)
+    public List<LearningHistoryDto> getFailedExamsByUser(Long userId, int days) {
+        return learningHistoryRepository.findFailedExamsByUser(userId, since(days)).stream()
+                .map(this::mapToDto)
                 .collect(Collectors.toList());
-
-        learningHistoryRepository.deleteAll(oldHistories);
     }
 
     @Override
-    @Transactional
-    public void recordCourseEnrollment(Long userId, Long courseId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
+    @Transactional(readOnly = true)
+    public List<LearningHistoryDto> getFailedExamsByCourse(Long courseId, int days) {
+        return learningHistoryRepository.findFailedExamsByCourse(courseId, since(days)).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
 
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setCourse(course);
-        history.setActivityType(ActivityType.COURSE_ENROLLMENT);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Enrolled in course: " + course.getTitle());
+    @Override
+    @Transactional(readOnly = true)
+    public List<LearningHistoryDto> getLowScoreExercisesByUser(Long userId, int belowScore, int days) {
+        return learningHistoryRepository.findExercisesScoredBelowByUser(userId, belowScore, since(days)).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
 
-        learningHistoryRepository.save(history);
+    @Override
+    @Transactional(readOnly = true)
+    public List<LearningHistoryDto> getLowScoreExercisesByCourse(Long courseId, int belowScore, int days) {
+        return learningHistoryRepository.findExercisesScoredBelowByCourse(courseId, belowScore, since(days)).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
-    public void recordLessonCompleted(Long userId, Long lessonId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Lesson lesson = lessonRepository.findById(lessonId)
-                .orElseThrow(() -> new RuntimeException("Lesson not found"));
-
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setActivityType(ActivityType.LESSON_COMPLETED);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Completed lesson: " + lesson.getTitle());
-
-        // Set course and module if available
-        if (lesson.getModule() != null) {
-            history.setModule(lesson.getModule());
-            if (lesson.getModule().getCourse() != null) {
-                history.setCourse(lesson.getModule().getCourse());
-            }
-        }
-
-        learningHistoryRepository.save(history);
+    public void deleteOldLearningHistories(LocalDateTime before) {
+        // Whole monthly partitions older than the cutoff are dropped; only the boundary month is deleted row by row
+        int droppedPartitions = learningHistoryRepository.dropPartitionsBefore(before);
+        logger.info("Learning history retention before {} dropped {} partitions", before, droppedPartitions);
     }
 
     @Override
     @Transactional
-    public void recordExerciseCompleted(Long userId, Long exerciseId, Integer score) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Exercise exercise = exerciseRepository.findById(exerciseId)
-                .orElseThrow(() -> new RuntimeException("Exercise not found"));
+    public void ensureFuturePartitions() {
+        int created = learningHistoryRepository.ensurePartitions(partitionMonthsAhead);
+        if (created > 0) {
+            logger.info("Created {} learning history partitions", created);
+        }
+    }
 
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setActivityType(ActivityType.EXERCISE_COMPLETED);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Completed exercise: " + exercise.getTitle() + " with score: " + score);
+    @Override
+    public void recordCourseEnrollment(Long userId, Long courseId) {
+        record(userId, ActivityType.COURSE_ENROLLMENT, LearningHistoryDetails.courseEnrollment(courseId),
+                courseId, null, null, null, null, null);
+    }
 
-        // Set related entities
-        // Assuming Exercise has references to Lesson, Module, Course
+    @Override
+    public void recordLessonCompleted(Long userId, Long lessonId) {
+        record(userId, ActivityType.LESSON_COMPLETED, LearningHistoryDetails.lessonCompleted(lessonId),
+                null, lessonId, null, null, null, null);
+    }
 
-        learningHistoryRepository.save(history);
+    @Override
+    public void recordExerciseCompleted(Long userId, Long exerciseId, Integer score) {
+        record(userId, ActivityType.EXERCISE_COMPLETED, LearningHistoryDetails.exerciseCompleted(exerciseId, score),
+                null, null, exerciseId, null, null, null);
     }
 
     @Override
-    @Transactional
     public void recordExamCompleted(Long userId, Long examId, Integer score, Boolean passed) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Exam exam = examRepository.findById(examId)
-                .orElseThrow(() -> new RuntimeException("Exam not found"));
-
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setActivityType(ActivityType.EXAM_COMPLETED);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Completed exam: " + exam.getTitle() +
-                " with score: " + score + ", " + (passed ? "Passed" : "Failed"));
-
-        // Set course if available
-        if (exam.getCourse() != null) {
-            history.setCourse(exam.getCourse());
-        }
-
-        learningHistoryRepository.save(history);
+        record(userId, ActivityType.EXAM_COMPLETED, LearningHistoryDetails.examCompleted(examId, score, passed),
+                null, null, null, examId, null, null);
     }
 
     @Override
-    @Transactional
     public void recordMockExamCompleted(Long userId, Long mockExamId, Integer score, Boolean passed) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        MockExam mockExam = mockExamRepository.findById(mockExamId)
-                .orElseThrow(() -> new RuntimeException("Mock exam not found"));
-
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setActivityType(ActivityType.MOCK_EXAM_COMPLETED);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Completed mock exam: " + mockExam.getTitle() +
-                " with score: " + score + ", " + (passed ? "Passed" : "Failed"));
-
-        learningHistoryRepository.save(history);
+        record(userId, ActivityType.MOCK_EXAM_COMPLETED,
+                LearningHistoryDetails.mockExamCompleted(mockExamId, score, passed),
+                null, null, null, null, mockExamId, null);
     }
 
     @Override
-    @Transactional
     public void recordCertificateEarned(Long userId, Long courseId, Long certificateId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
-
-        Certificate certificate = certificateRepository.findById(certificateId)
-                .orElseThrow(() -> new RuntimeException("Certificate not found"));
-
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setCourse(course);
-        history.setActivityType(ActivityType.CERTIFICATE_EARNED);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Earned certificate for course: " + course.getTitle());
-
-        learningHistoryRepository.save(history);
+        record(userId, ActivityType.CERTIFICATE_EARNED, LearningHistoryDetails.certificateEarned(courseId, certificateId),
+                courseId, null, null, null, null, null);
     }
 
     @Override
-    @Transactional
     public void recordLogin(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setActivityType(ActivityType.LOGIN);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("User logged in");
-
-        learningHistoryRepository.save(history);
+        record(userId, ActivityType.LOGIN, LearningHistoryDetails.login(),
+                null, null, null, null, null, null);
     }
 
     @Override
-    @Transactional
     public void recordPurchase(Long userId, Long paymentId, String details) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found"));
-
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setActivityType(ActivityType.PURCHASE);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails(details != null ? details : "Made a purchase");
-
-        // If payment has an enrollment and enrollment has a course, set the course
-        if (payment.getEnrollment() != null && payment.getEnrollment().getCourse() != null) {
-            history.setCourse(payment.getEnrollment().getCourse());
-        }
-
-        learningHistoryRepository.save(history);
+        record(userId, ActivityType.PURCHASE, LearningHistoryDetails.purchase(paymentId, details),
+                null, null, null, null, null, paymentId);
     }
 
     @Override
-    @Transactional
     public void recordCommentPosted(Long userId, Long lessonId, Long commentId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Lesson lesson = lessonRepository.findById(lessonId)
-                .orElseThrow(() -> new RuntimeException("Lesson not found"));
-
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new RuntimeException("Comment not found"));
-
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setActivityType(ActivityType.COMMENT_POSTED);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Posted a comment on lesson: " + lesson.getTitle());
-
-        // Set module and course if available
-        if (lesson.getModule() != null) {
-            history.setModule(lesson.getModule());
-            if (lesson.getModule().getCourse() != null) {
-                history.setCourse(lesson.getModule().getCourse());
-            }
-        }
-
-        learningHistoryRepository.save(history);
+        record(userId, ActivityType.COMMENT_POSTED, LearningHistoryDetails.commentPosted(lessonId, commentId),
+                null, lessonId, null, null, null, null);
     }
 
     @Override
-    @Transactional
     public void recordReviewPosted(Long userId, Long courseId, Long reviewId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new RuntimeException("Course not found"));
+        record(userId, ActivityType.REVIEW_POSTED, LearningHistoryDetails.reviewPosted(courseId, reviewId),
+                courseId, null, null, null, null, null);
+    }
 
-        Review review = reviewRepository.findById(reviewId)
-                .orElseThrow(() -> new RuntimeException("Review not found"));
+    @Override
+    public LearningHistoryWriterStatsDto getWriterStats() {
+        return learningHistoryWriter.getStats();
+    }
 
-        LearningHistory history = new LearningHistory();
-        history.setUser(user);
-        history.setCourse(course);
-        history.setActivityType(ActivityType.REVIEW_POSTED);
-        history.setTimestamp(LocalDateTime.now());
-        history.setDetails("Posted a review for course: " + course.getTitle());
+    // Events are written asynchronously in batches, and only once the caller's transaction has committed
+    // so a rolled-back enrollment or submission never shows up in the history
+    private void record(Long userId, ActivityType activityType, Map<String, Object> details, Long courseId,
+                        Long lessonId, Long exerciseId, Long examId, Long mockExamId, Long paymentId) {
+        if (userId == null) {
+            return;
+        }
+        LearningHistoryEvent event = new LearningHistoryEvent(userId, activityType, LocalDateTime.now(), details,
+                courseId, lessonId, exerciseId, examId, mockExamId, paymentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    learningHistoryWriter.enqueue(event);
+                }
+            });
+        } else {
+            learningHistoryWriter.enqueue(event);
+        }
+    }
 
-        learningHistoryRepository.save(history);
+    // Typed queries are bounded to a time window so they only scan the matching monthly partitions
+    private LocalDateTime since(int days) {
+        return LocalDateTime.now().minusDays(Math.max(1, Math.min(days, MAX_QUERY_DAYS)));
     }
 
     private LearningHistoryDto mapToDto(LearningHistory learningHistory) {
@@ -414,7 +319,25 @@ public class LearningHistoryServiceImpl implements LearningHistoryService {
             dto.setModuleName(learningHistory.getModule().getTitle());
         }
 
-        // Set other fields as needed based on your entity relationships
+        if (learningHistory.getLesson() != null) {
+            dto.setLessonId(learningHistory.getLesson().getId());
+            dto.setLessonName(learningHistory.getLesson().getTitle());
+        }
+
+        if (learningHistory.getExercise() != null) {
+            dto.setExerciseId(learningHistory.getExercise().getId());
+            dto.setExerciseName(learningHistory.getExercise().getTitle());
+        }
+
+        if (learningHistory.getExam() != null) {
+            dto.setExamId(learningHistory.getExam().getId());
+            dto.setExamName(learningHistory.getExam().getTitle());
+        }
+
+        if (learningHistory.getMockExam() != null) {
+            dto.setMockExamId(learningHistory.getMockExam().getId());
+            dto.setMockExamName(learningHistory.getMockExam().getTitle());
+        }
 
         return dto;
     }
@@ -7,7 +7,10 @@ import com.nihongo.learningplatform.entity.Module;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.LessonRepository;
 import com.nihongo.learningplatform.service.CloudinaryService;
+import com.nihongo.learningplatform.search.SearchableContentType;
+import com.nihongo.learningplatform.service.ContentSearchService;
 import com.nihongo.learningplatform.service.CourseService;
+import com.nihongo.learningplatform.service.EnrollmentProgressService;
 import com.nihongo.learningplatform.service.LessonService;
 import com.nihongo.learningplatform.service.ModuleService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,12 +27,18 @@ public class LessonServiceImpl implements LessonService {
     private final LessonRepository lessonRepository;
     private final CourseService courseService;
     private final ModuleService moduleService;
+    private final ContentSearchService contentSearchService;
+    private final EnrollmentProgressService enrollmentProgressService;
 
     @Autowired
-    public LessonServiceImpl(LessonRepository lessonRepository, CourseService courseService, ModuleService moduleService) {
+    public LessonServiceImpl(LessonRepository lessonRepository, CourseService courseService, ModuleService moduleService,
+                             ContentSearchService contentSearchService,
+                             EnrollmentProgressService enrollmentProgressService) {
         this.lessonRepository = lessonRepository;
         this.courseService = courseService;
         this.moduleService = moduleService;
+        this.contentSearchService = contentSearchService;
+        this.enrollmentProgressService = enrollmentProgressService;
     }
 
     @Override
@@ -45,6 +54,8 @@ public class LessonServiceImpl implements LessonService {
         lesson.setModule(module);
 
         Lesson savedLesson = lessonRepository.save(lesson);
+        contentSearchService.indexLesson(savedLesson);
+        enrollmentProgressService.refreshCourse(module.getCourse().getId());
         return mapToDto(savedLesson);
     }
 
@@ -88,6 +99,7 @@ public class LessonServiceImpl implements LessonService {
             cloudinaryService.deleteFile(lesson.getVideoPublicId(), "video");
         }
 
+        boolean reordered = lesson.getOrderIndex() != lessonDto.getOrderIndex();
         lesson.setTitle(lessonDto.getTitle());
         lesson.setContent(lessonDto.getContent());
         lesson.setVideoUrl(lessonDto.getVideoUrl());
@@ -95,6 +107,10 @@ public class LessonServiceImpl implements LessonService {
         lesson.setOrderIndex(lessonDto.getOrderIndex());
 
         Lesson updatedLesson = lessonRepository.save(lesson);
+        contentSearchService.indexLesson(updatedLesson);
+        if (reordered) {
+            enrollmentProgressService.refreshCourse(lesson.getModule().getCourse().getId());
+        }
         return mapToDto(updatedLesson);
     }
 
@@ -110,6 +126,8 @@ public class LessonServiceImpl implements LessonService {
             cloudinaryService.deleteFile(lesson.getVideoPublicId(), "video");
         }
         lessonRepository.deleteById(id);
+        contentSearchService.removeContent(SearchableContentType.LESSON, id);
+        enrollmentProgressService.refreshCourse(lesson.getModule().getCourse().getId());
     }
 
     @Override
@@ -0,0 +1,174 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.grading.TimingWheel;
+import com.nihongo.learningplatform.repository.MockExamAttemptRepository;
+import com.nihongo.learningplatform.service.MockExamDeadlineService;
+import com.nihongo.learningplatform.service.MockExamService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Server-side time limits for mock exam attempts. Every open attempt with a deadline sits in one timing wheel,
+// so tens of thousands of running attempts cost one thread and no polling. When a deadline plus the grace
+// period passes, the attempt is graded from its last saved answers on a single finalizer thread. The wheel
+// only lives in memory: on startup it is refilled from the open attempts in the database. A failed finalization
+// is retried a bounded number of times; one that can never succeed, e.g. because the mock exam was deleted,
+// is dropped at once.
+@Service
+public class MockExamDeadlineServiceImpl implements MockExamDeadlineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockExamDeadlineServiceImpl.class);
+
+    private final MockExamAttemptRepository mockExamAttemptRepository;
+    private final MockExamService mockExamService;
+    private final long graceMillis;
+    private final long retryDelayMillis;
+    private final int maxAttempts;
+    private final TimingWheel wheel;
+    private final ExecutorService finalizer;
+    // Failed finalizations per attempt, cleared on success, give-up or cancel
+    private final Map<Long, Integer> failures = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MockExamDeadlineServiceImpl(MockExamAttemptRepository mockExamAttemptRepository,
+                                       @Lazy MockExamService mockExamService,
+                                       @Value("${app.mock-exam-deadlines.tick-ms:1000}") long tickMillis,
+                                       @Value("${app.mock-exam-deadlines.wheel-size:512}") int wheelSize,
+                                       @Value("${app.mock-exam-deadlines.grace-ms:30000}") long graceMillis,
+                                       @Value("${app.mock-exam-deadlines.retry-delay-ms:60000}") long retryDelayMillis,
+                                       @Value("${app.mock-exam-deadlines.max-attempts:10}") int maxAttempts) {
+        this.mockExamAttemptRepository = mockExamAttemptRepository;
+        this.mockExamService = mockExamService;
+        this.graceMillis = graceMillis;
+        this.retryDelayMillis = retryDelayMillis;
+        this.maxAttempts = maxAttempts;
+        this.wheel = new TimingWheel("mock-exam-deadlines", tickMillis, wheelSize, this::onExpired);
+        this.finalizer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mock-exam-finalizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        wheel.start();
+    }
+
+    // Attempts still pending are picked up again by the recovery scan on the next start
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+        finalizer.shutdownNow();
+        try {
+            finalizer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void scheduleDeadline(Long attemptId, LocalDateTime deadline) {
+        if (attemptId == null || deadline == null) {
+            return;
+        }
+        long expiresAt = toMillis(deadline) + graceMillis;
+        afterCommit(() -> wheel.schedule(attemptId, expiresAt));
+    }
+
+    @Override
+    public void cancelDeadline(Long attemptId) {
+        if (attemptId != null) {
+            afterCommit(() -> {
+                wheel.cancel(attemptId);
+                failures.remove(attemptId);
+            });
+        }
+    }
+
+    // Requests already in flight when the clock runs out still count until the grace period ends
+    @Override
+    public boolean isPastDeadline(LocalDateTime deadline) {
+        return deadline != null && System.currentTimeMillis() > toMillis(deadline) + graceMillis;
+    }
+
+    @Override
+    public boolean isPastDeadline(LocalDateTime deadline, LocalDateTime at) {
+        return deadline != null && toMillis(at) > toMillis(deadline) + graceMillis;
+    }
+
+    // Overdue attempts are scheduled in the past and therefore finalized on the next tick
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public int recoverOpenAttempts() {
+        List<Object[]> rows = mockExamAttemptRepository.findOpenAttemptDeadlines();
+        for (Object[] row : rows) {
+            wheel.schedule((Long) row[0], toMillis((LocalDateTime) row[1]) + graceMillis);
+        }
+        logger.info("Scheduled deadlines for {} open mock exam attempts", rows.size());
+        return rows.size();
+    }
+
+    private void onExpired(List<Long> attemptIds) {
+        finalizer.execute(() -> {
+            for (Long attemptId : attemptIds) {
+                try {
+                    mockExamService.finalizeExpiredAttempt(attemptId);
+                    failures.remove(attemptId);
+                } catch (ResourceNotFoundException | BadRequestException e) {
+                    // Retrying cannot fix a missing mock exam or a rejected attempt
+                    failures.remove(attemptId);
+                    logger.warn("Giving up on expired mock exam attempt {}: {}", attemptId, e.getMessage());
+                } catch (RuntimeException e) {
+                    int failed = failures.merge(attemptId, 1, Integer::sum);
+                    if (failed >= maxAttempts) {
+                        failures.remove(attemptId);
+                        logger.error("Giving up on expired mock exam attempt {} after {} attempts, " +
+                                "it is retried on the next start", attemptId, failed, e);
+                    } else {
+                        logger.warn("Could not finalize expired mock exam attempt {}, retrying later", attemptId, e);
+                        wheel.schedule(attemptId, System.currentTimeMillis() + retryDelayMillis);
+                    }
+                }
+            }
+        });
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // Only arm or disarm the timer once the attempt row is committed
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.repository.MockExamAttemptDraftRepository;
+import com.nihongo.learningplatform.repository.MockExamAttemptRepository;
+import com.nihongo.learningplatform.service.MockExamDeadlineService;
+import com.nihongo.learningplatform.service.MockExamDraftService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Autosaved answers of open mock exam attempts. Each click only updates a small in-memory map per attempt;
+// the scheduled flush writes every attempt that changed since the last flush as one JDBC batch, so a
+// restart loses at most one flush interval. Attempts are loaded back from the table on first access.
+@Service
+public class MockExamDraftServiceImpl implements MockExamDraftService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockExamDraftServiceImpl.class);
+    private static final int MAX_QUESTIONS_PER_DRAFT = 1000;
+    private static final int MAX_ANSWERS_PER_QUESTION = 20;
+    // Longer gaps between autosaves are treated as the student being away
+    private static final long MAX_CREDITED_MILLIS = 10 * 60 * 1000L;
+    private static final TypeReference<Map<Long, long[]>> ANSWERS_TYPE = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<Long, Long>> TIME_SPENT_TYPE = new TypeReference<>() {
+    };
+
+    // Only attempts that are still open are written, so a flush racing a submit cannot revive the draft
+    private static final String UPSERT_SQL =
+            "INSERT INTO mock_exam_attempt_drafts (attempt_id, user_id, answers, time_spent, updated_at) " +
+            "SELECT a.id, a.user_id, CAST(? AS jsonb), CAST(? AS jsonb), ? FROM mock_exam_attempts a " +
+            "WHERE a.id = ? AND a.end_time IS NULL " +
+            "ON CONFLICT (attempt_id) DO UPDATE SET answers = EXCLUDED.answers, time_spent = EXCLUDED.time_spent, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String DELETE_SUBMITTED_SQL =
+            "DELETE FROM mock_exam_attempt_drafts d USING mock_exam_attempts a " +
+            "WHERE a.id = d.attempt_id AND a.end_time IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MockExamAttemptRepository mockExamAttemptRepository;
+    private final MockExamAttemptDraftRepository mockExamAttemptDraftRepository;
+    private final MockExamDeadlineService mockExamDeadlineService;
+    private final int batchSize;
+    private final long idleEvictionMillis;
+
+    private final Map<Long, Draft> drafts = new ConcurrentHashMap<>();
+    private final AtomicBoolean discardedSinceFlush = new AtomicBoolean();
+
+    @Autowired
+    public MockExamDraftServiceImpl(JdbcTemplate jdbcTemplate,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    MockExamAttemptRepository mockExamAttemptRepository,
+                                    MockExamAttemptDraftRepository mockExamAttemptDraftRepository,
+                                    MockExamDeadlineService mockExamDeadlineService,
+                                    @Value("${app.mock-exam-drafts.batch-size:200}") int batchSize,
+                                    @Value("${app.mock-exam-drafts.idle-eviction-ms:1800000}") long idleEvictionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mockExamAttemptRepository = mockExamAttemptRepository;
+        this.mockExamAttemptDraftRepository = mockExamAttemptDraftRepository;
+        this.mockExamDeadlineService = mockExamDeadlineService;
+        this.batchSize = batchSize;
+        this.idleEvictionMillis = idleEvictionMillis;
+    }
+
+    // Only checks the owner, so it also answers for submitted attempts: a retried submit with the same
+    // Idempotency-Key must still reach the replay of its original submission
+    @Override
+    public boolean isDraftOwner(Long attemptId, Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Draft draft = drafts.get(attemptId);
+        if (draft != null) {
+            return draft.userId == userId;
+        }
+        List<Object[]> rows = mockExamAttemptRepository.findDraftStateById(attemptId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Mock exam attempt not found with id: " + attemptId);
+        }
+        return userId.equals(rows.get(0)[0]);
+    }
+
+    // Merges the given questions into the draft; an empty selection clears that question.
+    // The time since the previous save is credited to the questions touched by this one.
+    @Override
+    public void saveDraftAnswers(Long attemptId, Map<Long, List<Long>> answers) {
+        if (answers == null || answers.isEmpty()) {
+            return;
+        }
+        Draft draft = draft(attemptId);
+        synchronized (draft) {
+            if (draft.closed) {
+                throw new BadRequestException("This mock exam attempt has already been submitted");
+            }
+            if (mockExamDeadlineService.isPastDeadline(draft.deadline)) {
+                throw new BadRequestException("The time limit for this mock exam attempt has expired");
+            }
+            long now = System.currentTimeMillis();
+            long elapsed = Math.min(Math.max(0, now - draft.lastActivityMillis), MAX_CREDITED_MILLIS);
+            long touched = answers.keySet().stream().filter(questionId -> questionId != null).count();
+            for (Map.Entry<Long, List<Long>> entry : answers.entrySet()) {
+                if (entry.getKey() == null) {
+                    continue;
+                }
+                long[] selected = compact(entry.getValue());
+                if (selected.length == 0) {
+                    draft.answers.remove(entry.getKey());
+                } else if (draft.answers.size() < MAX_QUESTIONS_PER_DRAFT || draft.answers.containsKey(entry.getKey())) {
+                    draft.answers.put(entry.getKey(), selected);
+                } else {
+                    throw new BadRequestException("A draft can hold at most " + MAX_QUESTIONS_PER_DRAFT + " questions");
+                }
+            }
+            for (Long questionId : answers.keySet()) {
+                if (questionId != null) {
+                    draft.timeSpentMillis.merge(questionId, elapsed / touched, Long::sum);
+                }
+            }
+            draft.lastActivityMillis = now;
+            draft.version++;
+            draft.lastTouchedMillis = now;
+        }
+    }
+
+    @Override
+    public Map<Long, List<Long>> getDraftAnswers(Long attemptId) {
+        Draft draft = draft(attemptId);
+        Map<Long, List<Long>> answers = new TreeMap<>();
+        synchronized (draft) {
+            draft.answers.forEach((questionId, selected) ->
+                    answers.put(questionId, Arrays.stream(selected).boxed().toList()));
+            draft.lastTouchedMillis = System.currentTimeMillis();
+        }
+        return answers;
+    }
+
+    @Override
+    public Map<Long, Integer> getDraftTimeSpentSeconds(Long attemptId) {
+        Draft draft = draft(attemptId);
+        Map<Long, Integer> seconds = new TreeMap<>();
+        synchronized (draft) {
+            draft.timeSpentMillis.forEach((questionId, millis) ->
+                    seconds.put(questionId, (int) Math.round(millis / 1000.0)));
+        }
+        return seconds;
+    }
+
+    // Called when the attempt is submitted, inside the submitting transaction
+    @Override
+    @Transactional
+    public void discardDraft(Long attemptId) {
+        mockExamAttemptDraftRepository.deleteByAttemptId(attemptId);
+        Runnable action = () -> {
+            Draft draft = drafts.remove(attemptId);
+            if (draft != null) {
+                synchronized (draft) {
+                    draft.closed = true;
+                }
+            }
+            discardedSinceFlush.set(true);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @Override
+    public synchronized int flushDrafts() {
+        long now = System.currentTimeMillis();
+        List<PendingFlush> pending = new ArrayList<>();
+        for (Map.Entry<Long, Draft> entry : drafts.entrySet()) {
+            Draft draft = entry.getValue();
+            synchronized (draft) {
+                if (draft.closed) {
+                    continue;
+                }
+                if (draft.version != draft.flushedVersion) {
+                    pending.add(new PendingFlush(entry.getKey(), draft, draft.version,
+                            new HashMap<>(draft.answers), new HashMap<>(draft.timeSpentMillis)));
+                } else if (now - draft.lastTouchedMillis > idleEvictionMillis) {
+                    // Clean and idle: the table has everything, reload on the next access
+                    drafts.remove(entry.getKey(), draft);
+                }
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            try {
+                Timestamp flushedAt = Timestamp.valueOf(LocalDateTime.now());
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(UPSERT_SQL, pending, batchSize, (ps, flush) -> {
+                            ps.setString(1, toJson(flush.answers()));
+                            ps.setString(2, toJson(flush.timeSpent()));
+                            ps.setTimestamp(3, flushedAt);
+                            ps.setLong(4, flush.attemptId());
+                        }));
+                for (PendingFlush flush : pending) {
+                    synchronized (flush.draft()) {
+                        flush.draft().flushedVersion = Math.max(flush.draft().flushedVersion, flush.version());
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Drafts stay dirty and are retried on the next flush
+                logger.warn("Flushing {} mock exam drafts failed", pending.size(), e);
+                return 0;
+            }
+        }
+
+        // A flush that raced a submit may have re-inserted its draft
+        if (discardedSinceFlush.getAndSet(false)) {
+            jdbcTemplate.update(DELETE_SUBMITTED_SQL);
+        }
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushDrafts();
+    }
+
+    private Draft draft(Long attemptId) {
+        Draft draft = drafts.get(attemptId);
+        if (draft != null) {
+            return draft;
+        }
+
+        List<Object[]> rows = mockExamAttemptRepository.findDraftStateById(attemptId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Mock exam attempt not found with id: " + attemptId);
+        }
+        if (rows.get(0)[1] != null) {
+            throw new BadRequestException("This mock exam attempt has already been submitted");
+        }
+        Draft loaded = new Draft((Long) rows.get(0)[0], (LocalDateTime) rows.get(0)[2]);
+        List<Object[]> saved = mockExamAttemptDraftRepository.findJsonByAttemptId(attemptId);
+        if (saved.isEmpty()) {
+            // Nothing autosaved yet, so the first save is timed from the start of the attempt
+            loaded.lastActivityMillis = ((LocalDateTime) rows.get(0)[3])
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        for (Object[] json : saved) {
+            loaded.answers.putAll(fromJson((String) json[0], ANSWERS_TYPE));
+            if (json[1] != null) {
+                loaded.timeSpentMillis.putAll(fromJson((String) json[1], TIME_SPENT_TYPE));
+            }
+        }
+        Draft existing = drafts.putIfAbsent(attemptId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static long[] compact(List<Long> answerIds) {
+        if (answerIds == null || answerIds.isEmpty()) {
+            return new long[0];
+        }
+        if (answerIds.size() > MAX_ANSWERS_PER_QUESTION) {
+            throw new BadRequestException("At most " + MAX_ANSWERS_PER_QUESTION + " answers can be selected per question");
+        }
+        return answerIds.stream()
+                .filter(id -> id != null)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private String toJson(Map<Long, ?> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize mock exam draft", e);
+        }
+    }
+
+    private <T> Map<Long, T> fromJson(String json, TypeReference<Map<Long, T>> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring unreadable mock exam draft", e);
+            return Map.of();
+        }
+    }
+
+    // Guarded by its own monitor; version counts edits, flushedVersion the last edit known to be in the table
+    private static final class Draft {
+        private final long userId;
+        private final LocalDateTime deadline;
+        private final Map<Long, long[]> answers = new HashMap<>();
+        private final Map<Long, Long> timeSpentMillis = new HashMap<>();
+        private long lastActivityMillis = System.currentTimeMillis();
+        private long version;
+        private long flushedVersion;
+        private boolean closed;
+        private volatile long lastTouchedMillis = System.currentTimeMillis();
+
+        private Draft(long userId, LocalDateTime deadline) {
+            this.userId = userId;
+            this.deadline = deadline;
+        }
+    }
+
+    private record PendingFlush(Long attemptId, Draft draft, long version, Map<Long, long[]> answers,
+                                Map<Long, Long> timeSpent) {
+    }
+}
@@ -2,20 +2,34 @@ package com.nihongo.learningplatform.service.impl;
 
 import com.nihongo.learningplatform.dto.MockExamAttemptDto;
 import com.nihongo.learningplatform.dto.MockExamDto;
+import com.nihongo.learningplatform.dto.MockExamQuestionResultDto;
 import com.nihongo.learningplatform.entity.*;
+import com.nihongo.learningplatform.exception.BadRequestException;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.grading.AnswerKey;
 import com.nihongo.learningplatform.mapper.MockExamAttemptMapper;
 import com.nihongo.learningplatform.mapper.MockExamMapper;
 import com.nihongo.learningplatform.repository.CourseRepository;
 import com.nihongo.learningplatform.repository.MockExamAttemptRepository;
+import com.nihongo.learningplatform.repository.MockExamQuestionResultRepository;
 import com.nihongo.learningplatform.repository.MockExamRepository;
 import com.nihongo.learningplatform.repository.QuestionRepository;
 import com.nihongo.learningplatform.repository.UserRepository;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import com.nihongo.learningplatform.service.ItemAnalysisService;
+import com.nihongo.learningplatform.service.LeaderboardService;
+import com.nihongo.learningplatform.service.LearningHistoryService;
+import com.nihongo.learningplatform.service.MockExamDeadlineService;
+import com.nihongo.learningplatform.service.MockExamDraftService;
 import com.nihongo.learningplatform.service.MockExamService;
+import com.nihongo.learningplatform.service.ReviewScheduleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,12 +37,26 @@ import java.util.stream.Collectors;
 @Service
 public class MockExamServiceImpl implements MockExamService {
 
+    // Re-grading an attempt overwrites its rows
+    private static final String RESULT_UPSERT_SQL =
+            "INSERT INTO mock_exam_question_results (attempt_id, question_id, correct, time_spent_seconds) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (attempt_id, question_id) DO UPDATE SET correct = EXCLUDED.correct, " +
+            "time_spent_seconds = EXCLUDED.time_spent_seconds";
+    private static final int RESULT_BATCH_SIZE = 500;
+
     @Autowired
     private MockExamRepository mockExamRepository;
 
     @Autowired
     private MockExamAttemptRepository mockExamAttemptRepository;
 
+    @Autowired
+    private MockExamQuestionResultRepository mockExamQuestionResultRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -44,6 +72,30 @@ public class MockExamServiceImpl implements MockExamService {
     @Autowired
     private MockExamAttemptMapper mockExamAttemptMapper;
 
+    @Autowired
+    private AnswerKeyService answerKeyService;
+
+    @Autowired
+    private MockExamDraftService mockExamDraftService;
+
+    @Autowired
+    private MockExamDeadlineService mockExamDeadlineService;
+
+    @Autowired
+    private LearningHistoryService learningHistoryService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ReviewScheduleService reviewScheduleService;
+
+    @Autowired
+    private ContentSearchService contentSearchService;
+
     @Override
     @Transactional
     public MockExamDto createMockExam(MockExamDto mockExamDto) {
@@ -61,8 +113,10 @@ public class MockExamServiceImpl implements MockExamService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public MockExamDto getMockExamById(Long id) {
-        MockExam mockExam = getMockExamEntityById(id);
+        MockExam mockExam = mockExamRepository.findWithQuestionsAndAnswersById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Mock exam not found with id: " + id));
         return mockExamMapper.toDto(mockExam);
     }
 
@@ -121,6 +175,8 @@ public class MockExamServiceImpl implements MockExamService {
 
         // Save the updated mock exam
         MockExam updatedMockExam = mockExamRepository.save(existingMockExam);
+        answerKeyService.invalidateMockExam(id);
+        leaderboardService.updateMockExamLevel(id, updatedMockExam.getLevel());
         return mockExamMapper.toDto(updatedMockExam);
     }
 
@@ -130,7 +186,10 @@ public class MockExamServiceImpl implements MockExamService {
         if (!mockExamRepository.existsById(id)) {
             throw new ResourceNotFoundException("Mock exam not found with id: " + id);
         }
+        contentSearchService.removeMockExamContent(id);
         mockExamRepository.deleteById(id);
+        answerKeyService.invalidateMockExam(id);
+        leaderboardService.removeMockExam(id);
     }
 
     @Override
@@ -151,9 +210,10 @@ public class MockExamServiceImpl implements MockExamService {
         MockExamAttempt attempt = new MockExamAttempt();
         attempt.setMockExam(mockExam);
         attempt.setUser(user);
-        // startTime will be set by @PrePersist
+        // startTime and deadline will be set by @PrePersist
 
         MockExamAttempt savedAttempt = mockExamAttemptRepository.save(attempt);
+        mockExamDeadlineService.scheduleDeadline(savedAttempt.getId(), savedAttempt.getDeadline());
         return mockExamAttemptMapper.toDto(savedAttempt);
     }
 
@@ -196,8 +256,8 @@ public class MockExamServiceImpl implements MockExamService {
 
     @Override
     @Transactional
-    public MockExamAttemptDto submitMockExamAttempt(Long id, Map<Long, List<Long>> answers) {
-        MockExamAttempt attempt = mockExamAttemptRepository.findById(id)
+    public MockExamAttemptDto submitMockExamAttempt(Long id, Map<Long, List<Long>> answers, LocalDateTime submittedAt) {
+        MockExamAttempt attempt = mockExamAttemptRepository.findByIdForUpdate(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Mock exam attempt not found with id: " + id));
 
         // Verify that the attempt is not already completed
@@ -205,19 +265,121 @@ public class MockExamServiceImpl implements MockExamService {
             throw new IllegalStateException("This mock exam attempt has already been submitted");
         }
 
-        // Calculate the score
-        int totalQuestions = attempt.getMockExam().getQuestions().size();
-        int correctAnswers = calculateCorrectAnswers(attempt.getMockExam().getQuestions(), answers);
-        int score = totalQuestions > 0 ? (correctAnswers * 100) / totalQuestions : 0;
+        // Late answers are refused; the deadline finalizer grades the last saved draft instead.
+        // Queued submissions are judged by when they were accepted, not when a worker got to them.
+        if (mockExamDeadlineService.isPastDeadline(attempt.getDeadline(), submittedAt)) {
+            throw new BadRequestException("The time limit for this mock exam attempt has expired");
+        }
+
+        // Submitting without a body (e.g. after a crash) grades the autosaved draft
+        if (answers == null || answers.isEmpty()) {
+            answers = mockExamDraftService.getDraftAnswers(id);
+        }
+
+        MockExamAttempt savedAttempt = gradeAndClose(attempt, answers, submittedAt);
+        mockExamDeadlineService.cancelDeadline(id);
+        return mockExamAttemptMapper.toDto(savedAttempt);
+    }
+
+    // Called by the grading queue. The deadline finalizer takes the same lock, so when it closed the attempt
+    // first it graded these very answers, saved as the draft on intake, and its result is returned instead.
+    @Override
+    @Transactional
+    public MockExamAttemptDto submitQueuedMockExamAttempt(Long id, Map<Long, List<Long>> answers, LocalDateTime submittedAt) {
+        MockExamAttempt attempt = mockExamAttemptRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Mock exam attempt not found with id: " + id));
+        if (attempt.getEndTime() != null) {
+            return mockExamAttemptMapper.toDto(attempt);
+        }
+
+        MockExamAttemptDto submitted = submitMockExamAttempt(id, answers, submittedAt);
+        learningHistoryService.recordMockExamCompleted(
+                attempt.getUser().getId(),
+                submitted.getMockExamId(),
+                submitted.getScore(),
+                submitted.getPassed()
+        );
+        return submitted;
+    }
+
+    // Called by the deadline timer; a no-op when the student submitted in the meantime
+    @Override
+    @Transactional
+    public MockExamAttemptDto finalizeExpiredAttempt(Long id) {
+        MockExamAttempt attempt = mockExamAttemptRepository.findByIdForUpdate(id).orElse(null);
+        if (attempt == null || attempt.getEndTime() != null) {
+            return null;
+        }
+
+        Map<Long, List<Long>> answers = mockExamDraftService.getDraftAnswers(id);
+        LocalDateTime endTime = attempt.getDeadline() != null ? attempt.getDeadline() : LocalDateTime.now();
+        MockExamAttempt savedAttempt = gradeAndClose(attempt, answers, endTime);
+
+        // The controller records manual submissions, auto-submitted ones are recorded here
+        learningHistoryService.recordMockExamCompleted(
+                savedAttempt.getUser().getId(),
+                savedAttempt.getMockExam().getId(),
+                savedAttempt.getScore(),
+                savedAttempt.getPassed()
+        );
+        return mockExamAttemptMapper.toDto(savedAttempt);
+    }
+
+    private MockExamAttempt gradeAndClose(MockExamAttempt attempt, Map<Long, List<Long>> answers, LocalDateTime endTime) {
+        // Calculate the score against the cached answer key instead of walking the lazy question set
+        AnswerKey answerKey = answerKeyService.getMockExamAnswerKey(attempt.getMockExam().getId());
+        int score = answerKey.score(answers);
+        // Read before closing: a draft not cached in memory is loaded from the attempt, which must still be open
+        Map<Long, Integer> timeSpentSeconds = mockExamDraftService.getDraftTimeSpentSeconds(attempt.getId());
 
         // Update the attempt
-        attempt.setEndTime(LocalDateTime.now());
-        attempt.setAnswers(answers.toString()); // Store answers as a string representation
+        attempt.setEndTime(endTime);
+        attempt.setAnswers(MockExamAnswerSheet.of(answers));
         attempt.setScore(score);
-        attempt.setPassed(score >= attempt.getMockExam().getPassingScore());
+        attempt.setPassed(answerKey.isPassing(score));
 
         MockExamAttempt savedAttempt = mockExamAttemptRepository.save(attempt);
-        return mockExamAttemptMapper.toDto(savedAttempt);
+        saveQuestionResults(attempt.getId(), answerKey, answers, timeSpentSeconds);
+        mockExamDraftService.discardDraft(attempt.getId());
+        itemAnalysisService.recordSubmission(answerKey, answers, score);
+        leaderboardService.recordAttempt(savedAttempt);
+        reviewScheduleService.recordQuestionResults(savedAttempt.getUser().getId(), answerKey, answers);
+        return savedAttempt;
+    }
+
+    // One row per question of the key, answered or not, in a single batch
+    private void saveQuestionResults(Long attemptId, AnswerKey answerKey, Map<Long, List<Long>> answers,
+                                     Map<Long, Integer> timeSpentSeconds) {
+        List<Integer> indexes = new ArrayList<>(answerKey.getQuestionCount());
+        for (int i = 0; i < answerKey.getQuestionCount(); i++) {
+            indexes.add(i);
+        }
+        jdbcTemplate.batchUpdate(RESULT_UPSERT_SQL, indexes, RESULT_BATCH_SIZE, (ps, index) -> {
+            long questionId = answerKey.getQuestionId(index);
+            ps.setLong(1, attemptId);
+            ps.setLong(2, questionId);
+            ps.setBoolean(3, answerKey.isCorrect(index, answers));
+            ps.setObject(4, timeSpentSeconds.get(questionId), Types.INTEGER);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MockExamQuestionResultDto> getMockExamAttemptResults(Long id) {
+        MockExamAttempt attempt = mockExamAttemptRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Mock exam attempt not found with id: " + id));
+        if (attempt.getEndTime() == null) {
+            throw new BadRequestException("This mock exam attempt has not been submitted yet");
+        }
+        Map<Long, List<Long>> answers = attempt.getAnswers() != null ? attempt.getAnswers().getAnswers() : Map.of();
+
+        return mockExamQuestionResultRepository.findByAttemptIdOrderByQuestionIdAsc(id).stream()
+                .map(result -> new MockExamQuestionResultDto(
+                        result.getQuestionId(),
+                        answers.getOrDefault(result.getQuestionId(), List.of()),
+                        result.isCorrect(),
+                        result.getTimeSpentSeconds()))
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -229,28 +391,4 @@ public class MockExamServiceImpl implements MockExamService {
         Integer highestScore = mockExamAttemptRepository.findHighestScoreByUserAndMockExam(user, mockExam);
         return highestScore != null ? highestScore : 0;
     }
-
-    // Helper method to calculate correct answers
-    private int calculateCorrectAnswers(Set<Question> questions, Map<Long, List<Long>> userAnswers) {
-        int correctCount = 0;
-
-        for (Question question : questions) {
-            Long questionId = question.getId();
-            List<Long> selectedAnswerIds = userAnswers.getOrDefault(questionId, Collections.emptyList());
-
-            // Get the correct answer IDs for this question
-            List<Long> correctAnswerIds = question.getAnswers().stream()
-                    .filter(Answer::isCorrect)
-                    .map(Answer::getId)
-                    .toList();
-
-            // Check if the selected answers match the correct answers exactly
-            if (selectedAnswerIds.size() == correctAnswerIds.size() &&
-                    new HashSet<>(selectedAnswerIds).containsAll(correctAnswerIds)) {
-                correctCount++;
-            }
-        }
-
-        return correctCount;
-    }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.nihongo.learningplatform.entity.Course;
 import com.nihongo.learningplatform.entity.Module;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.ModuleRepository;
+import com.nihongo.learningplatform.service.ContentSearchService;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.LessonService;
 import com.nihongo.learningplatform.service.ModuleService;
@@ -23,14 +24,17 @@ public class ModuleServiceImpl implements ModuleService {
     private final ModuleRepository moduleRepository;
     private final CourseService courseService;
     private final LessonService lessonService;
+    private final ContentSearchService contentSearchService;
 
     @Autowired
     public ModuleServiceImpl(ModuleRepository moduleRepository,
                              CourseService courseService,
-                             @Lazy LessonService lessonService) {
+                             @Lazy LessonService lessonService,
+                             ContentSearchService contentSearchService) {
         this.moduleRepository = moduleRepository;
         this.courseService = courseService;
         this.lessonService = lessonService;
+        this.contentSearchService = contentSearchService;
     }
 
     @Override
@@ -94,6 +98,7 @@ public class ModuleServiceImpl implements ModuleService {
         if (!moduleRepository.existsById(id)) {
             throw new ResourceNotFoundException("Module not found with id: " + id);
         }
+        contentSearchService.removeModuleContent(id);
         moduleRepository.deleteById(id);
     }
 
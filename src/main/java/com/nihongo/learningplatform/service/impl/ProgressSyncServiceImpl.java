@@ -0,0 +1,290 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.dto.ProgressSyncItemDto;
+import com.nihongo.learningplatform.dto.ProgressSyncItemResultDto;
+import com.nihongo.learningplatform.dto.ProgressSyncResponseDto;
+import com.nihongo.learningplatform.entity.ProgressSyncItemType;
+import com.nihongo.learningplatform.entity.ProgressSyncStatus;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.grading.AnswerKey;
+import com.nihongo.learningplatform.repository.ExerciseRepository;
+import com.nihongo.learningplatform.repository.LessonRepository;
+import com.nihongo.learningplatform.repository.ProgressSyncEventRepository;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.EnrollmentProgressService;
+import com.nihongo.learningplatform.service.EnrollmentService;
+import com.nihongo.learningplatform.service.EntitlementService;
+import com.nihongo.learningplatform.service.LearningHistoryService;
+import com.nihongo.learningplatform.service.ProgressSyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Applies progress recorded offline by the mobile app in one transaction: items are checked against the
+// user's entitlements once, claimed by client event id so replays are skipped, and written as JDBC batches.
+// Exercises carry the selected answers and are graded here, like online submissions; a score from the client
+// is never trusted. Enrollment counters are recounted once per affected course instead of per item.
+@Service
+public class ProgressSyncServiceImpl implements ProgressSyncService {
+
+    private static final int MAX_CLIENT_EVENT_ID_LENGTH = 100;
+
+    // Affects 0 rows when the event id was already synced (or appears twice in the same batch)
+    private static final String CLAIM_SQL =
+            "INSERT INTO progress_sync_events (user_id, client_event_id, item_type, target_id, client_timestamp, received_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (user_id, client_event_id) DO NOTHING";
+
+    // Same semantics as the upserts in UserProgressRepository
+    private static final String LESSON_UPSERT_SQL =
+            "INSERT INTO user_progress (user_id, lesson_id, completed) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id, lesson_id) DO UPDATE SET completed = EXCLUDED.completed";
+
+    private static final String EXERCISE_UPSERT_SQL =
+            "INSERT INTO user_progress (user_id, exercise_id, completed, score) VALUES (?, ?, true, ?) " +
+            "ON CONFLICT (user_id, exercise_id) DO UPDATE SET completed = true, " +
+            "score = GREATEST(user_progress.score, EXCLUDED.score)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LessonRepository lessonRepository;
+    private final ExerciseRepository exerciseRepository;
+    private final ProgressSyncEventRepository progressSyncEventRepository;
+    private final EntitlementService entitlementService;
+    private final EnrollmentProgressService enrollmentProgressService;
+    private final EnrollmentService enrollmentService;
+    private final AnswerKeyService answerKeyService;
+    private final LearningHistoryService learningHistoryService;
+    private final int maxItems;
+    private final int batchSize;
+    private final int retentionDays;
+
+    @Autowired
+    public ProgressSyncServiceImpl(JdbcTemplate jdbcTemplate,
+                                   LessonRepository lessonRepository,
+                                   ExerciseRepository exerciseRepository,
+                                   ProgressSyncEventRepository progressSyncEventRepository,
+                                   EntitlementService entitlementService,
+                                   EnrollmentProgressService enrollmentProgressService,
+                                   EnrollmentService enrollmentService,
+                                   AnswerKeyService answerKeyService,
+                                   LearningHistoryService learningHistoryService,
+                                   @Value("${app.progress-sync.max-items:500}") int maxItems,
+                                   @Value("${app.progress-sync.batch-size:100}") int batchSize,
+                                   @Value("${app.progress-sync.retention-days:30}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lessonRepository = lessonRepository;
+        this.exerciseRepository = exerciseRepository;
+        this.progressSyncEventRepository = progressSyncEventRepository;
+        this.entitlementService = entitlementService;
+        this.enrollmentProgressService = enrollmentProgressService;
+        this.enrollmentService = enrollmentService;
+        this.answerKeyService = answerKeyService;
+        this.learningHistoryService = learningHistoryService;
+        this.maxItems = maxItems;
+        this.batchSize = batchSize;
+        this.retentionDays = retentionDays;
+    }
+
+    @Override
+    @Transactional
+    public ProgressSyncResponseDto syncProgress(Long userId, boolean enrollmentRequired, List<ProgressSyncItemDto> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("At least one progress item is required");
+        }
+        if (items.size() > maxItems) {
+            throw new BadRequestException("At most " + maxItems + " progress items can be synced at once");
+        }
+
+        ProgressSyncItemResultDto[] results = new ProgressSyncItemResultDto[items.size()];
+        Set<Long> lessonIds = new HashSet<>();
+        Set<Long> exerciseIds = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            ProgressSyncItemDto item = items.get(i);
+            String problem = validate(item);
+            if (problem != null) {
+                results[i] = result(item, ProgressSyncStatus.INVALID, problem);
+            } else if (item.getType() == ProgressSyncItemType.LESSON) {
+                lessonIds.add(item.getTargetId());
+            } else {
+                exerciseIds.add(item.getTargetId());
+            }
+        }
+
+        // One lookup per target type, then entitlement checks against the cached enrollment set
+        Map<Long, Long> lessonCourses = lessonIds.isEmpty()
+                ? Map.of() : toMap(lessonRepository.findCourseIdsByIds(lessonIds));
+        Map<Long, Long> exerciseCourses = exerciseIds.isEmpty()
+                ? Map.of() : toMap(exerciseRepository.findCourseIdsByIds(exerciseIds));
+        Map<Long, Boolean> courseAccess = new HashMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ProgressSyncItemDto item = items.get(i);
+            Long courseId = (item.getType() == ProgressSyncItemType.LESSON ? lessonCourses : exerciseCourses)
+                    .get(item.getTargetId());
+            if (courseId == null) {
+                results[i] = result(item, ProgressSyncStatus.NOT_FOUND,
+                        item.getType() == ProgressSyncItemType.LESSON ? "Lesson not found" : "Exercise not found");
+            } else if (enrollmentRequired && !courseAccess.computeIfAbsent(courseId,
+                    id -> entitlementService.hasCourseAccess(userId, id))) {
+                results[i] = result(item, ProgressSyncStatus.FORBIDDEN, "You must be enrolled in this course");
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        // Replay in the order the client recorded the events, so the latest lesson state wins
+        accepted.sort(Comparator.comparing((Integer i) -> items.get(i).getClientTimestamp()).thenComparing(i -> i));
+
+        List<Integer> claimed = claim(userId, items, accepted);
+        Set<Integer> claimedSet = new HashSet<>(claimed);
+        for (Integer i : accepted) {
+            if (!claimedSet.contains(i)) {
+                results[i] = result(items.get(i), ProgressSyncStatus.DUPLICATE, "Already synced");
+            }
+        }
+
+        List<ProgressSyncItemDto> lessons = new ArrayList<>();
+        List<Integer> exercises = new ArrayList<>();
+        int[] scores = new int[items.size()];
+        Map<Long, AnswerKey> answerKeys = new HashMap<>();
+        Set<Long> affectedCourses = new HashSet<>();
+        for (Integer i : claimed) {
+            ProgressSyncItemDto item = items.get(i);
+            if (item.getType() == ProgressSyncItemType.LESSON) {
+                lessons.add(item);
+                affectedCourses.add(lessonCourses.get(item.getTargetId()));
+            } else {
+                scores[i] = answerKeys.computeIfAbsent(item.getTargetId(), answerKeyService::getExerciseAnswerKey)
+                        .score(item.getAnswers());
+                exercises.add(i);
+                affectedCourses.add(exerciseCourses.get(item.getTargetId()));
+            }
+            results[i] = result(item, ProgressSyncStatus.APPLIED, null);
+        }
+
+        jdbcTemplate.batchUpdate(LESSON_UPSERT_SQL, lessons, batchSize, (ps, item) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, item.getTargetId());
+            ps.setBoolean(3, isCompleted(item));
+        });
+        jdbcTemplate.batchUpdate(EXERCISE_UPSERT_SQL, exercises, batchSize, (ps, i) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, items.get(i).getTargetId());
+            ps.setInt(3, scores[i]);
+        });
+        enrollmentProgressService.refreshStudentCourses(userId, affectedCourses);
+
+        // Written after commit by the learning history writer, like completions made online
+        for (ProgressSyncItemDto lesson : lessons) {
+            if (isCompleted(lesson)) {
+                learningHistoryService.recordLessonCompleted(userId, lesson.getTargetId());
+            }
+        }
+        for (Integer i : exercises) {
+            learningHistoryService.recordExerciseCompleted(userId, items.get(i).getTargetId(), scores[i]);
+        }
+
+        int duplicates = accepted.size() - claimed.size();
+        return new ProgressSyncResponseDto(
+                Arrays.asList(results),
+                claimed.size(),
+                duplicates,
+                items.size() - accepted.size(),
+                enrollmentService.getEnrollmentsByStudent(userId)
+        );
+    }
+
+    @Override
+    @Transactional
+    public int deleteExpiredSyncEvents() {
+        return progressSyncEventRepository.deleteReceivedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    // Returns the indexes whose event id was not synced before, in the order given
+    private List<Integer> claim(Long userId, List<ProgressSyncItemDto> items, List<Integer> indexes) {
+        Timestamp receivedAt = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(CLAIM_SQL, indexes, batchSize, (ps, i) -> {
+            ProgressSyncItemDto item = items.get(i);
+            ps.setLong(1, userId);
+            ps.setString(2, item.getClientEventId());
+            ps.setString(3, item.getType().name());
+            ps.setObject(4, item.getTargetId(), Types.BIGINT);
+            ps.setTimestamp(5, Timestamp.valueOf(item.getClientTimestamp()));
+            ps.setTimestamp(6, receivedAt);
+        });
+
+        // Relies on per-statement update counts, so reWriteBatchedInserts must stay off for this datasource
+        List<Integer> claimed = new ArrayList<>();
+        int position = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) {
+                    claimed.add(indexes.get(position));
+                }
+                position++;
+            }
+        }
+        return claimed;
+    }
+
+    private String validate(ProgressSyncItemDto item) {
+        if (item == null) {
+            return "Item is empty";
+        }
+        if (item.getClientEventId() == null || item.getClientEventId().isBlank()) {
+            return "Client event id is required";
+        }
+        if (item.getClientEventId().length() > MAX_CLIENT_EVENT_ID_LENGTH) {
+            return "Client event id must be at most " + MAX_CLIENT_EVENT_ID_LENGTH + " characters";
+        }
+        if (item.getType() == null) {
+            return "Type is required";
+        }
+        if (item.getTargetId() == null) {
+            return "Target id is required";
+        }
+        if (item.getClientTimestamp() == null) {
+            return "Client timestamp is required";
+        }
+        if (item.getType() == ProgressSyncItemType.EXERCISE && item.getAnswers() == null) {
+            return "Exercise answers are required";
+        }
+        return null;
+    }
+
+    private boolean isCompleted(ProgressSyncItemDto lesson) {
+        return lesson.getCompleted() == null || lesson.getCompleted();
+    }
+
+    private ProgressSyncItemResultDto result(ProgressSyncItemDto item, ProgressSyncStatus status, String message) {
+        if (item == null) {
+            return new ProgressSyncItemResultDto(null, null, null, status, message);
+        }
+        return new ProgressSyncItemResultDto(item.getClientEventId(), item.getType(), item.getTargetId(), status, message);
+    }
+
+    private Map<Long, Long> toMap(Collection<Object[]> rows) {
+        Map<Long, Long> map = new HashMap<>();
+        for (Object[] row : rows) {
+            map.put((Long) row[0], (Long) row[1]);
+        }
+        return map;
+    }
+}
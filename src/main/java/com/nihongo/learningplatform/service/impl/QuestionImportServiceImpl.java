@@ -0,0 +1,549 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nihongo.learningplatform.dto.AnswerDto;
+import com.nihongo.learningplatform.dto.QuestionImportErrorDto;
+import com.nihongo.learningplatform.dto.QuestionImportResultDto;
+import com.nihongo.learningplatform.dto.QuestionImportRowDto;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.entity.QuestionType;
+import com.nihongo.learningplatform.entity.Solution;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.importer.CsvReader;
+import com.nihongo.learningplatform.repository.ExamRepository;
+import com.nihongo.learningplatform.repository.ExerciseRepository;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import com.nihongo.learningplatform.service.ExamAssemblyService;
+import com.nihongo.learningplatform.service.QuestionImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Bulk question import for exercises and exams. The body is read as a stream, CSV record by record or a JSON
+// array element by element, and every row is validated on its own: rejected rows are reported and skipped,
+// accepted rows are collected into chunks. Each chunk is written in its own transaction with one set-based
+// INSERT per table over unnested arrays, using ids reserved from the sequences up front, so memory and round
+// trips per row stay flat however many questions the file holds.
+@Service
+public class QuestionImportServiceImpl implements QuestionImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuestionImportServiceImpl.class);
+    private static final int MAX_ANSWERS = 20;
+    private static final int MAX_AUDIO_URL_LENGTH = 255;
+    private static final int MAX_CSV_FIELD_LENGTH = 65536;
+    private static final Pattern CSV_LIST_SEPARATOR = Pattern.compile("\\|");
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_QUESTIONS_SQL =
+            "INSERT INTO questions (id, content, type, audio_url, exercise_id, exam_id, created_at, updated_at) " +
+            "SELECT t.id, t.content, t.type, t.audio_url, ?, ?, ?, ? " +
+            "FROM unnest(CAST(? AS bigint[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS text[])) " +
+            "AS t(id, content, type, audio_url)";
+
+    private static final String INSERT_ANSWERS_SQL =
+            "INSERT INTO answers (content, is_correct, question_id) " +
+            "SELECT t.content, t.is_correct, t.question_id " +
+            "FROM unnest(CAST(? AS text[]), CAST(? AS boolean[]), CAST(? AS bigint[])) " +
+            "AS t(content, is_correct, question_id)";
+
+    private static final String INSERT_SOLUTIONS_SQL =
+            "INSERT INTO solutions (id, content, explanation, question_id, visible, available_after_submission, " +
+            "created_at, updated_at) " +
+            "SELECT t.id, t.content, t.explanation, t.question_id, true, false, ?, ? " +
+            "FROM unnest(CAST(? AS bigint[]), CAST(? AS text[]), CAST(? AS text[]), CAST(? AS bigint[])) " +
+            "AS t(id, content, explanation, question_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExerciseRepository exerciseRepository;
+    private final ExamRepository examRepository;
+    private final AnswerKeyService answerKeyService;
+    private final ContentSearchService contentSearchService;
+    private final ExamAssemblyService examAssemblyService;
+    private final int batchSize;
+    private final int maxRows;
+    private final int maxErrors;
+
+    @Autowired
+    public QuestionImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     ExerciseRepository exerciseRepository,
+                                     ExamRepository examRepository,
+                                     AnswerKeyService answerKeyService,
+                                     ContentSearchService contentSearchService,
+                                     ExamAssemblyService examAssemblyService,
+                                     @Value("${app.question-import.batch-size:500}") int batchSize,
+                                     @Value("${app.question-import.max-rows:100000}") int maxRows,
+                                     @Value("${app.question-import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.exerciseRepository = exerciseRepository;
+        this.examRepository = examRepository;
+        this.answerKeyService = answerKeyService;
+        this.contentSearchService = contentSearchService;
+        this.examAssemblyService = examAssemblyService;
+        this.batchSize = batchSize;
+        this.maxRows = maxRows;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public QuestionImportResultDto importExerciseQuestions(Long exerciseId, String contentType, InputStream input) {
+        if (!exerciseRepository.existsById(exerciseId)) {
+            throw new ResourceNotFoundException("Exercise not found with id: " + exerciseId);
+        }
+        QuestionImportResultDto result = importQuestions(new Target(exerciseId, null), contentType, input);
+        logger.info("Imported {} questions into exercise {}, {} rows rejected",
+                result.getImportedQuestions(), exerciseId, result.getRejectedRows());
+        return result;
+    }
+
+    @Override
+    public QuestionImportResultDto importExamQuestions(Long examId, String contentType, InputStream input) {
+        if (!examRepository.existsById(examId)) {
+            throw new ResourceNotFoundException("Exam not found with id: " + examId);
+        }
+        QuestionImportResultDto result = importQuestions(new Target(null, examId), contentType, input);
+        logger.info("Imported {} questions into exam {}, {} rows rejected",
+                result.getImportedQuestions(), examId, result.getRejectedRows());
+        return result;
+    }
+
+    private QuestionImportResultDto importQuestions(Target target, String contentType, InputStream input) {
+        ImportRun run = new ImportRun(target);
+        int row = 0;
+        try (RowSource source = openSource(contentType, input)) {
+            while (true) {
+                QuestionImportRowDto parsed = null;
+                String rejection = null;
+                try {
+                    parsed = source.next();
+                } catch (RejectedRowException e) {
+                    rejection = e.getMessage();
+                }
+                if (parsed == null && rejection == null) {
+                    run.result.setCompleted(true);
+                    break;
+                }
+                if (row == maxRows) {
+                    run.stop(row + 1, "An import can hold at most " + maxRows + " rows, import stopped");
+                    break;
+                }
+                row++;
+                if (rejection == null) {
+                    try {
+                        run.chunk.add(validate(row, parsed));
+                    } catch (RejectedRowException e) {
+                        rejection = e.getMessage();
+                    }
+                }
+                if (rejection != null) {
+                    run.reject(row, rejection);
+                } else if (run.chunk.size() >= batchSize) {
+                    flush(run);
+                }
+            }
+        } catch (IOException e) {
+            // Rows before the malformed part are kept; the report says where the import stopped
+            String message = e instanceof JsonProcessingException jsonException
+                    ? jsonException.getOriginalMessage() : e.getMessage();
+            run.stop(row + 1, "Malformed input, import stopped: " + message);
+        }
+        flush(run);
+        run.result.setRows(row);
+        return run.result;
+    }
+
+    private RowSource openSource(String contentType, InputStream input) {
+        String format = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        try {
+            if (format.contains("csv")) {
+                return csvSource(input, charset(contentType));
+            }
+            if (format.contains("json")) {
+                return jsonSource(input);
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Could not read the import: " + e.getMessage());
+        }
+        throw new BadRequestException("Send the questions as text/csv or application/json");
+    }
+
+    // The charset parameter of the Content-Type, UTF-8 when there is none
+    private static Charset charset(String contentType) {
+        try {
+            Charset charset = MediaType.parseMediaType(contentType).getCharset();
+            return charset != null ? charset : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported Content-Type: " + contentType);
+        }
+    }
+
+    // Header row names the columns: content, type, audio_url, answers, correct, solution, explanation.
+    // answers holds the options separated by '|', correct the 1-based positions of the right ones, e.g. "1|3".
+    // Bytes that are not valid in the charset stop the import instead of turning into replacement characters.
+    private RowSource csvSource(InputStream input, Charset charset) throws IOException {
+        CsvReader reader = new CsvReader(CsvReader.strictReader(input, charset), MAX_CSV_FIELD_LENGTH);
+        List<String> header = nextRecord(reader, charset);
+        if (header == null) {
+            throw new BadRequestException("The CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("content") || !columns.containsKey("type")) {
+            throw new BadRequestException("The CSV header needs at least the content and type columns");
+        }
+        int columnCount = header.size();
+
+        return new RowSource() {
+            @Override
+            public QuestionImportRowDto next() throws IOException, RejectedRowException {
+                List<String> fields = nextRecord(reader, charset);
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() != columnCount) {
+                    throw new RejectedRowException("Expected " + columnCount + " columns but found " + fields.size());
+                }
+                QuestionImportRowDto row = new QuestionImportRowDto();
+                row.setContent(column(fields, columns, "content"));
+                row.setType(column(fields, columns, "type"));
+                row.setAudioUrl(column(fields, columns, "audio_url"));
+                row.setAnswers(csvAnswers(column(fields, columns, "answers"), column(fields, columns, "correct")));
+                row.setSolution(column(fields, columns, "solution"));
+                row.setExplanation(column(fields, columns, "explanation"));
+                return row;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    private static List<String> nextRecord(CsvReader reader, Charset charset) throws IOException {
+        try {
+            return reader.next();
+        } catch (CharacterCodingException e) {
+            throw new IOException("The file is not valid " + charset.name() + " text (line " + reader.getLine() + ")", e);
+        }
+    }
+
+    // A JSON array of QuestionImportRowDto objects; only the current element is held in memory
+    private RowSource jsonSource(InputStream input) throws IOException {
+        JsonParser parser = objectMapper.createParser(input);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new BadRequestException("Expected a JSON array of questions");
+        }
+
+        return new RowSource() {
+            @Override
+            public QuestionImportRowDto next() throws IOException, RejectedRowException {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.END_ARRAY) {
+                    return null;
+                }
+                if (token == null) {
+                    throw new IOException("Unexpected end of input inside the question array");
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    throw new RejectedRowException("Expected a question object");
+                }
+                // The element is read whole first, so a field of the wrong shape only rejects this row
+                JsonNode element = parser.readValueAsTree();
+                try {
+                    return objectMapper.treeToValue(element, QuestionImportRowDto.class);
+                } catch (JsonProcessingException e) {
+                    throw new RejectedRowException(e.getOriginalMessage());
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                parser.close();
+            }
+        };
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<AnswerDto> csvAnswers(String answers, String correct) throws RejectedRowException {
+        List<AnswerDto> parsed = new ArrayList<>();
+        if (answers != null) {
+            for (String option : CSV_LIST_SEPARATOR.split(answers, -1)) {
+                AnswerDto answer = new AnswerDto();
+                answer.setContent(option.trim());
+                parsed.add(answer);
+            }
+        }
+        if (correct != null) {
+            for (String position : CSV_LIST_SEPARATOR.split(correct, -1)) {
+                int index;
+                try {
+                    index = Integer.parseInt(position.trim());
+                } catch (NumberFormatException e) {
+                    throw new RejectedRowException("Correct answers must be given as positions such as 1|3");
+                }
+                if (index < 1 || index > parsed.size()) {
+                    throw new RejectedRowException("Correct answer position " + index + " is out of range");
+                }
+                parsed.get(index - 1).setCorrect(true);
+            }
+        }
+        return parsed;
+    }
+
+    private static PendingQuestion validate(int row, QuestionImportRowDto parsed) throws RejectedRowException {
+        String content = trimToNull(parsed.getContent());
+        if (content == null) {
+            throw new RejectedRowException("Content is required");
+        }
+        String typeName = trimToNull(parsed.getType());
+        if (typeName == null) {
+            throw new RejectedRowException("Type is required");
+        }
+        QuestionType type;
+        try {
+            type = QuestionType.valueOf(typeName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RejectedRowException("Unknown question type: " + typeName);
+        }
+        String audioUrl = trimToNull(parsed.getAudioUrl());
+        if (audioUrl != null && audioUrl.length() > MAX_AUDIO_URL_LENGTH) {
+            throw new RejectedRowException("Audio URL must be at most " + MAX_AUDIO_URL_LENGTH + " characters");
+        }
+
+        List<AnswerDto> answers = parsed.getAnswers() != null ? parsed.getAnswers() : List.of();
+        if (answers.size() > MAX_ANSWERS) {
+            throw new RejectedRowException("A question can have at most " + MAX_ANSWERS + " answers");
+        }
+        boolean anyCorrect = false;
+        for (AnswerDto answer : answers) {
+            if (answer == null || trimToNull(answer.getContent()) == null) {
+                throw new RejectedRowException("Answers cannot be blank");
+            }
+            anyCorrect |= answer.isCorrect();
+        }
+        // Speaking questions are scored on pronunciation and have no answer key
+        if (type != QuestionType.SPEAKING && !anyCorrect) {
+            throw new RejectedRowException("At least one answer must be marked correct");
+        }
+
+        String solution = trimToNull(parsed.getSolution());
+        String explanation = trimToNull(parsed.getExplanation());
+        if (solution == null && explanation != null) {
+            throw new RejectedRowException("An explanation needs solution content");
+        }
+        return new PendingQuestion(row, content, type, audioUrl, answers, solution, explanation);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private void flush(ImportRun run) {
+        if (run.chunk.isEmpty()) {
+            return;
+        }
+        try {
+            int[] counts = transactionTemplate.execute(status -> insertChunk(run.target, run.chunk));
+            run.result.setImportedQuestions(run.result.getImportedQuestions() + run.chunk.size());
+            run.result.setImportedAnswers(run.result.getImportedAnswers() + counts[0]);
+            run.result.setImportedSolutions(run.result.getImportedSolutions() + counts[1]);
+        } catch (DataAccessException e) {
+            logger.warn("Could not save a chunk of {} imported questions", run.chunk.size(), e);
+            String message = "Could not be saved: " + e.getMostSpecificCause().getMessage();
+            for (PendingQuestion question : run.chunk) {
+                run.reject(question.row(), message);
+            }
+        }
+        run.chunk.clear();
+    }
+
+    // Returns the number of answers and solutions written
+    private int[] insertChunk(Target target, List<PendingQuestion> chunk) {
+        int size = chunk.size();
+        Long[] questionIds = reserveIds("questions", size);
+        String[] contents = new String[size];
+        String[] types = new String[size];
+        String[] audioUrls = new String[size];
+        List<String> answerContents = new ArrayList<>();
+        List<Boolean> answerCorrect = new ArrayList<>();
+        List<Long> answerQuestionIds = new ArrayList<>();
+        List<String> solutionContents = new ArrayList<>();
+        List<String> solutionExplanations = new ArrayList<>();
+        List<Long> solutionQuestionIds = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            PendingQuestion question = chunk.get(i);
+            contents[i] = question.content();
+            types[i] = question.type().name();
+            audioUrls[i] = question.audioUrl();
+            for (AnswerDto answer : question.answers()) {
+                answerContents.add(answer.getContent());
+                answerCorrect.add(answer.isCorrect());
+                answerQuestionIds.add(questionIds[i]);
+            }
+            if (question.solution() != null) {
+                solutionContents.add(question.solution());
+                solutionExplanations.add(question.explanation());
+                solutionQuestionIds.add(questionIds[i]);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_QUESTIONS_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setObject(1, target.exerciseId(), Types.BIGINT);
+            ps.setObject(2, target.examId(), Types.BIGINT);
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+            ps.setArray(5, connection.createArrayOf("bigint", questionIds));
+            ps.setArray(6, connection.createArrayOf("text", contents));
+            ps.setArray(7, connection.createArrayOf("text", types));
+            ps.setArray(8, connection.createArrayOf("text", audioUrls));
+        });
+        if (!answerContents.isEmpty()) {
+            jdbcTemplate.update(INSERT_ANSWERS_SQL, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setArray(1, connection.createArrayOf("text", answerContents.toArray()));
+                ps.setArray(2, connection.createArrayOf("boolean", answerCorrect.toArray()));
+                ps.setArray(3, connection.createArrayOf("bigint", answerQuestionIds.toArray()));
+            });
+        }
+        Long[] solutionIds = new Long[0];
+        if (!solutionContents.isEmpty()) {
+            solutionIds = reserveIds("solutions", solutionContents.size());
+            Long[] ids = solutionIds;
+            jdbcTemplate.update(INSERT_SOLUTIONS_SQL, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setTimestamp(1, now);
+                ps.setTimestamp(2, now);
+                ps.setArray(3, connection.createArrayOf("bigint", ids));
+                ps.setArray(4, connection.createArrayOf("text", solutionContents.toArray()));
+                ps.setArray(5, connection.createArrayOf("text", solutionExplanations.toArray()));
+                ps.setArray(6, connection.createArrayOf("bigint", solutionQuestionIds.toArray()));
+            });
+        }
+
+        // The search index and the caches only pick the chunk up once it has committed
+        for (int i = 0; i < size; i++) {
+            Question question = new Question();
+            question.setId(questionIds[i]);
+            question.setContent(contents[i]);
+            contentSearchService.indexQuestion(question);
+        }
+        for (int i = 0; i < solutionIds.length; i++) {
+            Solution solution = new Solution();
+            solution.setId(solutionIds[i]);
+            solution.setContent(solutionContents.get(i));
+            solution.setExplanation(solutionExplanations.get(i));
+            contentSearchService.indexSolution(solution);
+        }
+        if (target.exerciseId() != null) {
+            answerKeyService.invalidateExercise(target.exerciseId());
+        } else {
+            answerKeyService.invalidateExam(target.examId());
+        }
+        examAssemblyService.invalidatePools();
+        return new int[]{answerContents.size(), solutionContents.size()};
+    }
+
+    private Long[] reserveIds(String table, int count) {
+        return jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, table, count).toArray(new Long[0]);
+    }
+
+    private interface RowSource extends Closeable {
+        // Null at the end of the input; IOException when the input cannot be read any further
+        QuestionImportRowDto next() throws IOException, RejectedRowException;
+    }
+
+    private static final class RejectedRowException extends Exception {
+        RejectedRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private record Target(Long exerciseId, Long examId) {
+    }
+
+    private record PendingQuestion(int row, String content, QuestionType type, String audioUrl,
+                                   List<AnswerDto> answers, String solution, String explanation) {
+    }
+
+    private final class ImportRun {
+        private final Target target;
+        private final List<PendingQuestion> chunk = new ArrayList<>();
+        private final QuestionImportResultDto result = new QuestionImportResultDto();
+
+        private ImportRun(Target target) {
+            this.target = target;
+            result.setErrors(new ArrayList<>());
+        }
+
+        // Every rejection is counted, but only the first maxErrors are listed
+        private void reject(int row, String message) {
+            result.setRejectedRows(result.getRejectedRows() + 1);
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(new QuestionImportErrorDto(row, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+
+        // The reason the import ended early is always listed, even past maxErrors
+        private void stop(int row, String message) {
+            result.getErrors().add(new QuestionImportErrorDto(row, message));
+        }
+    }
+}
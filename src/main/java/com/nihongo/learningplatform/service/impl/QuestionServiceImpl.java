@@ -5,7 +5,11 @@ import com.nihongo.learningplatform.dto.QuestionDto;
 import com.nihongo.learningplatform.entity.*;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.QuestionRepository;
+import com.nihongo.learningplatform.search.SearchableContentType;
+import com.nihongo.learningplatform.service.AnswerKeyService;
 import com.nihongo.learningplatform.service.AnswerService;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import com.nihongo.learningplatform.service.ExamAssemblyService;
 import com.nihongo.learningplatform.service.ExamService;
 import com.nihongo.learningplatform.service.ExerciseService;
 import com.nihongo.learningplatform.service.QuestionService;
@@ -16,6 +20,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,16 +30,25 @@ public class QuestionServiceImpl implements QuestionService {
     private final ExerciseService exerciseService;
     private final ExamService examService;
     private final AnswerService answerService;
+    private final ContentSearchService contentSearchService;
+    private final AnswerKeyService answerKeyService;
+    private final ExamAssemblyService examAssemblyService;
 
     @Autowired
     public QuestionServiceImpl(QuestionRepository questionRepository,
                                @Lazy ExerciseService exerciseService,
                                @Lazy ExamService examService,
-                               @Lazy AnswerService answerService) {
+                               @Lazy AnswerService answerService,
+                               ContentSearchService contentSearchService,
+                               AnswerKeyService answerKeyService,
+                               ExamAssemblyService examAssemblyService) {
         this.questionRepository = questionRepository;
         this.exerciseService = exerciseService;
         this.examService = examService;
         this.answerService = answerService;
+        this.contentSearchService = contentSearchService;
+        this.answerKeyService = answerKeyService;
+        this.examAssemblyService = examAssemblyService;
     }
 
     @Override
@@ -55,6 +69,9 @@ public class QuestionServiceImpl implements QuestionService {
         }
 
         Question savedQuestion = questionRepository.save(question);
+        contentSearchService.indexQuestion(savedQuestion);
+        answerKeyService.invalidateQuestion(savedQuestion);
+        examAssemblyService.invalidatePools();
 
         // Create answers for the question if any
         if (questionDto.getAnswers() != null && !questionDto.getAnswers().isEmpty()) {
@@ -81,6 +98,9 @@ public class QuestionServiceImpl implements QuestionService {
         question.setExercise(exercise);
 
         Question savedQuestion = questionRepository.save(question);
+        contentSearchService.indexQuestion(savedQuestion);
+        answerKeyService.invalidateQuestion(savedQuestion);
+        examAssemblyService.invalidatePools();
 
         // Create answers for the question if any
         if (questionDto.getAnswers() != null && !questionDto.getAnswers().isEmpty()) {
@@ -105,6 +125,9 @@ public class QuestionServiceImpl implements QuestionService {
         question.setExam(exam);
 
         Question savedQuestion = questionRepository.save(question);
+        contentSearchService.indexQuestion(savedQuestion);
+        answerKeyService.invalidateQuestion(savedQuestion);
+        examAssemblyService.invalidatePools();
 
         // Create answers for the question if any
         if (questionDto.getAnswers() != null && !questionDto.getAnswers().isEmpty()) {
@@ -132,35 +155,19 @@ public class QuestionServiceImpl implements QuestionService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<QuestionDto> getQuestionsByExercise(Long exerciseId) {
         Exercise exercise = exerciseService.getExerciseEntityById(exerciseId);
-        List<Question> questions = questionRepository.findByExercise(exercise);
-
-        return questions.stream()
-                .map(question -> {
-                    QuestionDto dto = mapToDto(question);
-                    // Load answers for each question
-                    List<AnswerDto> answers = answerService.getAnswersByQuestion(question.getId());
-                    dto.setAnswers(answers);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        List<Question> questions = questionRepository.findByExerciseOrderByIdAsc(exercise);
+        return mapToDtosWithAnswers(questions);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<QuestionDto> getQuestionsByExam(Long examId) {
         Exam exam = examService.getExamEntityById(examId);
-        List<Question> questions = questionRepository.findByExam(exam);
-
-        return questions.stream()
-                .map(question -> {
-                    QuestionDto dto = mapToDto(question);
-                    // Load answers for each question
-                    List<AnswerDto> answers = answerService.getAnswersByQuestion(question.getId());
-                    dto.setAnswers(answers);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        List<Question> questions = questionRepository.findByExamOrderByIdAsc(exam);
+        return mapToDtosWithAnswers(questions);
     }
 
     @Override
@@ -183,6 +190,9 @@ public class QuestionServiceImpl implements QuestionService {
         question.setAudioUrl(questionDto.getAudioUrl());
 
         Question updatedQuestion = questionRepository.save(question);
+        contentSearchService.indexQuestion(updatedQuestion);
+        answerKeyService.invalidateQuestion(updatedQuestion);
+        examAssemblyService.invalidatePools();
 
         // Update answers if provided
         if (questionDto.getAnswers() != null && !questionDto.getAnswers().isEmpty()) {
@@ -202,10 +212,12 @@ public class QuestionServiceImpl implements QuestionService {
     @Override
     @Transactional
     public void deleteQuestion(Long id) {
-        if (!questionRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Question not found with id: " + id);
-        }
-        questionRepository.deleteById(id);
+        Question question = questionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + id));
+        questionRepository.delete(question);
+        contentSearchService.removeContent(SearchableContentType.QUESTION, id);
+        answerKeyService.invalidateQuestion(question);
+        examAssemblyService.invalidatePools();
     }
 
     @Override
@@ -232,4 +244,17 @@ public class QuestionServiceImpl implements QuestionService {
 
         return questionDto;
     }
+
+    // Answers of all questions come from one query instead of one lookup per question
+    private List<QuestionDto> mapToDtosWithAnswers(List<Question> questions) {
+        Map<Long, List<AnswerDto>> answers = answerService.getAnswersByQuestionIds(
+                questions.stream().map(Question::getId).collect(Collectors.toList()));
+        return questions.stream()
+                .map(question -> {
+                    QuestionDto dto = mapToDto(question);
+                    dto.setAnswers(answers.getOrDefault(question.getId(), new ArrayList<>()));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
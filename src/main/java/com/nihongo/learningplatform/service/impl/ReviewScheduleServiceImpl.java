@@ -0,0 +1,309 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.dto.ReviewAnswerDto;
+import com.nihongo.learningplatform.dto.ReviewCardDto;
+import com.nihongo.learningplatform.dto.ReviewItemDto;
+import com.nihongo.learningplatform.dto.ReviewQueueDto;
+import com.nihongo.learningplatform.entity.QuestionType;
+import com.nihongo.learningplatform.entity.ReviewCard;
+import com.nihongo.learningplatform.entity.ReviewItemType;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.grading.AnswerKey;
+import com.nihongo.learningplatform.grading.ReviewSchedule;
+import com.nihongo.learningplatform.repository.AnswerRepository;
+import com.nihongo.learningplatform.repository.QuestionRepository;
+import com.nihongo.learningplatform.repository.ReviewCardRepository;
+import com.nihongo.learningplatform.repository.SpeechExerciseRepository;
+import com.nihongo.learningplatform.service.ReviewScheduleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Spaced-repetition review queue over questions and speech exercises. Graded exercise, exam and mock exam
+// submissions and pronunciation scores feed the same SM-2 schedule as explicit reviews, but only advance cards
+// that are new or due; meeting an item again before it is due records the grade and leaves the schedule alone,
+// so practising the same exam twice in a day does not push its questions weeks out. Each batch of grades
+// locks the user's existing cards in one query and writes all new states with one JDBC batch per item type.
+@Service
+public class ReviewScheduleServiceImpl implements ReviewScheduleService {
+
+    private static final int MAX_LIMIT = 100;
+    private static final int BATCH_SIZE = 200;
+
+    // Questions copied into assembled mock exams are reviewed as the bank question they came from
+    private static final String RESOLVE_QUESTIONS_SQL =
+            "SELECT q.id, COALESCE(s.id, q.id) FROM questions q " +
+            "LEFT JOIN questions s ON s.id = q.source_question_id " +
+            "WHERE q.id = ANY(CAST(? AS bigint[]))";
+
+    private static final String LOCK_CARDS_SQL =
+            "SELECT question_id, speech_exercise_id, ease_factor, interval_days, repetitions, lapses, due_at " +
+            "FROM review_cards WHERE user_id = ? " +
+            "AND (question_id = ANY(CAST(? AS bigint[])) OR speech_exercise_id = ANY(CAST(? AS bigint[]))) " +
+            "FOR UPDATE";
+
+    private static final String UPSERT_SET = "(user_id, %s, ease_factor, interval_days, repetitions, lapses, " +
+            "due_at, last_grade, last_reviewed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id, %s) DO UPDATE SET ease_factor = EXCLUDED.ease_factor, " +
+            "interval_days = EXCLUDED.interval_days, repetitions = EXCLUDED.repetitions, lapses = EXCLUDED.lapses, " +
+            "due_at = EXCLUDED.due_at, last_grade = EXCLUDED.last_grade, last_reviewed_at = EXCLUDED.last_reviewed_at";
+
+    private static final String QUESTION_UPSERT_SQL =
+            "INSERT INTO review_cards " + String.format(UPSERT_SET, "question_id", "question_id");
+
+    private static final String SPEECH_EXERCISE_UPSERT_SQL =
+            "INSERT INTO review_cards " + String.format(UPSERT_SET, "speech_exercise_id", "speech_exercise_id");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReviewCardRepository reviewCardRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final SpeechExerciseRepository speechExerciseRepository;
+
+    @Autowired
+    public ReviewScheduleServiceImpl(JdbcTemplate jdbcTemplate,
+                                     ReviewCardRepository reviewCardRepository,
+                                     QuestionRepository questionRepository,
+                                     AnswerRepository answerRepository,
+                                     SpeechExerciseRepository speechExerciseRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reviewCardRepository = reviewCardRepository;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.speechExerciseRepository = speechExerciseRepository;
+    }
+
+    @Override
+    @Transactional
+    public void recordQuestionResults(Long userId, AnswerKey answerKey, Map<Long, List<Long>> answers) {
+        if (answerKey.getQuestionCount() == 0) {
+            return;
+        }
+        Map<Long, Boolean> correctByQuestion = new HashMap<>();
+        Long[] questionIds = new Long[answerKey.getQuestionCount()];
+        for (int i = 0; i < answerKey.getQuestionCount(); i++) {
+            questionIds[i] = answerKey.getQuestionId(i);
+            correctByQuestion.put(questionIds[i], answerKey.isCorrect(i, answers));
+        }
+
+        // Also drops questions deleted since the key was compiled
+        Map<CardKey, Integer> grades = new LinkedHashMap<>();
+        jdbcTemplate.query(RESOLVE_QUESTIONS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", questionIds)),
+                rs -> {
+                    int grade = ReviewSchedule.gradeForCorrect(correctByQuestion.get(rs.getLong(1)));
+                    grades.merge(new CardKey(ReviewItemType.QUESTION, rs.getLong(2)), grade, Math::min);
+                });
+        applyGrades(userId, grades, true);
+    }
+
+    @Override
+    @Transactional
+    public void recordSpeechScore(Long userId, Long speechExerciseId, Float pronunciationScore) {
+        if (pronunciationScore == null) {
+            return;
+        }
+        applyGrades(userId, Map.of(new CardKey(ReviewItemType.SPEECH_EXERCISE, speechExerciseId),
+                ReviewSchedule.gradeForScore(pronunciationScore)), true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReviewQueueDto getDueReviews(Long userId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        LocalDateTime now = LocalDateTime.now();
+        List<ReviewCard> cards = reviewCardRepository.findDueCards(userId, now, size);
+        // A short batch already is the whole due range, so only a full one needs counting
+        long dueCount = cards.size() < size ? cards.size() : reviewCardRepository.countDueCards(userId, now);
+
+        Set<Long> questionIds = new HashSet<>();
+        Set<Long> speechExerciseIds = new HashSet<>();
+        for (ReviewCard card : cards) {
+            if (card.getQuestionId() != null) {
+                questionIds.add(card.getQuestionId());
+            } else {
+                speechExerciseIds.add(card.getSpeechExerciseId());
+            }
+        }
+
+        Map<Long, ReviewItemDto> questions = new HashMap<>();
+        if (!questionIds.isEmpty()) {
+            for (Object[] row : questionRepository.findReviewRowsByIdIn(questionIds)) {
+                ReviewItemDto item = questions.computeIfAbsent((Long) row[0], id -> {
+                    ReviewItemDto dto = new ReviewItemDto();
+                    dto.setItemType(ReviewItemType.QUESTION);
+                    dto.setItemId(id);
+                    dto.setContent((String) row[1]);
+                    dto.setQuestionType((QuestionType) row[2]);
+                    dto.setAudioUrl((String) row[3]);
+                    dto.setOptions(new LinkedHashMap<>());
+                    return dto;
+                });
+                if (row[4] != null) {
+                    item.getOptions().put((Long) row[4], (String) row[5]);
+                }
+            }
+        }
+        Map<Long, ReviewItemDto> speechExercises = new HashMap<>();
+        if (!speechExerciseIds.isEmpty()) {
+            for (Object[] row : speechExerciseRepository.findReviewRowsByIdIn(speechExerciseIds)) {
+                ReviewItemDto dto = new ReviewItemDto();
+                dto.setItemType(ReviewItemType.SPEECH_EXERCISE);
+                dto.setItemId((Long) row[0]);
+                dto.setTitle((String) row[1]);
+                dto.setContent((String) row[2]);
+                dto.setAudioUrl((String) row[3]);
+                speechExercises.put(dto.getItemId(), dto);
+            }
+        }
+
+        List<ReviewItemDto> items = new ArrayList<>(cards.size());
+        for (ReviewCard card : cards) {
+            ReviewItemDto item = card.getQuestionId() != null
+                    ? questions.get(card.getQuestionId())
+                    : speechExercises.get(card.getSpeechExerciseId());
+            if (item == null) {
+                continue;
+            }
+            item.setDueAt(card.getDueAt());
+            item.setIntervalDays(card.getIntervalDays());
+            item.setRepetitions(card.getRepetitions());
+            item.setLapses(card.getLapses());
+            items.add(item);
+        }
+        return new ReviewQueueDto(dueCount, items);
+    }
+
+    @Override
+    @Transactional
+    public List<ReviewCardDto> submitReviews(Long userId, List<ReviewAnswerDto> reviews) {
+        // Questions answered by selection are graded against their correct answers in one query
+        Set<Long> selectionGraded = new HashSet<>();
+        for (ReviewAnswerDto review : reviews) {
+            if (review.getGrade() != null
+                    && (review.getGrade() < ReviewSchedule.MIN_GRADE || review.getGrade() > ReviewSchedule.MAX_GRADE)) {
+                throw new BadRequestException("Grade must be between " + ReviewSchedule.MIN_GRADE + " and "
+                        + ReviewSchedule.MAX_GRADE);
+            }
+            if (review.getGrade() == null) {
+                if (review.getItemType() != ReviewItemType.QUESTION || review.getAnswerIds() == null) {
+                    throw new BadRequestException("Each review needs a grade, or the selected answers for a question");
+                }
+                selectionGraded.add(review.getItemId());
+            }
+        }
+        Map<Long, Set<Long>> correctAnswers = new HashMap<>();
+        if (!selectionGraded.isEmpty()) {
+            for (Object[] row : answerRepository.findCorrectAnswerRowsByQuestionIdIn(selectionGraded)) {
+                correctAnswers.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+            }
+        }
+
+        Map<CardKey, Integer> grades = new LinkedHashMap<>();
+        for (ReviewAnswerDto review : reviews) {
+            int grade = review.getGrade() != null
+                    ? review.getGrade()
+                    : ReviewSchedule.gradeForCorrect(new HashSet<>(review.getAnswerIds())
+                            .equals(correctAnswers.getOrDefault(review.getItemId(), Set.of())));
+            grades.put(new CardKey(review.getItemType(), review.getItemId()), grade);
+        }
+        return applyGrades(userId, grades, false);
+    }
+
+    // Grades from results start items without a card from scratch and only advance cards that are due;
+    // explicit reviews need an existing card and always advance it
+    private List<ReviewCardDto> applyGrades(Long userId, Map<CardKey, Integer> grades, boolean fromResults) {
+        if (grades.isEmpty()) {
+            return List.of();
+        }
+        List<Long> questionIds = new ArrayList<>();
+        List<Long> speechExerciseIds = new ArrayList<>();
+        grades.keySet().forEach(key -> (key.type() == ReviewItemType.QUESTION ? questionIds : speechExerciseIds).add(key.itemId()));
+
+        Map<CardKey, Card> current = new HashMap<>();
+        jdbcTemplate.query(LOCK_CARDS_SQL, ps -> {
+            ps.setLong(1, userId);
+            ps.setArray(2, ps.getConnection().createArrayOf("bigint", questionIds.toArray()));
+            ps.setArray(3, ps.getConnection().createArrayOf("bigint", speechExerciseIds.toArray()));
+        }, rs -> {
+            long questionId = rs.getLong(1);
+            CardKey key = rs.wasNull()
+                    ? new CardKey(ReviewItemType.SPEECH_EXERCISE, rs.getLong(2))
+                    : new CardKey(ReviewItemType.QUESTION, questionId);
+            current.put(key, new Card(new ReviewSchedule.State(rs.getDouble(3), rs.getInt(4), rs.getInt(5), rs.getInt(6)),
+                    rs.getTimestamp(7).toLocalDateTime()));
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ReviewCardDto> questionCards = new ArrayList<>();
+        List<ReviewCardDto> speechExerciseCards = new ArrayList<>();
+        List<ReviewCardDto> result = new ArrayList<>(grades.size());
+        for (Map.Entry<CardKey, Integer> entry : grades.entrySet()) {
+            CardKey key = entry.getKey();
+            Card existing = current.get(key);
+            if (existing == null && !fromResults) {
+                throw new BadRequestException("No review scheduled for " + key.type() + " " + key.itemId());
+            }
+            ReviewSchedule.State next;
+            LocalDateTime dueAt;
+            if (existing == null) {
+                next = ReviewSchedule.next(ReviewSchedule.NEW, entry.getValue());
+                dueAt = ReviewSchedule.dueAt(next, now);
+            } else if (fromResults && existing.dueAt().isAfter(now)) {
+                next = existing.state();
+                dueAt = existing.dueAt();
+            } else {
+                next = ReviewSchedule.next(existing.state(), entry.getValue());
+                dueAt = ReviewSchedule.dueAt(next, now);
+            }
+            ReviewCardDto card = new ReviewCardDto(key.type(), key.itemId(), entry.getValue(), next.ease(),
+                    next.intervalDays(), next.repetitions(), next.lapses(), dueAt);
+            (key.type() == ReviewItemType.QUESTION ? questionCards : speechExerciseCards).add(card);
+            result.add(card);
+        }
+
+        Timestamp reviewedAt = Timestamp.valueOf(now);
+        if (!questionCards.isEmpty()) {
+            jdbcTemplate.batchUpdate(QUESTION_UPSERT_SQL, questionCards, BATCH_SIZE,
+                    (ps, card) -> bindCard(ps, userId, card, reviewedAt));
+        }
+        if (!speechExerciseCards.isEmpty()) {
+            jdbcTemplate.batchUpdate(SPEECH_EXERCISE_UPSERT_SQL, speechExerciseCards, BATCH_SIZE,
+                    (ps, card) -> bindCard(ps, userId, card, reviewedAt));
+        }
+        return result;
+    }
+
+    private static void bindCard(PreparedStatement ps, Long userId, ReviewCardDto card, Timestamp reviewedAt)
+            throws SQLException {
+        ps.setLong(1, userId);
+        ps.setLong(2, card.getItemId());
+        ps.setDouble(3, card.getEaseFactor());
+        ps.setInt(4, card.getIntervalDays());
+        ps.setInt(5, card.getRepetitions());
+        ps.setInt(6, card.getLapses());
+        ps.setTimestamp(7, Timestamp.valueOf(card.getDueAt()));
+        ps.setObject(8, card.getGrade(), Types.INTEGER);
+        ps.setTimestamp(9, reviewedAt);
+    }
+
+    private record CardKey(ReviewItemType type, long itemId) {
+    }
+
+    private record Card(ReviewSchedule.State state, LocalDateTime dueAt) {
+    }
+}
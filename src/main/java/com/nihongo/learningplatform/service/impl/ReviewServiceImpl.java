@@ -6,6 +6,7 @@ import com.nihongo.learningplatform.entity.Review;
 import com.nihongo.learningplatform.entity.User;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.ReviewRepository;
+import com.nihongo.learningplatform.service.CourseRatingStatsService;
 import com.nihongo.learningplatform.service.CourseService;
 import com.nihongo.learningplatform.service.ReviewService;
 import com.nihongo.learningplatform.service.UserService;
@@ -24,14 +25,17 @@ public class ReviewServiceImpl implements ReviewService {
     private final ReviewRepository reviewRepository;
     private final UserService userService;
     private final CourseService courseService;
+    private final CourseRatingStatsService courseRatingStatsService;
 
     @Autowired
     public ReviewServiceImpl(ReviewRepository reviewRepository,
                              UserService userService,
-                             CourseService courseService) {
+                             CourseService courseService,
+                             CourseRatingStatsService courseRatingStatsService) {
         this.reviewRepository = reviewRepository;
         this.userService = userService;
         this.courseService = courseService;
+        this.courseRatingStatsService = courseRatingStatsService;
     }
 
     @Override
@@ -45,9 +49,11 @@ public class ReviewServiceImpl implements ReviewService {
         if (existingReview.isPresent()) {
             // Update existing review
             Review review = existingReview.get();
+            int oldRating = review.getRating();
             review.setRating(reviewDto.getRating());
             review.setComment(reviewDto.getComment());
             Review updatedReview = reviewRepository.save(review);
+            courseRatingStatsService.recordRatingChanged(course.getId(), oldRating, updatedReview.getRating());
             return mapToDto(updatedReview);
         }
 
@@ -59,6 +65,7 @@ public class ReviewServiceImpl implements ReviewService {
         review.setCourse(course);
 
         Review savedReview = reviewRepository.save(review);
+        courseRatingStatsService.recordRatingAdded(course.getId(), savedReview.getRating());
         return mapToDto(savedReview);
     }
 
@@ -105,20 +112,25 @@ public class ReviewServiceImpl implements ReviewService {
         Review review = reviewRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + id));
 
+        int oldRating = review.getRating();
         review.setRating(reviewDto.getRating());
         review.setComment(reviewDto.getComment());
 
         Review updatedReview = reviewRepository.save(review);
+        courseRatingStatsService.recordRatingChanged(review.getCourse().getId(), oldRating, updatedReview.getRating());
         return mapToDto(updatedReview);
     }
 
     @Override
     @Transactional
     public void deleteReview(Long id) {
-        if (!reviewRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Review not found with id: " + id);
-        }
-        reviewRepository.deleteById(id);
+        Review review = reviewRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + id));
+        Long courseId = review.getCourse().getId();
+        int rating = review.getRating();
+
+        reviewRepository.delete(review);
+        courseRatingStatsService.recordRatingRemoved(courseId, rating);
     }
 
     // Helper method to map Review entity to ReviewDto
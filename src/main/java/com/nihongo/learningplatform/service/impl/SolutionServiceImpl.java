@@ -4,6 +4,7 @@ import com.nihongo.learningplatform.dto.SolutionDto;
 import com.nihongo.learningplatform.entity.*;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.SolutionRepository;
+import com.nihongo.learningplatform.search.SearchableContentType;
 import com.nihongo.learningplatform.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -22,18 +23,21 @@ public class SolutionServiceImpl implements SolutionService {
     private final SpeechExerciseService speechExerciseService;
     private final UserProgressService userProgressService;
     private final EnrollmentService enrollmentService;
+    private final ContentSearchService contentSearchService;
 
     @Autowired
     public SolutionServiceImpl(SolutionRepository solutionRepository,
                                @Lazy QuestionService questionService,
                                @Lazy SpeechExerciseService speechExerciseService,
                                @Lazy UserProgressService userProgressService,
-                               @Lazy EnrollmentService enrollmentService) {
+                               @Lazy EnrollmentService enrollmentService,
+                               ContentSearchService contentSearchService) {
         this.solutionRepository = solutionRepository;
         this.questionService = questionService;
         this.speechExerciseService = speechExerciseService;
         this.userProgressService = userProgressService;
         this.enrollmentService = enrollmentService;
+        this.contentSearchService = contentSearchService;
     }
 
     @Override
@@ -57,6 +61,7 @@ public class SolutionServiceImpl implements SolutionService {
         }
 
         Solution savedSolution = solutionRepository.save(solution);
+        contentSearchService.indexSolution(savedSolution);
         return mapToDto(savedSolution);
     }
 
@@ -132,6 +137,7 @@ public class SolutionServiceImpl implements SolutionService {
         }
 
         Solution updatedSolution = solutionRepository.save(solution);
+        contentSearchService.indexSolution(updatedSolution);
         return mapToDto(updatedSolution);
     }
 
@@ -143,6 +149,7 @@ public class SolutionServiceImpl implements SolutionService {
 
         solution.setVisible(true);
         Solution updatedSolution = solutionRepository.save(solution);
+        contentSearchService.indexSolution(updatedSolution);
         return mapToDto(updatedSolution);
     }
 
@@ -154,6 +161,7 @@ public class SolutionServiceImpl implements SolutionService {
 
         solution.setVisible(false);
         Solution updatedSolution = solutionRepository.save(solution);
+        contentSearchService.indexSolution(updatedSolution);
         return mapToDto(updatedSolution);
     }
 
@@ -175,6 +183,7 @@ public class SolutionServiceImpl implements SolutionService {
             throw new ResourceNotFoundException("Solution not found with id: " + id);
         }
         solutionRepository.deleteById(id);
+        contentSearchService.removeContent(SearchableContentType.SOLUTION, id);
     }
 
     @Override
@@ -193,7 +202,7 @@ public class SolutionServiceImpl implements SolutionService {
         }
 
         // Check if user is enrolled in the course
-        boolean isEnrolled = enrollmentService.isStudentEnrolledInCourse(userId, courseId);
+        boolean isEnrolled = enrollmentService.hasCourseAccess(userId, courseId);
         if (!isEnrolled) {
             return false;
         }
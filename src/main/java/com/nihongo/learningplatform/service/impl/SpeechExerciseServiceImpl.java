@@ -5,6 +5,8 @@ import com.nihongo.learningplatform.entity.Lesson;
 import com.nihongo.learningplatform.entity.SpeechExercise;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.SpeechExerciseRepository;
+import com.nihongo.learningplatform.search.SearchableContentType;
+import com.nihongo.learningplatform.service.ContentSearchService;
 import com.nihongo.learningplatform.service.LessonService;
 import com.nihongo.learningplatform.service.SpeechExerciseService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,12 +21,15 @@ public class SpeechExerciseServiceImpl implements SpeechExerciseService {
 
     private final SpeechExerciseRepository speechExerciseRepository;
     private final LessonService lessonService;
+    private final ContentSearchService contentSearchService;
 
     @Autowired
     public SpeechExerciseServiceImpl(SpeechExerciseRepository speechExerciseRepository,
-                                     LessonService lessonService) {
+                                     LessonService lessonService,
+                                     ContentSearchService contentSearchService) {
         this.speechExerciseRepository = speechExerciseRepository;
         this.lessonService = lessonService;
+        this.contentSearchService = contentSearchService;
     }
 
     @Override
@@ -39,6 +44,7 @@ public class SpeechExerciseServiceImpl implements SpeechExerciseService {
         speechExercise.setLesson(lesson);
 
         SpeechExercise savedSpeechExercise = speechExerciseRepository.save(speechExercise);
+        contentSearchService.indexSpeechExercise(savedSpeechExercise);
         return mapToDto(savedSpeechExercise);
     }
 
@@ -69,6 +75,7 @@ public class SpeechExerciseServiceImpl implements SpeechExerciseService {
         speechExercise.setAudioUrl(speechExerciseDto.getAudioUrl());
 
         SpeechExercise updatedSpeechExercise = speechExerciseRepository.save(speechExercise);
+        contentSearchService.indexSpeechExercise(updatedSpeechExercise);
         return mapToDto(updatedSpeechExercise);
     }
 
@@ -79,6 +86,7 @@ public class SpeechExerciseServiceImpl implements SpeechExerciseService {
             throw new ResourceNotFoundException("Speech exercise not found with id: " + id);
         }
         speechExerciseRepository.deleteById(id);
+        contentSearchService.removeContent(SearchableContentType.SPEECH_EXERCISE, id);
     }
 
     @Override
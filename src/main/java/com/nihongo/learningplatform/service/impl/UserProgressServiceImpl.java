@@ -4,6 +4,7 @@ import com.nihongo.learningplatform.dto.UserProgressDto;
 import com.nihongo.learningplatform.entity.*;
 import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.repository.UserProgressRepository;
+import com.nihongo.learningplatform.repository.UserProgressRepository.UserProgressUpsertRow;
 import com.nihongo.learningplatform.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -11,7 +12,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +23,8 @@ public class UserProgressServiceImpl implements UserProgressService {
     private final ExerciseService exerciseService;
     private final ExamService examService;
     private final SpeechExerciseService speechExerciseService;
+    private final EnrollmentProgressService enrollmentProgressService;
+    private final ReviewScheduleService reviewScheduleService;
 
     @Autowired
     public UserProgressServiceImpl(UserProgressRepository userProgressRepository,
@@ -30,113 +32,66 @@ public class UserProgressServiceImpl implements UserProgressService {
                                    LessonService lessonService,
                                    ExerciseService exerciseService,
                                    @Lazy ExamService examService,
-                                   SpeechExerciseService speechExerciseService) {
+                                   SpeechExerciseService speechExerciseService,
+                                   EnrollmentProgressService enrollmentProgressService,
+                                   ReviewScheduleService reviewScheduleService) {
         this.userProgressRepository = userProgressRepository;
         this.userService = userService;
         this.lessonService = lessonService;
         this.exerciseService = exerciseService;
         this.examService = examService;
         this.speechExerciseService = speechExerciseService;
+        this.enrollmentProgressService = enrollmentProgressService;
+        this.reviewScheduleService = reviewScheduleService;
     }
 
+    // Each write is a single INSERT ... ON CONFLICT, so concurrent submissions cannot create duplicate rows
+    // and the user and target are never loaded. A target that does not exist makes the upsert return no row.
     @Override
     @Transactional
     public UserProgressDto createOrUpdateLessonProgress(Long userId, Long lessonId, boolean completed) {
-        User user = userService.getUserEntityById(userId);
-        Lesson lesson = lessonService.getLessonEntityById(lessonId);
-
-        Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndLesson(user, lesson);
-
-        UserProgress userProgress;
-        if (existingProgress.isPresent()) {
-            userProgress = existingProgress.get();
-            userProgress.setCompleted(completed);
-        } else {
-            userProgress = new UserProgress();
-            userProgress.setUser(user);
-            userProgress.setLesson(lesson);
-            userProgress.setCompleted(completed);
-        }
-
-        UserProgress savedProgress = userProgressRepository.save(userProgress);
-        return mapToDto(savedProgress);
+        UserProgressUpsertRow row = found(userProgressRepository.upsertLessonProgress(userId, lessonId, completed),
+                "Lesson", lessonId);
+        enrollmentProgressService.recordLessonCompletion(userId, lessonId, wasCompleted(row, completed), completed);
+        return mapToDto(row);
     }
 
     @Override
     @Transactional
     public UserProgressDto createOrUpdateExerciseProgress(Long userId, Long exerciseId, Integer score) {
-        User user = userService.getUserEntityById(userId);
-        Exercise exercise = exerciseService.getExerciseEntityById(exerciseId);
-
-        Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndExercise(user, exercise);
-
-        UserProgress userProgress;
-        if (existingProgress.isPresent()) {
-            userProgress = existingProgress.get();
-            userProgress.setScore(score);
-            userProgress.setCompleted(true);
-        } else {
-            userProgress = new UserProgress();
-            userProgress.setUser(user);
-            userProgress.setExercise(exercise);
-            userProgress.setScore(score);
-            userProgress.setCompleted(true);
-        }
-
-        UserProgress savedProgress = userProgressRepository.save(userProgress);
-        return mapToDto(savedProgress);
+        UserProgressUpsertRow row = found(userProgressRepository.upsertExerciseProgress(userId, exerciseId, score),
+                "Exercise", exerciseId);
+        enrollmentProgressService.recordExerciseCompletion(userId, exerciseId, wasCompleted(row, true), true);
+        return mapToDto(row);
     }
 
     @Override
     @Transactional
     public UserProgressDto createOrUpdateExamProgress(Long userId, Long examId, Integer score) {
-        User user = userService.getUserEntityById(userId);
-        Exam exam = examService.getExamEntityById(examId);
-
-        Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndExam(user, exam);
-
-        UserProgress userProgress;
-        if (existingProgress.isPresent()) {
-            userProgress = existingProgress.get();
-            userProgress.setScore(score);
-            userProgress.setCompleted(true);
+        UserProgressUpsertRow row = found(userProgressRepository.upsertExamProgress(userId, examId, score),
+                "Exam", examId);
+        int passingScore = row.getPassingScore();
+        boolean passed = isPassing(row.getScore(), passingScore);
+        boolean wasPassed;
+        if (Boolean.TRUE.equals(row.getInserted())) {
+            wasPassed = false;
+        } else if (row.getPreviousCompleted() == null) {
+            wasPassed = passed;
         } else {
-            userProgress = new UserProgress();
-            userProgress.setUser(user);
-            userProgress.setExam(exam);
-            userProgress.setScore(score);
-            userProgress.setCompleted(true);
+            wasPassed = isPassing(row.getPreviousScore(), passingScore);
         }
-
-        UserProgress savedProgress = userProgressRepository.save(userProgress);
-        return mapToDto(savedProgress);
+        enrollmentProgressService.recordExamResult(userId, examId, wasPassed, passed);
+        return mapToDto(row);
     }
 
     @Override
     @Transactional
     public UserProgressDto createOrUpdateSpeechExerciseProgress(Long userId, Long speechExerciseId, String userAudioUrl, Float pronunciationScore) {
-        User user = userService.getUserEntityById(userId);
-        SpeechExercise speechExercise = speechExerciseService.getSpeechExerciseEntityById(speechExerciseId);
-
-        Optional<UserProgress> existingProgress = userProgressRepository.findByUserAndSpeechExercise(user, speechExercise);
-
-        UserProgress userProgress;
-        if (existingProgress.isPresent()) {
-            userProgress = existingProgress.get();
-            userProgress.setUserAudioUrl(userAudioUrl);
-            userProgress.setPronunciationScore(pronunciationScore);
-            userProgress.setCompleted(true);
-        } else {
-            userProgress = new UserProgress();
-            userProgress.setUser(user);
-            userProgress.setSpeechExercise(speechExercise);
-            userProgress.setUserAudioUrl(userAudioUrl);
-            userProgress.setPronunciationScore(pronunciationScore);
-            userProgress.setCompleted(true);
-        }
-
-        UserProgress savedProgress = userProgressRepository.save(userProgress);
-        return mapToDto(savedProgress);
+        UserProgressUpsertRow row = found(userProgressRepository.upsertSpeechExerciseProgress(
+                userId, speechExerciseId, userAudioUrl, pronunciationScore), "Speech exercise", speechExerciseId);
+        // Every attempt is a review, not only the best one kept in user_progress
+        reviewScheduleService.recordSpeechScore(userId, speechExerciseId, pronunciationScore);
+        return mapToDto(row);
     }
 
     @Override
@@ -215,10 +170,57 @@ public class UserProgressServiceImpl implements UserProgressService {
     @Override
     @Transactional
     public void deleteUserProgress(Long id) {
-        if (!userProgressRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User progress not found with id: " + id);
+        UserProgress userProgress = userProgressRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User progress not found with id: " + id));
+        userProgressRepository.delete(userProgress);
+
+        // Take the deleted row back out of the enrollment counters
+        Long userId = userProgress.getUser().getId();
+        if (userProgress.getLesson() != null) {
+            enrollmentProgressService.recordLessonCompletion(userId, userProgress.getLesson().getId(),
+                    userProgress.isCompleted(), false);
+        } else if (userProgress.getExercise() != null) {
+            enrollmentProgressService.recordExerciseCompletion(userId, userProgress.getExercise().getId(),
+                    userProgress.isCompleted(), false);
+        } else if (userProgress.getExam() != null) {
+            enrollmentProgressService.recordExamResult(userId, userProgress.getExam().getId(),
+                    isPassing(userProgress.getScore(), userProgress.getExam().getPassingScore()), false);
         }
-        userProgressRepository.deleteById(id);
+    }
+
+    private UserProgressUpsertRow found(UserProgressUpsertRow row, String target, Long targetId) {
+        if (row == null) {
+            throw new ResourceNotFoundException(target + " not found with id: " + targetId);
+        }
+        return row;
+    }
+
+    private boolean isPassing(Integer score, int passingScore) {
+        return score != null && score >= passingScore;
+    }
+
+    // A row updated by a concurrent insert is not visible in the statement snapshot, so its previous
+    // state is unknown; treat it as unchanged rather than counting the same completion twice
+    private boolean wasCompleted(UserProgressUpsertRow row, boolean completed) {
+        if (Boolean.TRUE.equals(row.getInserted())) {
+            return false;
+        }
+        return row.getPreviousCompleted() != null ? row.getPreviousCompleted() : completed;
+    }
+
+    private UserProgressDto mapToDto(UserProgressUpsertRow row) {
+        UserProgressDto progressDto = new UserProgressDto();
+        progressDto.setId(row.getId());
+        progressDto.setUserId(row.getUserId());
+        progressDto.setCompleted(Boolean.TRUE.equals(row.getCompleted()));
+        progressDto.setScore(row.getScore());
+        progressDto.setUserAudioUrl(row.getUserAudioUrl());
+        progressDto.setPronunciationScore(row.getPronunciationScore());
+        progressDto.setLessonId(row.getLessonId());
+        progressDto.setExerciseId(row.getExerciseId());
+        progressDto.setExamId(row.getExamId());
+        progressDto.setSpeechExerciseId(row.getSpeechExerciseId());
+        return progressDto;
     }
 
     // Helper method to map UserProgress entity to UserProgressDto
@@ -8,6 +8,7 @@ import com.nihongo.learningplatform.exception.ResourceNotFoundException;
 import com.nihongo.learningplatform.exception.UserAlreadyExistsException;
 import com.nihongo.learningplatform.repository.UserRepository;
 import com.nihongo.learningplatform.service.UserService;
+import com.nihongo.learningplatform.service.UserStatusService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,11 +22,15 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatusService userStatusService;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository,
+                           PasswordEncoder passwordEncoder,
+                           UserStatusService userStatusService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userStatusService = userStatusService;
     }
 
     @Override
@@ -110,6 +115,7 @@ public class UserServiceImpl implements UserService {
 
         user.setRole(role);
         User updatedUser = userRepository.save(user);
+        userStatusService.invalidateUser(id);
         return mapToDto(updatedUser);
     }
 
@@ -121,6 +127,7 @@ public class UserServiceImpl implements UserService {
 
         user.setBlocked(true);
         User updatedUser = userRepository.save(user);
+        userStatusService.invalidateUser(id);
         return mapToDto(updatedUser);
     }
 
@@ -132,6 +139,7 @@ public class UserServiceImpl implements UserService {
 
         user.setBlocked(false);
         User updatedUser = userRepository.save(user);
+        userStatusService.invalidateUser(id);
         return mapToDto(updatedUser);
     }
 
@@ -142,6 +150,7 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        userStatusService.invalidateUser(id);
     }
 
     @Override
@@ -0,0 +1,113 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.repository.UserRepository;
+import com.nihongo.learningplatform.service.UserStatusService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user (active, blocked, role) so requests authenticated from JWT claims still notice blocks, deletions
+// and role changes without loading the User row each time. Entries are dropped after the admin write commits;
+// the TTL bounds how long another instance can keep serving a stale entry.
+@Service
+public class UserStatusServiceImpl implements UserStatusService {
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Access-ordered so a full cache drops its least recently used user; get() reorders, hence the lock
+    private final Map<Long, Status> statusByUser;
+    // Bumped on every invalidation; a load that overlapped one is returned but not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public UserStatusServiceImpl(UserRepository userRepository,
+                                 @Value("${app.user-status.cache.max-size:50000}") int maxEntries,
+                                 @Value("${app.user-status.cache.ttl-ms:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.statusByUser = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Status> eldest) {
+                return size() > UserStatusServiceImpl.this.maxEntries;
+            }
+        };
+    }
+
+    // Tokens carry the role they were issued with, so a role change also retires older tokens
+    @Override
+    public boolean isAllowed(Long userId, String username, UserRole role) {
+        Status status;
+        if (userId != null) {
+            status = status(userId);
+        } else {
+            // Tokens issued before the userId claim existed only carry the username
+            status = toStatus(userRepository.findStatusByUsername(username), 0);
+        }
+        return status.active() && !status.blocked() && (role == null || role == status.role());
+    }
+
+    @Override
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        Runnable invalidate = () -> {
+            generation.incrementAndGet();
+            synchronized (statusByUser) {
+                statusByUser.remove(userId);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+
+    private Status status(Long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (statusByUser) {
+            Status cached = statusByUser.get(userId);
+            if (cached != null && cached.validUntilMillis() > now) {
+                return cached;
+            }
+        }
+
+        long loadedAt = generation.get();
+        Status loaded = toStatus(userRepository.findStatusById(userId), now + ttlMillis);
+        synchronized (statusByUser) {
+            if (generation.get() == loadedAt) {
+                statusByUser.put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Row layout matches UserRepository.findStatusById; a deleted user is cached as neither active nor allowed
+    private static Status toStatus(List<Object[]> rows, long validUntilMillis) {
+        if (rows.isEmpty()) {
+            return new Status(false, true, null, validUntilMillis);
+        }
+        Object[] row = rows.get(0);
+        return new Status((Boolean) row[0], (Boolean) row[1], (UserRole) row[2], validUntilMillis);
+    }
+
+    private record Status(boolean active, boolean blocked, UserRole role, long validUntilMillis) {
+    }
+}
@@ -0,0 +1,505 @@
+-- PostgreSQL objects that Hibernate's ddl-auto cannot express.
+-- Every statement must be idempotent: this script runs on each startup.
+
+-- Course search: full-text (tsvector) plus trigram typo tolerance
+CREATE EXTENSION IF NOT EXISTS pg_trgm^;
+CREATE EXTENSION IF NOT EXISTS unaccent^;
+
+-- unaccent() is only STABLE, wrap it so it can be used in index expressions.
+-- Strips Vietnamese diacritics ("tiếng nhật" -> "tieng nhat") so input with or without accents matches.
+CREATE OR REPLACE FUNCTION immutable_unaccent(text) RETURNS text AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, $1)
+$$ LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT^;
+
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS search_vector tsvector^;
+
+CREATE OR REPLACE FUNCTION courses_search_vector_update() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('simple', immutable_unaccent(lower(coalesce(NEW.title, '')))), 'A') ||
+        setweight(to_tsvector('simple', coalesce(NEW.level, '')), 'A') ||
+        setweight(to_tsvector('simple', immutable_unaccent(lower(coalesce(NEW.description, '')))), 'B');
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql^;
+
+DROP TRIGGER IF EXISTS trg_courses_search_vector ON courses^;
+CREATE TRIGGER trg_courses_search_vector
+    BEFORE INSERT OR UPDATE OF title, description, level ON courses
+    FOR EACH ROW EXECUTE FUNCTION courses_search_vector_update()^;
+
+-- Backfill rows written before the trigger existed
+UPDATE courses SET title = title WHERE search_vector IS NULL^;
+
+CREATE INDEX IF NOT EXISTS idx_courses_search_vector ON courses USING gin (search_vector)^;
+CREATE INDEX IF NOT EXISTS idx_courses_title_trgm ON courses USING gin (immutable_unaccent(lower(title)) gin_trgm_ops)^;
+
+-- course_rating_stats: one row per course with a non-null average, so the rating-sorted catalog can walk
+-- idx_course_rating_stats_average instead of sorting every course. Rows of unrated courses used to hold NULL.
+UPDATE course_rating_stats SET average_rating = 0 WHERE average_rating IS NULL^;
+ALTER TABLE course_rating_stats ALTER COLUMN average_rating SET DEFAULT 0^;
+ALTER TABLE course_rating_stats ALTER COLUMN average_rating SET NOT NULL^;
+
+-- Courses without a row yet (created before the table existed) get one computed from their reviews
+INSERT INTO course_rating_stats (course_id, rating_sum, rating_count, one_star_count, two_star_count,
+                                 three_star_count, four_star_count, five_star_count, average_rating, updated_at)
+SELECT c.id, COALESCE(SUM(r.rating), 0), COUNT(r.id),
+       COUNT(r.id) FILTER (WHERE r.rating = 1), COUNT(r.id) FILTER (WHERE r.rating = 2),
+       COUNT(r.id) FILTER (WHERE r.rating = 3), COUNT(r.id) FILTER (WHERE r.rating = 4),
+       COUNT(r.id) FILTER (WHERE r.rating = 5), COALESCE(AVG(r.rating), 0), now()
+FROM courses c
+LEFT JOIN reviews r ON r.course_id = c.id
+WHERE NOT EXISTS (SELECT 1 FROM course_rating_stats s WHERE s.course_id = c.id)
+GROUP BY c.id^;
+
+
+-- learning_history: monthly range partitions on "timestamp" so retention drops whole partitions
+-- and per-user time-range queries only touch the months they ask for.
+-- Partitions are named learning_history_YYYY_MM; rows outside every partition land in learning_history_default.
+
+-- Creates the partition for the month containing month_start, moving any rows for that month
+-- out of the default partition first (attaching would fail otherwise). Returns 1 if it was created.
+CREATE OR REPLACE FUNCTION learning_history_ensure_partition(month_start date) RETURNS integer AS $$
+DECLARE
+    from_ts timestamp := date_trunc('month', month_start);
+    to_ts timestamp := date_trunc('month', month_start) + interval '1 month';
+    part_name text := 'learning_history_' || to_char(month_start, 'YYYY_MM');
+BEGIN
+    IF to_regclass(part_name) IS NOT NULL THEN
+        RETURN 0;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE learning_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part_name);
+    EXECUTE format('WITH moved AS (DELETE FROM learning_history_default WHERE "timestamp" >= %L AND "timestamp" < %L RETURNING *) '
+                   'INSERT INTO %I SELECT * FROM moved', from_ts, to_ts, part_name);
+    EXECUTE format('ALTER TABLE learning_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   part_name, from_ts, to_ts);
+    RETURN 1;
+END
+$$ LANGUAGE plpgsql^;
+
+-- Makes sure partitions exist from the current month up to months_ahead months in the future
+CREATE OR REPLACE FUNCTION learning_history_ensure_partitions(months_ahead integer) RETURNS integer AS $$
+DECLARE
+    created integer := 0;
+BEGIN
+    FOR i IN 0..months_ahead LOOP
+        created := created + learning_history_ensure_partition(
+                (date_trunc('month', now()) + make_interval(months => i))::date);
+    END LOOP;
+    RETURN created;
+END
+$$ LANGUAGE plpgsql^;
+
+-- Retention: drops every partition that lies entirely before cutoff and deletes the remaining older rows
+-- from the one partition the cutoff falls into (plus the default partition). Returns the dropped partition count.
+CREATE OR REPLACE FUNCTION learning_history_drop_partitions_before(cutoff timestamp) RETURNS integer AS $$
+DECLARE
+    part record;
+    dropped integer := 0;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'learning_history'::regclass
+          AND c.relname ~ '^learning_history_\d{4}_\d{2}$'
+          AND to_date(substring(c.relname FROM '(\d{4}_\d{2})$'), 'YYYY_MM') + interval '1 month' <= cutoff
+    LOOP
+        EXECUTE format('DROP TABLE %I', part.relname);
+        dropped := dropped + 1;
+    END LOOP;
+    DELETE FROM learning_history WHERE "timestamp" < cutoff;
+    RETURN dropped;
+END
+$$ LANGUAGE plpgsql^;
+
+-- One-time conversion of the plain table Hibernate created into a partitioned one, keeping existing rows
+DO $$
+DECLARE
+    first_month date;
+    last_month date;
+    max_id bigint;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('learning_history')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE learning_history RENAME TO learning_history_legacy;
+    CREATE SEQUENCE IF NOT EXISTS learning_history_id_seq;
+    CREATE TABLE learning_history (LIKE learning_history_legacy INCLUDING CONSTRAINTS)
+        PARTITION BY RANGE ("timestamp");
+    ALTER TABLE learning_history ALTER COLUMN id SET DEFAULT nextval('learning_history_id_seq');
+    ALTER SEQUENCE learning_history_id_seq OWNED BY learning_history.id;
+    CREATE TABLE learning_history_default PARTITION OF learning_history DEFAULT;
+
+    SELECT date_trunc('month', min("timestamp"))::date, date_trunc('month', max("timestamp"))::date, max(id)
+    INTO first_month, last_month, max_id
+    FROM learning_history_legacy;
+    WHILE first_month IS NOT NULL AND first_month <= last_month LOOP
+        PERFORM learning_history_ensure_partition(first_month);
+        first_month := (first_month + interval '1 month')::date;
+    END LOOP;
+
+    INSERT INTO learning_history SELECT * FROM learning_history_legacy;
+    PERFORM setval('learning_history_id_seq', coalesce(max_id, 0) + 1, false);
+    DROP TABLE learning_history_legacy;
+
+    -- The partition key has to be part of the primary key
+    ALTER TABLE learning_history ADD CONSTRAINT learning_history_pkey PRIMARY KEY (id, "timestamp");
+    ALTER TABLE learning_history ADD CONSTRAINT fk_learning_history_user FOREIGN KEY (user_id) REFERENCES users (id);
+    ALTER TABLE learning_history ADD CONSTRAINT fk_learning_history_course FOREIGN KEY (course_id) REFERENCES courses (id);
+    ALTER TABLE learning_history ADD CONSTRAINT fk_learning_history_module FOREIGN KEY (module_id) REFERENCES modules (id);
+    ALTER TABLE learning_history ADD CONSTRAINT fk_learning_history_lesson FOREIGN KEY (lesson_id) REFERENCES lessons (id);
+    ALTER TABLE learning_history ADD CONSTRAINT fk_learning_history_exercise FOREIGN KEY (exercise_id) REFERENCES exercises (id);
+    ALTER TABLE learning_history ADD CONSTRAINT fk_learning_history_exam FOREIGN KEY (exam_id) REFERENCES exams (id);
+    ALTER TABLE learning_history ADD CONSTRAINT fk_learning_history_mock_exam FOREIGN KEY (mock_exam_id) REFERENCES mock_exams (id);
+END
+$$^;
+
+SELECT learning_history_ensure_partitions(3)^;
+
+-- Per-user history pages and date-range queries; created on every partition
+CREATE INDEX IF NOT EXISTS idx_learning_history_user_timestamp ON learning_history (user_id, "timestamp" DESC)^;
+
+
+-- Daily activity rollups (user x day x activity type, course x day) and per-user study streaks,
+-- maintained row by row as learning_history is written. LOGIN and PURCHASE do not count as study days.
+-- Study minutes are estimated from lesson durations and exam time limits.
+CREATE OR REPLACE FUNCTION learning_history_rollup() RETURNS trigger AS $$
+DECLARE
+    activity_day date := NEW."timestamp"::date;
+    minutes_spent integer;
+    next_streak integer;
+BEGIN
+    IF NEW.activity_type = 'LESSON_COMPLETED' THEN
+        SELECT duration_minutes INTO minutes_spent FROM lessons WHERE id = NEW.lesson_id;
+    ELSIF NEW.activity_type = 'EXAM_COMPLETED' THEN
+        SELECT time_limit INTO minutes_spent FROM exams WHERE id = NEW.exam_id;
+    ELSIF NEW.activity_type = 'MOCK_EXAM_COMPLETED' THEN
+        SELECT time_limit INTO minutes_spent FROM mock_exams WHERE id = NEW.mock_exam_id;
+    END IF;
+
+    INSERT INTO user_daily_activity (user_id, activity_date, activity_type, activity_count, study_minutes)
+    VALUES (NEW.user_id, activity_day, NEW.activity_type, 1, coalesce(minutes_spent, 0))
+    ON CONFLICT (user_id, activity_date, activity_type) DO UPDATE SET
+        activity_count = user_daily_activity.activity_count + 1,
+        study_minutes = user_daily_activity.study_minutes + EXCLUDED.study_minutes;
+
+    IF NEW.course_id IS NOT NULL THEN
+        INSERT INTO course_daily_activity (course_id, activity_date, activity_count)
+        VALUES (NEW.course_id, activity_day, 1)
+        ON CONFLICT (course_id, activity_date) DO UPDATE SET
+            activity_count = course_daily_activity.activity_count + 1;
+    END IF;
+
+    IF NEW.activity_type NOT IN ('LOGIN', 'PURCHASE') THEN
+        -- Late events for days before the last active day leave the streak alone; a rebuild corrects them
+        INSERT INTO user_activity_streaks (user_id, current_streak, longest_streak, last_active_date)
+        VALUES (NEW.user_id, 1, 1, activity_day)
+        ON CONFLICT (user_id) DO UPDATE SET
+            current_streak = CASE
+                WHEN user_activity_streaks.last_active_date >= activity_day THEN user_activity_streaks.current_streak
+                WHEN user_activity_streaks.last_active_date = activity_day - 1 THEN user_activity_streaks.current_streak + 1
+                ELSE 1 END,
+            longest_streak = GREATEST(user_activity_streaks.longest_streak, CASE
+                WHEN user_activity_streaks.last_active_date >= activity_day THEN user_activity_streaks.current_streak
+                WHEN user_activity_streaks.last_active_date = activity_day - 1 THEN user_activity_streaks.current_streak + 1
+                ELSE 1 END),
+            last_active_date = GREATEST(user_activity_streaks.last_active_date, activity_day);
+    END IF;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql^;
+
+DROP TRIGGER IF EXISTS trg_learning_history_rollup ON learning_history^;
+CREATE TRIGGER trg_learning_history_rollup
+    AFTER INSERT ON learning_history
+    FOR EACH ROW EXECUTE FUNCTION learning_history_rollup()^;
+
+-- Backfill: recomputes every rollup from learning_history. TRUNCATE locks the rollup tables,
+-- so concurrent inserts wait and then apply their increments on top. Returns the user x day x type row count.
+CREATE OR REPLACE FUNCTION learning_history_rebuild_rollups() RETURNS integer AS $$
+DECLARE
+    rebuilt integer;
+BEGIN
+    TRUNCATE user_daily_activity, course_daily_activity, user_activity_streaks;
+
+    INSERT INTO user_daily_activity (user_id, activity_date, activity_type, activity_count, study_minutes)
+    SELECT h.user_id, h."timestamp"::date, h.activity_type, count(*),
+           coalesce(sum(CASE h.activity_type
+                   WHEN 'LESSON_COMPLETED' THEN l.duration_minutes
+                   WHEN 'EXAM_COMPLETED' THEN e.time_limit
+                   WHEN 'MOCK_EXAM_COMPLETED' THEN me.time_limit END), 0)
+    FROM learning_history h
+    LEFT JOIN lessons l ON l.id = h.lesson_id
+    LEFT JOIN exams e ON e.id = h.exam_id
+    LEFT JOIN mock_exams me ON me.id = h.mock_exam_id
+    GROUP BY h.user_id, h."timestamp"::date, h.activity_type;
+    GET DIAGNOSTICS rebuilt = ROW_COUNT;
+
+    INSERT INTO course_daily_activity (course_id, activity_date, activity_count)
+    SELECT course_id, "timestamp"::date, count(*)
+    FROM learning_history
+    WHERE course_id IS NOT NULL
+    GROUP BY course_id, "timestamp"::date;
+
+    -- Gaps and islands: consecutive days share the same (date - row_number)
+    INSERT INTO user_activity_streaks (user_id, current_streak, longest_streak, last_active_date)
+    SELECT user_id, (array_agg(run_length ORDER BY run_end DESC))[1], max(run_length), max(run_end)
+    FROM (
+        SELECT user_id, count(*) AS run_length, max(activity_date) AS run_end
+        FROM (
+            SELECT user_id, activity_date,
+                   activity_date - CAST(row_number() OVER (PARTITION BY user_id ORDER BY activity_date) AS integer) AS island
+            FROM (
+                SELECT DISTINCT user_id, activity_date
+                FROM user_daily_activity
+                WHERE activity_type NOT IN ('LOGIN', 'PURCHASE')
+            ) study_days
+        ) numbered
+        GROUP BY user_id, island
+    ) runs
+    GROUP BY user_id;
+
+    RETURN rebuilt;
+END
+$$ LANGUAGE plpgsql^;
+
+
+-- learning_history.details: free text -> JSONB with a typed payload per activity type (see LearningHistoryDetails).
+-- Old rows keep their text under "message"; score and pass/fail are lifted out of the old sentence format.
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_name = 'learning_history' AND column_name = 'details') = 'text' THEN
+        ALTER TABLE learning_history ALTER COLUMN details TYPE jsonb USING
+            CASE WHEN details IS NULL THEN NULL ELSE jsonb_strip_nulls(jsonb_build_object(
+                'message', details,
+                'score', CAST(substring(details FROM 'with score: (-?\d+)') AS integer),
+                'passed', CASE WHEN details LIKE '%, Passed' THEN true WHEN details LIKE '%, Failed' THEN false END))
+            END;
+    END IF;
+END
+$$^;
+
+-- Containment lookups such as details @> '{"examId": 12}'
+CREATE INDEX IF NOT EXISTS idx_learning_history_details ON learning_history USING gin (details jsonb_path_ops)^;
+-- "Failed exams in the last N days" per user
+CREATE INDEX IF NOT EXISTS idx_learning_history_failed_exams ON learning_history (user_id, "timestamp" DESC)
+    WHERE details @> '{"passed": false}'^;
+-- "Exercises with score below N"
+CREATE INDEX IF NOT EXISTS idx_learning_history_exercise_score
+    ON learning_history (CAST(details ->> 'score' AS integer), "timestamp")
+    WHERE activity_type = 'EXERCISE_COMPLETED'^;
+
+
+-- enrollment_progress: recounts completion counters from user_progress for one enrollment,
+-- every enrollment of one course, or everything when both arguments are NULL. Returns the rows written.
+-- Day-to-day changes are applied as +1/-1 deltas by EnrollmentProgressRepository.
+CREATE OR REPLACE FUNCTION enrollment_progress_rebuild(target_enrollment bigint, target_course bigint) RETURNS integer AS $$
+DECLARE
+    rebuilt integer;
+BEGIN
+    INSERT INTO enrollment_progress (enrollment_id, student_id, course_id, required_lessons_total,
+                                     required_lessons_completed, exercises_completed, exams_passed,
+                                     next_lesson_id, updated_at)
+    SELECT e.id, e.student_id, e.course_id,
+           (SELECT count(*) FROM lessons l JOIN modules m ON m.id = l.module_id
+            WHERE m.course_id = e.course_id AND l.is_required),
+           (SELECT count(DISTINCT up.lesson_id) FROM user_progress up
+            JOIN lessons l ON l.id = up.lesson_id JOIN modules m ON m.id = l.module_id
+            WHERE up.user_id = e.student_id AND up.completed AND l.is_required AND m.course_id = e.course_id),
+           (SELECT count(DISTINCT up.exercise_id) FROM user_progress up JOIN exercises x ON x.id = up.exercise_id
+            WHERE up.user_id = e.student_id AND up.completed AND x.course_id = e.course_id),
+           (SELECT count(DISTINCT up.exam_id) FROM user_progress up JOIN exams x ON x.id = up.exam_id
+            WHERE up.user_id = e.student_id AND up.score >= x.passing_score AND x.course_id = e.course_id),
+           (SELECT nl.id FROM lessons nl JOIN modules nm ON nm.id = nl.module_id
+            WHERE nm.course_id = e.course_id AND nl.is_required AND NOT EXISTS (
+                SELECT 1 FROM user_progress up WHERE up.user_id = e.student_id AND up.lesson_id = nl.id AND up.completed)
+            ORDER BY nm.order_index, nl.order_index, nl.id LIMIT 1),
+           now()
+    FROM enrollments e
+    WHERE (target_enrollment IS NULL OR e.id = target_enrollment)
+      AND (target_course IS NULL OR e.course_id = target_course)
+    ON CONFLICT (enrollment_id) DO UPDATE SET
+        required_lessons_total = EXCLUDED.required_lessons_total,
+        required_lessons_completed = EXCLUDED.required_lessons_completed,
+        exercises_completed = EXCLUDED.exercises_completed,
+        exams_passed = EXCLUDED.exams_passed,
+        next_lesson_id = EXCLUDED.next_lesson_id,
+        updated_at = EXCLUDED.updated_at;
+    GET DIAGNOSTICS rebuilt = ROW_COUNT;
+    RETURN rebuilt;
+END
+$$ LANGUAGE plpgsql^;
+
+-- user_progress: at most one row per user and target, which the ON CONFLICT upserts in UserProgressRepository rely on.
+-- Before the first index is built, collapse duplicates left by the old read-then-insert path,
+-- keeping the completed row with the best score (newest row on ties).
+DO $$
+BEGIN
+    IF to_regclass('uk_user_progress_lesson') IS NULL THEN
+        DELETE FROM user_progress a USING user_progress b
+        WHERE a.user_id = b.user_id AND a.lesson_id = b.lesson_id
+          AND (b.completed, b.id) > (a.completed, a.id);
+        CREATE UNIQUE INDEX uk_user_progress_lesson ON user_progress (user_id, lesson_id);
+    END IF;
+    IF to_regclass('uk_user_progress_exercise') IS NULL THEN
+        DELETE FROM user_progress a USING user_progress b
+        WHERE a.user_id = b.user_id AND a.exercise_id = b.exercise_id
+          AND (b.completed, COALESCE(b.score, -1), b.id) > (a.completed, COALESCE(a.score, -1), a.id);
+        CREATE UNIQUE INDEX uk_user_progress_exercise ON user_progress (user_id, exercise_id);
+    END IF;
+    IF to_regclass('uk_user_progress_exam') IS NULL THEN
+        DELETE FROM user_progress a USING user_progress b
+        WHERE a.user_id = b.user_id AND a.exam_id = b.exam_id
+          AND (b.completed, COALESCE(b.score, -1), b.id) > (a.completed, COALESCE(a.score, -1), a.id);
+        CREATE UNIQUE INDEX uk_user_progress_exam ON user_progress (user_id, exam_id);
+    END IF;
+    IF to_regclass('uk_user_progress_speech_exercise') IS NULL THEN
+        DELETE FROM user_progress a USING user_progress b
+        WHERE a.user_id = b.user_id AND a.speech_exercise_id = b.speech_exercise_id
+          AND (b.completed, COALESCE(b.pronunciation_score, -1), b.id)
+              > (a.completed, COALESCE(a.pronunciation_score, -1), a.id);
+        CREATE UNIQUE INDEX uk_user_progress_speech_exercise ON user_progress (user_id, speech_exercise_id);
+    END IF;
+END
+$$^;
+
+-- Attempts started before time limits were enforced get their deadline from the mock exam
+UPDATE mock_exam_attempts a SET deadline = a.start_time + make_interval(mins => m.time_limit)
+FROM mock_exams m
+WHERE m.id = a.mock_exam_id AND a.end_time IS NULL AND a.deadline IS NULL AND m.time_limit > 0^;
+
+-- Startup recovery scan of the deadline timer only reads open attempts
+CREATE INDEX IF NOT EXISTS idx_mock_exam_attempts_open_deadline
+    ON mock_exam_attempts (deadline) WHERE end_time IS NULL^;
+
+-- Attempt answers used to be a Java Map toString ("{1=[2, 3]}"); rewrite them as the versioned JSON document.
+-- Only text of exactly that shape is rewritten, anything else becomes an empty answer sheet instead of
+-- failing the cast and with it the startup.
+CREATE OR REPLACE FUNCTION mock_exam_legacy_answers(legacy text) RETURNS jsonb AS $$
+BEGIN
+    IF legacy IS NULL OR btrim(legacy) = '' THEN
+        RETURN NULL;
+    END IF;
+    IF legacy ~ '^\s*\{\s*(\d+=\[\s*(\d+(\s*,\s*\d+)*)?\s*\](\s*,\s*\d+=\[\s*(\d+(\s*,\s*\d+)*)?\s*\])*)?\s*\}\s*$' THEN
+        RETURN jsonb_build_object('v', 1, 'answers', CAST(regexp_replace(legacy, '(\d+)=', '"\1":', 'g') AS jsonb));
+    END IF;
+    RAISE WARNING 'Replacing unreadable mock exam answers with an empty answer sheet: %', left(legacy, 200);
+    RETURN jsonb_build_object('v', 1, 'answers', '{}'::jsonb);
+END
+$$ LANGUAGE plpgsql^;
+
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'mock_exam_attempts' AND column_name = 'answers') = 'text' THEN
+        ALTER TABLE mock_exam_attempts ALTER COLUMN answers TYPE jsonb USING mock_exam_legacy_answers(answers);
+    END IF;
+END
+$$^;
+
+-- Per-question results go away with their attempt or question
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_mock_exam_question_results_attempt') THEN
+        ALTER TABLE mock_exam_question_results ADD CONSTRAINT fk_mock_exam_question_results_attempt
+            FOREIGN KEY (attempt_id) REFERENCES mock_exam_attempts (id) ON DELETE CASCADE;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_mock_exam_question_results_question') THEN
+        ALTER TABLE mock_exam_question_results ADD CONSTRAINT fk_mock_exam_question_results_question
+            FOREIGN KEY (question_id) REFERENCES questions (id) ON DELETE CASCADE;
+    END IF;
+END
+$$^;
+
+-- Item statistics go away with their question
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_question_stats_question') THEN
+        ALTER TABLE question_stats ADD CONSTRAINT fk_question_stats_question
+            FOREIGN KEY (question_id) REFERENCES questions (id) ON DELETE CASCADE;
+    END IF;
+END
+$$^;
+
+-- Review cards go away with their user or item and always point at exactly one item
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_review_cards_user') THEN
+        ALTER TABLE review_cards ADD CONSTRAINT fk_review_cards_user
+            FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_review_cards_question') THEN
+        ALTER TABLE review_cards ADD CONSTRAINT fk_review_cards_question
+            FOREIGN KEY (question_id) REFERENCES questions (id) ON DELETE CASCADE;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_review_cards_speech_exercise') THEN
+        ALTER TABLE review_cards ADD CONSTRAINT fk_review_cards_speech_exercise
+            FOREIGN KEY (speech_exercise_id) REFERENCES speech_exercises (id) ON DELETE CASCADE;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ck_review_cards_one_item') THEN
+        ALTER TABLE review_cards ADD CONSTRAINT ck_review_cards_one_item
+            CHECK (num_nonnulls(question_id, speech_exercise_id) = 1);
+    END IF;
+END
+$$^;
+
+-- Seed the review schedule once from past results, as if each item had been reviewed a single time with
+-- ReviewSchedule's grades: per-question mock exam results where they exist (latest attempt wins), otherwise
+-- the exercise or exam score for all of its questions, and the best pronunciation score per speech exercise
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM review_cards) THEN
+        INSERT INTO review_cards (user_id, question_id, ease_factor, interval_days, repetitions, lapses,
+                                  due_at, last_grade, last_reviewed_at)
+        SELECT DISTINCT ON (h.user_id, h.question_id)
+               h.user_id, h.question_id, e.ease,
+               CASE WHEN h.grade >= 3 THEN 1 ELSE 0 END, CASE WHEN h.grade >= 3 THEN 1 ELSE 0 END, 0,
+               CASE WHEN h.grade >= 3 THEN COALESCE(h.reviewed_at, now()) + interval '1 day' ELSE now() END,
+               h.grade, h.reviewed_at
+        FROM (
+            SELECT a.user_id, COALESCE(s.id, q.id) AS question_id, CASE WHEN r.correct THEN 4 ELSE 1 END AS grade,
+                   a.end_time AS reviewed_at, 1 AS precise
+            FROM mock_exam_question_results r
+            JOIN mock_exam_attempts a ON a.id = r.attempt_id
+            JOIN questions q ON q.id = r.question_id
+            LEFT JOIN questions s ON s.id = q.source_question_id
+            UNION ALL
+            SELECT p.user_id, q.id,
+                   CASE WHEN p.score >= 90 THEN 5 WHEN p.score >= 75 THEN 4 WHEN p.score >= 60 THEN 3
+                        WHEN p.score >= 40 THEN 2 WHEN p.score >= 20 THEN 1 ELSE 0 END,
+                   NULL, 0
+            FROM user_progress p
+            JOIN questions q ON q.exercise_id = p.exercise_id OR q.exam_id = p.exam_id
+            WHERE p.score IS NOT NULL
+        ) h
+        JOIN (VALUES (0, 1.7), (1, 1.96), (2, 2.18), (3, 2.36), (4, 2.5), (5, 2.6)) AS e(grade, ease) ON e.grade = h.grade
+        ORDER BY h.user_id, h.question_id, h.precise DESC, h.reviewed_at DESC NULLS LAST;
+
+        INSERT INTO review_cards (user_id, speech_exercise_id, ease_factor, interval_days, repetitions, lapses,
+                                  due_at, last_grade)
+        SELECT h.user_id, h.speech_exercise_id, e.ease,
+               CASE WHEN h.grade >= 3 THEN 1 ELSE 0 END, CASE WHEN h.grade >= 3 THEN 1 ELSE 0 END, 0,
+               CASE WHEN h.grade >= 3 THEN now() + interval '1 day' ELSE now() END, h.grade
+        FROM (
+            SELECT p.user_id, p.speech_exercise_id,
+                   CASE WHEN p.pronunciation_score >= 90 THEN 5 WHEN p.pronunciation_score >= 75 THEN 4
+                        WHEN p.pronunciation_score >= 60 THEN 3 WHEN p.pronunciation_score >= 40 THEN 2
+                        WHEN p.pronunciation_score >= 20 THEN 1 ELSE 0 END AS grade
+            FROM user_progress p
+            WHERE p.speech_exercise_id IS NOT NULL AND p.pronunciation_score IS NOT NULL
+        ) h
+        JOIN (VALUES (0, 1.7), (1, 1.96), (2, 2.18), (3, 2.36), (4, 2.5), (5, 2.6)) AS e(grade, ease) ON e.grade = h.grade;
+    END IF;
+END
+$$^;
+
+-- The grading queue sweep only reads submissions still waiting for a worker
+CREATE INDEX IF NOT EXISTS idx_grading_submissions_queued
+    ON grading_submissions (id) WHERE status = 'QUEUED'^;
+
+-- Heartbeats and the requeue of abandoned runs only touch submissions being graded
+CREATE INDEX IF NOT EXISTS idx_grading_submissions_grading
+    ON grading_submissions (heartbeat_at) WHERE status = 'GRADING'^;
@@ -0,0 +1,169 @@
+package com.nihongo.learningplatform;
+
+import com.nihongo.learningplatform.entity.*;
+import com.nihongo.learningplatform.entity.Module;
+import com.nihongo.learningplatform.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Persists the minimal object graph integration tests need; import it with @Import(TestFixtures.class) and run
+// the test in a transaction so everything is rolled back afterwards
+@TestComponent
+public class TestFixtures {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.nanoTime());
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseRatingStatsRepository courseRatingStatsRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private SpeechExerciseRepository speechExerciseRepository;
+
+    @Autowired
+    private ExerciseRepository exerciseRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private MockExamRepository mockExamRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private MockExamAttemptRepository mockExamAttemptRepository;
+
+    public User user(UserRole role) {
+        long n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername("test-user-" + n);
+        user.setEmail("test-user-" + n + "@example.com");
+        user.setPassword("password");
+        user.setFullName("Test User " + n);
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    public Course course(User instructor) {
+        return course(instructor, "N5");
+    }
+
+    public Course course(User instructor, String level) {
+        Course course = new Course();
+        course.setTitle("Test course " + SEQUENCE.incrementAndGet());
+        course.setDescription("Test course");
+        course.setPrice(BigDecimal.TEN);
+        course.setThumbnailUrl("https://example.com/thumbnail.png");
+        course.setLevel(level);
+        course.setApproved(true);
+        course.setInstructor(instructor);
+        course = courseRepository.save(course);
+        // Every course has a rating stats row, as CourseServiceImpl.createCourse guarantees
+        courseRatingStatsRepository.applyDelta(course.getId(), 0, 0, 0, 0, 0, 0, 0);
+        return course;
+    }
+
+    public Lesson lesson(Course course) {
+        Module module = new Module();
+        module.setTitle("Test module");
+        module.setDescription("Test module");
+        module.setCourse(course);
+        module = moduleRepository.save(module);
+
+        Lesson lesson = new Lesson();
+        lesson.setTitle("Test lesson");
+        lesson.setContent("Test lesson");
+        lesson.setModule(module);
+        lesson.setCourse(course);
+        return lessonRepository.save(lesson);
+    }
+
+    public SpeechExercise speechExercise(Lesson lesson) {
+        SpeechExercise speechExercise = new SpeechExercise();
+        speechExercise.setTitle("Test speech exercise");
+        speechExercise.setJapaneseText("こんにちは");
+        speechExercise.setLesson(lesson);
+        return speechExerciseRepository.save(speechExercise);
+    }
+
+    public Exercise exercise(Course course) {
+        Exercise exercise = new Exercise();
+        exercise.setTitle("Test exercise");
+        exercise.setCourse(course);
+        return exerciseRepository.save(exercise);
+    }
+
+    public Exam exam(Course course) {
+        Exam exam = new Exam();
+        exam.setTitle("Test exam");
+        exam.setTimeLimit(30);
+        exam.setPassingScore(60);
+        exam.setCourse(course);
+        return examRepository.save(exam);
+    }
+
+    public MockExam mockExam(Course course, String level) {
+        MockExam mockExam = new MockExam();
+        mockExam.setTitle("Test mock exam");
+        mockExam.setTimeLimit(30);
+        mockExam.setPassingScore(60);
+        mockExam.setLevel(level);
+        mockExam.setCourse(course);
+        return mockExamRepository.save(mockExam);
+    }
+
+    // A multiple choice question with the given number of answers, the first of which is correct
+    public Question question(Exercise exercise, Exam exam, MockExam mockExam, int answers) {
+        Question question = new Question();
+        question.setContent("Test question " + SEQUENCE.incrementAndGet());
+        question.setType(QuestionType.MULTIPLE_CHOICE);
+        question.setExercise(exercise);
+        question.setExam(exam);
+        question.setMockExam(mockExam);
+        question = questionRepository.save(question);
+        for (int i = 0; i < answers; i++) {
+            Answer answer = new Answer();
+            answer.setContent("Answer " + i);
+            answer.setCorrect(i == 0);
+            answer.setQuestion(question);
+            answerRepository.save(answer);
+        }
+        return question;
+    }
+
+    public Enrollment enrollment(User student, Course course) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudent(student);
+        enrollment.setCourse(course);
+        return enrollmentRepository.save(enrollment);
+    }
+
+    public MockExamAttempt attempt(User user, MockExam mockExam) {
+        MockExamAttempt attempt = new MockExamAttempt();
+        attempt.setUser(user);
+        attempt.setMockExam(mockExam);
+        return mockExamAttemptRepository.save(attempt);
+    }
+}
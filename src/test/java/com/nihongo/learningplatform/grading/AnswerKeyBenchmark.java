@@ -0,0 +1,126 @@
+package com.nihongo.learningplatform.grading;
+
+import com.nihongo.learningplatform.dto.AnswerDto;
+import com.nihongo.learningplatform.dto.QuestionDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Exam;
+import com.nihongo.learningplatform.repository.ExamRepository;
+import com.nihongo.learningplatform.repository.ExerciseRepository;
+import com.nihongo.learningplatform.repository.MockExamRepository;
+import com.nihongo.learningplatform.repository.QuestionRepository;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.impl.AnswerKeyServiceImpl;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Grading one submitted 100-question exam paper, every fifth question multi-select: through the cached
+// compiled key of AnswerKeyServiceImpl, and the way submissions were graded before, walking the exam
+// DTO's question and answer lists (the DTO load itself, which dominated, is left out).
+// Run main() with the test classpath, e.g. from the IDE after mvn test-compile
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnswerKeyBenchmark {
+
+    private static final long EXAM_ID = 1L;
+    private static final int QUESTIONS = 100;
+    private static final int ANSWERS_PER_QUESTION = 4;
+
+    private AnswerKeyService answerKeyService;
+    private List<QuestionDto> questions;
+    private Map<Long, List<Long>> paper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        questions = new ArrayList<>();
+        paper = new HashMap<>();
+        long answerId = 1000;
+        for (long questionId = 1; questionId <= QUESTIONS; questionId++) {
+            boolean multiSelect = questionId % 5 == 0;
+            List<AnswerDto> answers = new ArrayList<>();
+            List<Long> selected = new ArrayList<>();
+            for (int a = 0; a < ANSWERS_PER_QUESTION; a++, answerId++) {
+                boolean correct = a == 0 || (multiSelect && a == 1);
+                answers.add(new AnswerDto(answerId, "Answer " + a, correct, questionId));
+                if (correct) {
+                    rows.add(new Object[]{questionId, answerId});
+                }
+                // Roughly three quarters of the paper is right
+                if (questionId % 4 == 0 ? a == ANSWERS_PER_QUESTION - 1 : correct) {
+                    selected.add(answerId);
+                }
+            }
+            QuestionDto question = new QuestionDto();
+            question.setId(questionId);
+            question.setAnswers(answers);
+            questions.add(question);
+            paper.put(questionId, selected);
+        }
+
+        Course course = new Course();
+        course.setId(1L);
+        Exam exam = new Exam();
+        exam.setCourse(course);
+        exam.setPassingScore(60);
+        ExamRepository examRepository = Mockito.mock(ExamRepository.class);
+        Mockito.when(examRepository.findById(EXAM_ID)).thenReturn(Optional.of(exam));
+        QuestionRepository questionRepository = Mockito.mock(QuestionRepository.class);
+        Mockito.when(questionRepository.findAnswerKeyRowsByExamId(EXAM_ID)).thenReturn(rows);
+        answerKeyService = new AnswerKeyServiceImpl(questionRepository, Mockito.mock(ExerciseRepository.class),
+                examRepository, Mockito.mock(MockExamRepository.class));
+
+        if (compiledKey() != dtoWalk()) {
+            throw new IllegalStateException("Both graders must agree on the score");
+        }
+    }
+
+    @Benchmark
+    public int compiledKey() {
+        return answerKeyService.getExamAnswerKey(EXAM_ID).score(paper);
+    }
+
+    @Benchmark
+    public int dtoWalk() {
+        int correctAnswers = 0;
+        for (QuestionDto question : questions) {
+            List<Long> selectedAnswerIds = paper.getOrDefault(question.getId(), List.of());
+            List<Long> correctAnswerIds = question.getAnswers().stream()
+                    .filter(AnswerDto::isCorrect)
+                    .map(AnswerDto::getId)
+                    .toList();
+            if (selectedAnswerIds.size() == correctAnswerIds.size() &&
+                    selectedAnswerIds.containsAll(correctAnswerIds)) {
+                correctAnswers++;
+            }
+        }
+        return questions.isEmpty() ? 0 : correctAnswers * 100 / questions.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AnswerKeyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package com.nihongo.learningplatform.grading;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerKeyTest {
+
+    // Question 10: single answer 101; question 20: multi-select 201 and 202; question 30: no correct answer
+    private static final AnswerKey KEY = AnswerKey.compile(7L, 60, List.of(
+            row(10, 101L),
+            row(20, 201L),
+            row(20, 202L),
+            row(30, null)));
+
+    @Test
+    void compileGroupsRowsPerQuestionInIdOrder() {
+        assertEquals(Long.valueOf(7), KEY.getCourseId());
+        assertEquals(60, KEY.getPassingScore());
+        assertEquals(3, KEY.getQuestionCount());
+        assertEquals(10, KEY.getQuestionId(0));
+        assertEquals(20, KEY.getQuestionId(1));
+        assertEquals(30, KEY.getQuestionId(2));
+    }
+
+    @Test
+    void multiSelectNeedsExactlyTheCorrectSetInAnyOrder() {
+        assertTrue(KEY.isCorrect(1, Map.of(20L, List.of(202L, 201L))));
+        assertFalse(KEY.isCorrect(1, Map.of(20L, List.of(201L))));
+        assertFalse(KEY.isCorrect(1, Map.of(20L, List.of(201L, 201L))));
+        assertFalse(KEY.isCorrect(1, Map.of(20L, List.of(201L, 202L, 203L))));
+        assertFalse(KEY.isCorrect(1, Map.of(20L, List.of(201L, 999L))));
+    }
+
+    @Test
+    void missingAnswersAreWrongUnlessNothingIsCorrect() {
+        assertFalse(KEY.isCorrect(0, Map.of()));
+        assertFalse(KEY.isCorrect(0, null));
+        assertFalse(KEY.isCorrect(0, Map.of(10L, List.of())));
+        assertTrue(KEY.isCorrect(2, Map.of()));
+        assertFalse(KEY.isCorrect(2, Map.of(30L, List.of(301L))));
+
+        Map<Long, List<Long>> nullSelection = new HashMap<>();
+        nullSelection.put(10L, Arrays.asList((Long) null));
+        assertFalse(KEY.isCorrect(0, nullSelection));
+    }
+
+    @Test
+    void scoreIsThePercentageOfExactlyRightQuestions() {
+        assertEquals(100, KEY.score(Map.of(10L, List.of(101L), 20L, List.of(201L, 202L))));
+        assertEquals(66, KEY.score(Map.of(10L, List.of(101L), 20L, List.of(201L))));
+        assertEquals(33, KEY.score(null));
+        assertTrue(KEY.isPassing(60));
+        assertFalse(KEY.isPassing(59));
+    }
+
+    @Test
+    void answersForQuestionsOutsideTheKeyAreIgnored() {
+        Map<Long, List<Long>> answers = Map.of(
+                10L, List.of(101L),
+                20L, List.of(201L, 202L),
+                99L, List.of(101L, 201L));
+        assertEquals(3, KEY.countCorrect(answers));
+        assertEquals(100, KEY.score(answers));
+    }
+
+    @Test
+    void anEmptyKeyScoresZero() {
+        AnswerKey empty = AnswerKey.compile(null, 50, List.of());
+        assertNull(empty.getCourseId());
+        assertEquals(0, empty.getQuestionCount());
+        assertEquals(0, empty.score(Map.of(1L, List.of(1L))));
+        assertFalse(empty.isPassing(empty.score(Map.of())));
+    }
+
+    @Test
+    void questionsWithMoreCorrectAnswersThanBitsAreStillExact() {
+        List<Object[]> rows = new ArrayList<>();
+        List<Long> all = new ArrayList<>();
+        for (long answerId = 1; answerId <= 70; answerId++) {
+            rows.add(row(1, answerId));
+            all.add(answerId);
+        }
+        AnswerKey key = AnswerKey.compile(null, 0, rows);
+        assertTrue(key.isCorrect(0, Map.of(1L, all)));
+
+        List<Long> repeated = new ArrayList<>(all);
+        repeated.set(69, 1L);
+        assertFalse(key.isCorrect(0, Map.of(1L, repeated)));
+
+        List<Long> exactly64 = all.subList(0, 64);
+        AnswerKey key64 = AnswerKey.compile(null, 0, rows.subList(0, 64));
+        assertTrue(key64.isCorrect(0, Map.of(1L, exactly64)));
+    }
+
+    private static Object[] row(long questionId, Long answerId) {
+        return new Object[]{questionId, answerId};
+    }
+}
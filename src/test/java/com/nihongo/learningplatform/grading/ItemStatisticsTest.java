@@ -0,0 +1,157 @@
+package com.nihongo.learningplatform.grading;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemStatisticsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void singlePassMatchesTheTextbookFormulas() {
+        List<Submission> submissions = submissions(200, 1);
+        ItemStatistics stats = fold(submissions);
+
+        double meanScore = submissions.stream().mapToDouble(Submission::score).average().orElseThrow();
+        double meanCorrect = submissions.stream().mapToDouble(s -> s.correct() ? 1 : 0).average().orElseThrow();
+        double m2 = 0;
+        double coMoment = 0;
+        for (Submission s : submissions) {
+            m2 += (s.score() - meanScore) * (s.score() - meanScore);
+            coMoment += ((s.correct() ? 1 : 0) - meanCorrect) * (s.score() - meanScore);
+        }
+
+        assertEquals(200, stats.getCount());
+        assertEquals(submissions.stream().filter(Submission::correct).count(), stats.getCorrectCount());
+        assertEquals(meanScore, stats.getMeanScore(), EPSILON);
+        assertEquals(m2, stats.getM2Score(), EPSILON * m2);
+        assertEquals(coMoment, stats.getCoMoment(), EPSILON * Math.abs(m2));
+    }
+
+    @Test
+    void mergedPartialsEqualASinglePass() {
+        List<Submission> submissions = submissions(101, 2);
+        ItemStatistics single = fold(submissions);
+
+        // Empty, single-submission and uneven partials, merged into an empty accumulator
+        int[] cuts = {0, 0, 1, 2, 40, 41, 90, 101, 101};
+        ItemStatistics merged = new ItemStatistics();
+        for (int i = 0; i + 1 < cuts.length; i++) {
+            merged.merge(fold(submissions.subList(cuts[i], cuts[i + 1])));
+        }
+
+        assertSameStatistics(single, merged);
+    }
+
+    @Test
+    void mergingEmptyAndSingleSubmissionPartials() {
+        ItemStatistics empty = new ItemStatistics();
+        empty.merge(new ItemStatistics());
+        assertSameStatistics(new ItemStatistics(), empty);
+
+        Submission first = new Submission(true, List.of(1L), 80);
+        Submission second = new Submission(false, List.of(), 30);
+        ItemStatistics one = fold(List.of(first));
+        one.merge(new ItemStatistics());
+        assertSameStatistics(fold(List.of(first)), one);
+
+        ItemStatistics fromEmpty = new ItemStatistics();
+        fromEmpty.merge(fold(List.of(first)));
+        assertSameStatistics(fold(List.of(first)), fromEmpty);
+
+        ItemStatistics pair = fold(List.of(first));
+        pair.merge(fold(List.of(second)));
+        assertSameStatistics(fold(List.of(first, second)), pair);
+        assertEquals(1, pair.getSkippedCount());
+        assertEquals(55, pair.getMeanScore(), EPSILON);
+        assertEquals(1250, pair.getM2Score(), EPSILON);
+        assertEquals(25, pair.getCoMoment(), EPSILON);
+    }
+
+    @Test
+    void pointBiserialIsThePearsonCorrelationWithCorrectness() {
+        List<Submission> submissions = submissions(300, 3);
+        ItemStatistics stats = fold(submissions);
+
+        double n = submissions.size();
+        double sx = 0, sy = 0, sxx = 0, syy = 0, sxy = 0;
+        for (Submission s : submissions) {
+            double x = s.correct() ? 1 : 0;
+            double y = s.score();
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            syy += y * y;
+            sxy += x * y;
+        }
+        double pearson = (n * sxy - sx * sy) / Math.sqrt((n * sxx - sx * sx) * (n * syy - sy * sy));
+
+        assertEquals(pearson, ItemStatistics.pointBiserial(stats.getCount(), stats.getCorrectCount(),
+                stats.getM2Score(), stats.getCoMoment()), 1e-9);
+    }
+
+    @Test
+    void undefinedStatisticsAreNull() {
+        assertNull(ItemStatistics.pValue(0, 0));
+        assertEquals(0.25, ItemStatistics.pValue(4, 1), EPSILON);
+        assertNull(ItemStatistics.pointBiserial(1, 1, 0, 0));
+        // Everybody right, or every score equal: nothing to correlate
+        assertNull(ItemStatistics.pointBiserial(5, 5, 100, 0));
+        assertNull(ItemStatistics.pointBiserial(5, 2, 0, 0));
+    }
+
+    @Test
+    void trackedAnswerIdsAreBoundedAcrossAddAndMerge() {
+        ItemStatistics left = new ItemStatistics();
+        ItemStatistics right = new ItemStatistics();
+        for (long answerId = 0; answerId < 40; answerId++) {
+            left.add(false, List.of(answerId), 0);
+            right.add(false, List.of(1000 + answerId), 0);
+        }
+        assertEquals(32, left.getSelectionCounts().size());
+
+        left.merge(right);
+        assertEquals(32, left.getSelectionCounts().size());
+        assertEquals(80, left.getCount());
+    }
+
+    private static void assertSameStatistics(ItemStatistics expected, ItemStatistics actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getCorrectCount(), actual.getCorrectCount());
+        assertEquals(expected.getSkippedCount(), actual.getSkippedCount());
+        assertEquals(expected.getMeanScore(), actual.getMeanScore(), EPSILON);
+        assertEquals(expected.getM2Score(), actual.getM2Score(), EPSILON * Math.max(1, expected.getM2Score()));
+        assertEquals(expected.getCoMoment(), actual.getCoMoment(), EPSILON * Math.max(1, expected.getM2Score()));
+        assertEquals(expected.getSelectionCounts(), actual.getSelectionCounts());
+    }
+
+    private static ItemStatistics fold(List<Submission> submissions) {
+        ItemStatistics stats = new ItemStatistics();
+        for (Submission s : submissions) {
+            stats.add(s.correct(), s.selected(), s.score());
+        }
+        return stats;
+    }
+
+    // Scores lean higher for correct answers, so the correlation is clearly positive; a few are skipped
+    private static List<Submission> submissions(int n, long seed) {
+        Random random = new Random(seed);
+        List<Submission> submissions = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            boolean correct = random.nextInt(3) > 0;
+            List<Long> selected = random.nextInt(10) == 0 ? List.of() : List.of(correct ? 1L : 2L + random.nextInt(3));
+            double score = Math.min(100, Math.max(0, (correct ? 70 : 45) + random.nextGaussian() * 15));
+            submissions.add(new Submission(correct, selected, score));
+        }
+        return submissions;
+    }
+
+    private record Submission(boolean correct, List<Long> selected, double score) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.nihongo.learningplatform.grading;
+
+import com.nihongo.learningplatform.entity.QuestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuestionPoolsTest {
+
+    private static final QuestionType CHOICE = QuestionType.MULTIPLE_CHOICE;
+
+    @Test
+    void poolsAreKeyedByLevelTypeAndCourse() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row(1, CHOICE, "N5", null));
+        rows.add(row(2, CHOICE, " n5 ", 10L));
+        rows.add(row(3, CHOICE, "N5", 10L));
+        rows.add(row(4, CHOICE, "N5", 20L));
+        rows.add(row(5, CHOICE, "N4", 10L));
+        QuestionPools pools = QuestionPools.build(rows);
+
+        assertEquals(5, pools.getQuestionCount());
+        assertEquals(4, pools.available("N5", CHOICE, null));
+        assertEquals(4, pools.available("n5", CHOICE, null));
+        assertEquals(2, pools.available("N5", CHOICE, 10L));
+        assertEquals(1, pools.available("N4", CHOICE, null));
+        assertEquals(0, pools.available("N3", CHOICE, null));
+        assertEquals(0, pools.available("N5", CHOICE, 30L));
+        assertArrayEquals(new long[]{2, 3}, sorted(pools.sample("N5", CHOICE, 10L, 2, new Random(1))));
+    }
+
+    @Test
+    void sampleDrawsDistinctIdsFromTheMatchingPoolsOnly() {
+        QuestionPools pools = QuestionPools.build(bank(300));
+        Set<Long> n5 = new HashSet<>();
+        for (int id = 0; id < 300; id++) {
+            if (id % 3 != 0) {
+                n5.add((long) id);
+            }
+        }
+
+        Random random = new Random(7);
+        for (int count : new int[]{0, 1, 17, 150, 200}) {
+            long[] sample = pools.sample("N5", CHOICE, null, count, random);
+            assertEquals(count, sample.length);
+            Set<Long> seen = new HashSet<>();
+            for (long id : sample) {
+                assertTrue(n5.contains(id), "Not an N5 question: " + id);
+                assertTrue(seen.add(id), "Drawn twice: " + id);
+            }
+        }
+        assertEquals(n5, toSet(pools.sample("N5", CHOICE, null, 200, random)));
+    }
+
+    @Test
+    void theSameSeedOverTheSameSnapshotYieldsTheSamePaper() {
+        QuestionPools pools = QuestionPools.build(bank(500));
+
+        long[] first = pools.sample("N5", CHOICE, null, 40, new Random(123));
+        long[] again = pools.sample("N5", CHOICE, null, 40, new Random(123));
+        long[] other = pools.sample("N5", CHOICE, null, 40, new Random(124));
+
+        assertArrayEquals(first, again);
+        assertFalse(Arrays.equals(first, other));
+    }
+
+    @Test
+    void askingForMoreThanIsAvailableFails() {
+        QuestionPools pools = QuestionPools.build(bank(30));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> pools.sample("N5", CHOICE, null, 21, new Random(1)));
+        assertEquals("Only 20 MULTIPLE_CHOICE questions available at level N5", error.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> pools.sample("N1", CHOICE, null, 1, new Random(1)));
+    }
+
+    // Floyd's draw plus the shuffle should give every question the same chance of being picked, and every
+    // question the same chance of landing in each slot of the paper
+    @Test
+    void everyQuestionIsEquallyLikelyInEverySlot() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 0; id < 10; id++) {
+            rows.add(row(id, CHOICE, "N5", id < 3 ? null : (long) (id % 3)));
+        }
+        QuestionPools pools = QuestionPools.build(rows);
+
+        int draws = 100_000;
+        int count = 4;
+        Map<Long, Integer> picked = new HashMap<>();
+        int[][] bySlot = new int[count][10];
+        Random random = new Random(99);
+        for (int i = 0; i < draws; i++) {
+            long[] sample = pools.sample("N5", CHOICE, null, count, random);
+            for (int slot = 0; slot < count; slot++) {
+                picked.merge(sample[slot], 1, Integer::sum);
+                bySlot[slot][(int) sample[slot]]++;
+            }
+        }
+
+        assertEquals(10, picked.size());
+        double expected = draws * count / 10.0;
+        picked.values().forEach(n -> assertEquals(expected, n, expected * 0.03));
+        for (int[] slot : bySlot) {
+            for (int n : slot) {
+                assertEquals(draws / 10.0, n, draws / 10.0 * 0.05);
+            }
+        }
+    }
+
+    // Ids 0..n-1, two thirds at N5 spread over a shared pool and two courses, the rest at N4
+    private static List<Object[]> bank(int size) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int id = 0; id < size; id++) {
+            String level = id % 3 == 0 ? "N4" : "N5";
+            Long courseId = id % 5 == 0 ? null : (long) (id % 2);
+            rows.add(row(id, CHOICE, level, courseId));
+        }
+        return rows;
+    }
+
+    private static Object[] row(long id, QuestionType type, String level, Long courseId) {
+        return new Object[]{id, type.name(), level, courseId};
+    }
+
+    private static long[] sorted(long[] ids) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        Set<Long> set = new HashSet<>();
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,112 @@
+package com.nihongo.learningplatform.grading;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks rank and the leading elements against a plain sorted list after every change
+class RankedSetTest {
+
+    @Test
+    void rankAndFirstMatchASortedListThroughRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        List<Integer> sorted = new ArrayList<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            int value = random.nextInt(500);
+            int index = Collections.binarySearch(sorted, value);
+            if (index >= 0) {
+                assertTrue(set.remove(value));
+                sorted.remove(index);
+            } else {
+                set.add(value);
+                sorted.add(-index - 1, value);
+            }
+            assertEquals(sorted.size(), set.size());
+
+            int probe = random.nextInt(520) - 10;
+            int expectedRank = Collections.binarySearch(sorted, probe);
+            assertEquals(expectedRank >= 0 ? expectedRank : -expectedRank - 1, set.rank(probe));
+            int limit = random.nextInt(20);
+            assertEquals(sorted.subList(0, Math.min(limit, sorted.size())), set.first(limit));
+        }
+        assertEquals(sorted, set.first(sorted.size()));
+    }
+
+    @Test
+    void selectingTheKthElementAgreesWithItsRank() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.reverseOrder());
+        for (int value = 0; value < 100; value++) {
+            set.add(value * 3);
+        }
+
+        List<Integer> all = set.first(set.size());
+        for (int k = 0; k < all.size(); k++) {
+            assertEquals(k, set.rank(all.get(k)));
+            assertEquals(all.get(k), set.first(k + 1).get(k));
+        }
+        assertEquals(297, (int) all.get(0));
+        assertEquals(0, (int) all.get(99));
+    }
+
+    @Test
+    void rankOfAnAbsentValueCountsTheElementsBeforeIt() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        for (int value : new int[]{10, 20, 30}) {
+            set.add(value);
+        }
+
+        assertEquals(0, set.rank(5));
+        assertEquals(1, set.rank(15));
+        assertEquals(3, set.rank(35));
+        assertFalse(set.remove(15));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    void emptySetAndOutOfRangeLimits() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        assertEquals(0, set.size());
+        assertEquals(0, set.rank(1));
+        assertEquals(List.of(), set.first(5));
+        assertFalse(set.remove(1));
+
+        set.add(1);
+        set.add(2);
+        assertEquals(List.of(), set.first(0));
+        assertEquals(List.of(), set.first(-1));
+        assertEquals(List.of(1, 2), set.first(10));
+    }
+
+    @Test
+    void leaderboardEntriesTiedOnScoreAreRankedByDurationThenTime() {
+        LocalDateTime at = LocalDateTime.of(2024, 1, 1, 10, 0);
+        RankedSet<Leaderboard.Entry> set = new RankedSet<>(Leaderboard.ORDER);
+        Leaderboard.Entry slow = entry(1, 80, 5_000, at);
+        Leaderboard.Entry fast = entry(2, 80, 3_000, at.plusMinutes(5));
+        Leaderboard.Entry later = entry(3, 80, 3_000, at.plusMinutes(9));
+        Leaderboard.Entry best = entry(4, 95, 9_000, at);
+        for (Leaderboard.Entry entry : List.of(slow, later, best, fast)) {
+            set.add(entry);
+        }
+
+        assertEquals(List.of(best, fast, later, slow), set.first(4));
+        assertEquals(2, set.rank(later));
+        assertTrue(set.remove(fast));
+        assertEquals(1, set.rank(later));
+    }
+
+    private static Leaderboard.Entry entry(long userId, int score, long durationMillis, LocalDateTime at) {
+        return new Leaderboard.Entry(userId, "user" + userId, userId, 1L, score, durationMillis, at);
+    }
+}
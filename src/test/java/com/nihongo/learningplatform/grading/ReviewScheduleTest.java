@@ -0,0 +1,86 @@
+package com.nihongo.learningplatform.grading;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReviewScheduleTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void passingGradesGrowTheIntervalOneSixThenByTheEaseFactor() {
+        ReviewSchedule.State first = ReviewSchedule.next(ReviewSchedule.NEW, 4);
+        assertEquals(1, first.intervalDays());
+        assertEquals(1, first.repetitions());
+        assertEquals(2.5, first.ease(), EPSILON);
+
+        ReviewSchedule.State second = ReviewSchedule.next(first, 4);
+        assertEquals(6, second.intervalDays());
+        assertEquals(2, second.repetitions());
+
+        ReviewSchedule.State third = ReviewSchedule.next(second, 4);
+        assertEquals(15, third.intervalDays());
+        assertEquals(3, third.repetitions());
+    }
+
+    @Test
+    void easeMovesWithTheGradeAndIsFlooredAt1Point3() {
+        assertEquals(2.6, ReviewSchedule.next(ReviewSchedule.NEW, 5).ease(), EPSILON);
+        assertEquals(2.36, ReviewSchedule.next(ReviewSchedule.NEW, 3).ease(), EPSILON);
+        assertEquals(1.7, ReviewSchedule.next(ReviewSchedule.NEW, 0).ease(), EPSILON);
+
+        ReviewSchedule.State state = ReviewSchedule.NEW;
+        for (int i = 0; i < 10; i++) {
+            state = ReviewSchedule.next(state, 0);
+        }
+        assertEquals(1.3, state.ease(), EPSILON);
+    }
+
+    @Test
+    void failingALearnedItemCountsALapseAndRestartsTheStreak() {
+        ReviewSchedule.State learned = new ReviewSchedule.State(2.5, 15, 3, 1);
+
+        ReviewSchedule.State failed = ReviewSchedule.next(learned, 2);
+        assertEquals(0, failed.intervalDays());
+        assertEquals(0, failed.repetitions());
+        assertEquals(2, failed.lapses());
+
+        // Failing an item that was never learned is not a lapse
+        assertEquals(0, ReviewSchedule.next(ReviewSchedule.NEW, 1).lapses());
+        assertEquals(1, ReviewSchedule.next(failed, 4).intervalDays());
+    }
+
+    @Test
+    void intervalsAreCappedAtAYear() {
+        ReviewSchedule.State state = new ReviewSchedule.State(2.5, 200, 8, 0);
+        assertEquals(365, ReviewSchedule.next(state, 5).intervalDays());
+    }
+
+    @Test
+    void gradesOutsideTheScaleAreClamped() {
+        assertEquals(ReviewSchedule.next(ReviewSchedule.NEW, 5), ReviewSchedule.next(ReviewSchedule.NEW, 9));
+        assertEquals(ReviewSchedule.next(ReviewSchedule.NEW, 0), ReviewSchedule.next(ReviewSchedule.NEW, -3));
+    }
+
+    @Test
+    void relearningComesDueInMinutesAndLearnedItemsInDays() {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 9, 0);
+        assertEquals(at.plusMinutes(10), ReviewSchedule.dueAt(new ReviewSchedule.State(2.0, 0, 0, 1), at));
+        assertEquals(at.plusDays(6), ReviewSchedule.dueAt(new ReviewSchedule.State(2.5, 6, 2, 0), at));
+    }
+
+    @Test
+    void correctnessAndScoresMapOntoTheGradeScale() {
+        assertEquals(4, ReviewSchedule.gradeForCorrect(true));
+        assertEquals(1, ReviewSchedule.gradeForCorrect(false));
+        assertEquals(5, ReviewSchedule.gradeForScore(90));
+        assertEquals(4, ReviewSchedule.gradeForScore(89.9));
+        assertEquals(3, ReviewSchedule.gradeForScore(60));
+        assertEquals(2, ReviewSchedule.gradeForScore(40));
+        assertEquals(1, ReviewSchedule.gradeForScore(20));
+        assertEquals(0, ReviewSchedule.gradeForScore(19.9));
+    }
+}
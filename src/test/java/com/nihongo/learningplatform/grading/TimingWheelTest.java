@@ -0,0 +1,124 @@
+package com.nihongo.learningplatform.grading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs a real wheel with a 10 ms tick and only four buckets, so every deadline past 40 ms wraps around
+class TimingWheelTest {
+
+    private static final long TICK_MILLIS = 10;
+
+    private final BlockingQueue<Fired> fired = new LinkedBlockingQueue<>();
+    private final TimingWheel wheel = new TimingWheel("test-wheel", TICK_MILLIS, 4, keys -> {
+        long now = System.currentTimeMillis();
+        for (Long key : keys) {
+            fired.add(new Fired(key, now));
+        }
+    });
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    void deadlinesSeveralTurnsAwayFireInOrderAndNeverEarly() throws InterruptedException {
+        wheel.start();
+        long now = System.currentTimeMillis();
+        long[] deadlines = {now + 95, now + 25, now + 130, now + 55};
+        for (int key = 0; key < deadlines.length; key++) {
+            wheel.schedule(key, deadlines[key]);
+        }
+        assertEquals(4, wheel.size());
+
+        List<Long> order = new ArrayList<>();
+        for (int i = 0; i < deadlines.length; i++) {
+            Fired next = next();
+            assertTrue(next.at() >= deadlines[(int) next.key()], "Fired before its deadline: " + next.key());
+            order.add(next.key());
+        }
+        assertEquals(List.of(1L, 3L, 0L, 2L), order);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimeoutsDoNotFire() throws InterruptedException {
+        wheel.start();
+        long now = System.currentTimeMillis();
+        wheel.schedule(1, now + 30);
+        wheel.schedule(2, now + 60);
+
+        assertTrue(wheel.cancel(1));
+        assertFalse(wheel.cancel(1));
+        assertFalse(wheel.cancel(99));
+        assertEquals(1, wheel.size());
+
+        assertEquals(2, next().key());
+        assertNull(fired.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void reschedulingReplacesThePendingTimeout() throws InterruptedException {
+        wheel.start();
+        long now = System.currentTimeMillis();
+        wheel.schedule(7, now + 20);
+        wheel.schedule(7, now + 120);
+        assertEquals(1, wheel.size());
+
+        Fired once = next();
+        assertEquals(7, once.key());
+        assertTrue(once.at() >= now + 120);
+        assertNull(fired.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void deadlinesInThePastFireOnTheNextTick() throws InterruptedException {
+        wheel.start();
+        Thread.sleep(5 * TICK_MILLIS);
+        long now = System.currentTimeMillis();
+        wheel.schedule(3, now + 200);
+        wheel.schedule(4, now - 60_000);
+
+        Fired overdue = next();
+        assertEquals(4, overdue.key());
+        assertTrue(overdue.at() - now < 200, "Overdue timeout waited " + (overdue.at() - now) + " ms");
+        assertEquals(3, next().key());
+    }
+
+    @Test
+    void timeoutsScheduledBeforeStartFireOnceStarted() throws InterruptedException {
+        wheel.schedule(5, System.currentTimeMillis() - 1);
+        assertNull(fired.poll(3 * TICK_MILLIS, TimeUnit.MILLISECONDS));
+
+        wheel.start();
+        assertEquals(5, next().key());
+    }
+
+    @Test
+    void invalidDimensionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel("bad", 0, 4, keys -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel("bad", 10, 0, keys -> { }));
+    }
+
+    private Fired next() throws InterruptedException {
+        Fired next = fired.poll(5, TimeUnit.SECONDS);
+        assertNotNull(next, "Timeout did not fire");
+        return next;
+    }
+
+    private record Fired(long key, long at) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.nihongo.learningplatform.history;
+
+import com.nihongo.learningplatform.entity.ActivityType;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LearningHistoryDetailsTest {
+
+    @Test
+    void factoriesUseTheSharedFieldNamesAndLeaveOutNulls() {
+        assertEquals(Map.of("examId", 3L, "score", 40, "passed", false),
+                LearningHistoryDetails.examCompleted(3L, 40, false));
+        assertEquals(Map.of("examId", 3L, "passed", false),
+                LearningHistoryDetails.examCompleted(3L, null, null));
+        assertEquals(Map.of("paymentId", 9L), LearningHistoryDetails.purchase(9L, null));
+        assertEquals(Map.of(), LearningHistoryDetails.login());
+        assertEquals(List.of("mockExamId", "score", "passed"),
+                List.copyOf(LearningHistoryDetails.mockExamCompleted(1L, 90, true).keySet()));
+    }
+
+    @Test
+    void everyFactoryShapePassesValidation() {
+        assertDoesNotThrow(() -> {
+            LearningHistoryDetails.validate(ActivityType.COURSE_ENROLLMENT, LearningHistoryDetails.courseEnrollment(1L));
+            LearningHistoryDetails.validate(ActivityType.LESSON_COMPLETED, LearningHistoryDetails.lessonCompleted(1L));
+            LearningHistoryDetails.validate(ActivityType.EXERCISE_COMPLETED, LearningHistoryDetails.exerciseCompleted(1L, 5));
+            LearningHistoryDetails.validate(ActivityType.EXAM_COMPLETED, LearningHistoryDetails.examCompleted(1L, 5, true));
+            LearningHistoryDetails.validate(ActivityType.MOCK_EXAM_COMPLETED,
+                    LearningHistoryDetails.mockExamCompleted(1L, 5, false));
+            LearningHistoryDetails.validate(ActivityType.CERTIFICATE_EARNED,
+                    LearningHistoryDetails.certificateEarned(1L, 2L));
+            LearningHistoryDetails.validate(ActivityType.LOGIN, LearningHistoryDetails.login());
+            LearningHistoryDetails.validate(ActivityType.PURCHASE, LearningHistoryDetails.purchase(1L, "paid"));
+            LearningHistoryDetails.validate(ActivityType.COMMENT_POSTED, LearningHistoryDetails.commentPosted(1L, 2L));
+            LearningHistoryDetails.validate(ActivityType.REVIEW_POSTED, LearningHistoryDetails.reviewPosted(1L, 2L));
+            LearningHistoryDetails.validate(ActivityType.EXAM_COMPLETED, null);
+        });
+    }
+
+    @Test
+    void missingRequiredFieldsAreRejected() {
+        assertThrows(BadRequestException.class, () -> LearningHistoryDetails.validate(
+                ActivityType.EXERCISE_COMPLETED, Map.of("exerciseId", 1)));
+        Map<String, Object> nullScore = new HashMap<>();
+        nullScore.put("examId", 1);
+        nullScore.put("score", null);
+        nullScore.put("passed", true);
+        assertThrows(BadRequestException.class,
+                () -> LearningHistoryDetails.validate(ActivityType.EXAM_COMPLETED, nullScore));
+    }
+
+    @Test
+    void scoreAndPassedMustBeTyped() {
+        assertThrows(BadRequestException.class, () -> LearningHistoryDetails.validate(
+                ActivityType.EXERCISE_COMPLETED, Map.of("exerciseId", 1, "score", "80")));
+        assertThrows(BadRequestException.class, () -> LearningHistoryDetails.validate(
+                ActivityType.EXERCISE_COMPLETED, Map.of("exerciseId", 1, "score", 80.5)));
+        assertThrows(BadRequestException.class, () -> LearningHistoryDetails.validate(
+                ActivityType.EXAM_COMPLETED, Map.of("examId", 1, "score", 80, "passed", "yes")));
+        assertDoesNotThrow(() -> LearningHistoryDetails.validate(
+                ActivityType.EXERCISE_COMPLETED, Map.of("exerciseId", 1, "score", 80L)));
+    }
+}
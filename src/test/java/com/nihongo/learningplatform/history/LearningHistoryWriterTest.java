@@ -0,0 +1,97 @@
+package com.nihongo.learningplatform.history;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.entity.ActivityType;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Exam;
+import com.nihongo.learningplatform.entity.Exercise;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class LearningHistoryWriterTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LearningHistoryWriter writer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void batchInsertDerivesModuleAndCourseFromTheReferencedContent() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Lesson lesson = fixtures.lesson(course);
+        Exercise exercise = fixtures.exercise(course);
+        Exam exam = fixtures.exam(course);
+        MockExam mockExam = fixtures.mockExam(course, "N5");
+        entityManager.flush();
+        LocalDateTime at = LocalDateTime.now().withNano(0);
+
+        long writtenBefore = writer.getStats().getWritten();
+        writer.flush(List.of(
+                new LearningHistoryEvent(user.getId(), ActivityType.LESSON_COMPLETED, at, null,
+                        null, lesson.getId(), null, null, null, null),
+                new LearningHistoryEvent(user.getId(), ActivityType.EXERCISE_COMPLETED, at.plusSeconds(1),
+                        Map.of("score", 80), null, null, exercise.getId(), null, null, null),
+                new LearningHistoryEvent(user.getId(), ActivityType.EXAM_COMPLETED, at.plusSeconds(2), null,
+                        null, null, null, exam.getId(), null, null),
+                new LearningHistoryEvent(user.getId(), ActivityType.MOCK_EXAM_COMPLETED, at.plusSeconds(3), null,
+                        null, null, null, null, mockExam.getId(), null),
+                new LearningHistoryEvent(user.getId(), ActivityType.LOGIN, at.plusSeconds(4), null,
+                        null, null, null, null, null, null)));
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT activity_type, module_id, course_id, details ->> 'score' AS score " +
+                "FROM learning_history WHERE user_id = ? ORDER BY \"timestamp\"", user.getId());
+        assertEquals(5, rows.size());
+        assertEquals(5, writer.getStats().getWritten() - writtenBefore);
+
+        assertEquals("LESSON_COMPLETED", rows.get(0).get("activity_type"));
+        assertEquals(lesson.getModule().getId(), ((Number) rows.get(0).get("module_id")).longValue());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(course.getId(), ((Number) rows.get(i).get("course_id")).longValue());
+        }
+        assertNull(rows.get(1).get("module_id"));
+        assertEquals("80", rows.get(1).get("score"));
+        assertNull(rows.get(4).get("course_id"));
+    }
+
+    @Test
+    void explicitCourseIdWins() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        entityManager.flush();
+
+        writer.flush(List.of(new LearningHistoryEvent(user.getId(), ActivityType.COURSE_ENROLLMENT,
+                LocalDateTime.now(), null, course.getId(), null, null, null, null, null)));
+
+        Long courseId = jdbcTemplate.queryForObject(
+                "SELECT course_id FROM learning_history WHERE user_id = ?", Long.class, user.getId());
+        assertEquals(course.getId(), courseId);
+    }
+}
@@ -0,0 +1,175 @@
+package com.nihongo.learningplatform.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReaderTest {
+
+    private static final int MAX_FIELD_LENGTH = 1000;
+
+    @Test
+    void quotedFieldsKeepTheirCommas() throws IOException {
+        assertEquals(List.of(List.of("a, b", "c", " d,e ")), read("\"a, b\",c,\" d,e \"\n"));
+    }
+
+    @Test
+    void doubledQuotesInsideAQuotedFieldAreOneQuote() throws IOException {
+        assertEquals(List.of(List.of("say \"hi\"", "\"", "")), read("\"say \"\"hi\"\"\",\"\"\"\",\"\""));
+    }
+
+    @Test
+    void quotedFieldsMaySpanLines() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("\"first\nsecond\r\nthird\",x\nnext,row\n"), MAX_FIELD_LENGTH);
+
+        assertEquals(List.of("first\nsecond\r\nthird", "x"), reader.next());
+        assertEquals(4, reader.getLine());
+        assertEquals(List.of("next", "row"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void crlfAndLfLineEndingsAndBlankLines() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e", "f")),
+                read("a,b\r\n\r\nc,d\ne,f\r\n"));
+        assertEquals(List.of(List.of("a"), List.of("b")), read("a\rb"));
+    }
+
+    @Test
+    void aLeadingByteOrderMarkIsSkipped() throws IOException {
+        byte[] bytes = "\uFEFFcontent,type\nq,MULTIPLE_CHOICE\n".getBytes(StandardCharsets.UTF_8);
+        CsvReader reader = new CsvReader(CsvReader.strictReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8),
+                MAX_FIELD_LENGTH);
+
+        assertEquals(List.of("content", "type"), reader.next());
+        assertEquals(List.of("q", "MULTIPLE_CHOICE"), reader.next());
+        // Only a leading mark is dropped
+        assertEquals(List.of(List.of("a", "\uFEFFb")), read("a,\uFEFFb"));
+    }
+
+    @Test
+    void trailingAndEmptyFieldsAreKept() throws IOException {
+        assertEquals(List.of(List.of("a", "b", ""), List.of("", "", ""), List.of("c", "")),
+                read("a,b,\n,,\nc,\"\""));
+    }
+
+    @Test
+    void anUnterminatedQuoteIsAnError() {
+        IOException error = assertThrows(IOException.class, () -> read("a,b\nc,\"open\nstill open\n"));
+        assertEquals("Unterminated quoted field starting on line 2", error.getMessage());
+        assertThrows(IOException.class, () -> read("\"closed\"x,y\n"));
+    }
+
+    @Test
+    void overlongFieldsAreAnError() {
+        String field = "x".repeat(MAX_FIELD_LENGTH + 1);
+        IOException error = assertThrows(IOException.class, () -> read("ok\n" + field + "\n"));
+        assertEquals("Field on line 2 is longer than " + MAX_FIELD_LENGTH + " characters", error.getMessage());
+    }
+
+    @Test
+    void bytesInvalidInTheCharsetAreReportedNotReplaced() {
+        byte[] bytes = {'o', 'k', '\n', 'b', 'a', 'd', (byte) 0xC3, '(', '\n'};
+        CsvReader reader = new CsvReader(CsvReader.strictReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8),
+                MAX_FIELD_LENGTH);
+
+        assertThrows(CharacterCodingException.class, () -> {
+            while (reader.next() != null) {
+                // The decoder may fail while filling the buffer ahead of the record being read
+            }
+        });
+    }
+
+    @Test
+    void theCharsetDecidesHowBytesAreRead() throws IOException {
+        String text = "日本語,かな\n";
+        for (String name : new String[]{"Shift_JIS", "UTF-16"}) {
+            Charset charset = Charset.forName(name);
+            CsvReader reader = new CsvReader(CsvReader.strictReader(
+                    new ByteArrayInputStream(text.getBytes(charset)), charset), MAX_FIELD_LENGTH);
+            assertEquals(List.of("日本語", "かな"), reader.next());
+        }
+        byte[] latin1 = "café,x\n".getBytes(StandardCharsets.ISO_8859_1);
+        CsvReader reader = new CsvReader(CsvReader.strictReader(new ByteArrayInputStream(latin1), StandardCharsets.UTF_8),
+                MAX_FIELD_LENGTH);
+        assertThrows(CharacterCodingException.class, reader::next);
+    }
+
+    // 50,000 questions with quoted, multi-line and escaped fields, streamed from a generated input that is
+    // never held in memory whole; memory stays bounded by one record
+    @Test
+    void fiftyThousandRowsStreamThroughInOnePass() throws IOException {
+        int rows = 50_000;
+        CsvReader reader = new CsvReader(CsvReader.strictReader(new GeneratedCsv(rows), StandardCharsets.UTF_8),
+                MAX_FIELD_LENGTH);
+
+        assertEquals(List.of("content", "type", "answers", "correct"), reader.next());
+        int count = 0;
+        long started = System.nanoTime();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            assertEquals(GeneratedCsv.fields(count), record);
+            count++;
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(rows, count);
+        assertEquals(rows * 2L + 2, reader.getLine());
+        assertTrue(millis < 10_000, "Parsing " + rows + " rows took " + millis + " ms");
+    }
+
+    private static List<List<String>> read(String text) throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(text), MAX_FIELD_LENGTH);
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    // Header plus rows of two lines each, produced on demand one record at a time
+    private static final class GeneratedCsv extends InputStream {
+
+        private final int rows;
+        private byte[] current = "content,type,answers,correct\r\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int row;
+
+        private GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        static List<String> fields(int row) {
+            return List.of("第" + row + "問: \"quoted\", with a comma\nand a second line",
+                    "MULTIPLE_CHOICE", "はい|いいえ|" + row, "1");
+        }
+
+        @Override
+        public int read() {
+            if (position == current.length) {
+                if (row == rows) {
+                    return -1;
+                }
+                List<String> fields = fields(row++);
+                current = ("\"" + fields.get(0).replace("\"", "\"\"") + "\"," + fields.get(1) + ","
+                        + fields.get(2) + "," + fields.get(3) + "\r\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return current[position++] & 0xFF;
+        }
+    }
+}
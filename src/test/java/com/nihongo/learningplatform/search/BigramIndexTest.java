@@ -0,0 +1,190 @@
+package com.nihongo.learningplatform.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BigramIndexTest {
+
+    private static final int LESSON = 1;
+    private static final int QUESTION = 2;
+
+    @Test
+    void findsDocumentsContainingEveryBigramOfTheQuery() {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 1, "日本語を勉強します");
+        index.put(LESSON, 2, "日本へ行きます");
+        index.put(LESSON, 3, "英語を勉強します");
+
+        assertEquals(List.of(new BigramIndex.Hit(LESSON, 2), new BigramIndex.Hit(LESSON, 1)),
+                index.search("日本", 10));
+        assertEquals(List.of(new BigramIndex.Hit(LESSON, 1)), index.search("日本語", 10));
+        assertEquals(List.of(), index.search("日本で", 10));
+    }
+
+    @Test
+    void oneCharacterQueriesMatchOnUnigrams() {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 1, "猫がいます");
+        index.put(LESSON, 2, "犬がいます");
+
+        assertEquals(List.of(new BigramIndex.Hit(LESSON, 1)), index.search("猫", 10));
+    }
+
+    @Test
+    void sameEntityIdOfDifferentTypesAreSeparateDocuments() {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 7, "ひらがな");
+        index.put(QUESTION, 7, "ひらがな");
+
+        assertEquals(2, index.search("ひら", 10).size());
+        index.remove(LESSON, 7);
+        assertEquals(List.of(new BigramIndex.Hit(QUESTION, 7)), index.search("ひら", 10));
+    }
+
+    @Test
+    void queryAndDocumentAreNormalizedAlike() {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 1, "ｶﾀｶﾅ and ＦＵＬＬ width");
+
+        assertEquals(1, index.search("カタカナ", 10).size());
+        assertEquals(1, index.search("full", 10).size());
+        assertEquals(1, index.search("WIDTH", 10).size());
+    }
+
+    @Test
+    void punctuationAndWhitespaceDoNotFormBigrams() {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 1, "あい、うえ");
+
+        assertEquals(List.of(), index.search("いう", 10));
+        assertEquals(1, index.search("あい うえ", 10).size());
+    }
+
+    @Test
+    void shorterDocumentsRankFirstThenNewer() {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 1, "漢字の練習と復習をする");
+        index.put(LESSON, 2, "漢字");
+        index.put(LESSON, 3, "漢字");
+
+        assertEquals(List.of(new BigramIndex.Hit(LESSON, 3), new BigramIndex.Hit(LESSON, 2),
+                new BigramIndex.Hit(LESSON, 1)), index.search("漢字", 10));
+        assertEquals(2, index.search("漢字", 2).size());
+        assertEquals(List.of(), index.search("漢字", 0));
+    }
+
+    @Test
+    void putReplacesThePreviousTextOfTheEntity() {
+        BigramIndex index = new BigramIndex();
+        index.put(QUESTION, 5, "古い問題");
+        index.put(QUESTION, 5, "新しい問題");
+
+        assertEquals(List.of(), index.search("古い", 10));
+        assertEquals(List.of(new BigramIndex.Hit(QUESTION, 5)), index.search("新しい", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void emptyTextRemovesTheEntity() {
+        BigramIndex index = new BigramIndex();
+        index.put(QUESTION, 5, "問題");
+        index.put(QUESTION, 5, " ");
+
+        assertEquals(0, index.size());
+        assertEquals(List.of(), index.search("問題", 10));
+    }
+
+    @Test
+    void compactionKeepsLiveDocumentsSearchable() {
+        BigramIndex index = new BigramIndex();
+        for (long id = 0; id < 3000; id++) {
+            index.put(LESSON, id, "文法 " + id);
+        }
+        for (long id = 0; id < 3000; id++) {
+            if (id % 3 != 0) {
+                index.remove(LESSON, id);
+            }
+        }
+        index.compact();
+
+        assertEquals(1000, index.size());
+        assertEquals(1000, index.search("文法", 5000).size());
+        assertEquals(List.of(new BigramIndex.Hit(LESSON, 2997)), index.search("2997", 10));
+        assertEquals(List.of(), index.search("2998", 10));
+
+        index.put(LESSON, 2998, "文法 2998");
+        assertEquals(List.of(new BigramIndex.Hit(LESSON, 2998)), index.search("2998", 10));
+    }
+
+    @Test
+    void entityIdsListsLiveDocumentsOfOneType() {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 1, "一");
+        index.put(LESSON, 2, "二");
+        index.put(QUESTION, 3, "三");
+        index.remove(LESSON, 2);
+
+        assertEquals(Set.of(1L), index.entityIds(LESSON));
+        assertEquals(Set.of(3L), index.entityIds(QUESTION));
+    }
+
+    @Test
+    void postingListsRoundTripLargeGaps() {
+        BigramIndex.PostingList list = new BigramIndex.PostingList();
+        int[] docIds = {0, 1, 127, 128, 16_383, 16_384, 2_000_000, Integer.MAX_VALUE - 1};
+        for (int docId : docIds) {
+            list.append(docId);
+        }
+
+        assertEquals(docIds.length, list.count);
+        assertEquals(List.of(0, 1, 127, 128, 16_383, 16_384, 2_000_000, Integer.MAX_VALUE - 1),
+                Arrays.stream(list.decode()).boxed().toList());
+    }
+
+    @Test
+    void snapshotRoundTripPreservesDocumentsAndTombstones() throws IOException {
+        BigramIndex index = new BigramIndex();
+        index.put(LESSON, 1, "東京の天気");
+        index.put(LESSON, 2, "京都の天気");
+        index.put(QUESTION, 3, "天気予報");
+        index.remove(LESSON, 2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        BigramIndex restored = BigramIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.search("天気", 10), restored.search("天気", 10));
+        assertEquals(2, restored.size());
+        assertEquals(List.of(), restored.search("京都", 10));
+
+        restored.put(LESSON, 2, "京都の天気");
+        assertEquals(List.of(new BigramIndex.Hit(LESSON, 2)), restored.search("京都", 10));
+    }
+
+    @Test
+    void readingSomethingElseFails() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class,
+                () -> BigramIndex.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+
+    @Test
+    void queryGramsFallBackToUnigramsOnlyForSingleCharacters() {
+        assertEquals(1, BigramIndex.queryGrams("a").length);
+        assertEquals(1, BigramIndex.queryGrams("ab").length);
+        assertEquals(2, BigramIndex.queryGrams("ab c").length);
+        assertEquals(0, BigramIndex.queryGrams("、。 ").length);
+        assertEquals(5, BigramIndex.documentGrams("abc").length);
+    }
+}
@@ -0,0 +1,72 @@
+package com.nihongo.learningplatform.security;
+
+import com.nihongo.learningplatform.entity.UserRole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of authenticating a bearer token when its claims are cached, and when the working set is twice the
+// cache so every request misses, verifies the signature and evicts the least recently used entry.
+// Run main() with the test classpath, e.g. from the IDE after mvn test-compile
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final int CACHE_SIZE = 10_000;
+
+    @Param({"1000", "20000"})
+    private int distinctTokens;
+
+    private JwtTokenProvider provider;
+    private String[] tokens;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", "benchmark-secret-benchmark-secret-benchmark-secret-0123456789");
+        ReflectionTestUtils.setField(provider, "jwtExpirationMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(provider, "claimsCacheMaxSize", CACHE_SIZE);
+        provider.init();
+
+        tokens = new String[distinctTokens];
+        for (int i = 0; i < distinctTokens; i++) {
+            tokens[i] = provider.generateToken((long) i, "user" + i, UserRole.STUDENT);
+        }
+        // Fill the cache so the measured calls start from the steady state
+        for (String token : tokens) {
+            provider.getAuthentication(token);
+        }
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        String token = tokens[cursor];
+        cursor = cursor + 1 == tokens.length ? 0 : cursor + 1;
+        return provider.getAuthentication(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtTokenProviderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
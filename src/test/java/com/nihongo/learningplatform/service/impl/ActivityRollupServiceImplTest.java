@@ -0,0 +1,141 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.DailyActivityDto;
+import com.nihongo.learningplatform.dto.StudyStreakDto;
+import com.nihongo.learningplatform.entity.ActivityType;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.ActivityRollupService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class ActivityRollupServiceImplTest {
+
+    private static final int LESSON_MINUTES = 20;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void consecutiveStudyDaysBuildAStreakAndLoginsDoNot() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Lesson lesson = lesson();
+        LocalDate today = LocalDate.now();
+
+        record(user, ActivityType.LOGIN, lesson, today.minusDays(3));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(2));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(1));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today);
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today);
+
+        StudyStreakDto streak = activityRollupService.getStudyStreak(user.getId());
+        assertEquals(3, streak.getCurrentStreak());
+        assertEquals(3, streak.getLongestStreak());
+        assertEquals(today, streak.getLastActiveDate());
+        assertTrue(streak.isActiveToday());
+
+        List<DailyActivityDto> heatmap = activityRollupService.getUserHeatmap(user.getId(), 7);
+        assertEquals(4, heatmap.size());
+        assertEquals(0, heatmap.get(0).getStudyMinutes());
+        assertEquals(today, heatmap.get(3).getDate());
+        assertEquals(2, heatmap.get(3).getActivityCount());
+        assertEquals(2 * LESSON_MINUTES, heatmap.get(3).getStudyMinutes());
+    }
+
+    @Test
+    void aGapRestartsTheStreakButKeepsTheLongest() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Lesson lesson = lesson();
+        LocalDate today = LocalDate.now();
+
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(10));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(9));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(8));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(1));
+
+        StudyStreakDto streak = activityRollupService.getStudyStreak(user.getId());
+        assertEquals(1, streak.getCurrentStreak());
+        assertEquals(3, streak.getLongestStreak());
+        assertFalse(streak.isActiveToday());
+    }
+
+    @Test
+    void aStreakNotExtendedYesterdayReadsAsBroken() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Lesson lesson = lesson();
+
+        record(user, ActivityType.LESSON_COMPLETED, lesson, LocalDate.now().minusDays(3));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, LocalDate.now().minusDays(2));
+
+        StudyStreakDto streak = activityRollupService.getStudyStreak(user.getId());
+        assertEquals(0, streak.getCurrentStreak());
+        assertEquals(2, streak.getLongestStreak());
+    }
+
+    @Test
+    void rebuildMatchesWhatTheTriggerMaintained() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Lesson lesson = lesson();
+        LocalDate today = LocalDate.now();
+        record(user, ActivityType.LOGIN, lesson, today.minusDays(6));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(5));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(4));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today.minusDays(1));
+        record(user, ActivityType.LESSON_COMPLETED, lesson, today);
+
+        StudyStreakDto streak = activityRollupService.getStudyStreak(user.getId());
+        List<DailyActivityDto> heatmap = activityRollupService.getUserHeatmap(user.getId(), 30);
+        List<DailyActivityDto> courseHeatmap = activityRollupService.getCourseHeatmap(lesson.getCourse().getId(), 30);
+
+        activityRollupService.rebuildRollups();
+        entityManager.clear();
+
+        assertEquals(streak, activityRollupService.getStudyStreak(user.getId()));
+        assertEquals(heatmap, activityRollupService.getUserHeatmap(user.getId(), 30));
+        assertEquals(courseHeatmap, activityRollupService.getCourseHeatmap(lesson.getCourse().getId(), 30));
+        assertEquals(5, courseHeatmap.stream().mapToLong(DailyActivityDto::getActivityCount).sum());
+    }
+
+    private Lesson lesson() {
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Lesson lesson = fixtures.lesson(course);
+        lesson.setDurationMinutes(LESSON_MINUTES);
+        entityManager.flush();
+        return lesson;
+    }
+
+    private void record(User user, ActivityType type, Lesson lesson, LocalDate day) {
+        jdbcTemplate.update("INSERT INTO learning_history (user_id, activity_type, \"timestamp\", lesson_id, course_id) " +
+                        "VALUES (?, ?, ?, ?, ?)",
+                user.getId(), type.name(), Timestamp.valueOf(day.atTime(12, 0)), lesson.getId(),
+                lesson.getCourse().getId());
+    }
+}
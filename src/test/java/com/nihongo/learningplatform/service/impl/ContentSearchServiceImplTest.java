@@ -0,0 +1,123 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.ContentSearchResultDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.entity.Solution;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.repository.SolutionRepository;
+import com.nihongo.learningplatform.service.ContentSearchService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class ContentSearchServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ContentSearchService contentSearchService;
+
+    @Autowired
+    private SolutionRepository solutionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void instructorsSeeTheirOwnCoursesAndOnlyStudentContentOfPublishedOnes() {
+        String marker = "scope" + UUID.randomUUID().toString().replace("-", "");
+        User instructor = fixtures.user(UserRole.INSTRUCTOR);
+        User other = fixtures.user(UserRole.INSTRUCTOR);
+        Course own = fixtures.course(instructor);
+        own.setApproved(false);
+        Course published = fixtures.course(other);
+        Course unpublished = fixtures.course(other);
+        unpublished.setApproved(false);
+
+        Question ownExamQuestion = question(fixtures.question(null, fixtures.exam(own), null, 2), marker);
+        Solution ownSolution = solution(ownExamQuestion, marker);
+        Lesson ownLesson = lesson(own, marker);
+        Question publishedExerciseQuestion = question(
+                fixtures.question(fixtures.exercise(published), null, null, 2), marker);
+        Lesson publishedLesson = lesson(published, marker);
+        Question publishedExamQuestion = question(fixtures.question(null, fixtures.exam(published), null, 2), marker);
+        Question publishedMockExamQuestion = question(
+                fixtures.question(null, null, fixtures.mockExam(published, "N5"), 2), marker);
+        Solution publishedSolution = solution(publishedExerciseQuestion, marker);
+        Question unpublishedExerciseQuestion = question(
+                fixtures.question(fixtures.exercise(unpublished), null, null, 2), marker);
+        Lesson unpublishedLesson = lesson(unpublished, marker);
+        Question generalMockExamQuestion = question(fixtures.question(null, null, fixtures.mockExam(null, "N5"), 2), marker);
+        entityManager.flush();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(Set.of(
+                        "QUESTION:" + ownExamQuestion.getId(),
+                        "SOLUTION:" + ownSolution.getId(),
+                        "LESSON:" + ownLesson.getId(),
+                        "QUESTION:" + publishedExerciseQuestion.getId(),
+                        "LESSON:" + publishedLesson.getId()),
+                keys(contentSearchService.searchForInstructor(marker, 100, instructor.getId())));
+        assertEquals(Set.of(
+                        "QUESTION:" + ownExamQuestion.getId(),
+                        "SOLUTION:" + ownSolution.getId(),
+                        "LESSON:" + ownLesson.getId(),
+                        "QUESTION:" + publishedExerciseQuestion.getId(),
+                        "LESSON:" + publishedLesson.getId(),
+                        "QUESTION:" + publishedExamQuestion.getId(),
+                        "QUESTION:" + publishedMockExamQuestion.getId(),
+                        "SOLUTION:" + publishedSolution.getId(),
+                        "QUESTION:" + unpublishedExerciseQuestion.getId(),
+                        "LESSON:" + unpublishedLesson.getId(),
+                        "QUESTION:" + generalMockExamQuestion.getId()),
+                keys(contentSearchService.search(marker, 100)));
+    }
+
+    private Question question(Question question, String marker) {
+        question.setContent(marker + " question");
+        contentSearchService.indexQuestion(question);
+        return question;
+    }
+
+    private Lesson lesson(Course course, String marker) {
+        Lesson lesson = fixtures.lesson(course);
+        lesson.setContent(marker + " lesson");
+        contentSearchService.indexLesson(lesson);
+        return lesson;
+    }
+
+    private Solution solution(Question question, String marker) {
+        Solution solution = new Solution();
+        solution.setContent(marker + " solution");
+        solution.setQuestion(question);
+        solution = solutionRepository.save(solution);
+        contentSearchService.indexSolution(solution);
+        return solution;
+    }
+
+    private static Set<String> keys(List<ContentSearchResultDto> results) {
+        return results.stream()
+                .map(result -> result.getContentType() + ":" + result.getId())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,90 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.CourseRatingStats;
+import com.nihongo.learningplatform.entity.Review;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.repository.ReviewRepository;
+import com.nihongo.learningplatform.service.CourseRatingStatsService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class CourseRatingStatsServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CourseRatingStatsService courseRatingStatsService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void deltasKeepSumCountHistogramAndAverage() {
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+
+        courseRatingStatsService.recordRatingAdded(course.getId(), 5);
+        courseRatingStatsService.recordRatingAdded(course.getId(), 3);
+        courseRatingStatsService.recordRatingAdded(course.getId(), 4);
+        courseRatingStatsService.recordRatingChanged(course.getId(), 3, 1);
+        courseRatingStatsService.recordRatingRemoved(course.getId(), 5);
+
+        CourseRatingStats stats = reload(course.getId());
+        assertEquals(5, stats.getRatingSum());
+        assertEquals(2, stats.getRatingCount());
+        assertEquals(1, stats.getOneStarCount());
+        assertEquals(0, stats.getThreeStarCount());
+        assertEquals(1, stats.getFourStarCount());
+        assertEquals(0, stats.getFiveStarCount());
+        assertEquals(2.5, stats.getAverageRating(), 1e-9);
+    }
+
+    @Test
+    void rebuildMatchesTheReviewsTable() {
+        User instructor = fixtures.user(UserRole.INSTRUCTOR);
+        Course course = fixtures.course(instructor);
+        int[] ratings = {5, 5, 4, 2};
+        for (int rating : ratings) {
+            Review review = new Review();
+            review.setRating(rating);
+            review.setUser(fixtures.user(UserRole.STUDENT));
+            review.setCourse(course);
+            reviewRepository.save(review);
+        }
+        // Deliberately wrong aggregates, as if a delta had been lost
+        courseRatingStatsService.recordRatingAdded(course.getId(), 1);
+        entityManager.flush();
+
+        courseRatingStatsService.rebuildAll();
+
+        CourseRatingStats stats = reload(course.getId());
+        assertEquals(16, stats.getRatingSum());
+        assertEquals(4, stats.getRatingCount());
+        assertEquals(0, stats.getOneStarCount());
+        assertEquals(1, stats.getTwoStarCount());
+        assertEquals(1, stats.getFourStarCount());
+        assertEquals(2, stats.getFiveStarCount());
+        assertEquals(4.0, stats.getAverageRating(), 1e-9);
+    }
+
+    private CourseRatingStats reload(Long courseId) {
+        entityManager.flush();
+        entityManager.clear();
+        return courseRatingStatsService.getStats(courseId);
+    }
+}
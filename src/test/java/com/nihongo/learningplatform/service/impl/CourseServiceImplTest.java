@@ -0,0 +1,175 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.CourseCatalogFilterDto;
+import com.nihongo.learningplatform.dto.CourseDto;
+import com.nihongo.learningplatform.dto.CourseSummaryDto;
+import com.nihongo.learningplatform.dto.CursorPageResponseDto;
+import com.nihongo.learningplatform.dto.PageResponseDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.repository.CourseRatingStatsRepository;
+import com.nihongo.learningplatform.service.CourseRatingStatsService;
+import com.nihongo.learningplatform.service.CourseService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class CourseServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseRatingStatsService courseRatingStatsService;
+
+    @Autowired
+    private CourseRatingStatsRepository courseRatingStatsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void ratingCatalogPagesThroughEveryCourseInRatingOrder() {
+        User instructor = fixtures.user(UserRole.INSTRUCTOR);
+        Course unrated = fixtures.course(instructor);
+        Course three = fixtures.course(instructor);
+        Course fiveA = fixtures.course(instructor);
+        Course fiveB = fixtures.course(instructor);
+        Course four = fixtures.course(instructor);
+        courseRatingStatsService.recordRatingAdded(three.getId(), 3);
+        courseRatingStatsService.recordRatingAdded(fiveA.getId(), 5);
+        courseRatingStatsService.recordRatingAdded(fiveB.getId(), 5);
+        courseRatingStatsService.recordRatingAdded(four.getId(), 4);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResponseDto<CourseSummaryDto> page = courseService.getCourseCatalog(
+                    new CourseCatalogFilterDto(null, null, null, instructor.getId(), "rating", cursor, 2));
+            page.getContent().forEach(course -> ids.add(course.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+            assertEquals(page.isLast(), cursor == null);
+        } while (cursor != null);
+
+        // Ties on the average break on the id, highest first
+        assertEquals(List.of(fiveB.getId(), fiveA.getId(), four.getId(), three.getId(), unrated.getId()), ids);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void newestCatalogUsesCreationOrder() {
+        User instructor = fixtures.user(UserRole.INSTRUCTOR);
+        Course first = fixtures.course(instructor);
+        Course second = fixtures.course(instructor);
+        Course third = fixtures.course(instructor);
+
+        CursorPageResponseDto<CourseSummaryDto> page = courseService.getCourseCatalog(
+                new CourseCatalogFilterDto(null, null, null, instructor.getId(), "newest", null, 2));
+        CursorPageResponseDto<CourseSummaryDto> next = courseService.getCourseCatalog(
+                new CourseCatalogFilterDto(null, null, null, instructor.getId(), "newest", page.getNextCursor(), 2));
+
+        assertEquals(List.of(third.getId(), second.getId()), page.getContent().stream().map(CourseSummaryDto::getId).toList());
+        assertFalse(page.isLast());
+        assertEquals(List.of(first.getId()), next.getContent().stream().map(CourseSummaryDto::getId).toList());
+        assertTrue(next.isLast());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void publicListingsArePaginatedAndOnlyShowApprovedActiveCourses() {
+        User instructor = fixtures.user(UserRole.INSTRUCTOR);
+        String level = "T" + System.nanoTime();
+        Course first = fixtures.course(instructor, level);
+        Course second = fixtures.course(instructor, level);
+        Course inactive = fixtures.course(instructor, level);
+        inactive.setActive(false);
+        entityManager.flush();
+
+        PageResponseDto<CourseDto> page = courseService.getApprovedAndActiveCourses(level, 0, 1);
+        PageResponseDto<CourseDto> next = courseService.getApprovedAndActiveCourses(level, 1, 1);
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(second.getId(), page.getContent().get(0).getId());
+        assertEquals(first.getId(), next.getContent().get(0).getId());
+        assertTrue(next.isLast());
+        assertEquals(0.0, page.getContent().get(0).getAverageRating(), 0.0);
+    }
+
+    @Test
+    void searchMatchesWordPrefixesWithOrWithoutDiacritics() {
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        String word = uniqueWord();
+        course.setTitle("Tiếng Nhật " + word);
+        entityManager.flush();
+
+        assertTrue(searchIds(word.substring(0, word.length() - 2)).contains(course.getId()));
+        assertTrue(searchIds("tieng nhat " + word).contains(course.getId()));
+        assertTrue(searchIds("TIẾNG " + word.toUpperCase()).contains(course.getId()));
+        assertFalse(searchIds(uniqueWord()).contains(course.getId()));
+    }
+
+    @Test
+    void searchWithoutSearchableWordsIsEmpty() {
+        PageResponseDto<CourseSummaryDto> page = courseService.searchCatalog(" -- ", null, 0, 10);
+
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(0, page.getTotalElements());
+    }
+
+    @Test
+    void createdCoursesGetAZeroRatingRow() {
+        User instructor = fixtures.user(UserRole.INSTRUCTOR);
+        CourseDto dto = new CourseDto();
+        dto.setTitle("Created course");
+        dto.setDescription("Created course");
+        dto.setPrice(BigDecimal.ONE);
+        dto.setThumbnailUrl("https://example.com/thumbnail.png");
+        dto.setLevel("N5");
+
+        CourseDto created = courseService.createCourse(dto, instructor);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(courseRatingStatsRepository.existsById(created.getId()));
+        assertEquals(0.0, courseRatingStatsService.getStats(created.getId()).getAverageRating(), 0.0);
+    }
+
+    private List<Long> searchIds(String keyword) {
+        return courseService.searchCatalog(keyword, null, 0, 100).getContent().stream()
+                .map(CourseSummaryDto::getId)
+                .toList();
+    }
+
+    // Letters only, so it is a single search token
+    private static String uniqueWord() {
+        StringBuilder word = new StringBuilder("zq");
+        for (char c : Long.toString(System.nanoTime(), 26).toCharArray()) {
+            word.append((char) ('a' + Character.digit(c, 26)));
+        }
+        return word.toString();
+    }
+}
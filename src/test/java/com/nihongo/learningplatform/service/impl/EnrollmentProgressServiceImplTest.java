@@ -0,0 +1,141 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.UserProgressDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Enrollment;
+import com.nihongo.learningplatform.entity.EnrollmentProgress;
+import com.nihongo.learningplatform.entity.Exam;
+import com.nihongo.learningplatform.entity.Exercise;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.EnrollmentProgressService;
+import com.nihongo.learningplatform.service.UserProgressService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class EnrollmentProgressServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EnrollmentProgressService enrollmentProgressService;
+
+    @Autowired
+    private UserProgressService userProgressService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User student;
+    private Enrollment enrollment;
+    private Lesson first;
+    private Lesson second;
+    private Lesson optional;
+    private Exercise exercise;
+    private Exam exam;
+
+    @BeforeEach
+    void setUp() {
+        student = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        first = fixtures.lesson(course);
+        second = fixtures.lesson(course);
+        optional = fixtures.lesson(course);
+        optional.setRequired(false);
+        exercise = fixtures.exercise(course);
+        exam = fixtures.exam(course);
+        enrollment = fixtures.enrollment(student, course);
+        entityManager.flush();
+        enrollmentProgressService.initialize(enrollment.getId());
+    }
+
+    @Test
+    void newEnrollmentsStartAtTheFirstRequiredLesson() {
+        EnrollmentProgress progress = progress();
+        assertEquals(2, progress.getRequiredLessonsTotal());
+        assertEquals(0, progress.getRequiredLessonsCompleted());
+        assertEquals(first.getId(), progress.getNextLessonId());
+    }
+
+    @Test
+    void countersMoveOnlyWhenAProgressRowChangesState() {
+        userProgressService.createOrUpdateLessonProgress(student.getId(), first.getId(), true);
+        userProgressService.createOrUpdateLessonProgress(student.getId(), first.getId(), true);
+        userProgressService.createOrUpdateLessonProgress(student.getId(), optional.getId(), true);
+        userProgressService.createOrUpdateExerciseProgress(student.getId(), exercise.getId(), 70);
+        userProgressService.createOrUpdateExerciseProgress(student.getId(), exercise.getId(), 90);
+        userProgressService.createOrUpdateExamProgress(student.getId(), exam.getId(), 40);
+
+        EnrollmentProgress progress = progress();
+        assertEquals(1, progress.getRequiredLessonsCompleted());
+        assertEquals(second.getId(), progress.getNextLessonId());
+        assertEquals(1, progress.getExercisesCompleted());
+        assertEquals(0, progress.getExamsPassed());
+
+        userProgressService.createOrUpdateExamProgress(student.getId(), exam.getId(), 80);
+        userProgressService.createOrUpdateExamProgress(student.getId(), exam.getId(), 80);
+        userProgressService.createOrUpdateLessonProgress(student.getId(), second.getId(), true);
+
+        progress = progress();
+        assertEquals(1, progress.getExamsPassed());
+        assertEquals(2, progress.getRequiredLessonsCompleted());
+        assertNull(progress.getNextLessonId());
+    }
+
+    @Test
+    void undoingAndDeletingProgressTakesItBackOut() {
+        userProgressService.createOrUpdateLessonProgress(student.getId(), first.getId(), true);
+        UserProgressDto secondDone = userProgressService.createOrUpdateLessonProgress(
+                student.getId(), second.getId(), true);
+        UserProgressDto passed = userProgressService.createOrUpdateExamProgress(student.getId(), exam.getId(), 80);
+
+        userProgressService.createOrUpdateLessonProgress(student.getId(), first.getId(), false);
+        userProgressService.deleteUserProgress(secondDone.getId());
+        userProgressService.deleteUserProgress(passed.getId());
+
+        EnrollmentProgress progress = progress();
+        assertEquals(0, progress.getRequiredLessonsCompleted());
+        assertEquals(0, progress.getExamsPassed());
+        assertEquals(first.getId(), progress.getNextLessonId());
+    }
+
+    @Test
+    void rebuildAgreesWithTheIncrementalCounters() {
+        userProgressService.createOrUpdateLessonProgress(student.getId(), second.getId(), true);
+        userProgressService.createOrUpdateLessonProgress(student.getId(), optional.getId(), true);
+        userProgressService.createOrUpdateExerciseProgress(student.getId(), exercise.getId(), 50);
+        userProgressService.createOrUpdateExamProgress(student.getId(), exam.getId(), 100);
+        EnrollmentProgress incremental = progress();
+
+        enrollmentProgressService.initialize(enrollment.getId());
+        EnrollmentProgress rebuilt = progress();
+
+        assertEquals(incremental.getRequiredLessonsTotal(), rebuilt.getRequiredLessonsTotal());
+        assertEquals(incremental.getRequiredLessonsCompleted(), rebuilt.getRequiredLessonsCompleted());
+        assertEquals(incremental.getExercisesCompleted(), rebuilt.getExercisesCompleted());
+        assertEquals(incremental.getExamsPassed(), rebuilt.getExamsPassed());
+        assertEquals(incremental.getNextLessonId(), rebuilt.getNextLessonId());
+        assertEquals(first.getId(), rebuilt.getNextLessonId());
+    }
+
+    // The counters are moved by native updates, so read them past the persistence context
+    private EnrollmentProgress progress() {
+        entityManager.flush();
+        entityManager.clear();
+        return enrollmentProgressService.getProgressByStudent(student.getId()).get(enrollment.getId());
+    }
+}
@@ -0,0 +1,58 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.EntitlementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class EntitlementServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntitlementService entitlementService;
+
+    @Test
+    void cachedEntitlementsAreReloadedOnceTheEnrollmentCommits() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        assertFalse(entitlementService.hasCourseAccess(student.getId(), course.getId()));
+
+        fixtures.enrollment(student, course);
+        entitlementService.invalidateUser(student.getId());
+        // Still cached until the enrollment commits
+        assertFalse(entitlementService.hasCourseAccess(student.getId(), course.getId()));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(entitlementService.hasCourseAccess(student.getId(), course.getId()));
+        assertTrue(entitlementService.isDirectlyEnrolled(student.getId(), course.getId()));
+    }
+
+    @Test
+    void otherUsersAndCoursesHaveNoAccess() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course enrolled = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Course other = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        fixtures.enrollment(student, enrolled);
+
+        assertTrue(entitlementService.hasCourseAccess(student.getId(), enrolled.getId()));
+        assertFalse(entitlementService.hasCourseAccess(student.getId(), other.getId()));
+        assertFalse(entitlementService.hasCourseAccess(fixtures.user(UserRole.STUDENT).getId(), enrolled.getId()));
+        assertFalse(entitlementService.hasCourseAccess(null, enrolled.getId()));
+    }
+}
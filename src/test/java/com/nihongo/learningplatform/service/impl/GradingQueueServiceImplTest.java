@@ -0,0 +1,109 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.GradingQueueService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Rows written here stay uncommitted, so the workers the sweep hands them to cannot claim them
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class GradingQueueServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private GradingQueueService gradingQueueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void onlyRunsWithAStaleHeartbeatAreRequeued() {
+        User student = fixtures.user(UserRole.STUDENT);
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+        long crashed = grading(student, "crashed-instance", now.minusMinutes(10));
+        long legacy = grading(student, null, null);
+        long live = grading(student, "live-instance", now.minusSeconds(5));
+
+        int requeued = gradingQueueService.recoverInterruptedSubmissions();
+
+        assertTrue(requeued >= 2);
+        assertEquals("QUEUED", status(crashed));
+        assertEquals("QUEUED", status(legacy));
+        assertEquals("GRADING", status(live));
+        assertNull(jdbcTemplate.queryForObject("SELECT claimed_by FROM grading_submissions WHERE id = ?",
+                String.class, crashed));
+        assertEquals("live-instance", jdbcTemplate.queryForObject(
+                "SELECT claimed_by FROM grading_submissions WHERE id = ?", String.class, live));
+    }
+
+    @Test
+    void theSweepRecoversRunsAbandonedByAnotherInstance() {
+        User student = fixtures.user(UserRole.STUDENT);
+        entityManager.flush();
+        long abandoned = grading(student, "crashed-instance", LocalDateTime.now().minusMinutes(2));
+        long live = grading(student, "live-instance", LocalDateTime.now());
+
+        gradingQueueService.sweepQueuedSubmissions();
+
+        assertEquals("QUEUED", status(abandoned));
+        assertEquals("GRADING", status(live));
+    }
+
+    @Test
+    void abandonedRunsWithoutAttemptsLeftAreFailed() {
+        User student = fixtures.user(UserRole.STUDENT);
+        entityManager.flush();
+        LocalDateTime stale = LocalDateTime.now().minusMinutes(10);
+        long retried = grading(student, "crashed-instance", stale, 2);
+        long exhausted = grading(student, "crashed-instance", stale, 3);
+
+        gradingQueueService.recoverInterruptedSubmissions();
+
+        assertEquals("QUEUED", status(retried));
+        assertEquals("FAILED", status(exhausted));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT error_message FROM grading_submissions WHERE id = ?",
+                String.class, exhausted));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT completed_at FROM grading_submissions WHERE id = ?",
+                Timestamp.class, exhausted));
+    }
+
+    private long grading(User user, String claimedBy, LocalDateTime heartbeatAt) {
+        return grading(user, claimedBy, heartbeatAt, 1);
+    }
+
+    private long grading(User user, String claimedBy, LocalDateTime heartbeatAt, int attempts) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO grading_submissions (user_id, client_submission_id, type, target_id, status, attempts, " +
+                "submitted_at, claimed_by, heartbeat_at) VALUES (?, ?, 'EXAM', 1, 'GRADING', ?, ?, ?, ?) RETURNING id",
+                Long.class, user.getId(), UUID.randomUUID().toString(), attempts, Timestamp.valueOf(LocalDateTime.now()),
+                claimedBy, heartbeatAt != null ? Timestamp.valueOf(heartbeatAt) : null);
+    }
+
+    private String status(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM grading_submissions WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,126 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.LeaderboardDto;
+import com.nihongo.learningplatform.dto.LeaderboardEntryDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.entity.MockExamAttempt;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.LeaderboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The boards live in the shared service bean, so every test uses levels of its own
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class LeaderboardServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Test
+    void removingAMockExamDropsItsEntriesFromTheLevelBoard() {
+        String level = level();
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        MockExam removed = fixtures.mockExam(course, level);
+        MockExam kept = fixtures.mockExam(course, level);
+        User first = fixtures.user(UserRole.STUDENT);
+        User second = fixtures.user(UserRole.STUDENT);
+        record(first, removed, 90);
+        record(first, kept, 50);
+        record(second, kept, 70);
+        commit();
+        assertEquals(List.of(first.getId(), second.getId()), userIds(level));
+
+        leaderboardService.removeMockExam(removed.getId());
+        // Still listed until the removal commits
+        assertEquals(List.of(first.getId(), second.getId()), userIds(level));
+
+        commit();
+        assertEquals(List.of(second.getId(), first.getId()), userIds(level));
+        LeaderboardDto board = leaderboardService.getLevelLeaderboard(level, first.getId(), 10);
+        assertEquals(50, board.getMe().getScore());
+        assertEquals(kept.getId(), board.getMe().getMockExamId());
+        assertEquals(0, leaderboardService.getMockExamLeaderboard(removed.getId(), null, 10).getParticipants());
+    }
+
+    @Test
+    void movingAMockExamToAnotherLevelMovesItsEntries() {
+        String oldLevel = level();
+        String newLevel = level();
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        MockExam moved = fixtures.mockExam(course, oldLevel);
+        MockExam stays = fixtures.mockExam(course, oldLevel);
+        MockExam target = fixtures.mockExam(course, newLevel);
+        User student = fixtures.user(UserRole.STUDENT);
+        User other = fixtures.user(UserRole.STUDENT);
+        record(student, moved, 95);
+        record(student, stays, 60);
+        record(other, target, 80);
+        commit();
+
+        leaderboardService.updateMockExamLevel(moved.getId(), newLevel.toLowerCase());
+        commit();
+
+        LeaderboardDto oldBoard = leaderboardService.getLevelLeaderboard(oldLevel, student.getId(), 10);
+        assertEquals(1, oldBoard.getParticipants());
+        assertEquals(60, oldBoard.getMe().getScore());
+        assertEquals(List.of(student.getId(), other.getId()), userIds(newLevel));
+        assertEquals(95, leaderboardService.getLevelLeaderboard(newLevel, student.getId(), 10).getMe().getScore());
+    }
+
+    @Test
+    void removingTheLastMockExamOfALevelEmptiesItsBoard() {
+        String level = level();
+        MockExam mockExam = fixtures.mockExam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)), level);
+        record(fixtures.user(UserRole.STUDENT), mockExam, 75);
+        commit();
+        assertEquals(1, leaderboardService.getLevelLeaderboard(level, null, 10).getParticipants());
+
+        leaderboardService.updateMockExamLevel(mockExam.getId(), level);
+        commit();
+        assertEquals(1, leaderboardService.getLevelLeaderboard(level, null, 10).getParticipants());
+
+        leaderboardService.removeMockExam(mockExam.getId());
+        commit();
+        assertEquals(0, leaderboardService.getLevelLeaderboard(level, null, 10).getParticipants());
+    }
+
+    private void record(User user, MockExam mockExam, int score) {
+        MockExamAttempt attempt = fixtures.attempt(user, mockExam);
+        attempt.setScore(score);
+        attempt.setEndTime(attempt.getStartTime().plusMinutes(10));
+        leaderboardService.recordAttempt(attempt);
+    }
+
+    private List<Long> userIds(String level) {
+        return leaderboardService.getLevelLeaderboard(level, null, 10).getTop().stream()
+                .map(LeaderboardEntryDto::getUserId)
+                .toList();
+    }
+
+    // Replays every callback registered so far; offers only keep better entries, so replaying them is harmless
+    private static void commit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static String level() {
+        return "T" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
@@ -0,0 +1,114 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.repository.LearningHistoryRepository;
+import com.nihongo.learningplatform.service.LearningHistoryService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Partition DDL is transactional in PostgreSQL, so the partitions created and dropped here roll back
+// with the test. A month far in the past keeps clear of the partitions real data lives in.
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class LearningHistoryPartitionTest {
+
+    private static final LocalDate MONTH = LocalDate.of(1999, 1, 1);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LearningHistoryService learningHistoryService;
+
+    @Autowired
+    private LearningHistoryRepository learningHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void creatingAPartitionMovesItsRowsOutOfTheDefaultPartition() {
+        User user = fixtures.user(UserRole.STUDENT);
+        entityManager.flush();
+        insert(user, MONTH.atTime(10, 0));
+        insert(user, MONTH.plusMonths(1).atTime(10, 0));
+        assertEquals(2, count("learning_history_default", user));
+
+        assertEquals(1, ensurePartition(MONTH));
+        assertEquals(0, ensurePartition(MONTH));
+
+        assertEquals(1, count("learning_history_1999_01", user));
+        assertEquals(1, count("learning_history_default", user));
+        assertEquals(2, count("learning_history", user));
+    }
+
+    @Test
+    void ensurePartitionsCoversTheCurrentMonthAndTheMonthsAhead() {
+        learningHistoryRepository.ensurePartitions(2);
+
+        LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= 2; i++) {
+            assertNotNull(partition(thisMonth.plusMonths(i)));
+        }
+    }
+
+    @Test
+    void retentionDropsWholeMonthsAndTrimsTheBoundaryMonth() {
+        User user = fixtures.user(UserRole.STUDENT);
+        entityManager.flush();
+        ensurePartition(MONTH);
+        ensurePartition(MONTH.plusMonths(1));
+        insert(user, MONTH.atTime(10, 0));
+        insert(user, MONTH.plusMonths(1).plusDays(2).atTime(10, 0));
+        insert(user, MONTH.plusMonths(1).plusDays(20).atTime(10, 0));
+
+        learningHistoryService.deleteOldLearningHistories(MONTH.plusMonths(1).plusDays(10).atStartOfDay());
+
+        assertNull(partition(MONTH));
+        assertNotNull(partition(MONTH.plusMonths(1)));
+        List<Timestamp> left = jdbcTemplate.queryForList(
+                "SELECT \"timestamp\" FROM learning_history WHERE user_id = ?", Timestamp.class, user.getId());
+        assertEquals(List.of(Timestamp.valueOf(MONTH.plusMonths(1).plusDays(20).atTime(10, 0))), left);
+    }
+
+    private void insert(User user, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO learning_history (user_id, activity_type, \"timestamp\") VALUES (?, 'LOGIN', ?)",
+                user.getId(), Timestamp.valueOf(at));
+    }
+
+    private int ensurePartition(LocalDate month) {
+        return jdbcTemplate.queryForObject("SELECT learning_history_ensure_partition(CAST(? AS date))",
+                Integer.class, Date.valueOf(month));
+    }
+
+    private String partition(LocalDate month) {
+        return jdbcTemplate.queryForObject("SELECT CAST(to_regclass(?) AS text)", String.class,
+                String.format("learning_history_%d_%02d", month.getYear(), month.getMonthValue()));
+    }
+
+    private int count(String table, User user) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE user_id = ?",
+                Integer.class, user.getId());
+    }
+}
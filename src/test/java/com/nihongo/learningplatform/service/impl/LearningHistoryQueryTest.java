@@ -0,0 +1,91 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.LearningHistoryDto;
+import com.nihongo.learningplatform.entity.ActivityType;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.LearningHistoryService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class LearningHistoryQueryTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LearningHistoryService learningHistoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void failedExamsMatchOnlyExamRowsWithPassedFalseInsideTheWindow() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+
+        insert(user, course, ActivityType.EXAM_COMPLETED, now.minusDays(1), "{\"examId\": 1, \"score\": 30, \"passed\": false}");
+        insert(user, course, ActivityType.MOCK_EXAM_COMPLETED, now.minusDays(2), "{\"mockExamId\": 1, \"passed\": false}");
+        insert(user, course, ActivityType.EXAM_COMPLETED, now.minusDays(3), "{\"examId\": 2, \"score\": 90, \"passed\": true}");
+        insert(user, course, ActivityType.EXERCISE_COMPLETED, now.minusDays(1), "{\"exerciseId\": 1, \"passed\": false}");
+        insert(user, course, ActivityType.EXAM_COMPLETED, now.minusDays(40), "{\"examId\": 3, \"passed\": false}");
+        insert(fixtures.user(UserRole.STUDENT), course, ActivityType.EXAM_COMPLETED, now.minusDays(1),
+                "{\"examId\": 1, \"passed\": false}");
+
+        List<LearningHistoryDto> byUser = learningHistoryService.getFailedExamsByUser(user.getId(), 30);
+        assertEquals(List.of(ActivityType.EXAM_COMPLETED, ActivityType.MOCK_EXAM_COMPLETED),
+                byUser.stream().map(LearningHistoryDto::getActivityType).toList());
+        assertEquals(false, byUser.get(0).getDetails().get("passed"));
+
+        assertEquals(3, learningHistoryService.getFailedExamsByCourse(course.getId(), 30).size());
+    }
+
+    @Test
+    void lowScoreExercisesCompareTheScoreNumerically() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        entityManager.flush();
+        LocalDateTime now = LocalDateTime.now();
+
+        insert(user, course, ActivityType.EXERCISE_COMPLETED, now.minusDays(1), "{\"exerciseId\": 1, \"score\": 9}");
+        insert(user, course, ActivityType.EXERCISE_COMPLETED, now.minusDays(2), "{\"exerciseId\": 2, \"score\": 50}");
+        insert(user, course, ActivityType.EXERCISE_COMPLETED, now.minusDays(3), "{\"exerciseId\": 3, \"score\": 100}");
+        insert(user, course, ActivityType.EXERCISE_COMPLETED, now.minusDays(4), "{\"exerciseId\": 4}");
+        insert(user, course, ActivityType.EXAM_COMPLETED, now.minusDays(1), "{\"examId\": 1, \"score\": 10, \"passed\": false}");
+        insert(user, course, ActivityType.EXERCISE_COMPLETED, now.minusDays(40), "{\"exerciseId\": 5, \"score\": 5}");
+
+        // "9" < "50" as text but not as a number; 50 itself is not below 50
+        List<LearningHistoryDto> low = learningHistoryService.getLowScoreExercisesByUser(user.getId(), 50, 30);
+        assertEquals(List.of(9), low.stream().map(h -> h.getDetails().get("score")).toList());
+
+        assertEquals(2, learningHistoryService.getLowScoreExercisesByCourse(course.getId(), 60, 30).size());
+        assertEquals(0, learningHistoryService.getLowScoreExercisesByUser(user.getId(), 9, 30).size());
+    }
+
+    private void insert(User user, Course course, ActivityType type, LocalDateTime at, String details) {
+        jdbcTemplate.update("INSERT INTO learning_history (user_id, activity_type, \"timestamp\", course_id, details) " +
+                        "VALUES (?, ?, ?, ?, CAST(? AS jsonb))",
+                user.getId(), type.name(), Timestamp.valueOf(at), course.getId(), details);
+    }
+}
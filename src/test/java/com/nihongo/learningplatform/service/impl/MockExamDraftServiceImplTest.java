@@ -0,0 +1,169 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.entity.MockExamAttempt;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.repository.MockExamAttemptDraftRepository;
+import com.nihongo.learningplatform.repository.MockExamAttemptRepository;
+import com.nihongo.learningplatform.service.MockExamDeadlineService;
+import com.nihongo.learningplatform.service.MockExamDraftService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class MockExamDraftServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockExamDraftService mockExamDraftService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockExamAttemptRepository mockExamAttemptRepository;
+
+    @Autowired
+    private MockExamAttemptDraftRepository mockExamAttemptDraftRepository;
+
+    @Autowired
+    private MockExamDeadlineService mockExamDeadlineService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void savesMergeIntoTheDraftAndEmptySelectionsClearAQuestion() {
+        MockExamAttempt attempt = attempt();
+
+        mockExamDraftService.saveDraftAnswers(attempt.getId(), Map.of(1L, List.of(12L, 11L, 12L), 2L, List.of(21L)));
+        Map<Long, List<Long>> update = new HashMap<>();
+        update.put(2L, List.of());
+        update.put(3L, Arrays.asList(31L, null));
+        mockExamDraftService.saveDraftAnswers(attempt.getId(), update);
+
+        assertEquals(Map.of(1L, List.of(11L, 12L), 3L, List.of(31L)), mockExamDraftService.getDraftAnswers(attempt.getId()));
+        assertEquals(Set.of(1L, 2L, 3L), mockExamDraftService.getDraftTimeSpentSeconds(attempt.getId()).keySet());
+    }
+
+    @Test
+    void flushedDraftsSurviveARestart() {
+        MockExamAttempt attempt = attempt();
+        mockExamDraftService.saveDraftAnswers(attempt.getId(), Map.of(5L, List.of(51L, 52L)));
+
+        mockExamDraftService.flushDrafts();
+        assertEquals(1, mockExamAttemptDraftRepository.findJsonByAttemptId(attempt.getId()).size());
+
+        // A fresh instance has nothing in memory and must load the draft from the table
+        MockExamDraftService restarted = restartedService();
+        assertEquals(Map.of(5L, List.of(51L, 52L)), restarted.getDraftAnswers(attempt.getId()));
+        assertTrue(restarted.isDraftOwner(attempt.getId(), attempt.getUser().getId()));
+    }
+
+    @Test
+    void onlyTheOwnerOfAnExistingAttemptOwnsTheDraft() {
+        MockExamAttempt attempt = attempt();
+        User other = fixtures.user(UserRole.STUDENT);
+
+        assertTrue(mockExamDraftService.isDraftOwner(attempt.getId(), attempt.getUser().getId()));
+        assertFalse(mockExamDraftService.isDraftOwner(attempt.getId(), other.getId()));
+        assertFalse(mockExamDraftService.isDraftOwner(attempt.getId(), null));
+        assertThrows(ResourceNotFoundException.class, () -> mockExamDraftService.isDraftOwner(Long.MAX_VALUE, other.getId()));
+    }
+
+    @Test
+    void ownershipOfASubmittedAttemptCanStillBeChecked() {
+        MockExamAttempt attempt = attempt();
+        User other = fixtures.user(UserRole.STUDENT);
+        mockExamDraftService.saveDraftAnswers(attempt.getId(), Map.of(1L, List.of(11L)));
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE mock_exam_attempts SET end_time = now() WHERE id = ?", attempt.getId());
+        mockExamDraftService.discardDraft(attempt.getId());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // No draft is loaded for a closed attempt, yet a retried submit must get past the ownership check
+        assertTrue(mockExamDraftService.isDraftOwner(attempt.getId(), attempt.getUser().getId()));
+        assertFalse(mockExamDraftService.isDraftOwner(attempt.getId(), other.getId()));
+        assertThrows(BadRequestException.class,
+                () -> mockExamDraftService.saveDraftAnswers(attempt.getId(), Map.of(1L, List.of(11L))));
+    }
+
+    @Test
+    void submittedAndExpiredAttemptsRejectAutosaves() {
+        MockExamAttempt submitted = attempt();
+        mockExamDraftService.saveDraftAnswers(submitted.getId(), Map.of(1L, List.of(11L)));
+        mockExamDraftService.flushDrafts();
+        jdbcTemplate.update("UPDATE mock_exam_attempts SET end_time = now() WHERE id = ?", submitted.getId());
+        mockExamDraftService.discardDraft(submitted.getId());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertTrue(mockExamAttemptDraftRepository.findJsonByAttemptId(submitted.getId()).isEmpty());
+        assertThrows(BadRequestException.class,
+                () -> mockExamDraftService.saveDraftAnswers(submitted.getId(), Map.of(1L, List.of(12L))));
+
+        MockExamAttempt expired = attempt();
+        jdbcTemplate.update("UPDATE mock_exam_attempts SET deadline = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(1)), expired.getId());
+        assertThrows(BadRequestException.class,
+                () -> mockExamDraftService.saveDraftAnswers(expired.getId(), Map.of(1L, List.of(11L))));
+    }
+
+    @Test
+    void oversizedSelectionsAreRejected() {
+        MockExamAttempt attempt = attempt();
+        List<Long> tooMany = LongStream.rangeClosed(1, 21).boxed().toList();
+
+        assertThrows(BadRequestException.class,
+                () -> mockExamDraftService.saveDraftAnswers(attempt.getId(), Map.of(1L, tooMany)));
+    }
+
+    private MockExamAttempt attempt() {
+        User student = fixtures.user(UserRole.STUDENT);
+        MockExam mockExam = fixtures.mockExam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)), "N5");
+        MockExamAttempt attempt = fixtures.attempt(student, mockExam);
+        entityManager.flush();
+        return attempt;
+    }
+
+    private MockExamDraftService restartedService() {
+        return new MockExamDraftServiceImpl(jdbcTemplate, objectMapper, transactionManager, mockExamAttemptRepository,
+                mockExamAttemptDraftRepository, mockExamDeadlineService, 200, 1800000);
+    }
+}
@@ -0,0 +1,170 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.MockExamAttemptDto;
+import com.nihongo.learningplatform.dto.MockExamQuestionResultDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.entity.MockExamAttempt;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.service.MockExamDraftService;
+import com.nihongo.learningplatform.service.MockExamService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class MockExamServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockExamService mockExamService;
+
+    @Autowired
+    private MockExamDraftService mockExamDraftService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void submittingStoresTheAnswerSheetAndOneResultPerQuestion() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        MockExam mockExam = fixtures.mockExam(course, "N5");
+        Question right = fixtures.question(null, null, mockExam, 3);
+        Question wrong = fixtures.question(null, null, mockExam, 3);
+        Question skipped = fixtures.question(null, null, mockExam, 3);
+        MockExamAttempt attempt = fixtures.attempt(student, mockExam);
+        entityManager.flush();
+
+        Map<Long, List<Long>> answers = new HashMap<>();
+        answers.put(right.getId(), Arrays.asList(answerIds(right).get(0), null, answerIds(right).get(0)));
+        answers.put(wrong.getId(), List.of(answerIds(wrong).get(2), answerIds(wrong).get(1)));
+        MockExamAttemptDto submitted = mockExamService.submitMockExamAttempt(attempt.getId(), answers, LocalDateTime.now());
+        entityManager.flush();
+
+        assertEquals(33, submitted.getScore());
+        String sheet = jdbcTemplate.queryForObject(
+                "SELECT CAST(answers AS text) FROM mock_exam_attempts WHERE id = ?", String.class, attempt.getId());
+        assertEquals(String.format("{\"v\": 1, \"answers\": {\"%d\": [%d], \"%d\": [%d, %d]}}",
+                right.getId(), answerIds(right).get(0), wrong.getId(), answerIds(wrong).get(1), answerIds(wrong).get(2)),
+                sheet);
+
+        entityManager.clear();
+        List<MockExamQuestionResultDto> results = mockExamService.getMockExamAttemptResults(attempt.getId());
+        assertEquals(List.of(right.getId(), wrong.getId(), skipped.getId()),
+                results.stream().map(MockExamQuestionResultDto::getQuestionId).toList());
+        assertTrue(results.get(0).isCorrect());
+        assertFalse(results.get(1).isCorrect());
+        assertFalse(results.get(2).isCorrect());
+        assertEquals(List.of(), results.get(2).getSelectedAnswerIds());
+    }
+
+    @Test
+    void submittingWithoutABodyGradesTheDraft() {
+        User student = fixtures.user(UserRole.STUDENT);
+        MockExam mockExam = fixtures.mockExam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)), "N5");
+        Question question = fixtures.question(null, null, mockExam, 2);
+        MockExamAttempt attempt = fixtures.attempt(student, mockExam);
+        entityManager.flush();
+
+        mockExamDraftService.saveDraftAnswers(attempt.getId(), Map.of(question.getId(), List.of(answerIds(question).get(0))));
+        MockExamAttemptDto submitted = mockExamService.submitMockExamAttempt(attempt.getId(), null, LocalDateTime.now());
+
+        assertEquals(100, submitted.getScore());
+    }
+
+    @Test
+    void aQueuedSubmissionGetsTheResultOfAnAttemptTheDeadlineAlreadyClosed() {
+        User student = fixtures.user(UserRole.STUDENT);
+        MockExam mockExam = fixtures.mockExam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)), "N5");
+        Question question = fixtures.question(null, null, mockExam, 2);
+        MockExamAttempt attempt = fixtures.attempt(student, mockExam);
+        entityManager.flush();
+        Map<Long, List<Long>> answers = Map.of(question.getId(), List.of(answerIds(question).get(0)));
+
+        // Intake saves the answers as the draft, then the finalizer wins the race for the attempt
+        mockExamDraftService.saveDraftAnswers(attempt.getId(), answers);
+        MockExamAttemptDto finalized = mockExamService.finalizeExpiredAttempt(attempt.getId());
+        MockExamAttemptDto queued = mockExamService.submitQueuedMockExamAttempt(attempt.getId(), answers, LocalDateTime.now());
+
+        assertEquals(100, queued.getScore());
+        assertTrue(queued.getPassed());
+        assertEquals(finalized.getEndTime(), queued.getEndTime());
+        assertThrows(IllegalStateException.class,
+                () -> mockExamService.submitMockExamAttempt(attempt.getId(), answers, LocalDateTime.now()));
+    }
+
+    @Test
+    void aQueuedSubmissionOfAnOpenAttemptIsGraded() {
+        User student = fixtures.user(UserRole.STUDENT);
+        MockExam mockExam = fixtures.mockExam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)), "N5");
+        Question question = fixtures.question(null, null, mockExam, 2);
+        MockExamAttempt attempt = fixtures.attempt(student, mockExam);
+        entityManager.flush();
+
+        MockExamAttemptDto queued = mockExamService.submitQueuedMockExamAttempt(attempt.getId(),
+                Map.of(question.getId(), List.of(answerIds(question).get(1))), LocalDateTime.now());
+
+        assertEquals(0, queued.getScore());
+        assertFalse(queued.getPassed());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM mock_exam_question_results WHERE attempt_id = ?",
+                Integer.class, attempt.getId()));
+    }
+
+    @Test
+    void resultsAreOnlyAvailableOnceSubmitted() {
+        User student = fixtures.user(UserRole.STUDENT);
+        MockExam mockExam = fixtures.mockExam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)), "N5");
+        MockExamAttempt attempt = fixtures.attempt(student, mockExam);
+        entityManager.flush();
+
+        assertThrows(BadRequestException.class, () -> mockExamService.getMockExamAttemptResults(attempt.getId()));
+    }
+
+    @Test
+    void legacyAnswerTextIsConvertedOrReplacedWithAnEmptySheet() {
+        assertEquals("{\"v\": 1, \"answers\": {\"1\": [2, 3], \"4\": []}}", legacy("{1=[2, 3], 4=[]}"));
+        assertEquals("{\"v\": 1, \"answers\": {}}", legacy("{}"));
+        assertEquals("{\"v\": 1, \"answers\": {}}", legacy("{1=[2, 3]"));
+        assertEquals("{\"v\": 1, \"answers\": {}}", legacy("{a=[1]}"));
+        assertEquals("{\"v\": 1, \"answers\": {}}", legacy("{1=[2], }"));
+        assertNull(legacy("  "));
+        assertNull(legacy(null));
+    }
+
+    private List<Long> answerIds(Question question) {
+        return jdbcTemplate.queryForList("SELECT id FROM answers WHERE question_id = ? ORDER BY id",
+                Long.class, question.getId());
+    }
+
+    private String legacy(String text) {
+        return jdbcTemplate.queryForObject("SELECT CAST(mock_exam_legacy_answers(?) AS text)", String.class, text);
+    }
+}
@@ -0,0 +1,215 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.ProgressSyncItemDto;
+import com.nihongo.learningplatform.dto.ProgressSyncItemResultDto;
+import com.nihongo.learningplatform.dto.ProgressSyncResponseDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Enrollment;
+import com.nihongo.learningplatform.entity.Exercise;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.ProgressSyncItemType;
+import com.nihongo.learningplatform.entity.ProgressSyncStatus;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.history.LearningHistoryWriter;
+import com.nihongo.learningplatform.service.EnrollmentProgressService;
+import com.nihongo.learningplatform.service.ProgressSyncService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class ProgressSyncServiceImplTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ProgressSyncService progressSyncService;
+
+    @Autowired
+    private EnrollmentProgressService enrollmentProgressService;
+
+    @Autowired
+    private LearningHistoryWriter learningHistoryWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void itemsAreAppliedInClientOrderAndCountersRecounted() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Lesson lesson = fixtures.lesson(course);
+        Lesson other = fixtures.lesson(course);
+        Exercise exercise = fixtures.exercise(course);
+        Question first = fixtures.question(exercise, null, null, 2);
+        Question second = fixtures.question(exercise, null, null, 2);
+        Enrollment enrollment = fixtures.enrollment(student, course);
+        entityManager.flush();
+        enrollmentProgressService.initialize(enrollment.getId());
+
+        // Sent out of order: the lesson was completed, then marked as not completed
+        ProgressSyncResponseDto response = progressSyncService.syncProgress(student.getId(), true, List.of(
+                lesson("e3", lesson, false, T0.plusMinutes(2)),
+                lesson("e1", lesson, true, T0),
+                lesson("e2", other, true, T0.plusMinutes(1)),
+                exercise("e4", exercise, Map.of(first.getId(), right(first), second.getId(), wrong(second)),
+                        T0.plusMinutes(3)),
+                exercise("e5", exercise, Map.of(first.getId(), right(first), second.getId(), right(second)),
+                        T0.plusMinutes(4))));
+
+        assertEquals(5, response.getApplied());
+        assertEquals(List.of(false), completed(student, lesson));
+        assertEquals(List.of(true), completed(student, other));
+        assertEquals(100, jdbcTemplate.queryForObject(
+                "SELECT score FROM user_progress WHERE user_id = ? AND exercise_id = ?",
+                Integer.class, student.getId(), exercise.getId()));
+        assertEquals(1, response.getEnrollments().get(0).getRequiredLessonsCompleted());
+    }
+
+    @Test
+    void replayedAndRepeatedEventIdsAreSkipped() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Lesson lesson = fixtures.lesson(course);
+        Exercise exercise = fixtures.exercise(course);
+        Question first = fixtures.question(exercise, null, null, 2);
+        Question second = fixtures.question(exercise, null, null, 2);
+        fixtures.enrollment(student, course);
+        entityManager.flush();
+
+        progressSyncService.syncProgress(student.getId(), true, List.of(
+                exercise("e1", exercise, Map.of(first.getId(), right(first)), T0)));
+        ProgressSyncResponseDto response = progressSyncService.syncProgress(student.getId(), true, List.of(
+                exercise("e1", exercise, Map.of(first.getId(), right(first), second.getId(), right(second)), T0),
+                lesson("e2", lesson, true, T0.plusMinutes(1)),
+                lesson("e2", lesson, false, T0.plusMinutes(2))));
+
+        assertEquals(List.of(ProgressSyncStatus.DUPLICATE, ProgressSyncStatus.APPLIED, ProgressSyncStatus.DUPLICATE),
+                statuses(response));
+        assertEquals(1, response.getApplied());
+        assertEquals(2, response.getDuplicates());
+        assertEquals(List.of(true), completed(student, lesson));
+        assertEquals(50, jdbcTemplate.queryForObject(
+                "SELECT score FROM user_progress WHERE user_id = ? AND exercise_id = ?",
+                Integer.class, student.getId(), exercise.getId()));
+    }
+
+    @Test
+    void invalidUnknownAndUnentitledItemsAreRejectedIndividually() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course enrolled = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Course other = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Lesson lesson = fixtures.lesson(enrolled);
+        Lesson foreign = fixtures.lesson(other);
+        Exercise exercise = fixtures.exercise(enrolled);
+        fixtures.enrollment(student, enrolled);
+        entityManager.flush();
+
+        List<ProgressSyncItemDto> items = new ArrayList<>();
+        items.add(lesson("ok", lesson, true, T0));
+        items.add(lesson("foreign", foreign, true, T0));
+        items.add(new ProgressSyncItemDto("missing", ProgressSyncItemType.LESSON, Long.MAX_VALUE, true, null, T0));
+        items.add(new ProgressSyncItemDto("answers", ProgressSyncItemType.EXERCISE, exercise.getId(), null, null, T0));
+        items.add(new ProgressSyncItemDto(" ", ProgressSyncItemType.LESSON, lesson.getId(), true, null, T0));
+        items.add(null);
+        ProgressSyncResponseDto response = progressSyncService.syncProgress(student.getId(), true, items);
+
+        assertEquals(List.of(ProgressSyncStatus.APPLIED, ProgressSyncStatus.FORBIDDEN, ProgressSyncStatus.NOT_FOUND,
+                        ProgressSyncStatus.INVALID, ProgressSyncStatus.INVALID, ProgressSyncStatus.INVALID),
+                statuses(response));
+        assertEquals(5, response.getRejected());
+
+        // Staff skip the entitlement check
+        response = progressSyncService.syncProgress(student.getId(), false, List.of(lesson("staff", foreign, true, T0)));
+        assertEquals(List.of(ProgressSyncStatus.APPLIED), statuses(response));
+    }
+
+    @Test
+    void appliedCompletionsAreRecordedInLearningHistoryAfterCommit() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Lesson lesson = fixtures.lesson(course);
+        Lesson reopened = fixtures.lesson(course);
+        Exercise exercise = fixtures.exercise(course);
+        Question question = fixtures.question(exercise, null, null, 2);
+        fixtures.enrollment(student, course);
+        entityManager.flush();
+
+        long enqueuedBefore = learningHistoryWriter.getStats().getEnqueued();
+        progressSyncService.syncProgress(student.getId(), true, List.of(
+                lesson("e1", lesson, true, T0),
+                lesson("e2", reopened, false, T0),
+                exercise("e3", exercise, Map.of(question.getId(), wrong(question)), T0),
+                exercise("e3", exercise, Map.of(question.getId(), right(question)), T0)));
+        assertEquals(enqueuedBefore, learningHistoryWriter.getStats().getEnqueued());
+
+        // One lesson completion and one exercise; the lesson marked as not completed and the replay are not recorded
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(enqueuedBefore + 2, learningHistoryWriter.getStats().getEnqueued());
+    }
+
+    @Test
+    void emptyRequestsAreRejected() {
+        User student = fixtures.user(UserRole.STUDENT);
+
+        assertThrows(BadRequestException.class, () -> progressSyncService.syncProgress(student.getId(), true, List.of()));
+    }
+
+    private ProgressSyncItemDto lesson(String eventId, Lesson lesson, boolean completed, LocalDateTime at) {
+        return new ProgressSyncItemDto(eventId, ProgressSyncItemType.LESSON, lesson.getId(), completed, null, at);
+    }
+
+    private ProgressSyncItemDto exercise(String eventId, Exercise exercise, Map<Long, List<Long>> answers,
+                                         LocalDateTime at) {
+        return new ProgressSyncItemDto(eventId, ProgressSyncItemType.EXERCISE, exercise.getId(), null, answers, at);
+    }
+
+    // Fixture questions have two answers, the first of which is correct
+    private List<Long> right(Question question) {
+        return List.of(answerIds(question).get(0));
+    }
+
+    private List<Long> wrong(Question question) {
+        return List.of(answerIds(question).get(1));
+    }
+
+    private List<Long> answerIds(Question question) {
+        return jdbcTemplate.queryForList("SELECT id FROM answers WHERE question_id = ? ORDER BY id",
+                Long.class, question.getId());
+    }
+
+    private List<Boolean> completed(User user, Lesson lesson) {
+        return jdbcTemplate.queryForList("SELECT completed FROM user_progress WHERE user_id = ? AND lesson_id = ?",
+                Boolean.class, user.getId(), lesson.getId());
+    }
+
+    private List<ProgressSyncStatus> statuses(ProgressSyncResponseDto response) {
+        return response.getResults().stream().map(ProgressSyncItemResultDto::getStatus).toList();
+    }
+}
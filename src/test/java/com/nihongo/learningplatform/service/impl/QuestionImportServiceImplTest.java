@@ -0,0 +1,135 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.QuestionImportResultDto;
+import com.nihongo.learningplatform.entity.Exam;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.service.QuestionImportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class QuestionImportServiceImplTest {
+
+    private static final String HEADER = "content,type,answers,correct\r\n";
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private QuestionImportService questionImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void theContentTypeCharsetDecodesTheFile() {
+        Exam exam = exam();
+        Charset shiftJis = Charset.forName("Shift_JIS");
+        byte[] body = (HEADER + "\"「はい」の意味は?\",MULTIPLE_CHOICE,yes|no,1\r\n").getBytes(shiftJis);
+
+        QuestionImportResultDto result = questionImportService.importExamQuestions(exam.getId(),
+                "text/csv; charset=Shift_JIS", new ByteArrayInputStream(body));
+
+        assertTrue(result.isCompleted());
+        assertEquals(1, result.getImportedQuestions());
+        assertEquals(List.of("「はい」の意味は?"), jdbcTemplate.queryForList(
+                "SELECT content FROM questions WHERE exam_id = ?", String.class, exam.getId()));
+    }
+
+    @Test
+    void bytesInvalidInTheCharsetStopTheImportWithAnError() {
+        Exam exam = exam();
+        // Latin-1 bytes sent as UTF-8, after enough valid rows for the decoder to have read past a buffer
+        StringBuilder valid = new StringBuilder(HEADER);
+        for (int i = 0; i < 500; i++) {
+            valid.append("question ").append(i).append(",MULTIPLE_CHOICE,a|b,1\r\n");
+        }
+        InputStream body = new SequenceInputStream(
+                new ByteArrayInputStream(valid.toString().getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayInputStream("café,MULTIPLE_CHOICE,a|b,1\r\n".getBytes(StandardCharsets.ISO_8859_1)));
+
+        QuestionImportResultDto result = questionImportService.importExamQuestions(exam.getId(), "text/csv", body);
+
+        assertFalse(result.isCompleted());
+        String message = result.getErrors().get(result.getErrors().size() - 1).getMessage();
+        assertTrue(message.contains("not valid UTF-8"), message);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM questions WHERE exam_id = ? AND content LIKE ?",
+                Integer.class, exam.getId(), "%\uFFFD%"));
+    }
+
+    @Test
+    void anUnknownCharsetIsRejected() {
+        Exam exam = exam();
+
+        assertThrows(BadRequestException.class, () -> questionImportService.importExamQuestions(exam.getId(),
+                "text/csv; charset=no-such-charset", new ByteArrayInputStream(HEADER.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    // 50,000 rows streamed from a generated body: every row is imported in chunks, none is held back
+    @Test
+    void fiftyThousandRowsAreImported() {
+        Exam exam = exam();
+        int rows = 50_000;
+        InputStream body = new InputStream() {
+            private byte[] current = HEADER.getBytes(StandardCharsets.UTF_8);
+            private int position;
+            private int row;
+
+            @Override
+            public int read() {
+                if (position == current.length) {
+                    if (row == rows) {
+                        return -1;
+                    }
+                    row++;
+                    current = ("\"問題 " + row + ", \"\"quoted\"\"\nsecond line\",MULTIPLE_CHOICE,はい|いいえ|" + row + ",1\r\n")
+                            .getBytes(StandardCharsets.UTF_8);
+                    position = 0;
+                }
+                return current[position++] & 0xFF;
+            }
+        };
+
+        QuestionImportResultDto result = questionImportService.importExamQuestions(exam.getId(), "text/csv", body);
+
+        assertTrue(result.isCompleted());
+        assertEquals(rows, result.getRows());
+        assertEquals(rows, result.getImportedQuestions());
+        assertEquals(rows * 3, result.getImportedAnswers());
+        assertEquals(0, result.getRejectedRows());
+        assertEquals(rows, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM questions WHERE exam_id = ?", Integer.class, exam.getId()));
+        assertEquals("問題 50000, \"quoted\"\nsecond line", jdbcTemplate.queryForObject(
+                "SELECT content FROM questions WHERE exam_id = ? ORDER BY id DESC LIMIT 1", String.class, exam.getId()));
+    }
+
+    private Exam exam() {
+        Exam exam = fixtures.exam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)));
+        entityManager.flush();
+        return exam;
+    }
+}
@@ -0,0 +1,132 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.MockExamDto;
+import com.nihongo.learningplatform.dto.QuestionDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Exam;
+import com.nihongo.learningplatform.entity.MockExam;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.MockExamService;
+import com.nihongo.learningplatform.service.QuestionService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Loading an assessment's questions with their answers must cost the same number of statements
+// whatever the number of questions, i.e. no query per question or per answer collection
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class QuestionLoadingStatementCountTest {
+
+    private static final int ANSWERS = 3;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private QuestionService questionService;
+
+    @Autowired
+    private MockExamService mockExamService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private boolean statisticsWereEnabled;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statisticsWereEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void restoreStatistics() {
+        statistics.setStatisticsEnabled(statisticsWereEnabled);
+    }
+
+    @Test
+    void examQuestionsLoadInAConstantNumberOfStatements() {
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Exam small = exam(course, 2);
+        Exam large = exam(course, 30);
+
+        long smallCount = statements(() -> {
+            List<QuestionDto> questions = questionService.getQuestionsByExam(small.getId());
+            assertEquals(2 * ANSWERS, questions.stream().mapToInt(q -> q.getAnswers().size()).sum());
+            return questions.size();
+        });
+        long largeCount = statements(() -> {
+            List<QuestionDto> questions = questionService.getQuestionsByExam(large.getId());
+            assertEquals(30 * ANSWERS, questions.stream().mapToInt(q -> q.getAnswers().size()).sum());
+            return questions.size();
+        });
+
+        assertEquals(smallCount, largeCount);
+    }
+
+    @Test
+    void mockExamPaperLoadsInAConstantNumberOfStatements() {
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        MockExam small = mockExam(course, 2);
+        MockExam large = mockExam(course, 30);
+
+        long smallCount = statements(() -> answers(mockExamService.getMockExamById(small.getId())));
+        long largeCount = statements(() -> {
+            MockExamDto paper = mockExamService.getMockExamById(large.getId());
+            assertEquals(30, paper.getQuestions().size());
+            return answers(paper);
+        });
+
+        assertEquals(smallCount, largeCount);
+    }
+
+    private Exam exam(Course course, int questions) {
+        Exam exam = fixtures.exam(course);
+        for (int i = 0; i < questions; i++) {
+            fixtures.question(null, exam, null, ANSWERS);
+        }
+        return exam;
+    }
+
+    private MockExam mockExam(Course course, int questions) {
+        MockExam mockExam = fixtures.mockExam(course, "N5");
+        for (int i = 0; i < questions; i++) {
+            fixtures.question(null, null, mockExam, ANSWERS);
+        }
+        return mockExam;
+    }
+
+    private long answers(MockExamDto paper) {
+        return paper.getQuestions().stream().mapToInt(q -> q.getAnswers().size()).sum();
+    }
+
+    // Prepared statements issued by the load, starting from an empty persistence context
+    private long statements(LongSupplier load) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        load.getAsLong();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,130 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.ReviewAnswerDto;
+import com.nihongo.learningplatform.dto.ReviewCardDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Exam;
+import com.nihongo.learningplatform.entity.Question;
+import com.nihongo.learningplatform.entity.ReviewItemType;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.exception.BadRequestException;
+import com.nihongo.learningplatform.grading.AnswerKey;
+import com.nihongo.learningplatform.service.AnswerKeyService;
+import com.nihongo.learningplatform.service.ReviewScheduleService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class ReviewScheduleServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReviewScheduleService reviewScheduleService;
+
+    @Autowired
+    private AnswerKeyService answerKeyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void resultsOnlyAdvanceCardsThatAreDue() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Exam exam = fixtures.exam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)));
+        Question question = fixtures.question(null, exam, null, 3);
+        entityManager.flush();
+        AnswerKey answerKey = answerKeyService.getExamAnswerKey(exam.getId());
+
+        reviewScheduleService.recordQuestionResults(student.getId(), answerKey, answer(question, true));
+        Map<String, Object> first = card(student, question);
+        assertEquals(1, first.get("repetitions"));
+        assertEquals(1, first.get("interval_days"));
+
+        // Sitting the exam again the same day records the grade but keeps the schedule
+        reviewScheduleService.recordQuestionResults(student.getId(), answerKey, answer(question, false));
+        Map<String, Object> again = card(student, question);
+        assertEquals(1, again.get("repetitions"));
+        assertEquals(1, again.get("interval_days"));
+        assertEquals(0, again.get("lapses"));
+        assertEquals(first.get("due_at"), again.get("due_at"));
+        assertEquals(1, again.get("last_grade"));
+
+        jdbcTemplate.update("UPDATE review_cards SET due_at = ? WHERE user_id = ? AND question_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)), student.getId(), question.getId());
+        reviewScheduleService.recordQuestionResults(student.getId(), answerKey, answer(question, true));
+        Map<String, Object> due = card(student, question);
+        assertEquals(2, due.get("repetitions"));
+        assertEquals(6, due.get("interval_days"));
+        assertEquals(4, due.get("last_grade"));
+    }
+
+    @Test
+    void explicitReviewsAdvanceCardsBeforeTheyAreDue() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Exam exam = fixtures.exam(fixtures.course(fixtures.user(UserRole.INSTRUCTOR)));
+        Question question = fixtures.question(null, exam, null, 3);
+        entityManager.flush();
+        reviewScheduleService.recordQuestionResults(student.getId(), answerKeyService.getExamAnswerKey(exam.getId()),
+                answer(question, true));
+
+        List<ReviewCardDto> cards = reviewScheduleService.submitReviews(student.getId(),
+                List.of(new ReviewAnswerDto(ReviewItemType.QUESTION, question.getId(), 5, null)));
+
+        assertEquals(2, cards.get(0).getRepetitions());
+        assertEquals(6, cards.get(0).getIntervalDays());
+        assertTrue(cards.get(0).getDueAt().isAfter(LocalDateTime.now().plusDays(5)));
+    }
+
+    @Test
+    void gradesOutsideZeroToFiveAreRejected() {
+        User student = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Exam exam = fixtures.exam(course);
+        Question question = fixtures.question(null, exam, null, 3);
+        entityManager.flush();
+        reviewScheduleService.recordQuestionResults(student.getId(), answerKeyService.getExamAnswerKey(exam.getId()),
+                answer(question, true));
+
+        for (int grade : new int[]{-1, 6, 40}) {
+            assertThrows(BadRequestException.class, () -> reviewScheduleService.submitReviews(student.getId(),
+                    List.of(new ReviewAnswerDto(ReviewItemType.QUESTION, question.getId(), grade, null))));
+        }
+        assertEquals(1, card(student, question).get("repetitions"));
+        assertEquals(0, reviewScheduleService.submitReviews(student.getId(),
+                List.of(new ReviewAnswerDto(ReviewItemType.QUESTION, question.getId(), 0, null))).get(0).getRepetitions());
+    }
+
+    private Map<Long, List<Long>> answer(Question question, boolean correct) {
+        List<Long> answerIds = jdbcTemplate.queryForList("SELECT id FROM answers WHERE question_id = ? ORDER BY id",
+                Long.class, question.getId());
+        return Map.of(question.getId(), List.of(answerIds.get(correct ? 0 : 1)));
+    }
+
+    private Map<String, Object> card(User user, Question question) {
+        return jdbcTemplate.queryForMap("SELECT interval_days, repetitions, lapses, due_at, last_grade " +
+                "FROM review_cards WHERE user_id = ? AND question_id = ?", user.getId(), question.getId());
+    }
+}
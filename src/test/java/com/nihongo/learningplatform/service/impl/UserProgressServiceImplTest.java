@@ -0,0 +1,73 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.dto.UserProgressDto;
+import com.nihongo.learningplatform.entity.Course;
+import com.nihongo.learningplatform.entity.Exercise;
+import com.nihongo.learningplatform.entity.Lesson;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.exception.ResourceNotFoundException;
+import com.nihongo.learningplatform.service.UserProgressService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class UserProgressServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserProgressService userProgressService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void repeatedWritesUpdateTheSameRowAndKeepTheBestScore() {
+        User user = fixtures.user(UserRole.STUDENT);
+        Course course = fixtures.course(fixtures.user(UserRole.INSTRUCTOR));
+        Lesson lesson = fixtures.lesson(course);
+        Exercise exercise = fixtures.exercise(course);
+        entityManager.flush();
+
+        UserProgressDto done = userProgressService.createOrUpdateLessonProgress(user.getId(), lesson.getId(), true);
+        UserProgressDto undone = userProgressService.createOrUpdateLessonProgress(user.getId(), lesson.getId(), false);
+        assertEquals(done.getId(), undone.getId());
+        assertFalse(undone.isCompleted());
+
+        userProgressService.createOrUpdateExerciseProgress(user.getId(), exercise.getId(), 80);
+        UserProgressDto retry = userProgressService.createOrUpdateExerciseProgress(user.getId(), exercise.getId(), 40);
+        assertEquals(80, retry.getScore());
+        assertTrue(retry.isCompleted());
+        assertEquals(2, userProgressService.getUserProgressByUser(user.getId()).size());
+    }
+
+    @Test
+    void missingTargetsAreNotFoundRatherThanConstraintViolations() {
+        User user = fixtures.user(UserRole.STUDENT);
+        entityManager.flush();
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> userProgressService.createOrUpdateLessonProgress(user.getId(), Long.MAX_VALUE, true));
+        assertThrows(ResourceNotFoundException.class,
+                () -> userProgressService.createOrUpdateExerciseProgress(user.getId(), Long.MAX_VALUE, 50));
+        assertThrows(ResourceNotFoundException.class,
+                () -> userProgressService.createOrUpdateExamProgress(user.getId(), Long.MAX_VALUE, 50));
+        assertThrows(ResourceNotFoundException.class,
+                () -> userProgressService.createOrUpdateSpeechExerciseProgress(
+                        user.getId(), Long.MAX_VALUE, "https://example.com/a.mp3", 0.5f));
+    }
+}
@@ -0,0 +1,79 @@
+package com.nihongo.learningplatform.service.impl;
+
+import com.nihongo.learningplatform.TestFixtures;
+import com.nihongo.learningplatform.entity.User;
+import com.nihongo.learningplatform.entity.UserRole;
+import com.nihongo.learningplatform.service.UserService;
+import com.nihongo.learningplatform.service.UserStatusService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@Import(TestFixtures.class)
+class UserStatusServiceImplTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private UserStatusService userStatusService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void activeUsersWithTheirTokenRoleAreAllowed() {
+        User user = fixtures.user(UserRole.STUDENT);
+
+        assertTrue(userStatusService.isAllowed(user.getId(), user.getUsername(), UserRole.STUDENT));
+        assertTrue(userStatusService.isAllowed(null, user.getUsername(), UserRole.STUDENT));
+    }
+
+    @Test
+    void blockedDeactivatedAndUnknownUsersAreRejected() {
+        User blocked = fixtures.user(UserRole.STUDENT);
+        blocked.setBlocked(true);
+        User inactive = fixtures.user(UserRole.STUDENT);
+        inactive.setActive(false);
+        entityManager.flush();
+
+        assertFalse(userStatusService.isAllowed(blocked.getId(), blocked.getUsername(), UserRole.STUDENT));
+        assertFalse(userStatusService.isAllowed(inactive.getId(), inactive.getUsername(), UserRole.STUDENT));
+        assertFalse(userStatusService.isAllowed(null, inactive.getUsername(), UserRole.STUDENT));
+        assertFalse(userStatusService.isAllowed(Long.MAX_VALUE, "no-such-user", UserRole.STUDENT));
+    }
+
+    @Test
+    void tokensIssuedForAnotherRoleAreRejected() {
+        User user = fixtures.user(UserRole.STUDENT);
+
+        assertFalse(userStatusService.isAllowed(user.getId(), user.getUsername(), UserRole.ADMIN));
+    }
+
+    @Test
+    void blockingDropsTheCachedStatusOnceItCommits() {
+        User user = fixtures.user(UserRole.STUDENT);
+        assertTrue(userStatusService.isAllowed(user.getId(), user.getUsername(), UserRole.STUDENT));
+
+        userService.blockUser(user.getId());
+        entityManager.flush();
+        // Still cached until the block commits
+        assertTrue(userStatusService.isAllowed(user.getId(), user.getUsername(), UserRole.STUDENT));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertFalse(userStatusService.isAllowed(user.getId(), user.getUsername(), UserRole.STUDENT));
+    }
+}